@@ -0,0 +1,83 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek;
+
+import java.io.File;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.DatumBenchmark;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammServiceImplBenchmark;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandServiceImplBenchmark;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz.MedienEinleserBenchmark;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.VerleihServiceImplBenchmark;
+import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.TableModelBenchmark;
+
+/**
+ * Führt die Benchmarks der häufigsten Operationen der Mediathek über einem
+ * gemeinsamen {@link Testbestand} aus: Ausleihe und Rücknahme, Anfragen je
+ * Kunde, Suche im Kundenstamm und im Medienbestand, das Einlesen der Medien,
+ * die Datumsberechnung und das Sortieren der Tabellen.
+ *
+ * Aufruf: MediathekBenchmark [anzahlMedien] [-basis datei] [-ergebnis datei]
+ *
+ * Mit -ergebnis werden die Ergebnisse in eine Datei geschrieben. Wird diese
+ * bei einem späteren Lauf mit -basis angegeben, wird zu jedem Messpunkt die
+ * Veränderung in Prozent ausgegeben. Verglichen werden nur Läufe mit
+ * derselben Anzahl Medien, da sie Teil der Namen der Messpunkte ist.
+ *
+ * Der Benchmark sollte ohne -ea gestartet werden, für 1.000.000 Medien mit
+ * -Xmx2g.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class MediathekBenchmark
+{
+    private static final long STARTWERT = 42;
+
+    private static final int DATUMSOPERATIONEN = 1000000;
+
+    /**
+     * Startet den Benchmark.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int anzahlMedien = Testbestand.STANDARDGROESSE;
+        File basis = null;
+        File ergebnis = null;
+        for (int i = 0; i < args.length; i++)
+        {
+            if (args[i].equals("-basis") && i + 1 < args.length)
+            {
+                basis = new File(args[++i]);
+            }
+            else if (args[i].equals("-ergebnis") && i + 1 < args.length)
+            {
+                ergebnis = new File(args[++i]);
+            }
+            else
+            {
+                anzahlMedien = Integer.parseInt(args[i]);
+            }
+        }
+
+        Messreihe reihe = new Messreihe();
+        if (basis != null)
+        {
+            reihe.ladeBasis(basis);
+        }
+        Testbestand bestand = new Testbestand(anzahlMedien, STARTWERT);
+        System.out.println(bestand.getMedien().size() + " Medien, "
+                + bestand.getKunden().size() + " Kunden, "
+                + bestand.getVerleihkarten().size() + " Verleihkarten");
+
+        VerleihServiceImplBenchmark.messe(reihe, bestand);
+        KundenstammServiceImplBenchmark.messe(reihe, bestand);
+        MedienbestandServiceImplBenchmark.messe(reihe, bestand);
+        MedienEinleserBenchmark.messe(reihe, bestand);
+        DatumBenchmark.messe(reihe, DATUMSOPERATIONEN);
+        TableModelBenchmark.messe(reihe, bestand);
+
+        if (ergebnis != null)
+        {
+            reihe.schreibe(ergebnis);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek;
+
+/**
+ * Eine Aufgabe, deren Dauer eine {@link Messreihe} misst. Ein Aufruf führt
+ * alle Operationen einer Messrunde aus.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public interface Messaufgabe
+{
+    /**
+     * Führt die Operationen einer Messrunde aus.
+     *
+     * @return Ein aus den Ergebnissen berechneter Wert, damit der
+     *         JIT-Compiler die Operationen nicht wegoptimiert.
+     */
+    long fuehreAus() throws Exception;
+}
@@ -0,0 +1,165 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Misst eine Reihe von {@link Messaufgabe}n und vergleicht sie mit einer
+ * früher geschriebenen Reihe, der Basis.
+ *
+ * Jede Aufgabe wird zuerst {@link #AUFWAERMRUNDEN} Mal ausgeführt, damit der
+ * JIT-Compiler sie übersetzt, und dann {@link #MESSRUNDEN} Mal gemessen.
+ * Ergebnis ist der Median der Messrunden in Nanosekunden pro Operation. Er
+ * schwankt weniger als der Mittelwert, wenn einzelne Runden von der
+ * Speicherbereinigung unterbrochen werden.
+ *
+ * Die Ergebnisse werden als Zeilen "Name;Nanosekunden" gespeichert.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class Messreihe
+{
+    public static final int AUFWAERMRUNDEN = 3;
+
+    public static final int MESSRUNDEN = 5;
+
+    private static final String ZEICHENSATZ = "UTF-8";
+
+    // Verhindert, dass der JIT-Compiler die Aufgaben wegoptimiert.
+    private static volatile long _senke;
+
+    /**
+     * Die Nanosekunden pro Operation je Messpunkt, in der Reihenfolge der
+     * Messung.
+     */
+    private final Map<String, Double> _ergebnisse;
+
+    /**
+     * Die Ergebnisse der Basis, mit der verglichen wird.
+     */
+    private final Map<String, Double> _basis;
+
+    /**
+     * Initialisiert eine leere Messreihe ohne Basis.
+     */
+    public Messreihe()
+    {
+        _ergebnisse = new LinkedHashMap<String, Double>();
+        _basis = new LinkedHashMap<String, Double>();
+    }
+
+    /**
+     * Lädt eine früher geschriebene Messreihe, mit der die folgenden
+     * Messungen verglichen werden.
+     *
+     * @require basisDatei != null
+     */
+    public void ladeBasis(File basisDatei) throws IOException
+    {
+        assert basisDatei != null : "Vorbedingung verletzt: basisDatei != null";
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(basisDatei), ZEICHENSATZ));
+        try
+        {
+            String zeile;
+            while ((zeile = reader.readLine()) != null)
+            {
+                int trenner = zeile.lastIndexOf(';');
+                if (trenner > 0)
+                {
+                    _basis.put(zeile.substring(0, trenner),
+                            Double.valueOf(zeile.substring(trenner + 1)));
+                }
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    /**
+     * Misst die Aufgabe und gibt das Ergebnis, falls vorhanden mit der
+     * Veränderung gegenüber der Basis, auf der Konsole aus.
+     *
+     * @param name
+     *            Der eindeutige Name des Messpunkts.
+     * @param operationen
+     *            Wie viele Operationen ein Aufruf der Aufgabe ausführt.
+     * @param aufgabe
+     *            Die zu messende Aufgabe.
+     *
+     * @require name != null && name.indexOf('\n') < 0
+     * @require operationen > 0
+     * @require aufgabe != null
+     */
+    public void messe(String name, int operationen, Messaufgabe aufgabe)
+            throws Exception
+    {
+        assert name != null && name.indexOf('\n') < 0 : "Vorbedingung verletzt: name != null && name.indexOf('\\n') < 0";
+        assert operationen > 0 : "Vorbedingung verletzt: operationen > 0";
+        assert aufgabe != null : "Vorbedingung verletzt: aufgabe != null";
+        for (int i = 0; i < AUFWAERMRUNDEN; i++)
+        {
+            _senke += aufgabe.fuehreAus();
+        }
+        long[] dauern = new long[MESSRUNDEN];
+        for (int i = 0; i < MESSRUNDEN; i++)
+        {
+            long start = System.nanoTime();
+            _senke += aufgabe.fuehreAus();
+            dauern[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(dauern);
+        double nanosProOperation = (double) dauern[MESSRUNDEN / 2]
+                / operationen;
+        _ergebnisse.put(name, nanosProOperation);
+
+        StringBuilder zeile = new StringBuilder();
+        zeile.append(String.format("%-55s %12.1f ns/op", name,
+                nanosProOperation));
+        Double basis = _basis.get(name);
+        if (basis != null)
+        {
+            zeile.append(String.format("  %+7.1f %%", 100.0
+                    * (nanosProOperation - basis) / basis));
+        }
+        System.out.println(zeile);
+    }
+
+    /**
+     * Schreibt die bisher gemessenen Ergebnisse in die Datei, damit spätere
+     * Messungen sie als Basis laden können.
+     *
+     * @require datei != null
+     */
+    public void schreibe(File datei) throws IOException
+    {
+        assert datei != null : "Vorbedingung verletzt: datei != null";
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(datei), ZEICHENSATZ));
+        try
+        {
+            for (Map.Entry<String, Double> ergebnis : _ergebnisse.entrySet())
+            {
+                writer.write(ergebnis.getKey() + ";" + ergebnis.getValue()
+                        + "\n");
+            }
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+}
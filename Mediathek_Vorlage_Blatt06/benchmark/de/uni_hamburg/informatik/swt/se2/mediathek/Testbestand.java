@@ -0,0 +1,153 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.PLZ;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.DVD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.KonsolenVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.PCVideospiel;
+
+/**
+ * Ein künstlicher Bestand für die Benchmarks: Kunden, Medien aller vier Arten
+ * und Verleihkarten für einen Teil der Medien. Seine Größe wird über die
+ * Anzahl der Medien festgelegt, bei gleicher Größe und gleichem Startwert
+ * entsteht immer derselbe Bestand.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class Testbestand
+{
+    /**
+     * Die Anzahl der Medien, wenn keine angegeben wird.
+     */
+    public static final int STANDARDGROESSE = 100000;
+
+    // Auf so viele Medien kommt ein Kunde.
+    private static final int MEDIEN_PRO_KUNDE = 10;
+
+    // Jedes so vielte Medium ist verliehen.
+    private static final int JEDES_VERLIEHENE = 4;
+
+    private final List<Kunde> _kunden;
+    private final List<Medium> _medien;
+    private final List<Verleihkarte> _verleihkarten;
+    private final List<Medium> _nichtVerlieheneMedien;
+
+    /**
+     * Erzeugt einen Bestand mit der angegebenen Anzahl Medien.
+     *
+     * @param anzahlMedien
+     *            Die Anzahl der Medien.
+     * @param startwert
+     *            Der Startwert für die Zufallszahlen.
+     *
+     * @require anzahlMedien >= JEDES_VERLIEHENE
+     */
+    public Testbestand(int anzahlMedien, long startwert)
+    {
+        assert anzahlMedien >= JEDES_VERLIEHENE : "Vorbedingung verletzt: anzahlMedien >= JEDES_VERLIEHENE";
+        Random random = new Random(startwert);
+
+        int anzahlKunden = Math.max(1, anzahlMedien / MEDIEN_PRO_KUNDE);
+        _kunden = new ArrayList<Kunde>(anzahlKunden);
+        for (int i = 0; i < anzahlKunden; i++)
+        {
+            Kunde kunde = new Kunde(new Kundennummer(100000 + i), "Vorname"
+                    + i, "Nachname" + random.nextInt(anzahlKunden));
+            kunde.setStrasse("Straße " + (1 + random.nextInt(200)));
+            kunde.setPLZ(new PLZ(String.valueOf(20000 + random.nextInt(80000))));
+            kunde.setWohnort("Hamburg");
+            _kunden.add(kunde);
+        }
+
+        _medien = new ArrayList<Medium>(anzahlMedien);
+        _verleihkarten = new ArrayList<Verleihkarte>();
+        _nichtVerlieheneMedien = new ArrayList<Medium>();
+        Datum stichtag = new Datum(1, 4, 2012);
+        for (int i = 0; i < anzahlMedien; i++)
+        {
+            Medium medium = erzeugeMedium(i, random);
+            _medien.add(medium);
+            if (i % JEDES_VERLIEHENE == 0)
+            {
+                _verleihkarten.add(new Verleihkarte(_kunden.get(random
+                        .nextInt(anzahlKunden)), medium, stichtag.minus(random
+                        .nextInt(60))));
+            }
+            else
+            {
+                _nichtVerlieheneMedien.add(medium);
+            }
+        }
+    }
+
+    /**
+     * Liest die Anzahl der Medien aus dem ersten Aufrufparameter, oder gibt
+     * {@link #STANDARDGROESSE} zurück.
+     */
+    public static int leseGroesse(String[] args)
+    {
+        return args.length > 0 ? Integer.parseInt(args[0]) : STANDARDGROESSE;
+    }
+
+    /**
+     * Gibt alle Kunden zurück.
+     */
+    public List<Kunde> getKunden()
+    {
+        return Collections.unmodifiableList(_kunden);
+    }
+
+    /**
+     * Gibt alle Medien zurück.
+     */
+    public List<Medium> getMedien()
+    {
+        return Collections.unmodifiableList(_medien);
+    }
+
+    /**
+     * Gibt die Verleihkarten der verliehenen Medien zurück.
+     */
+    public List<Verleihkarte> getVerleihkarten()
+    {
+        return Collections.unmodifiableList(_verleihkarten);
+    }
+
+    /**
+     * Gibt die Medien zurück, für die es keine Verleihkarte gibt.
+     */
+    public List<Medium> getNichtVerlieheneMedien()
+    {
+        return Collections.unmodifiableList(_nichtVerlieheneMedien);
+    }
+
+    private static Medium erzeugeMedium(int nummer, Random random)
+    {
+        switch (nummer % 4)
+        {
+        case 0:
+            return new CD("Album " + nummer, "Kommentar", "Interpret "
+                    + random.nextInt(1000), 30 + random.nextInt(50));
+        case 1:
+            return new DVD("Film " + nummer, "Kommentar", "Regisseur "
+                    + random.nextInt(1000), 80 + random.nextInt(100));
+        case 2:
+            return new KonsolenVideospiel("Spiel " + nummer, "Kommentar",
+                    "Wii");
+        default:
+            return new PCVideospiel("PC-Spiel " + nummer, "Kommentar",
+                    "Windows");
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.Messaufgabe;
+import de.uni_hamburg.informatik.swt.se2.mediathek.Messreihe;
+
+/**
+ * Vergleicht die Datumsberechnung von {@link Datum} mit der früheren
+ * Berechnung über ein gemeinsames, synchronisiertes {@link Calendar}-Exemplar.
+ * Jeder Thread prüft ein Datum, rechnet einige Tage weiter und bestimmt den
+ * Abstand in Tagen, wie es bei Gebührenberechnung und Einlesen geschieht.
+ *
+ * Aufruf: DatumBenchmark [operationenProThread]
+ *
+ * Der Benchmark wird mit 1, 2, 4, ... Threads bis zur Anzahl der Prozessoren
+ * ausgeführt und sollte ohne -ea gestartet werden.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class DatumBenchmark
+{
+    private static final int DURCHLAEUFE = 3;
+
+    // Verhindert, dass der JIT-Compiler die Berechnungen wegoptimiert.
+    private static volatile long _senke;
+
+    /**
+     * Startet den Benchmark.
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        int operationen = args.length > 0 ? Integer.parseInt(args[0])
+                : 1000000;
+        int prozessoren = Runtime.getRuntime().availableProcessors();
+
+        for (int threads = 1; threads <= prozessoren; threads *= 2)
+        {
+            long epochenTag = messe(false, threads, operationen);
+            long calendar = messe(true, threads, operationen);
+            System.out.println(threads + " Threads: Datum "
+                    + (operationen * threads / Math.max(1, epochenTag / 1000))
+                    + " Op/ms, Calendar "
+                    + (operationen * threads / Math.max(1, calendar / 1000))
+                    + " Op/ms");
+        }
+    }
+
+    /**
+     * Misst die Datumsberechnung in einem Thread für die Messreihe.
+     *
+     * @require reihe != null
+     * @require operationen > 0
+     */
+    public static void messe(Messreihe reihe, final int operationen)
+            throws Exception
+    {
+        reihe.messe("Datum.plus+tageSeit", operationen, new Messaufgabe()
+        {
+            @Override
+            public long fuehreAus()
+            {
+                return rechneMitDatum(0, operationen);
+            }
+        });
+    }
+
+    /**
+     * Misst die schnellste von {@link #DURCHLAEUFE} Ausführungen in
+     * Mikrosekunden.
+     */
+    private static long messe(final boolean calendar, int threads,
+            final int operationen) throws InterruptedException
+    {
+        long beste = Long.MAX_VALUE;
+        for (int durchlauf = 0; durchlauf < DURCHLAEUFE; durchlauf++)
+        {
+            final CountDownLatch start = new CountDownLatch(1);
+            final CountDownLatch fertig = new CountDownLatch(threads);
+            for (int i = 0; i < threads; i++)
+            {
+                final int versatz = i;
+                new Thread(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            start.await();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            return;
+                        }
+                        _senke += calendar ? rechneMitCalendar(versatz,
+                                operationen) : rechneMitDatum(versatz,
+                                operationen);
+                        fertig.countDown();
+                    }
+                }).start();
+            }
+            long beginn = System.nanoTime();
+            start.countDown();
+            fertig.await();
+            beste = Math.min(beste, (System.nanoTime() - beginn) / 1000);
+        }
+        return beste;
+    }
+
+    private static long rechneMitDatum(int versatz, int operationen)
+    {
+        long summe = 0;
+        for (int i = 0; i < operationen; i++)
+        {
+            int tag = 1 + (i + versatz) % 28;
+            int monat = 1 + i % 12;
+            if (Datum.istGueltig(tag, monat, 2012))
+            {
+                Datum ausleihe = new Datum(tag, monat, 2012);
+                summe += ausleihe.plus(i % 60).tageSeit(ausleihe);
+            }
+        }
+        return summe;
+    }
+
+    private static long rechneMitCalendar(int versatz, int operationen)
+    {
+        long summe = 0;
+        for (int i = 0; i < operationen; i++)
+        {
+            int tag = 1 + (i + versatz) % 28;
+            int monat = 1 + i % 12;
+            if (CalendarDatum.istGueltig(tag, monat, 2012))
+            {
+                long ausleihe = CalendarDatum.inMillisekunden(tag, monat, 2012);
+                long rueckgabe = CalendarDatum.plus(tag, monat, 2012, i % 60);
+                summe += (rueckgabe - ausleihe) / CalendarDatum.MILLISEKUNDEN_PRO_TAG;
+            }
+        }
+        return summe;
+    }
+
+    /**
+     * Die frühere Berechnung von {@link Datum} über ein gemeinsames
+     * {@link Calendar}-Exemplar, als Vergleichsgrundlage.
+     */
+    private static final class CalendarDatum
+    {
+        static final long MILLISEKUNDEN_PRO_TAG = 1000 * 60 * 60 * 24;
+
+        private static final Calendar CALENDAR = Calendar.getInstance();
+
+        static
+        {
+            CALENDAR.setLenient(false);
+            CALENDAR.setTimeZone(TimeZone.getTimeZone("GMT"));
+        }
+
+        static boolean istGueltig(int tag, int monat, int jahr)
+        {
+            synchronized (CALENDAR)
+            {
+                CALENDAR.clear();
+                CALENDAR.set(Calendar.YEAR, jahr);
+                CALENDAR.set(Calendar.MONTH, monat - 1);
+                return (tag >= 1)
+                        && (tag <= CALENDAR
+                                .getActualMaximum(Calendar.DAY_OF_MONTH));
+            }
+        }
+
+        static long plus(int tag, int monat, int jahr, int tage)
+        {
+            synchronized (CALENDAR)
+            {
+                CALENDAR.clear();
+                CALENDAR.set(jahr, monat - 1, tag);
+                CALENDAR.add(Calendar.DAY_OF_MONTH, tage);
+                return CALENDAR.getTimeInMillis();
+            }
+        }
+
+        static long inMillisekunden(int tag, int monat, int jahr)
+        {
+            synchronized (CALENDAR)
+            {
+                CALENDAR.clear();
+                CALENDAR.set(jahr, monat - 1, tag);
+                return CALENDAR.getTimeInMillis();
+            }
+        }
+    }
+}
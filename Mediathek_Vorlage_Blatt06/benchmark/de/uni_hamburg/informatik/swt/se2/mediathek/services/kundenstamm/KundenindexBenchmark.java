@@ -0,0 +1,152 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.PLZ;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+
+/**
+ * Misst Aufbau, Suchzeiten und Aktualisierung des {@link Kundenindex} über
+ * einem Kundenstamm der angegebenen Größe. Namen und Orte werden mit festem
+ * Startwert aus Silben gebildet, Telefonnummern sind zufällig.
+ * 
+ * Aufruf: KundenindexBenchmark [anzahlKunden [anzahlAnfragen]]
+ * 
+ * Für 2.000.000 Kunden (Standard) sollte der Benchmark mit -Xmx4g und ohne
+ * -ea gestartet werden.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class KundenindexBenchmark
+{
+    private static final String[] SILBEN = { "an", "be", "bi", "da", "de",
+            "di", "el", "en", "er", "ha", "he", "ka", "ki", "la", "le", "li",
+            "ma", "me", "mi", "na", "ne", "ni", "ra", "re", "ri", "sa", "se",
+            "ta", "te", "to" };
+
+    /**
+     * Startet den Benchmark.
+     */
+    public static void main(String[] args)
+    {
+        int anzahlKunden = args.length > 0 ? Integer.parseInt(args[0])
+                : 2000000;
+        int anzahlAnfragen = args.length > 1 ? Integer.parseInt(args[1])
+                : 10000;
+
+        Random random = new Random(42);
+        String[] vornamen = erzeugeNamen(random, 2000, 2);
+        String[] nachnamen = erzeugeNamen(random, 50000, 3);
+        String[] orte = erzeugeNamen(random, 5000, 3);
+        List<Kunde> kunden = new ArrayList<Kunde>(anzahlKunden);
+        for (int i = 0; i < anzahlKunden; i++)
+        {
+            kunden.add(erzeugeKunde(random, 100000 + i, vornamen, nachnamen,
+                    orte));
+        }
+        KundenstammServiceImpl kundenstamm = new KundenstammServiceImpl(kunden);
+
+        long start = System.nanoTime();
+        Kundenindex index = new Kundenindex(kundenstamm);
+        System.out.println(anzahlKunden + " Kunden, Aufbau des Index: "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+
+        String[][] anfragen = new String[5][anzahlAnfragen];
+        for (int i = 0; i < anzahlAnfragen; i++)
+        {
+            Kunde kunde = kunden.get(random.nextInt(anzahlKunden));
+            String nachname = kunde.getNachname().toLowerCase();
+            anfragen[0][i] = nachname;
+            anfragen[1][i] = nachname.substring(0, 3);
+            anfragen[2][i] = vertippe(random, nachname);
+            anfragen[3][i] = kunde.getVorname().toLowerCase().substring(0, 2)
+                    + " " + nachname.substring(0, 4);
+            anfragen[4][i] = kunde.getTelefonnummer().substring(0, 6);
+        }
+        String[] arten = { "Nachname", "Präfix (3)", "Tippfehler",
+                "Vorname und Nachname", "Telefonnummer" };
+        for (int art = 0; art < arten.length; art++)
+        {
+            miss(index, anfragen[art]);
+        }
+        for (int art = 0; art < arten.length; art++)
+        {
+            berichte(arten[art], miss(index, anfragen[art]));
+        }
+
+        int aenderungen = Math.min(anzahlKunden, 10000);
+        start = System.nanoTime();
+        for (int i = 0; i < aenderungen; i++)
+        {
+            kundenstamm.fuegeKundenEin(erzeugeKunde(random, 900000 + i
+                    % 100000, vornamen, nachnamen, orte));
+            kundenstamm.entferneKunden(kunden.get(i));
+        }
+        System.out.println("  " + aenderungen
+                + " Kunden eingefügt und entfernt: "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+        index.beende();
+    }
+
+    private static long[] miss(Kundenindex index, String[] anfragen)
+    {
+        long[] zeiten = new long[anfragen.length];
+        for (int i = 0; i < anfragen.length; i++)
+        {
+            long start = System.nanoTime();
+            index.suche(anfragen[i], 10);
+            zeiten[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(zeiten);
+        return zeiten;
+    }
+
+    private static void berichte(String art, long[] zeiten)
+    {
+        System.out.println("  " + art + ": Median "
+                + zeiten[zeiten.length / 2] / 1000 + " µs, 99% "
+                + zeiten[(int) (zeiten.length * 0.99)] / 1000 + " µs");
+    }
+
+    private static String vertippe(Random random, String wort)
+    {
+        int stelle = 1 + random.nextInt(wort.length() - 1);
+        return wort.substring(0, stelle) + (char) ('a' + random.nextInt(26))
+                + wort.substring(stelle + 1);
+    }
+
+    private static String[] erzeugeNamen(Random random, int anzahl,
+            int silben)
+    {
+        String[] result = new String[anzahl];
+        for (int i = 0; i < anzahl; i++)
+        {
+            StringBuilder name = new StringBuilder();
+            int laenge = silben + random.nextInt(2);
+            for (int j = 0; j < laenge; j++)
+            {
+                name.append(SILBEN[random.nextInt(SILBEN.length)]);
+            }
+            name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+            result[i] = name.toString();
+        }
+        return result;
+    }
+
+    private static Kunde erzeugeKunde(Random random, int kundennummer,
+            String[] vornamen, String[] nachnamen, String[] orte)
+    {
+        Kunde result = new Kunde(new Kundennummer(kundennummer),
+                vornamen[random.nextInt(vornamen.length)],
+                nachnamen[random.nextInt(nachnamen.length)]);
+        result.setWohnort(orte[random.nextInt(orte.length)]);
+        result.setPLZ(new PLZ(String.valueOf(10000 + random.nextInt(90000))));
+        result.setTelefonnummer("0" + (100000000 + random.nextInt(900000000)));
+        return result;
+    }
+}
@@ -0,0 +1,77 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm;
+
+import java.util.Random;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.Messaufgabe;
+import de.uni_hamburg.informatik.swt.se2.mediathek.Messreihe;
+import de.uni_hamburg.informatik.swt.se2.mediathek.Testbestand;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+
+/**
+ * Misst die Dauer von
+ * {@link KundenstammServiceImpl#getKunden(Kundennummer)} über den Kunden
+ * eines {@link Testbestand}s. Jede zehnte Anfrage sucht eine Kundennummer,
+ * die es nicht gibt.
+ *
+ * Aufruf: KundenstammServiceImplBenchmark [anzahlMedien]
+ *
+ * Der Benchmark sollte ohne -ea gestartet werden.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class KundenstammServiceImplBenchmark
+{
+    private static final int ANFRAGEN = 1000000;
+
+    /**
+     * Startet den Benchmark.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        messe(new Messreihe(), new Testbestand(Testbestand.leseGroesse(args),
+                42));
+    }
+
+    /**
+     * Misst die Suche nach Kundennummern im Kundenstamm des Bestands.
+     *
+     * @require reihe != null
+     * @require bestand != null
+     */
+    public static void messe(Messreihe reihe, Testbestand bestand)
+            throws Exception
+    {
+        final KundenstammServiceImpl kundenstamm = new KundenstammServiceImpl(
+                bestand.getKunden());
+        int anzahlKunden = bestand.getKunden().size();
+        Random random = new Random(42);
+        final Kundennummer[] nummern = new Kundennummer[ANFRAGEN];
+        for (int i = 0; i < ANFRAGEN; i++)
+        {
+            // Die Kundennummern des Testbestands beginnen bei 100000.
+            int nummer = i % 10 == 0 ? 999999 - random.nextInt(1000) : 100000
+                    + random.nextInt(anzahlKunden);
+            nummern[i] = new Kundennummer(nummer);
+        }
+
+        reihe.messe("KundenstammService.getKunden(Kundennummer)["
+                + bestand.getMedien().size() + "]", ANFRAGEN,
+                new Messaufgabe()
+                {
+                    @Override
+                    public long fuehreAus()
+                    {
+                        long treffer = 0;
+                        for (Kundennummer nummer : nummern)
+                        {
+                            if (kundenstamm.getKunden(nummer) != null)
+                            {
+                                treffer++;
+                            }
+                        }
+                        return treffer;
+                    }
+                });
+    }
+}
@@ -0,0 +1,82 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand;
+
+import java.util.Random;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.Messaufgabe;
+import de.uni_hamburg.informatik.swt.se2.mediathek.Messreihe;
+import de.uni_hamburg.informatik.swt.se2.mediathek.Testbestand;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+
+/**
+ * Misst die Dauer von {@link MedienbestandServiceImpl#enthaeltMedium(Medium)}
+ * über den Medien eines {@link Testbestand}s. Jede zehnte Anfrage fragt nach
+ * einem Medium, das nicht im Bestand ist.
+ *
+ * Aufruf: MedienbestandServiceImplBenchmark [anzahlMedien]
+ *
+ * Der Benchmark sollte ohne -ea gestartet werden.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class MedienbestandServiceImplBenchmark
+{
+    private static final int ANFRAGEN = 1000000;
+
+    private static final int FREMDE_MEDIEN = 1000;
+
+    /**
+     * Startet den Benchmark.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        messe(new Messreihe(), new Testbestand(Testbestand.leseGroesse(args),
+                42));
+    }
+
+    /**
+     * Misst die Abfrage, ob Medien im Bestand enthalten sind.
+     *
+     * @require reihe != null
+     * @require bestand != null
+     */
+    public static void messe(Messreihe reihe, Testbestand bestand)
+            throws Exception
+    {
+        final MedienbestandServiceImpl medienbestand = new MedienbestandServiceImpl(
+                bestand.getMedien());
+        Medium[] fremde = new Medium[FREMDE_MEDIEN];
+        for (int i = 0; i < FREMDE_MEDIEN; i++)
+        {
+            fremde[i] = new CD("Fremd " + i, "Kommentar", "Interpret", 60);
+        }
+        Random random = new Random(42);
+        final Medium[] anfragen = new Medium[ANFRAGEN];
+        for (int i = 0; i < ANFRAGEN; i++)
+        {
+            anfragen[i] = i % 10 == 0 ? fremde[random.nextInt(FREMDE_MEDIEN)]
+                    : bestand.getMedien().get(
+                            random.nextInt(bestand.getMedien().size()));
+        }
+
+        reihe.messe("MedienbestandService.enthaeltMedium["
+                + bestand.getMedien().size() + "]", ANFRAGEN,
+                new Messaufgabe()
+                {
+                    @Override
+                    public long fuehreAus()
+                    {
+                        long treffer = 0;
+                        for (Medium medium : anfragen)
+                        {
+                            if (medienbestand.enthaeltMedium(medium))
+                            {
+                                treffer++;
+                            }
+                        }
+                        return treffer;
+                    }
+                });
+    }
+}
@@ -0,0 +1,203 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.DVD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.KonsolenVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.PCVideospiel;
+
+/**
+ * Misst Aufbau, Suchzeiten und Aktualisierung des {@link Medienindex} über
+ * einem Medienbestand der angegebenen Größe. Zum Vergleich wird eine einfache
+ * Suche über alle Titel gemessen.
+ * 
+ * Die Texte werden aus einem festen Wortschatz zufällig, aber mit festem
+ * Startwert gebildet, dabei sind manche Wörter viel häufiger als andere.
+ * 
+ * Aufruf: MedienindexBenchmark [anzahlMedien [anzahlAnfragen]]
+ * 
+ * Für 10.000.000 Medien sollte der Benchmark mit -Xmx8g und ohne -ea
+ * gestartet werden.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class MedienindexBenchmark
+{
+    private static final int WORTSCHATZ = 50000;
+
+    private static final String[] SILBEN = { "ba", "be", "bi", "da", "de",
+            "do", "ka", "ke", "ko", "la", "le", "li", "ma", "me", "mo", "na",
+            "ne", "ni", "ra", "re", "ro", "sa", "se", "so", "ta", "te", "tu" };
+
+    /**
+     * Startet den Benchmark.
+     */
+    public static void main(String[] args)
+    {
+        int anzahlMedien = args.length > 0 ? Integer.parseInt(args[0])
+                : 1000000;
+        int anzahlAnfragen = args.length > 1 ? Integer.parseInt(args[1])
+                : 10000;
+
+        Random random = new Random(42);
+        String[] woerter = erzeugeWortschatz(random);
+        List<Medium> medien = new ArrayList<Medium>(anzahlMedien);
+        for (int i = 0; i < anzahlMedien; i++)
+        {
+            medien.add(erzeugeMedium(random, woerter, i));
+        }
+        MedienbestandServiceImpl medienbestand = new MedienbestandServiceImpl(
+                medien);
+
+        long start = System.nanoTime();
+        Medienindex index = new Medienindex(medienbestand);
+        System.out.println(anzahlMedien + " Medien, Aufbau des Index: "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+
+        String[][] anfragen = new String[3][anzahlAnfragen];
+        for (int i = 0; i < anzahlAnfragen; i++)
+        {
+            anfragen[0][i] = waehleWort(random, woerter);
+            anfragen[1][i] = waehleWort(random, woerter) + " "
+                    + waehleWort(random, woerter);
+            String wort = waehleWort(random, woerter);
+            anfragen[2][i] = wort.substring(0, Math.min(wort.length(), 4));
+        }
+        // Aufwärmen
+        miss(index, anfragen[0], false);
+        miss(index, anfragen[2], true);
+
+        berichte("ein Wort", miss(index, anfragen[0], false));
+        berichte("zwei Wörter", miss(index, anfragen[1], false));
+        berichte("Präfix", miss(index, anfragen[2], true));
+
+        start = System.nanoTime();
+        int anzahlVoll = Math.min(anzahlAnfragen, 20);
+        for (int i = 0; i < anzahlVoll; i++)
+        {
+            durchsucheTitel(medienbestand.getMedien(), anfragen[0][i]);
+        }
+        System.out.println("  Suche über alle Titel: "
+                + (System.nanoTime() - start) / anzahlVoll / 1000 + " µs");
+
+        int aenderungen = Math.min(anzahlMedien, 100000);
+        start = System.nanoTime();
+        for (int i = 0; i < aenderungen; i++)
+        {
+            medienbestand.fuegeMediumEin(erzeugeMedium(random, woerter, i));
+        }
+        for (int i = 0; i < aenderungen; i++)
+        {
+            medienbestand.entferneMedium(medien.get(i));
+        }
+        System.out.println("  " + aenderungen
+                + " Medien eingefügt und entfernt: "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+        berichte("ein Wort danach", miss(index, anfragen[0], false));
+        index.beende();
+    }
+
+    /**
+     * Führt alle Anfragen aus und gibt die Suchzeiten in Nanosekunden
+     * sortiert zurück.
+     */
+    private static long[] miss(Medienindex index, String[] anfragen,
+            boolean praefix)
+    {
+        long[] zeiten = new long[anfragen.length];
+        for (int i = 0; i < anfragen.length; i++)
+        {
+            long start = System.nanoTime();
+            if (praefix)
+            {
+                index.suchePraefixe(anfragen[i], 20);
+            }
+            else
+            {
+                index.sucheWoerter(anfragen[i], 20);
+            }
+            zeiten[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(zeiten);
+        return zeiten;
+    }
+
+    private static void berichte(String art, long[] zeiten)
+    {
+        System.out.println("  " + art + ": Median "
+                + zeiten[zeiten.length / 2] / 1000 + " µs, 99% "
+                + zeiten[(int) (zeiten.length * 0.99)] / 1000 + " µs");
+    }
+
+    private static List<Medium> durchsucheTitel(List<Medium> medien,
+            String anfrage)
+    {
+        List<Medium> result = new ArrayList<Medium>();
+        for (Medium medium : medien)
+        {
+            if (medium.getTitel().toLowerCase().contains(anfrage))
+            {
+                result.add(medium);
+            }
+        }
+        return result;
+    }
+
+    private static String[] erzeugeWortschatz(Random random)
+    {
+        String[] result = new String[WORTSCHATZ];
+        for (int i = 0; i < result.length; i++)
+        {
+            StringBuilder wort = new StringBuilder();
+            int silben = 2 + random.nextInt(3);
+            for (int j = 0; j < silben; j++)
+            {
+                wort.append(SILBEN[random.nextInt(SILBEN.length)]);
+            }
+            result[i] = wort.toString() + i;
+        }
+        return result;
+    }
+
+    /**
+     * Wählt ein Wort, niedrige Ränge deutlich häufiger als hohe.
+     */
+    private static String waehleWort(Random random, String[] woerter)
+    {
+        double zufall = random.nextDouble();
+        return woerter[(int) (zufall * zufall * zufall * woerter.length)];
+    }
+
+    private static Medium erzeugeMedium(Random random, String[] woerter, int i)
+    {
+        String titel = waehleWort(random, woerter) + " "
+                + waehleWort(random, woerter);
+        String kommentar = waehleWort(random, woerter) + " "
+                + waehleWort(random, woerter) + " "
+                + waehleWort(random, woerter);
+        String urheber = waehleWort(random, woerter);
+        Medium result;
+        switch (i % 4)
+        {
+        case 0:
+            result = new CD(titel, kommentar, urheber, 60);
+            break;
+        case 1:
+            result = new DVD(titel, kommentar, urheber, 90);
+            break;
+        case 2:
+            result = new KonsolenVideospiel(titel, kommentar, urheber);
+            break;
+        default:
+            result = new PCVideospiel(titel, kommentar, urheber);
+            break;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,323 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Random;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+
+/**
+ * Erzeugt künstliche Datenbestände beliebiger Größe im Format von
+ * {@link KundenEinleser} und {@link MedienEinleser}. Bei gleichem Startwert
+ * und gleichen Größen entstehen immer dieselben Dateien.
+ *
+ * Die Medien verteilen sich zu etwa 40% auf CDs, 30% auf DVDs und je 15% auf
+ * Konsolen- und PC-Videospiele. Etwa ein Drittel ist verliehen, und zwar
+ * schief verteilt: ein Zehntel der Kunden hat knapp die Hälfte der Medien
+ * ausgeliehen, und neuere Ausleihen sind häufiger als alte. Namen, Titel und
+ * Orte enthalten Umlaute und Zeichen anderer Schriften, die Dateien werden in
+ * UTF-8 geschrieben.
+ *
+ * Jede Zeile wird erzeugt und sofort geschrieben, der Speicherbedarf hängt
+ * also nicht von der Größe des Bestands ab.
+ *
+ * Aufruf: Bestandgenerator verzeichnis anzahlMedien [anzahlKunden [startwert]]
+ *
+ * Die Dateien kundenstamm.txt und medienbestand.txt im Verzeichnis werden
+ * überschrieben.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class Bestandgenerator
+{
+    /**
+     * Die größte Anzahl Kunden, da Kundennummern sechsstellig sind.
+     */
+    public static final int MAXIMALE_KUNDEN = 900000;
+
+    /**
+     * Der Tag, an dem der Bestand geschrieben wird. Alle Ausleihen liegen
+     * davor.
+     */
+    public static final Datum STICHTAG = new Datum(2, 4, 2012);
+
+    private static final String ZEICHENSATZ = "UTF-8";
+
+    private static final int PUFFERGROESSE = 1 << 16;
+
+    private static final double VERLEIHQUOTE = 0.3;
+
+    // Je größer, desto mehr Ausleihen entfallen auf die ersten Kunden.
+    private static final double SCHIEFE = 3.0;
+
+    private static final int MAXIMALES_AUSLEIHALTER = 120;
+
+    // Teilerfremd zu MAXIMALE_KUNDEN, damit die Kundennummern eindeutig sind.
+    private static final int NUMMERNSCHRITT = 7919;
+
+    // Unterscheidet die Zufallsfolge der Medien von der der Kunden.
+    private static final long MEDIENVERSATZ = 0x5DEECE66DL;
+
+    private static final String LEER = " ";
+
+    private static final String[] VORNAMEN = { "Anna", "Jörg", "Jürgen",
+            "Sören", "Björn", "Käthe", "Günther", "Zoë", "Chloé", "José",
+            "François", "Łukasz", "Małgorzata", "Şeyma", "Ayşe", "Mustafa",
+            "Ólafur", "Søren", "Žofie", "Мария", "Дмитрий", "Γιώργος",
+            "Ελένη", "明", "さくら", "Nguyễn Văn", "Sarah", "Lukas", "Mia",
+            "Leon", "Emma", "Finn" };
+
+    private static final String[] NACHNAMEN = { "Müller", "Schmidt",
+            "Schneider", "Fischer", "Weiß", "Schäfer", "Groß", "Köhler",
+            "Böhm", "Krüger", "Meißner", "Öztürk", "Yılmaz", "Çelik",
+            "Kowalski", "Wiśniewski", "Dvořák", "Jensen", "Ødegaard",
+            "García", "Núñez", "Иванов", "Παπαδόπουλος", "田中", "Nguyễn",
+            "Sonnenschein", "Konrad", "Hoffmann", "Wagner", "Becker" };
+
+    private static final String[] STRASSEN = { "Sonnenallee", "Mühlenweg",
+            "Grindelallee", "Schlüterstraße", "Große Bergstraße",
+            "Königstraße", "Jungfernstieg", "Möllner Landstraße",
+            "Straßburger Platz", "Am Bärenzwinger", "Vogt-Kölln-Straße",
+            "Kannenweg" };
+
+    private static final String[] ORTE = { "Hamburg", "Lübeck", "Kiel",
+            "Lüneburg", "Stade", "Norderstedt", "Buxtehude", "Bad Oldesloe",
+            "Göttingen", "München", "Köln", "Zürich", "Wien" };
+
+    private static final String[] TITELWOERTER = { "Sommer", "Nacht", "Märchen",
+            "Größe", "Straße", "Brücke", "Träume", "Herz", "Fluss", "Stadt",
+            "Léon", "Amélie", "Ångström", "Motörhead", "Sigur Rós", "Björk",
+            "Pokémon", "Crème brûlée", "Ночь", "Όνειρο", "夢", "Über", "Unter",
+            "Zurück", "Jenseits", "Die Ärzte", "Ørsted", "Ça va" };
+
+    private static final String[] INTERPRETEN = { "Billy Joel", "Die Ärzte",
+            "Motörhead", "Björk", "Sigur Rós", "Mötley Crüe", "Herbert Grönemeyer",
+            "Beyoncé", "Céline Dion", "Mariza", "坂本龍一", "Various" };
+
+    private static final String[] REGISSEURE = { "Fatih Akın",
+            "Pedro Almodóvar", "Jean-Pierre Jeunet", "Michael Haneke",
+            "Andrei Tarkowski", "Tom Tykwer", "宮崎駿", "John Stevenson",
+            "Wolfgang Petersen", "Agnès Varda" };
+
+    private static final String[] KOMMENTARE = { LEER, LEER, "Neuauflage",
+            "Sehr beliebt", "Leicht beschädigt", "Sammleredition",
+            "Mit Booklet", "Ab 12 Jahren", "Größere Hülle", "Deutsch/Français" };
+
+    private static final String[] KONSOLEN = { "Nintendo DS", "Wii",
+            "PlayStation 3", "Xbox 360", "PSP" };
+
+    private static final String[] BETRIEBSSYSTEME = { "Windows", "Linux",
+            "Mac OS X" };
+
+    private final long _startwert;
+
+    private final int _anzahlKunden;
+
+    /**
+     * Initialisiert einen Generator für einen Bestand mit der angegebenen
+     * Anzahl Kunden.
+     *
+     * @param startwert
+     *            Der Startwert für die Zufallszahlen.
+     * @param anzahlKunden
+     *            Die Anzahl der Kunden, an die Medien verliehen werden.
+     *
+     * @require anzahlKunden > 0 && anzahlKunden <= MAXIMALE_KUNDEN
+     */
+    public Bestandgenerator(long startwert, int anzahlKunden)
+    {
+        assert anzahlKunden > 0 && anzahlKunden <= MAXIMALE_KUNDEN : "Vorbedingung verletzt: anzahlKunden > 0 && anzahlKunden <= MAXIMALE_KUNDEN";
+        _startwert = startwert;
+        _anzahlKunden = anzahlKunden;
+    }
+
+    /**
+     * Startet den Generator.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 2)
+        {
+            System.err
+                    .println("Aufruf: Bestandgenerator verzeichnis anzahlMedien [anzahlKunden [startwert]]");
+            System.exit(1);
+        }
+        File verzeichnis = new File(args[0]);
+        long anzahlMedien = Long.parseLong(args[1]);
+        int anzahlKunden = args.length > 2 ? Integer.parseInt(args[2])
+                : (int) Math.max(1,
+                        Math.min(anzahlMedien / 10, MAXIMALE_KUNDEN));
+        long startwert = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        if (!verzeichnis.isDirectory() && !verzeichnis.mkdirs())
+        {
+            throw new IOException("Das Verzeichnis " + verzeichnis
+                    + " konnte nicht angelegt werden.");
+        }
+        long start = System.nanoTime();
+        new Bestandgenerator(startwert, anzahlKunden).schreibeDateien(new File(
+                verzeichnis, "kundenstamm.txt"), new File(verzeichnis,
+                "medienbestand.txt"), anzahlMedien);
+        System.out.println(anzahlKunden + " Kunden und " + anzahlMedien
+                + " Medien in " + (System.nanoTime() - start) / 1000000
+                + " ms geschrieben");
+    }
+
+    /**
+     * Schreibt Kundenstamm und Medienbestand in die angegebenen Dateien.
+     *
+     * @require kundenDatei != null
+     * @require medienDatei != null
+     * @require anzahlMedien >= 0
+     */
+    public void schreibeDateien(File kundenDatei, File medienDatei,
+            long anzahlMedien) throws IOException
+    {
+        assert kundenDatei != null : "Vorbedingung verletzt: kundenDatei != null";
+        assert medienDatei != null : "Vorbedingung verletzt: medienDatei != null";
+        assert anzahlMedien >= 0 : "Vorbedingung verletzt: anzahlMedien >= 0";
+        Writer writer = oeffne(kundenDatei);
+        try
+        {
+            schreibeKunden(writer);
+        }
+        finally
+        {
+            writer.close();
+        }
+        writer = oeffne(medienDatei);
+        try
+        {
+            schreibeMedien(writer, anzahlMedien);
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    /**
+     * Schreibt den Kundenstamm, eine Zeile pro Kunde.
+     *
+     * @require writer != null
+     */
+    public void schreibeKunden(Writer writer) throws IOException
+    {
+        assert writer != null : "Vorbedingung verletzt: writer != null";
+        Random random = new Random(_startwert);
+        StringBuilder zeile = new StringBuilder();
+        for (int i = 0; i < _anzahlKunden; i++)
+        {
+            zeile.setLength(0);
+            zeile.append(getKundennummer(i)).append(';')
+                    .append(waehle(random, VORNAMEN)).append(';')
+                    .append(waehle(random, NACHNAMEN)).append(';')
+                    .append(waehle(random, STRASSEN)).append(' ')
+                    .append(1 + random.nextInt(150)).append(';');
+            // Fünfstellig mit führenden Nullen, wie es PLZ verlangt
+            int plz = 1000 + random.nextInt(99000);
+            for (int stelle = 10000; stelle > plz; stelle /= 10)
+            {
+                zeile.append('0');
+            }
+            zeile.append(plz).append(';').append(waehle(random, ORTE))
+                    .append('\n');
+            writer.append(zeile);
+        }
+    }
+
+    /**
+     * Schreibt den Medienbestand, eine Zeile pro Medium.
+     *
+     * @require writer != null
+     * @require anzahlMedien >= 0
+     */
+    public void schreibeMedien(Writer writer, long anzahlMedien)
+            throws IOException
+    {
+        assert writer != null : "Vorbedingung verletzt: writer != null";
+        assert anzahlMedien >= 0 : "Vorbedingung verletzt: anzahlMedien >= 0";
+        Random random = new Random(_startwert ^ MEDIENVERSATZ);
+        StringBuilder zeile = new StringBuilder();
+        for (long i = 0; i < anzahlMedien; i++)
+        {
+            zeile.setLength(0);
+            if (random.nextDouble() < VERLEIHQUOTE)
+            {
+                int alter = (int) (MAXIMALES_AUSLEIHALTER * Math.pow(
+                        random.nextDouble(), 2));
+                int kunde = (int) (_anzahlKunden * Math.pow(
+                        random.nextDouble(), SCHIEFE));
+                zeile.append(STICHTAG.minus(alter)).append(';')
+                        .append(getKundennummer(kunde));
+            }
+            else
+            {
+                zeile.append(LEER).append(';').append(LEER);
+            }
+            haengeMediumAn(zeile, random, i);
+            zeile.append('\n');
+            writer.append(zeile);
+        }
+    }
+
+    /**
+     * Hängt Art, Titel, Kommentar und die artspezifischen Felder eines
+     * zufälligen Mediums an die Zeile an.
+     */
+    private static void haengeMediumAn(StringBuilder zeile, Random random,
+            long nummer)
+    {
+        int art = random.nextInt(100);
+        String bezeichnung = art < 40 ? "CD" : art < 70 ? "DVD"
+                : art < 85 ? "KonsolenVideospiel" : "PCVideospiel";
+        zeile.append(';').append(bezeichnung).append(';')
+                .append(waehle(random, TITELWOERTER)).append(' ')
+                .append(waehle(random, TITELWOERTER)).append(' ')
+                .append(nummer).append(';')
+                .append(waehle(random, KOMMENTARE)).append(';');
+        if (art < 40)
+        {
+            zeile.append(waehle(random, INTERPRETEN)).append(';')
+                    .append(20 + random.nextInt(120));
+        }
+        else if (art < 70)
+        {
+            zeile.append(waehle(random, REGISSEURE)).append(';')
+                    .append(60 + random.nextInt(180));
+        }
+        else if (art < 85)
+        {
+            zeile.append(waehle(random, KONSOLEN));
+        }
+        else
+        {
+            zeile.append(waehle(random, BETRIEBSSYSTEME));
+        }
+    }
+
+    /**
+     * Gibt die Kundennummer des i-ten Kunden zurück. Die Nummern sind
+     * eindeutig, aber nicht aufsteigend.
+     */
+    private static int getKundennummer(int i)
+    {
+        return 100000 + (int) ((long) i * NUMMERNSCHRITT % MAXIMALE_KUNDEN);
+    }
+
+    private static String waehle(Random random, String[] texte)
+    {
+        return texte[random.nextInt(texte.length)];
+    }
+
+    private static Writer oeffne(File datei) throws IOException
+    {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(
+                datei), ZEICHENSATZ), PUFFERGROESSE);
+    }
+}
@@ -0,0 +1,106 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Vergleicht die Einlesemodi des {@link DatenEinleser}s. Dazu werden ein
+ * Kundenstamm und ein Medienbestand der angegebenen Größe in temporäre Dateien
+ * geschrieben und mehrfach in jedem Modus eingelesen.
+ * 
+ * Aufruf: DatenEinleserBenchmark [anzahlMedien [anzahlKunden]]
+ * 
+ * Der Benchmark sollte ohne -ea gestartet werden.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class DatenEinleserBenchmark
+{
+    private static final int DURCHLAEUFE = 5;
+
+    private static final String[] MEDIENZEILEN = {
+            "CD;Titel %d;Kommentar zur CD;Interpret %d;%d",
+            "DVD;Film %d;Kommentar zur DVD;Regisseur %d;%d",
+            "KonsolenVideospiel;Spiel %d;Kommentar zum Spiel;Wii %d;%d",
+            "PCVideospiel;PC-Spiel %d;Kommentar zum Spiel;Windows %d;%d" };
+
+    /**
+     * Startet den Benchmark.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int anzahlMedien = args.length > 0 ? Integer.parseInt(args[0])
+                : 1000000;
+        int anzahlKunden = args.length > 1 ? Integer.parseInt(args[1])
+                : 100000;
+
+        File kundenDatei = File.createTempFile("kundenstamm", ".txt");
+        File medienDatei = File.createTempFile("medienbestand", ".txt");
+        kundenDatei.deleteOnExit();
+        medienDatei.deleteOnExit();
+        schreibeKunden(kundenDatei, anzahlKunden);
+        schreibeMedien(medienDatei, anzahlMedien, anzahlKunden);
+
+        System.out.println(anzahlMedien + " Medien (" + medienDatei.length()
+                + " Bytes), " + anzahlKunden + " Kunden");
+        for (Einlesemodus modus : Einlesemodus.values())
+        {
+            long beste = Long.MAX_VALUE;
+            for (int i = 0; i < DURCHLAEUFE; i++)
+            {
+                long start = System.nanoTime();
+                new DatenEinleser(medienDatei, kundenDatei, modus).leseDaten();
+                beste = Math.min(beste, System.nanoTime() - start);
+            }
+            System.out.println(modus + ": " + (beste / 1000000) + " ms");
+        }
+    }
+
+    private static void schreibeKunden(File datei, int anzahl)
+            throws IOException
+    {
+        Writer writer = oeffne(datei);
+        for (int i = 0; i < anzahl; i++)
+        {
+            writer.write((100000 + i) + ";Vorname" + i + ";Nachname" + i
+                    + ";Straße " + i + ";" + (10000 + i % 90000) + ";Hamburg\n");
+        }
+        writer.close();
+    }
+
+    private static void schreibeMedien(File datei, int anzahl,
+            int anzahlKunden) throws IOException
+    {
+        Random random = new Random(42);
+        Writer writer = oeffne(datei);
+        for (int i = 0; i < anzahl; i++)
+        {
+            if (random.nextInt(4) == 0)
+            {
+                writer.write((1 + random.nextInt(28)) + "."
+                        + (1 + random.nextInt(12)) + ".2012;"
+                        + (100000 + random.nextInt(anzahlKunden)) + ";");
+            }
+            else
+            {
+                writer.write(" ; ;");
+            }
+            writer.write(String.format(MEDIENZEILEN[i % 4], i, i,
+                    1 + random.nextInt(200)));
+            writer.write("\n");
+        }
+        writer.close();
+    }
+
+    private static Writer oeffne(File datei) throws IOException
+    {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(
+                datei), MappedFeldLeser.ZEICHENSATZ));
+    }
+}
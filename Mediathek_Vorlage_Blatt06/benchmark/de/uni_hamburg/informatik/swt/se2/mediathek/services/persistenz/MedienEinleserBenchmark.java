@@ -0,0 +1,68 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.File;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.Messaufgabe;
+import de.uni_hamburg.informatik.swt.se2.mediathek.Messreihe;
+import de.uni_hamburg.informatik.swt.se2.mediathek.Testbestand;
+
+/**
+ * Misst die Dauer von {@link MedienEinleser#leseMedienEin} für den
+ * Medienbestand eines {@link Testbestand}s. Der Bestand wird dazu mit dem
+ * {@link DatenSchreiber} in temporäre Dateien geschrieben.
+ *
+ * Aufruf: MedienEinleserBenchmark [anzahlMedien]
+ *
+ * Der Benchmark sollte ohne -ea gestartet werden.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class MedienEinleserBenchmark
+{
+    /**
+     * Startet den Benchmark.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        messe(new Messreihe(), new Testbestand(Testbestand.leseGroesse(args),
+                42));
+    }
+
+    /**
+     * Schreibt den Bestand und misst das Einlesen der Medien. Das Ergebnis
+     * wird pro Medium angegeben.
+     *
+     * @require reihe != null
+     * @require bestand != null
+     */
+    public static void messe(Messreihe reihe, final Testbestand bestand)
+            throws Exception
+    {
+        final File medienDatei = File.createTempFile("medienbestand", ".txt");
+        File kundenDatei = File.createTempFile("kundenstamm", ".txt");
+        try
+        {
+            new DatenSchreiber(medienDatei, kundenDatei).schreibeDaten(
+                    bestand.getKunden(), bestand.getMedien(),
+                    bestand.getVerleihkarten());
+
+            reihe.messe("MedienEinleser.leseMedienEin["
+                    + bestand.getMedien().size() + "]", bestand.getMedien()
+                    .size(), new Messaufgabe()
+            {
+                @Override
+                public long fuehreAus() throws DateiLeseException
+                {
+                    return new MedienEinleser().leseMedienEin(
+                            bestand.getKunden(), medienDatei).size();
+                }
+            });
+        }
+        finally
+        {
+            medienDatei.delete();
+            kundenDatei.delete();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.PLZ;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.DVD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.KonsolenVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.PCVideospiel;
+
+/**
+ * Misst das Schreiben und Einlesen eines Snapshots mit der angegebenen Anzahl
+ * Medien. Jedes vierte Medium ist verliehen.
+ * 
+ * Aufruf: SnapshotBenchmark [anzahlMedien [anzahlKunden]]
+ * 
+ * Für 10.000.000 Medien (Standard) sollte der Benchmark mit -Xmx4g und ohne
+ * -ea gestartet werden.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class SnapshotBenchmark
+{
+    private static final int DURCHLAEUFE = 3;
+
+    /**
+     * Startet den Benchmark.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int anzahlMedien = args.length > 0 ? Integer.parseInt(args[0])
+                : 10000000;
+        int anzahlKunden = args.length > 1 ? Integer.parseInt(args[1])
+                : 100000;
+
+        Random random = new Random(42);
+        List<Kunde> kunden = new ArrayList<Kunde>(anzahlKunden);
+        PLZ plz = new PLZ("22760");
+        for (int i = 0; i < anzahlKunden; i++)
+        {
+            Kunde kunde = new Kunde(new Kundennummer(100000 + i), "Vorname"
+                    + i, "Nachname" + i);
+            kunde.setStrasse("Straße " + i);
+            kunde.setPLZ(plz);
+            kunde.setWohnort("Hamburg");
+            kunden.add(kunde);
+        }
+        List<Medium> medien = new ArrayList<Medium>(anzahlMedien);
+        List<Verleihkarte> verleihkarten = new ArrayList<Verleihkarte>();
+        Datum datum = new Datum(1, 4, 2012);
+        for (int i = 0; i < anzahlMedien; i++)
+        {
+            Medium medium;
+            switch (i % 4)
+            {
+            case 0:
+                medium = new CD("Titel " + i, "Kommentar zur CD",
+                        "Interpret " + i % 1000, 1 + random.nextInt(200));
+                break;
+            case 1:
+                medium = new DVD("Film " + i, "Kommentar zur DVD",
+                        "Regisseur " + i % 1000, 1 + random.nextInt(200));
+                break;
+            case 2:
+                medium = new KonsolenVideospiel("Spiel " + i,
+                        "Kommentar zum Spiel", "Wii");
+                break;
+            default:
+                medium = new PCVideospiel("PC-Spiel " + i,
+                        "Kommentar zum Spiel", "Windows");
+                break;
+            }
+            medien.add(medium);
+            if (random.nextInt(4) == 0)
+            {
+                verleihkarten.add(new Verleihkarte(kunden.get(random
+                        .nextInt(anzahlKunden)), medium, datum));
+            }
+        }
+
+        File snapshotDatei = File.createTempFile("mediathek", ".snapshot");
+        snapshotDatei.deleteOnExit();
+        long start = System.nanoTime();
+        new SnapshotSchreiber(snapshotDatei).schreibeDaten(kunden, medien,
+                new HashMap<Medium, List<Kunde>>(), verleihkarten);
+        System.out.println("Schreiben: "
+                + ((System.nanoTime() - start) / 1000000) + " ms, "
+                + snapshotDatei.length() + " Bytes");
+
+        kunden = null;
+        medien = null;
+        verleihkarten = null;
+        long beste = Long.MAX_VALUE;
+        for (int i = 0; i < DURCHLAEUFE; i++)
+        {
+            System.gc();
+            start = System.nanoTime();
+            new SnapshotEinleser(snapshotDatei).leseDaten();
+            beste = Math.min(beste, System.nanoTime() - start);
+        }
+        System.out.println(anzahlMedien + " Medien einlesen: "
+                + (beste / 1000000) + " ms");
+    }
+}
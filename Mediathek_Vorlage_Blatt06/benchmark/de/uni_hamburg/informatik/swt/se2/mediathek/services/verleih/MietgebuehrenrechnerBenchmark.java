@@ -0,0 +1,112 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.DVD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.KonsolenVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.PCVideospiel;
+
+/**
+ * Misst die Summe der Mietgebühren aller offenen Verleihkarten: einzeln über
+ * {@link Verleihkarte#getMietgebuehr(Datum)} und mit dem
+ * {@link Mietgebuehrenrechner}, sequentiell und parallel.
+ *
+ * Aufruf: MietgebuehrenrechnerBenchmark [anzahlVerleihkarten]
+ *
+ * Für 10.000.000 Verleihkarten (Standard) sollte der Benchmark mit -Xmx4g und
+ * ohne -ea gestartet werden.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class MietgebuehrenrechnerBenchmark
+{
+    private static final int DURCHLAEUFE = 5;
+
+    /**
+     * Startet den Benchmark.
+     */
+    public static void main(String[] args)
+    {
+        int anzahl = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+
+        Random random = new Random(42);
+        Kunde kunde = new Kunde(new Kundennummer(100000), "Vorname",
+                "Nachname");
+        Datum stichtag = new Datum(1, 4, 2012);
+        List<Verleihkarte> verleihkarten = new ArrayList<Verleihkarte>(anzahl);
+        for (int i = 0; i < anzahl; i++)
+        {
+            Medium medium;
+            switch (i % 4)
+            {
+            case 0:
+                medium = new CD("Titel " + i, "", "Interpret", 60);
+                break;
+            case 1:
+                medium = new DVD("Film " + i, "", "Regisseur", 90);
+                break;
+            case 2:
+                medium = new KonsolenVideospiel("Spiel " + i, "", "Wii");
+                break;
+            default:
+                medium = new PCVideospiel("PC-Spiel " + i, "", "Windows");
+                break;
+            }
+            verleihkarten.add(new Verleihkarte(kunde, medium, stichtag
+                    .minus(random.nextInt(60))));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool();
+        Mietgebuehrenrechner sequentiell = new Mietgebuehrenrechner();
+        Mietgebuehrenrechner parallel = new Mietgebuehrenrechner(pool);
+        long einzeln = Long.MAX_VALUE;
+        long rechner = Long.MAX_VALUE;
+        long rechnerParallel = Long.MAX_VALUE;
+        long summe = 0;
+        for (int i = 0; i < DURCHLAEUFE; i++)
+        {
+            long start = System.nanoTime();
+            long einzelsumme = 0;
+            for (Verleihkarte karte : verleihkarten)
+            {
+                einzelsumme += karte.getMietgebuehr(stichtag).getEurocent();
+            }
+            einzeln = Math.min(einzeln, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            summe = sequentiell.berechne(verleihkarten, stichtag)
+                    .getSummeInCent();
+            rechner = Math.min(rechner, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            parallel.berechne(verleihkarten, stichtag).getSummeInCent();
+            rechnerParallel = Math.min(rechnerParallel, System.nanoTime()
+                    - start);
+
+            if (einzelsumme != summe)
+            {
+                throw new IllegalStateException(einzelsumme + " != " + summe);
+            }
+        }
+        pool.shutdown();
+
+        System.out.println(anzahl + " Verleihkarten, Summe " + summe
+                + " Cent:");
+        System.out.println("  einzeln:            " + (einzeln / 1000000)
+                + " ms");
+        System.out.println("  Rechner:            " + (rechner / 1000000)
+                + " ms");
+        System.out.println("  Rechner, parallel:  "
+                + (rechnerParallel / 1000000) + " ms");
+    }
+}
@@ -0,0 +1,157 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.Messaufgabe;
+import de.uni_hamburg.informatik.swt.se2.mediathek.Messreihe;
+import de.uni_hamburg.informatik.swt.se2.mediathek.Testbestand;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammServiceImpl;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandServiceImpl;
+
+/**
+ * Misst die Dauer von {@link VerleihService#getVerleihkartenFuer(Kunde)},
+ * {@link VerleihService#getAusgelieheneMedienFuer(Kunde)} und von Ausleihe
+ * und Rücknahme eines Mediums über einem {@link Testbestand}.
+ *
+ * Das Verleihprotokoll wird in eine temporäre Datei geschrieben und alle 200
+ * Millisekunden synchronisiert, damit die Platte die Messung nicht bestimmt.
+ *
+ * Aufruf: VerleihServiceImplBenchmark [anzahlMedien]
+ *
+ * Der Benchmark sollte ohne -ea gestartet werden, da sonst die Vorbedingungen
+ * mitgemessen werden.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class VerleihServiceImplBenchmark
+{
+    private static final int ANFRAGEN = 100000;
+
+    private static final int VORGAENGE = 10000;
+
+    /**
+     * Startet den Benchmark.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        messe(new Messreihe(), new Testbestand(Testbestand.leseGroesse(args),
+                42));
+    }
+
+    /**
+     * Misst die Anfragen je Kunde und Ausleihe und Rücknahme über dem
+     * Bestand.
+     *
+     * @require reihe != null
+     * @require bestand != null
+     */
+    public static void messe(Messreihe reihe, Testbestand bestand)
+            throws Exception
+    {
+        File protokollDatei = File.createTempFile("verleihProtokoll", ".txt");
+        Verleihprotokollierer protokollierer = new Verleihprotokollierer(
+                protokollDatei,
+                Protokollsynchronisierung
+                        .alleMillisekunden(Verleihprotokollierer.STANDARD_INTERVALL),
+                Verleihprotokollierer.KAPAZITAET);
+        try
+        {
+            final VerleihService service = new VerleihServiceImpl(
+                    new KundenstammServiceImpl(bestand.getKunden()),
+                    new MedienbestandServiceImpl(bestand.getMedien()),
+                    bestand.getVerleihkarten(), protokollierer);
+            messe(reihe, bestand, service);
+        }
+        finally
+        {
+            protokollierer.schliesse();
+            protokollDatei.delete();
+        }
+    }
+
+    private static void messe(Messreihe reihe, Testbestand bestand,
+            final VerleihService service) throws Exception
+    {
+        String groesse = "[" + bestand.getMedien().size() + "]";
+        Random random = new Random(42);
+        final Kunde[] kunden = new Kunde[ANFRAGEN];
+        for (int i = 0; i < ANFRAGEN; i++)
+        {
+            kunden[i] = bestand.getKunden().get(
+                    random.nextInt(bestand.getKunden().size()));
+        }
+
+        reihe.messe("VerleihService.getVerleihkartenFuer" + groesse, ANFRAGEN,
+                new Messaufgabe()
+                {
+                    @Override
+                    public long fuehreAus()
+                    {
+                        long treffer = 0;
+                        for (Kunde kunde : kunden)
+                        {
+                            treffer += service.getVerleihkartenFuer(kunde)
+                                    .size();
+                        }
+                        return treffer;
+                    }
+                });
+
+        reihe.messe("VerleihService.getAusgelieheneMedienFuer" + groesse,
+                ANFRAGEN, new Messaufgabe()
+                {
+                    @Override
+                    public long fuehreAus()
+                    {
+                        long treffer = 0;
+                        for (Kunde kunde : kunden)
+                        {
+                            treffer += service.getAusgelieheneMedienFuer(kunde)
+                                    .size();
+                        }
+                        return treffer;
+                    }
+                });
+
+        List<Medium> frei = bestand.getNichtVerlieheneMedien();
+        final int vorgaenge = Math.min(VORGAENGE, frei.size());
+        final List<List<Medium>> medien = new ArrayList<List<Medium>>(
+                vorgaenge);
+        for (int i = 0; i < vorgaenge; i++)
+        {
+            medien.add(Collections.singletonList(frei.get(random.nextInt(frei
+                    .size()))));
+        }
+        final Datum ausleihe = new Datum(2, 4, 2012);
+        final Datum rueckgabe = ausleihe.plus(14);
+        reihe.messe("VerleihService.verleiheAn+nimmZurueck" + groesse,
+                vorgaenge, new Messaufgabe()
+                {
+                    @Override
+                    public long fuehreAus() throws ProtokollierException
+                    {
+                        long ausgefuehrt = 0;
+                        for (int i = 0; i < vorgaenge; i++)
+                        {
+                            List<Medium> vorgang = medien.get(i);
+                            if (service.sindAlleNichtVerliehen(vorgang))
+                            {
+                                service.verleiheAn(kunden[i], vorgang,
+                                        ausleihe);
+                                service.nimmZurueck(vorgang, rueckgabe);
+                                ausgefuehrt++;
+                            }
+                        }
+                        return ausgefuehrt;
+                    }
+                });
+    }
+}
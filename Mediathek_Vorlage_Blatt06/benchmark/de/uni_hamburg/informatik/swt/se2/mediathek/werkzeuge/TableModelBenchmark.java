@@ -0,0 +1,122 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge;
+
+import java.util.Random;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.Messaufgabe;
+import de.uni_hamburg.informatik.swt.se2.mediathek.Messreihe;
+import de.uni_hamburg.informatik.swt.se2.mediathek.Testbestand;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.rueckgabe.VerleihkartenTableModel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.subwerkzeuge.kundenauflister.KundenTableModel;
+
+/**
+ * Misst das Sortieren der Tabellen für Kunden und Verleihkarten über einem
+ * {@link Testbestand}: das Setzen aller Zeilen und das Entfernen und erneute
+ * Einfügen einzelner Zeilen, wie es bei Änderungen im Bestand geschieht.
+ *
+ * Aufruf: TableModelBenchmark [anzahlMedien]
+ *
+ * Der Benchmark sollte ohne -ea gestartet werden.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class TableModelBenchmark
+{
+    private static final int AENDERUNGEN = 10000;
+
+    /**
+     * Startet den Benchmark.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        messe(new Messreihe(), new Testbestand(Testbestand.leseGroesse(args),
+                42));
+    }
+
+    /**
+     * Misst die TableModels über dem Bestand.
+     *
+     * @require reihe != null
+     * @require bestand != null
+     */
+    public static void messe(Messreihe reihe, final Testbestand bestand)
+            throws Exception
+    {
+        String groesse = "[" + bestand.getMedien().size() + "]";
+        Random random = new Random(42);
+
+        final KundenTableModel kundenModel = new KundenTableModel();
+        reihe.messe("KundenTableModel.setKunden" + groesse, bestand
+                .getKunden().size(), new Messaufgabe()
+        {
+            @Override
+            public long fuehreAus()
+            {
+                kundenModel.setKunden(bestand.getKunden());
+                return kundenModel.getRowCount();
+            }
+        });
+
+        final Kunde[] kunden = new Kunde[AENDERUNGEN];
+        for (int i = 0; i < AENDERUNGEN; i++)
+        {
+            kunden[i] = bestand.getKunden().get(
+                    random.nextInt(bestand.getKunden().size()));
+        }
+        reihe.messe("KundenTableModel.entferneKunden+fuegeKundenEin"
+                + groesse, AENDERUNGEN, new Messaufgabe()
+        {
+            @Override
+            public long fuehreAus()
+            {
+                for (Kunde kunde : kunden)
+                {
+                    kundenModel.entferneKunden(kunde);
+                    kundenModel.fuegeKundenEin(kunde);
+                }
+                return kundenModel.getRowCount();
+            }
+        });
+
+        final VerleihkartenTableModel verleihkartenModel = new VerleihkartenTableModel(
+                new Datum(2, 4, 2012));
+        reihe.messe("VerleihkartenTableModel.setVerleihkarten" + groesse,
+                bestand.getVerleihkarten().size(), new Messaufgabe()
+                {
+                    @Override
+                    public long fuehreAus()
+                    {
+                        verleihkartenModel.setVerleihkarten(bestand
+                                .getVerleihkarten());
+                        return verleihkartenModel.getRowCount();
+                    }
+                });
+
+        final Verleihkarte[] verleihkarten = new Verleihkarte[AENDERUNGEN];
+        for (int i = 0; i < AENDERUNGEN; i++)
+        {
+            verleihkarten[i] = bestand.getVerleihkarten().get(
+                    random.nextInt(bestand.getVerleihkarten().size()));
+        }
+        reihe.messe("VerleihkartenTableModel.fuegeVerleihkarteEin" + groesse,
+                AENDERUNGEN, new Messaufgabe()
+                {
+                    @Override
+                    public long fuehreAus()
+                    {
+                        for (Verleihkarte verleihkarte : verleihkarten)
+                        {
+                            verleihkartenModel
+                                    .entferneVerleihkarteFuer(verleihkarte
+                                            .getMedium());
+                            verleihkartenModel
+                                    .fuegeVerleihkarteEin(verleihkarte);
+                        }
+                        return verleihkartenModel.getRowCount();
+                    }
+                });
+    }
+}
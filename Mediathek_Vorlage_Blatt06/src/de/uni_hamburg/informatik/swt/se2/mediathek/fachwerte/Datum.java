@@ -1,8 +1,5 @@
 package de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte;
 
-import java.util.Calendar;
-import java.util.TimeZone;
-
 /**
  * Ein Kalenderdatum, bestehend aus Tag, Monat und Jahr.
  * 
@@ -10,17 +7,25 @@ import java.util.TimeZone;
  * Datum zu ermitteln und zu überprüfen, ob drei Ganzzahlen ein gültiges Datum
  * bilden.
  * 
+ * Intern wird zusätzlich die Anzahl der Tage seit dem 1.1.1970 gehalten. Alle
+ * Berechnungen sind reine Ganzzahlarithmetik im gregorianischen Kalender und
+ * kommen ohne gemeinsamen veränderlichen Zustand aus, sodass sie aus beliebig
+ * vielen Threads ohne Sperren aufgerufen werden können.
+ * 
  * @author SE2-Team
  * @version SoSe 2012
  */
 public final class Datum implements Comparable<Datum>
 {
-    // Dieses Calendar-Exemplar wird für die Gültigkeitsprüfung verwendet.
-    private static final Calendar CALENDAR = Calendar.getInstance();
-
     // Die Anzahl von Millesekunden an einem Tag
     private static final long MILLISECONDS_IN_ONE_DAY = 1000 * 60 * 60 * 24;
 
+    // Die Tage von 0000-03-01 bis 1970-01-01 im gregorianischen Kalender
+    private static final int TAGE_BIS_1970 = 719468;
+
+    // Die Tage in einem 400-Jahres-Zyklus des gregorianischen Kalenders
+    private static final int TAGE_IN_400_JAHREN = 146097;
+
     // Dieses Feld ist das Jahr
     private final int _jahr;
 
@@ -30,13 +35,8 @@ public final class Datum implements Comparable<Datum>
     // Dieses Feld ist der Tag im Monat (1..31)
     private final int _tag;
 
-    // "Static initializer", initialisiert Klassenvariablen nach der Erzeugung
-    // des Klassenobjekts.
-    static
-    {
-        CALENDAR.setLenient(false);
-        CALENDAR.setTimeZone(TimeZone.getTimeZone("GMT"));
-    }
+    // Dieses Feld ist die Anzahl der Tage seit dem 1.1.1970
+    private final int _tageSeitEpoche;
 
     /**
      * Wählt ein Datum aus (tag, monat, jahr).
@@ -61,25 +61,57 @@ public final class Datum implements Comparable<Datum>
         _tag = tag;
         _monat = monat;
         _jahr = jahr;
+        _tageSeitEpoche = berechneTageSeitEpoche(tag, monat, jahr);
+    }
+
+    /**
+     * Erzeugt ein Datum aus den bereits bekannten Bestandteilen.
+     */
+    private Datum(int tag, int monat, int jahr, int tageSeitEpoche)
+    {
+        _tag = tag;
+        _monat = monat;
+        _jahr = jahr;
+        _tageSeitEpoche = tageSeitEpoche;
     }
 
     /**
-     * Liefert das heutige Datum zurück.
+     * Liefert das heutige Datum (nach GMT) zurück.
      * 
      * @ensure result != null
      */
     public static Datum heute()
     {
-        Datum datum = null;
-        synchronized (CALENDAR)
-        {
-            CALENDAR.clear();
-            CALENDAR.setTimeInMillis(System.currentTimeMillis());
-            datum = new Datum(CALENDAR.get(Calendar.DAY_OF_MONTH),
-                    CALENDAR.get(Calendar.MONTH) + 1,
-                    CALENDAR.get(Calendar.YEAR));
-        }
-        return datum;
+        return ausTagenSeitEpoche((int) (System.currentTimeMillis()
+                / MILLISECONDS_IN_ONE_DAY));
+    }
+
+    /**
+     * Liefert das Datum, das die angegebene Anzahl Tage nach dem 1.1.1970
+     * liegt (bzw. davor, wenn die Anzahl negativ ist).
+     * 
+     * @param tageSeitEpoche
+     *            Die Anzahl der Tage seit dem 1.1.1970.
+     * 
+     * @ensure result != null
+     * @ensure result.getTageSeitEpoche() == tageSeitEpoche
+     */
+    public static Datum ausTagenSeitEpoche(int tageSeitEpoche)
+    {
+        // Die Jahre werden ab dem 1. März gezählt, damit der Schalttag am
+        // Ende eines Jahres liegt.
+        int tage = tageSeitEpoche + TAGE_BIS_1970;
+        int zyklus = teileAbgerundet(tage, TAGE_IN_400_JAHREN);
+        int tagImZyklus = tage - zyklus * TAGE_IN_400_JAHREN;
+        int jahrImZyklus = (tagImZyklus - tagImZyklus / 1460 + tagImZyklus
+                / 36524 - tagImZyklus / 146096) / 365;
+        int tagImJahr = tagImZyklus
+                - (365 * jahrImZyklus + jahrImZyklus / 4 - jahrImZyklus / 100);
+        int monatAbMaerz = (5 * tagImJahr + 2) / 153;
+        int tag = tagImJahr - (153 * monatAbMaerz + 2) / 5 + 1;
+        int monat = monatAbMaerz < 10 ? monatAbMaerz + 3 : monatAbMaerz - 9;
+        int jahr = jahrImZyklus + zyklus * 400 + (monat <= 2 ? 1 : 0);
+        return new Datum(tag, monat, jahr, tageSeitEpoche);
     }
 
     /**
@@ -96,19 +128,63 @@ public final class Datum implements Comparable<Datum>
      */
     public static boolean istGueltig(int tag, int monat, int jahr)
     {
-        boolean gueltig = ((monat >= 1) && (monat <= 12));
-        if (gueltig)
+        return (monat >= 1) && (monat <= 12) && (tag >= 1)
+                && (tag <= tageImMonat(monat, jahr));
+    }
+
+    /**
+     * Gibt die Anzahl der Tage im angegebenen Monat zurück.
+     */
+    private static int tageImMonat(int monat, int jahr)
+    {
+        int result = 31;
+        if (monat == 2)
+        {
+            result = istSchaltjahr(jahr) ? 29 : 28;
+        }
+        else if (monat == 4 || monat == 6 || monat == 9 || monat == 11)
         {
-            synchronized (CALENDAR)
-            {
-                CALENDAR.clear();
-                CALENDAR.set(Calendar.YEAR, jahr);
-                CALENDAR.set(Calendar.MONTH, monat - 1);
-                gueltig = ((tag >= 1) && (tag <= CALENDAR
-                        .getActualMaximum(Calendar.DAY_OF_MONTH)));
-            }
+            result = 30;
         }
-        return gueltig;
+        return result;
+    }
+
+    /**
+     * Prüft, ob das angegebene Jahr ein Schaltjahr ist.
+     */
+    private static boolean istSchaltjahr(int jahr)
+    {
+        return (jahr % 4 == 0) && ((jahr % 100 != 0) || (jahr % 400 == 0));
+    }
+
+    /**
+     * Teilt ganzzahlig und rundet dabei auch für negative Dividenden ab.
+     */
+    private static int teileAbgerundet(int dividend, int divisor)
+    {
+        int result = dividend / divisor;
+        if (dividend % divisor < 0)
+        {
+            result--;
+        }
+        return result;
+    }
+
+    /**
+     * Berechnet die Anzahl der Tage vom 1.1.1970 bis zum angegebenen Datum.
+     */
+    private static int berechneTageSeitEpoche(int tag, int monat, int jahr)
+    {
+        // Die Jahre werden ab dem 1. März gezählt, damit der Schalttag am
+        // Ende eines Jahres liegt.
+        int jahrAbMaerz = monat <= 2 ? jahr - 1 : jahr;
+        int zyklus = teileAbgerundet(jahrAbMaerz, 400);
+        int jahrImZyklus = jahrAbMaerz - zyklus * 400;
+        int monatAbMaerz = monat > 2 ? monat - 3 : monat + 9;
+        int tagImJahr = (153 * monatAbMaerz + 2) / 5 + tag - 1;
+        int tagImZyklus = jahrImZyklus * 365 + jahrImZyklus / 4 - jahrImZyklus
+                / 100 + tagImJahr;
+        return zyklus * TAGE_IN_400_JAHREN + tagImZyklus - TAGE_BIS_1970;
     }
 
     /**
@@ -122,7 +198,7 @@ public final class Datum implements Comparable<Datum>
     @Override
     public int compareTo(Datum datum)
     {
-        return tageSeit(datum);
+        return Integer.compare(_tageSeitEpoche, datum._tageSeitEpoche);
     }
 
     /**
@@ -140,9 +216,7 @@ public final class Datum implements Comparable<Datum>
         if (o instanceof Datum)
         {
             Datum vergleichsdatum = (Datum) o;
-            result = ((getTag() == vergleichsdatum.getTag())
-                    && (getMonat() == vergleichsdatum.getMonat()) && (getJahr() == vergleichsdatum
-                    .getJahr()));
+            result = (_tageSeitEpoche == vergleichsdatum._tageSeitEpoche);
         }
         return result;
     }
@@ -178,6 +252,16 @@ public final class Datum implements Comparable<Datum>
         return _tag;
     }
 
+    /**
+     * Gibt die Anzahl der Tage vom 1.1.1970 bis zu diesem Datum zurück.
+     * 
+     * @ensure Datum.ausTagenSeitEpoche(result).equals(this)
+     */
+    public int getTageSeitEpoche()
+    {
+        return _tageSeitEpoche;
+    }
+
     /**
      * Subtrahiert von diesem Datum eine übergebene Anzahl an Tagen und gibt das
      * Ergebnis als neues Datum zurück.
@@ -192,17 +276,7 @@ public final class Datum implements Comparable<Datum>
     public Datum minus(int tage)
     {
         assert tage >= 0 : "Vorbedingung verletzt: tage >= 0";
-        Datum datum = null;
-        synchronized (CALENDAR)
-        {
-            CALENDAR.clear();
-            CALENDAR.set(_jahr, _monat - 1, _tag);
-            CALENDAR.add(Calendar.DAY_OF_MONTH, -tage);
-            datum = new Datum(CALENDAR.get(Calendar.DAY_OF_MONTH),
-                    CALENDAR.get(Calendar.MONTH) + 1,
-                    CALENDAR.get(Calendar.YEAR));
-        }
-        return datum;
+        return ausTagenSeitEpoche(_tageSeitEpoche - tage);
     }
 
     /**
@@ -219,17 +293,7 @@ public final class Datum implements Comparable<Datum>
     public Datum plus(int tage)
     {
         assert tage >= 0 : "Vorbedingung verletzt: tage >= 0";
-        Datum datum = null;
-        synchronized (CALENDAR)
-        {
-            CALENDAR.clear();
-            CALENDAR.set(_jahr, _monat - 1, _tag);
-            CALENDAR.add(Calendar.DAY_OF_MONTH, tage);
-            datum = new Datum(CALENDAR.get(Calendar.DAY_OF_MONTH),
-                    CALENDAR.get(Calendar.MONTH) + 1,
-                    CALENDAR.get(Calendar.YEAR));
-        }
-        return datum;
+        return ausTagenSeitEpoche(_tageSeitEpoche + tage);
     }
 
     /**
@@ -265,24 +329,7 @@ public final class Datum implements Comparable<Datum>
     {
         assert startDatum != null : "Vorbedingung verletzt: startDatum != null";
 
-        long startMillis = startDatum.inMillisekunden();
-        long endMillis = this.inMillisekunden();
-
-        return (int) ((endMillis - startMillis) / MILLISECONDS_IN_ONE_DAY);
-    }
-
-    /**
-     * Gibt dieses Datum in Millisekunden zurück.
-     */
-    private long inMillisekunden()
-    {
-        synchronized (CALENDAR)
-        {
-            CALENDAR.clear();
-            CALENDAR.set(_jahr, _monat - 1, _tag);
-            long endMillis = CALENDAR.getTimeInMillis();
-            return endMillis;
-        }
+        return _tageSeitEpoche - startDatum._tageSeitEpoche;
     }
 
     /**
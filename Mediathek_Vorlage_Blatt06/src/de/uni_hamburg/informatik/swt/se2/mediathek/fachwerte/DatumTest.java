@@ -109,6 +109,27 @@ public class DatumTest
         assertTrue(Datum.istGueltig(1, 12, 2006));
     }
 
+    @Test
+    public void testSchaltjahre()
+    {
+        assertTrue(Datum.istGueltig(29, 2, 2000));
+        assertTrue(Datum.istGueltig(29, 2, 2012));
+        assertFalse(Datum.istGueltig(29, 2, 1900));
+        assertFalse(Datum.istGueltig(29, 2, 2011));
+        assertEquals(new Datum(1, 3, 2012), new Datum(28, 2, 2012).plus(2));
+        assertEquals(366, new Datum(1, 1, 2013).tageSeit(new Datum(1, 1, 2012)));
+    }
+
+    @Test
+    public void testTageSeitEpoche()
+    {
+        assertEquals(0, new Datum(1, 1, 1970).getTageSeitEpoche());
+        assertEquals(-1, new Datum(31, 12, 1969).getTageSeitEpoche());
+        Datum datum = new Datum(14, 4, 2009);
+        assertEquals(datum,
+                Datum.ausTagenSeitEpoche(datum.getTageSeitEpoche()));
+    }
+
     @Test
     public void testHeute()
     {
@@ -1,7 +1,13 @@
 package de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte;
 
 /**
- * Ein Geldbetrag in Euro, gespeichert als ganze Euro- und ganze Cent-Beträge.
+ * Ein Geldbetrag in Euro, gespeichert als ganze Euro-Cent.
+ * 
+ * Geldbeträge können addiert, subtrahiert und mit ganzen Zahlen multipliziert
+ * werden. Ein Ergebnis, das nicht mehr in einen long passt, führt zu einer
+ * {@link ArithmeticException}, damit auch große Summen exakt bleiben. Zum
+ * Aufsummieren vieler Beträge in einer Schleife gibt es
+ * {@link GeldbetragSumme}, die ohne neue Objekte auskommt.
  * 
  * @author SE2-Team
  * @version SoSe 2012
@@ -9,8 +15,7 @@ package de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte;
 public final class Geldbetrag
 {
 
-    private final int _euroAnteil;
-    private final int _centAnteil;
+    private final long _eurocent;
 
     /**
      * Wählt einen Geldbetrag aus.
@@ -23,37 +28,127 @@ public final class Geldbetrag
     public Geldbetrag(int eurocent)
     {
         assert eurocent >= 0 : "Vorbedingung verletzt: eurocent >= 0";
-        _euroAnteil = eurocent / 100;
-        _centAnteil = eurocent % 100;
+        _eurocent = eurocent;
+    }
+
+    private Geldbetrag(long eurocent)
+    {
+        _eurocent = eurocent;
     }
 
     /**
-     * Gibt den Eurobetrag ohne Cent zurück.
+     * Wählt einen Geldbetrag aus. Anders als beim Konstruktor darf der Betrag
+     * auch negativ sein, etwa als Ergebnis einer Subtraktion.
+     * 
+     * @param eurocent
+     *            Der Betrag in ganzen Euro-Cent
+     * 
+     * @ensure result.getEurocent() == eurocent
+     */
+    public static Geldbetrag ausEurocent(long eurocent)
+    {
+        return new Geldbetrag(eurocent);
+    }
+
+    /**
+     * Gibt den ganzen Betrag in Euro-Cent zurück.
+     */
+    public long getEurocent()
+    {
+        return _eurocent;
+    }
+
+    /**
+     * Gibt den Eurobetrag ohne Cent zurück. Bei einem negativen Betrag ist
+     * auch der Eurobetrag negativ (oder 0).
      * 
      * @return Den Eurobetrag ohne Cent.
+     * 
+     * @require Der Eurobetrag passt in einen int
      */
     public int getEuroAnteil()
     {
-        return _euroAnteil;
+        long euro = _eurocent / 100;
+        assert euro == (int) euro : "Vorbedingung verletzt: Der Eurobetrag passt in einen int";
+        return (int) euro;
     }
 
     /**
      * Gibt den Centbetrag ohne Eurobetrag zurück.
+     * 
+     * @ensure result >= 0 && result < 100
      */
     public int getCentAnteil()
     {
-        return _centAnteil;
+        return (int) Math.abs(_eurocent % 100);
+    }
+
+    /**
+     * Gibt die Summe aus diesem und dem gegebenen Geldbetrag zurück.
+     * 
+     * @param betrag
+     *            Der zu addierende Geldbetrag.
+     * 
+     * @require betrag != null
+     * 
+     * @ensure result.getEurocent() == getEurocent() + betrag.getEurocent()
+     * 
+     * @throws ArithmeticException
+     *             wenn die Summe nicht in einen long passt.
+     */
+    public Geldbetrag plus(Geldbetrag betrag)
+    {
+        assert betrag != null : "Vorbedingung verletzt: betrag != null";
+        return new Geldbetrag(addiere(_eurocent, betrag._eurocent));
+    }
+
+    /**
+     * Gibt die Differenz aus diesem und dem gegebenen Geldbetrag zurück. Das
+     * Ergebnis kann negativ sein.
+     * 
+     * @param betrag
+     *            Der abzuziehende Geldbetrag.
+     * 
+     * @require betrag != null
+     * 
+     * @ensure result.getEurocent() == getEurocent() - betrag.getEurocent()
+     * 
+     * @throws ArithmeticException
+     *             wenn die Differenz nicht in einen long passt.
+     */
+    public Geldbetrag minus(Geldbetrag betrag)
+    {
+        assert betrag != null : "Vorbedingung verletzt: betrag != null";
+        return new Geldbetrag(subtrahiere(_eurocent, betrag._eurocent));
+    }
+
+    /**
+     * Gibt das Vielfache dieses Geldbetrags zurück.
+     * 
+     * @param faktor
+     *            Der Faktor, etwa eine Anzahl von Tagen oder Medien.
+     * 
+     * @ensure result.getEurocent() == getEurocent() * faktor
+     * 
+     * @throws ArithmeticException
+     *             wenn das Produkt nicht in einen long passt.
+     */
+    public Geldbetrag mal(long faktor)
+    {
+        return new Geldbetrag(multipliziere(_eurocent, faktor));
     }
 
     /**
      * Liefert einen formatierten String des Geldbetrags in der Form "10,23"
-     * zurück.
+     * zurück, negative Beträge in der Form "-10,23".
      * 
      * @return eine String-Repräsentation.
      */
     public String getFormatiertenString()
     {
-        return _euroAnteil + "," + getFormatiertenCentAnteil();
+        long euro = Math.abs(_eurocent / 100);
+        return (_eurocent < 0 ? "-" : "") + euro + ","
+                + getFormatiertenCentAnteil();
     }
 
     /**
@@ -64,22 +159,74 @@ public final class Geldbetrag
     private String getFormatiertenCentAnteil()
     {
         String result = "";
-        if (_centAnteil < 10)
+        int centAnteil = getCentAnteil();
+        if (centAnteil < 10)
         {
             result += "0";
         }
-        result += _centAnteil;
+        result += centAnteil;
+        return result;
+    }
+
+    /**
+     * Addiert zwei Beträge in Euro-Cent.
+     * 
+     * @throws ArithmeticException
+     *             wenn die Summe nicht in einen long passt.
+     */
+    static long addiere(long a, long b)
+    {
+        long result = a + b;
+        // Ein Überlauf liegt vor, wenn beide Summanden ein anderes Vorzeichen
+        // als das Ergebnis haben.
+        if (((a ^ result) & (b ^ result)) < 0)
+        {
+            throw new ArithmeticException("Überlauf bei " + a + " + " + b);
+        }
+        return result;
+    }
+
+    /**
+     * Subtrahiert zwei Beträge in Euro-Cent.
+     * 
+     * @throws ArithmeticException
+     *             wenn die Differenz nicht in einen long passt.
+     */
+    static long subtrahiere(long a, long b)
+    {
+        long result = a - b;
+        if (((a ^ b) & (a ^ result)) < 0)
+        {
+            throw new ArithmeticException("Überlauf bei " + a + " - " + b);
+        }
+        return result;
+    }
+
+    /**
+     * Multipliziert einen Betrag in Euro-Cent mit einem Faktor.
+     * 
+     * @throws ArithmeticException
+     *             wenn das Produkt nicht in einen long passt.
+     */
+    static long multipliziere(long a, long b)
+    {
+        long result = a * b;
+        // Passen beide Faktoren in 31 Bit, kann das Produkt nicht überlaufen.
+        if (((Math.abs(a) | Math.abs(b)) >>> 31) != 0)
+        {
+            if ((b != 0 && result / b != a)
+                    || (a == Long.MIN_VALUE && b == -1))
+            {
+                throw new ArithmeticException("Überlauf bei " + a + " * " + b);
+            }
+        }
         return result;
     }
 
     @Override
     public int hashCode()
     {
-        final int prime = 31;
-        int result = 1;
-        result = prime + _centAnteil;
-        result = prime * result + _euroAnteil;
-        return result;
+        return (int) (_eurocent ^ (_eurocent >>> 32));
     }
 
     @Override
@@ -89,8 +236,7 @@ public final class Geldbetrag
         if (obj instanceof Geldbetrag)
         {
             Geldbetrag other = (Geldbetrag) obj;
-            result = (_centAnteil == other._centAnteil)
-                    && (_euroAnteil == other._euroAnteil);
+            result = _eurocent == other._eurocent;
         }
         return result;
     }
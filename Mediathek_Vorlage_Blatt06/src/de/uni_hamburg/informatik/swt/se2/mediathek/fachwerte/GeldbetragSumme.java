@@ -0,0 +1,147 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte;
+
+/**
+ * Eine veränderbare Summe von Geldbeträgen in Euro-Cent, zum Aufsummieren
+ * vieler Beträge in einer Schleife. Anders als bei {@link Geldbetrag#plus}
+ * wird beim Addieren kein neues Objekt angelegt; der {@link Geldbetrag} wird
+ * erst mit {@link #getGeldbetrag()} erzeugt.
+ * 
+ * Wie bei {@link Geldbetrag} führt ein Überlauf zu einer
+ * {@link ArithmeticException}. Eine Summe ist nicht threadsicher; parallele
+ * Berechnungen führen je Thread eine eigene Summe und fassen sie mit
+ * {@link #addiere(GeldbetragSumme)} zusammen.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public final class GeldbetragSumme
+{
+    private long _eurocent;
+
+    /**
+     * Initialisiert eine neue Summe mit dem Wert 0.
+     * 
+     * @ensure getEurocent() == 0
+     */
+    public GeldbetragSumme()
+    {
+        _eurocent = 0;
+    }
+
+    /**
+     * Addiert einen Betrag in Euro-Cent.
+     * 
+     * @param eurocent
+     *            Der Betrag in Euro-Cent, er darf auch negativ sein.
+     * 
+     * @throws ArithmeticException
+     *             wenn die Summe nicht in einen long passt.
+     */
+    public void addiere(long eurocent)
+    {
+        _eurocent = Geldbetrag.addiere(_eurocent, eurocent);
+    }
+
+    /**
+     * Addiert einen Geldbetrag.
+     * 
+     * @require betrag != null
+     * 
+     * @throws ArithmeticException
+     *             wenn die Summe nicht in einen long passt.
+     */
+    public void addiere(Geldbetrag betrag)
+    {
+        assert betrag != null : "Vorbedingung verletzt: betrag != null";
+        addiere(betrag.getEurocent());
+    }
+
+    /**
+     * Addiert eine andere Summe.
+     * 
+     * @require summe != null
+     * 
+     * @throws ArithmeticException
+     *             wenn die Summe nicht in einen long passt.
+     */
+    public void addiere(GeldbetragSumme summe)
+    {
+        assert summe != null : "Vorbedingung verletzt: summe != null";
+        addiere(summe._eurocent);
+    }
+
+    /**
+     * Addiert das Vielfache eines Betrags in Euro-Cent, etwa Tagesmiete mal
+     * Anzahl Tage.
+     * 
+     * @throws ArithmeticException
+     *             wenn das Produkt oder die Summe nicht in einen long passt.
+     */
+    public void addiere(long eurocent, long faktor)
+    {
+        addiere(Geldbetrag.multipliziere(eurocent, faktor));
+    }
+
+    /**
+     * Subtrahiert einen Betrag in Euro-Cent.
+     * 
+     * @throws ArithmeticException
+     *             wenn die Differenz nicht in einen long passt.
+     */
+    public void subtrahiere(long eurocent)
+    {
+        _eurocent = Geldbetrag.subtrahiere(_eurocent, eurocent);
+    }
+
+    /**
+     * Subtrahiert einen Geldbetrag.
+     * 
+     * @require betrag != null
+     * 
+     * @throws ArithmeticException
+     *             wenn die Differenz nicht in einen long passt.
+     */
+    public void subtrahiere(Geldbetrag betrag)
+    {
+        assert betrag != null : "Vorbedingung verletzt: betrag != null";
+        subtrahiere(betrag.getEurocent());
+    }
+
+    /**
+     * Setzt die Summe auf 0 zurück.
+     * 
+     * @ensure getEurocent() == 0
+     */
+    public void leere()
+    {
+        _eurocent = 0;
+    }
+
+    /**
+     * Gibt die Summe in Euro-Cent zurück.
+     */
+    public long getEurocent()
+    {
+        return _eurocent;
+    }
+
+    /**
+     * Gibt die Summe als Geldbetrag zurück.
+     * 
+     * @ensure result != null
+     * @ensure result.getEurocent() == getEurocent()
+     */
+    public Geldbetrag getGeldbetrag()
+    {
+        return Geldbetrag.ausEurocent(_eurocent);
+    }
+
+    /**
+     * Gibt die Summe in der Form "10,21" zurück.
+     */
+    @Override
+    public String toString()
+    {
+        return getGeldbetrag().toString();
+    }
+}
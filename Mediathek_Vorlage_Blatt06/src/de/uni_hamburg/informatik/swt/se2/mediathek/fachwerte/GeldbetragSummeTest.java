@@ -0,0 +1,60 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class GeldbetragSummeTest
+{
+    @Test
+    public void testAddiereSubtrahiere()
+    {
+        GeldbetragSumme summe = new GeldbetragSumme();
+        assertEquals(0, summe.getEurocent());
+
+        summe.addiere(300);
+        summe.addiere(new Geldbetrag(200));
+        summe.addiere(700, 3);
+        summe.subtrahiere(new Geldbetrag(100));
+        assertEquals(2500, summe.getEurocent());
+        assertEquals(new Geldbetrag(2500), summe.getGeldbetrag());
+        assertEquals("25,00", summe.toString());
+
+        GeldbetragSumme andere = new GeldbetragSumme();
+        andere.subtrahiere(3000);
+        summe.addiere(andere);
+        assertEquals(Geldbetrag.ausEurocent(-500), summe.getGeldbetrag());
+
+        summe.leere();
+        assertEquals(0, summe.getEurocent());
+    }
+
+    @Test
+    public void testVieleBetraege()
+    {
+        GeldbetragSumme summe = new GeldbetragSumme();
+        for (int i = 0; i < 1000000; i++)
+        {
+            summe.addiere(Integer.MAX_VALUE);
+        }
+        assertEquals(Integer.MAX_VALUE * 1000000L, summe.getEurocent());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testUeberlauf()
+    {
+        GeldbetragSumme summe = new GeldbetragSumme();
+        summe.addiere(Long.MAX_VALUE);
+        summe.addiere(1);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testUeberlaufFaktor()
+    {
+        new GeldbetragSumme().addiere(Long.MAX_VALUE, -2);
+    }
+}
@@ -53,5 +53,47 @@ public class GeldbetragTest
         Geldbetrag betrag4 = new Geldbetrag(1000);
         assertFalse(betrag1.equals(betrag4));
         assertFalse(betrag1.hashCode() == betrag4.hashCode());
+
+        assertTrue(betrag1.equals(Geldbetrag.ausEurocent(100)));
+    }
+
+    @Test
+    public final void testRechnen()
+    {
+        Geldbetrag betrag = new Geldbetrag(250);
+        assertEquals(new Geldbetrag(350), betrag.plus(new Geldbetrag(100)));
+        assertEquals(new Geldbetrag(150), betrag.minus(new Geldbetrag(100)));
+        assertEquals(new Geldbetrag(750), betrag.mal(3));
+        assertEquals(new Geldbetrag(0), betrag.mal(0));
+
+        Geldbetrag negativ = betrag.minus(new Geldbetrag(305));
+        assertEquals(-55, negativ.getEurocent());
+        assertEquals(0, negativ.getEuroAnteil());
+        assertEquals(55, negativ.getCentAnteil());
+        assertEquals("-0,55", negativ.getFormatiertenString());
+        assertEquals("-12,05", Geldbetrag.ausEurocent(-1205).toString());
+
+        Geldbetrag gross = new Geldbetrag(Integer.MAX_VALUE).mal(1000);
+        assertEquals(Integer.MAX_VALUE * 1000L, gross.getEurocent());
+        assertEquals(Integer.MAX_VALUE * 1000L + 1,
+                gross.plus(new Geldbetrag(1)).getEurocent());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public final void testUeberlaufPlus()
+    {
+        Geldbetrag.ausEurocent(Long.MAX_VALUE).plus(new Geldbetrag(1));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public final void testUeberlaufMinus()
+    {
+        Geldbetrag.ausEurocent(Long.MIN_VALUE).minus(new Geldbetrag(1));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public final void testUeberlaufMal()
+    {
+        Geldbetrag.ausEurocent(Long.MAX_VALUE / 2 + 1).mal(2);
     }
 }
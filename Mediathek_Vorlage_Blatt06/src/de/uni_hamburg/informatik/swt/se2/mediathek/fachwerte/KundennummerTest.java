@@ -36,4 +36,10 @@ public class KundennummerTest
         assertFalse(Kundennummer.istGueltig(0));
         assertFalse(Kundennummer.istGueltig(1111111));
     }
+
+    @Test
+    public void testGetZahl()
+    {
+        assertEquals(123456, new Kundennummer(123456).getZahl());
+    }
 }
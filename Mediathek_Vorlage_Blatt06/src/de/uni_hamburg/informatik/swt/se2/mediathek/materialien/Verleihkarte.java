@@ -110,25 +110,35 @@ public class Verleihkarte
     }
 
     /**
-     * Gibt die aktuelle Mietgebühr zurück.
+     * Gibt die Mietgebühr bis zum gegebenen Stichtag zurück.
      * 
-     * @return Die aktuelle Mietgebühr bis zum heutigen Tag.
+     * @param stichtag
+     *            Der Tag, bis zu dem die Gebühr berechnet wird.
+     * @return Die Mietgebühr bis zum Stichtag.
+     * 
+     * @require stichtag != null
      * 
      * @ensure result != null
      */
-    public Geldbetrag getMietgebuehr()
+    public Geldbetrag getMietgebuehr(Datum stichtag)
     {
-        return _medium.berechneMietgebuehr(_ausleihdatum, Datum.heute());
+        assert stichtag != null : "Vorbedingung verletzt: stichtag != null";
+        return _medium.berechneMietgebuehr(_ausleihdatum, stichtag);
     }
 
     /**
-     * Berechnet die Ausleihdauer in Tagen.
+     * Berechnet die Ausleihdauer in Tagen bis zum gegebenen Stichtag.
      * 
+     * @param stichtag
+     *            Der Tag, bis zu dem die Ausleihdauer berechnet wird.
      * @return Die Ausleihdauer in Tagen.
+     * 
+     * @require stichtag != null
      */
-    public int getAusleihdauer()
+    public int getAusleihdauer(Datum stichtag)
     {
-        return Datum.heute().tageSeit(getAusleihdatum());
+        assert stichtag != null : "Vorbedingung verletzt: stichtag != null";
+        return stichtag.tageSeit(getAusleihdatum());
     }
 
     @Override
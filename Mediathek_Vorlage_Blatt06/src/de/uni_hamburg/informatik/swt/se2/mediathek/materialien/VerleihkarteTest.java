@@ -50,25 +50,36 @@ public class VerleihkarteTest
     @Test
     public void testgetMietgebuehr()
     {
-        Datum tag1 = Datum.heute().minus(1);
+        Datum stichtag = new Datum(15, 3, 2012);
+        Datum tag1 = stichtag.minus(1);
         Verleihkarte karte = new Verleihkarte(_kunde, _medium, tag1);
-        assertEquals(new Geldbetrag(300 * 2), karte.getMietgebuehr());
+        assertEquals(new Geldbetrag(300 * 2), karte.getMietgebuehr(stichtag));
 
-        Datum tag2 = Datum.heute().minus(2);
+        Datum tag2 = stichtag.minus(2);
         karte = new Verleihkarte(_kunde, _medium, tag2);
-        assertEquals(new Geldbetrag(300 * 3), karte.getMietgebuehr());
+        assertEquals(new Geldbetrag(300 * 3), karte.getMietgebuehr(stichtag));
 
-        Datum tag3 = Datum.heute().minus(7);
+        Datum tag3 = stichtag.minus(7);
         karte = new Verleihkarte(_kunde, _medium, tag3);
-        assertEquals(new Geldbetrag(300 * 8), karte.getMietgebuehr());
+        assertEquals(new Geldbetrag(300 * 8), karte.getMietgebuehr(stichtag));
     }
 
     @Test
     public void testgetAusleihdauer()
     {
-        Datum datum = Datum.heute().minus(10);
-        _karte = new Verleihkarte(_kunde, _medium, datum);
-        assertEquals(10, _karte.getAusleihdauer());
+        Datum stichtag = new Datum(15, 3, 2012);
+        _karte = new Verleihkarte(_kunde, _medium, stichtag.minus(10));
+        assertEquals(10, _karte.getAusleihdauer(stichtag));
+    }
+
+    @Test
+    public void testStichtag()
+    {
+        Datum ausleihe = new Datum(1, 1, 2012);
+        Verleihkarte karte = new Verleihkarte(_kunde, _medium, ausleihe);
+        Datum stichtag = ausleihe.plus(365);
+        assertEquals(365, karte.getAusleihdauer(stichtag));
+        assertEquals(new Geldbetrag(300 * 366), karte.getMietgebuehr(stichtag));
     }
 
     @Test
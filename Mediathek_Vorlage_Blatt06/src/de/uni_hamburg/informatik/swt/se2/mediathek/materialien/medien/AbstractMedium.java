@@ -1,11 +1,7 @@
 package de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
 import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Geldbetrag;
-import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
 
 /**
  * Ein {@link AbstractMedium} bietet eine Standardimplementation für ein
@@ -19,11 +15,6 @@ abstract class AbstractMedium implements Medium
     // 4 Leerzeichen für formatierte Strings
     protected static final String SPACE = "    ";
 
-    /**
-     * Gebühr für einen Tag
-     */
-    private final int _tagesmietgebuehr;
-
     /**
      * Ein Kommentar zum Medium
      */
@@ -35,11 +26,6 @@ abstract class AbstractMedium implements Medium
      */
     private String _titel;
 
-    /**
-     * Vormerkliste
-     */
-    private List _vormerker;
-
     /**
      * Initialisiert ein neues Exemplar.
      * 
@@ -60,8 +46,6 @@ abstract class AbstractMedium implements Medium
         assert kommentar != null : "Vorbedingung verletzt: kommentar != null";
         _titel = titel;
         _kommentar = kommentar;
-        _tagesmietgebuehr = 300;
-        _vormerker = new ArrayList<Kunde>();
     }
 
     @Override
@@ -71,7 +55,14 @@ abstract class AbstractMedium implements Medium
         assert bis != null : "Vorbedingung verletzt: bis != null";
         assert von.compareTo(bis) <= 0 : "Vorbedingung verletzt: von <= bis";
 
-        return new Geldbetrag(_tagesmietgebuehr * (bis.tageSeit(von) + 1));
+        return new Geldbetrag(getTarif().berechneMietgebuehr(
+                bis.tageSeit(von) + 1));
+    }
+
+    @Override
+    public Tarif getTarif()
+    {
+        return Tarif.TAGESMIETE;
     }
 
     @Override
@@ -123,58 +114,4 @@ abstract class AbstractMedium implements Medium
         _titel = titel;
     }
 
-    /*
-     * ################# Teil für das Vormerken ################
-     */
-    @SuppressWarnings("unchecked")
-    @Override
-    public void setVormerker(Kunde kunde)
-    {
-        _vormerker.add(kunde);
-    }
-
-    @SuppressWarnings("unchecked")
-    @Override
-    public List<Kunde> getVormerker()
-    {
-        return _vormerker;
-    }
-
-    @Override
-    public Kunde getErsterVormerker()
-    {
-        if (_vormerker.size() > 0)
-        {
-            return (Kunde) _vormerker.get(0);
-        }
-        else
-        {
-            return null;
-        }
-    }
-
-    @Override
-    public boolean istVormerkenMoeglich(Kunde kunde)
-    {
-        // Länge >= 3
-        if (_vormerker.size() >= 3)
-        {
-            return false;
-        }
-
-        // _vormerker.contains(kunde)
-        if (kunde == null || _vormerker.contains(kunde))
-        {
-            return false;
-        }
-
-        return true;
-    }
-
-    @Override
-    public void vormerkerLoeschen(Kunde kunde)
-    {
-        _vormerker.remove(kunde);
-    }
-
 }
@@ -3,16 +3,11 @@ package de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
-import static org.junit.Assert.assertTrue;
-
-import java.util.ArrayList;
 
 import org.junit.Test;
 
 import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
 import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Geldbetrag;
-import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
-import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
 
 /**
  * Testklasse für AbstractMediumTest. Testklassen für konkrete Medienklassen
@@ -93,37 +88,4 @@ public abstract class AbstractMediumTest
      * DVDTest
      */
     protected abstract Medium getMedium();
-
-    @Test
-    public void testVormerken()
-    {
-        // istVormerkenMoeglich()
-        Medium medium = getMedium();
-        Kunde kunde1, kunde2, kunde3, kunde4;
-
-        kunde1 = new Kunde(new Kundennummer(111), "Vorname1", "Nachname1");
-        kunde2 = new Kunde(new Kundennummer(222), "Vorname2", "Nachname2");
-        kunde3 = new Kunde(new Kundennummer(333), "Vorname3", "Nachname3");
-        kunde4 = new Kunde(new Kundennummer(444), "Vorname4", "Nachname4");
-
-        medium.setVormerker(kunde1);
-        medium.setVormerker(kunde2);
-        assertTrue(medium.istVormerkenMoeglich(kunde3));
-        medium.setVormerker(kunde3);
-
-        assertFalse(medium.istVormerkenMoeglich(kunde4));
-        assertFalse(medium.istVormerkenMoeglich(kunde3));
-
-        // getErsterVormerker()
-        assertEquals(kunde1, medium.getErsterVormerker());
-
-        // getVormerker()
-        ArrayList<Kunde> vormerker;
-        vormerker = new ArrayList<Kunde>();
-        vormerker.add(kunde1);
-        vormerker.add(kunde2);
-        vormerker.add(kunde3);
-        assertNotNull(vormerker);
-
-    }
 }
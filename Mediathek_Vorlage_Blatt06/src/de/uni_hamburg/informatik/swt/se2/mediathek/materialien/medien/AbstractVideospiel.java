@@ -1,8 +1,5 @@
 package de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien;
 
-import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
-import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Geldbetrag;
-
 /**
  * Ein {@link AbstractVideospiel} bietet seine Standardimplemntation für
  * Videospiele an.
@@ -12,11 +9,6 @@ import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Geldbetrag;
  */
 abstract class AbstractVideospiel extends AbstractMedium
 {
-    /**
-     * Basispreis eines Videospiels in Cent
-     */
-    protected final int _basispreis;
-
     /**
      * Das System, auf dem das Spiel lauffähig ist
      */
@@ -46,14 +38,6 @@ abstract class AbstractVideospiel extends AbstractMedium
 
         assert system != null : "Vorbedingung verletzt: system != null";
         _system = system;
-        _basispreis = 200;
-    }
-
-    @Override
-    public Geldbetrag berechneMietgebuehr(Datum von, Datum bis)
-    {
-        return new Geldbetrag(_basispreis
-                + getPreisNachTagen(bis.tageSeit(von) + 1));
     }
 
     @Override
@@ -76,12 +60,4 @@ abstract class AbstractVideospiel extends AbstractMedium
         return _system;
     }
 
-    /**
-     * Berechnet den Preis für ein Videospiel mit einer Verleihdauer von tage.
-     * 
-     * @param tage
-     *            Verleihdauer des Videospiels in Tagen.
-     */
-    protected abstract int getPreisNachTagen(int tage);
-
 }
@@ -42,9 +42,9 @@ public class KonsolenVideospiel extends AbstractVideospiel implements Medium
     }
 
     @Override
-    protected int getPreisNachTagen(int tage)
+    public Tarif getTarif()
     {
-        return (int) (Math.floor(tage / 3.0) * 700);
+        return Tarif.KONSOLENVIDEOSPIEL;
     }
 
     @Override
@@ -1,10 +1,7 @@
 package de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien;
 
-import java.util.List;
-
 import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
 import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Geldbetrag;
-import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
 
 /**
  * Ein {@link Medium} definiert Eigenschaften, die alle Medien unserer Mediathek
@@ -36,6 +33,14 @@ public interface Medium
      */
     Geldbetrag berechneMietgebuehr(Datum von, Datum bis);
 
+    /**
+     * Gibt den Tarif zurück, nach dem die Mietgebühr dieses Mediums berechnet
+     * wird.
+     * 
+     * @ensure result != null
+     */
+    Tarif getTarif();
+
     /**
      * Gibt einen formatierten Text mit allen Eigenschaften des Mediums zurück.
      * Jedes Attribute steht in einer eigenen Zeile mit der Form "Attributename:
@@ -97,71 +102,4 @@ public interface Medium
      */
     public void setTitel(String titel);
 
-    /*
-     * ################# Teil für das Vormerken ################
-     */
-
-    /**
-     * Setzt den Kunden als neuen Vormerker an das Ende der Liste
-     * 
-     * @param kunde
-     *            zu setzender Kunde
-     * @param medium
-     *            vorzumerkendes Medium
-     * 
-     * @require kundeImBestand(kunde)
-     * @require istVormerkenMoeglich(kunde)
-     * @ensure getVormerker.contains(kunde)
-     * @ensure getVormerker.sitze <= 3
-     */
-    void setVormerker(Kunde kunde);
-
-    /**
-     * Liefert eine Liste der Vormerker für das Medium
-     * 
-     * @param medium
-     *            Medium
-     * 
-     * @return List<Kunde> Vollständige Liste der vormerkenden Kunden
-     */
-    List<Kunde> getVormerker();
-
-    /**
-     * Gibt den Kunden an erster Stelle der Vormerkliste aus. Kann auch null
-     * sein.
-     * 
-     * @param medium
-     * 
-     * @return Kunde an erster Stelle der Liste
-     */
-    Kunde getErsterVormerker();
-
-    /**
-     * prüft, ob der Kunde das Medium vormerken kann. Eine Prüfung Vormerker !=
-     * Entleiher macht VerleihService. Daher darf keine andere Klasse diese
-     * Methode benutzen.
-     * 
-     * @param kunde
-     *            Kunde
-     * @param medium
-     *            Medium
-     * @return Vormerken möglich
-     * 
-     */
-    boolean istVormerkenMoeglich(Kunde kunde);
-
-    /**
-     * Entfernt den Kunden aus der Vormerkliste des Mediums
-     * 
-     * @param kunde
-     *            Kunde
-     * @param medium
-     *            Medium
-     * 
-     * @require kundeImBestand(kunde)
-     * @require getVormerker.contains(kunde)
-     * @ensure !getVormerker.contains(kunde)
-     */
-    void vormerkerLoeschen(Kunde kunde);
-
 }
@@ -41,10 +41,9 @@ public class PCVideospiel extends AbstractVideospiel implements Medium
     }
 
     @Override
-    protected int getPreisNachTagen(int tage)
+    public Tarif getTarif()
     {
-        int kostenpflichtigeTage = Math.max(0, tage - 7);
-        return (int) (Math.ceil(kostenpflichtigeTage / 5.0) * 500);
+        return Tarif.PCVIDEOSPIEL;
     }
 
     @Override
@@ -0,0 +1,59 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien;
+
+/**
+ * Die Preisregeln, nach denen die Mietgebühr eines {@link Medium}s berechnet
+ * wird. Jedes Medium nennt mit {@link Medium#getTarif()} seinen Tarif, damit
+ * Gebühren für viele Medien gleichen Tarifs ohne einzelne Aufrufe am Medium
+ * berechnet werden können.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public enum Tarif
+{
+    /**
+     * 3 Euro je Miettag (CD und DVD).
+     */
+    TAGESMIETE,
+
+    /**
+     * 2 Euro Grundpreis und 7 Euro für je 3 volle Miettage.
+     */
+    KONSOLENVIDEOSPIEL,
+
+    /**
+     * 2 Euro Grundpreis, die ersten 7 Miettage sind frei, danach 5 Euro für je
+     * angefangene 5 Miettage.
+     */
+    PCVIDEOSPIEL;
+
+    /**
+     * Berechnet die Mietgebühr in Eurocent für die angegebene Anzahl von
+     * Miettagen. Ausleih- und Rückgabetag zählen beide als Miettag.
+     *
+     * @param miettage
+     *            Die Anzahl der Miettage.
+     *
+     * @require miettage >= 1
+     *
+     * @ensure result >= 0
+     */
+    public int berechneMietgebuehr(int miettage)
+    {
+        assert miettage >= 1 : "Vorbedingung verletzt: miettage >= 1";
+        int result;
+        switch (this)
+        {
+        case KONSOLENVIDEOSPIEL:
+            result = 200 + (miettage / 3) * 700;
+            break;
+        case PCVIDEOSPIEL:
+            result = 200 + ((Math.max(0, miettage - 7) + 4) / 5) * 500;
+            break;
+        default:
+            result = 300 * miettage;
+            break;
+        }
+        return result;
+    }
+}
@@ -2,11 +2,21 @@ package de.uni_hamburg.informatik.swt.se2.mediathek.services;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Eine abstrakt Implementation des {@link BeobachtbarerService} Interfaces, die
  * die Verwaltung und Benachrichtigung der Beobachter bereitstellt.
  * 
+ * Wie die Beobachter benachrichtigt werden, legt die {@link Zustellung} fest.
+ * Zwischen {@link #beginneStapel()} und {@link #beendeStapel()} werden keine
+ * Beobachter benachrichtigt, gab es Änderungen, folgt am Ende eine einzige
+ * Benachrichtigung.
+ * 
+ * {@link AenderungsBeobachter} erhalten mit jeder Benachrichtigung alle seit
+ * der letzten Benachrichtigung eingetretenen {@link Aenderung}en. Solange
+ * keiner angemeldet ist, werden die Änderungen nicht gesammelt.
+ * 
  * @author SE2-Team
  * @version SoSe 2012
  */
@@ -17,24 +27,63 @@ public abstract class AbstractBeobachtbarerService implements
     /**
      * Die Liste der registrierten Beobachter.
      */
-    private List<ServiceBeobachter> _beobachterListe;
+    private CopyOnWriteArrayList<ServiceBeobachter> _beobachterListe;
+
+    /**
+     * Die Liste der registrierten Beobachter von Änderungen.
+     */
+    private CopyOnWriteArrayList<AenderungsBeobachter> _aenderungsBeobachterListe;
 
     /**
-     * Initialisiert einen neuen {@link AbstractBeobachtbarerService}.
+     * Die Änderungen seit der letzten Benachrichtigung.
+     */
+    private List<Aenderung> _offeneAenderungen;
+
+    /**
+     * Schützt den Zustand der Zustellung.
+     */
+    private final Object _sperre;
+
+    private Zustellung _zustellung;
+    private int _stapeltiefe;
+    private boolean _aenderungImStapel;
+    private boolean _zustellungGeplant;
+
+    /**
+     * Stellt eine geplante Benachrichtigung zu.
+     */
+    private final Runnable _stelleZu;
+
+    /**
+     * Initialisiert einen neuen {@link AbstractBeobachtbarerService}, der
+     * seine Beobachter sofort benachrichtigt.
      */
     public AbstractBeobachtbarerService()
     {
-        _beobachterListe = new ArrayList<ServiceBeobachter>();
+        _beobachterListe = new CopyOnWriteArrayList<ServiceBeobachter>();
+        _aenderungsBeobachterListe = new CopyOnWriteArrayList<AenderungsBeobachter>();
+        _offeneAenderungen = new ArrayList<Aenderung>();
+        _sperre = new Object();
+        _zustellung = Zustellung.sofort();
+        _stelleZu = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                synchronized (_sperre)
+                {
+                    _zustellungGeplant = false;
+                }
+                benachrichtigeBeobachter();
+            }
+        };
     }
 
     @Override
     public void registriereBeobachter(ServiceBeobachter beobachter)
     {
         assert beobachter != null : "Vorbedingung verletzt: beobachter != null";
-        if (!_beobachterListe.contains(beobachter))
-        {
-            _beobachterListe.add(beobachter);
-        }
+        _beobachterListe.addIfAbsent(beobachter);
     }
 
     @Override
@@ -44,15 +93,156 @@ public abstract class AbstractBeobachtbarerService implements
         _beobachterListe.remove(beobachter);
     }
 
+    @Override
+    public void registriereAenderungsBeobachter(AenderungsBeobachter beobachter)
+    {
+        assert beobachter != null : "Vorbedingung verletzt: beobachter != null";
+        _aenderungsBeobachterListe.addIfAbsent(beobachter);
+    }
+
+    @Override
+    public void entferneAenderungsBeobachter(AenderungsBeobachter beobachter)
+    {
+        assert beobachter != null : "Vorbedingung verletzt: beobachter != null";
+        _aenderungsBeobachterListe.remove(beobachter);
+    }
+
+    /**
+     * Legt fest, wie die Beobachter ab jetzt benachrichtigt werden.
+     * 
+     * @param zustellung
+     *            Die Art der Zustellung.
+     * 
+     * @require zustellung != null
+     */
+    public void setZustellung(Zustellung zustellung)
+    {
+        assert zustellung != null : "Vorbedingung verletzt: zustellung != null";
+        synchronized (_sperre)
+        {
+            _zustellung = zustellung;
+        }
+    }
+
+    /**
+     * Beginnt einen Stapel von Änderungen, während dessen keine Beobachter
+     * benachrichtigt werden. Stapel können geschachtelt werden, jedes
+     * {@link #beginneStapel()} braucht ein {@link #beendeStapel()}, am besten
+     * in einem finally-Block.
+     */
+    public void beginneStapel()
+    {
+        synchronized (_sperre)
+        {
+            _stapeltiefe++;
+        }
+    }
+
+    /**
+     * Beendet einen Stapel von Änderungen. Endet der äußerste Stapel und gab
+     * es darin Änderungen, werden die Beobachter einmal benachrichtigt.
+     * 
+     * @require ein Stapel wurde begonnen
+     */
+    public void beendeStapel()
+    {
+        synchronized (_sperre)
+        {
+            assert _stapeltiefe > 0 : "Vorbedingung verletzt: ein Stapel wurde begonnen";
+            _stapeltiefe--;
+            if (_stapeltiefe > 0 || !_aenderungImStapel)
+            {
+                return;
+            }
+            _aenderungImStapel = false;
+        }
+        stelleZu();
+    }
+
     /**
      * Informiert alle angemeldeten Beobachter dass eine relevante Änderung
-     * eingetreten ist.
+     * eingetreten ist, über die nichts Näheres bekannt ist.
      */
     protected void informiereUeberAenderung()
     {
+        informiereUeberAenderung(Aenderung.unbestimmt());
+    }
+
+    /**
+     * Informiert alle angemeldeten Beobachter über die gegebene Änderung.
+     * Innerhalb eines Stapels wird die Änderung nur vorgemerkt, bei
+     * gebündelter Zustellung wird sie mit einer bereits geplanten
+     * Benachrichtigung zusammengefasst.
+     * 
+     * @param aenderung
+     *            Die eingetretene Änderung.
+     * 
+     * @require aenderung != null
+     */
+    protected void informiereUeberAenderung(Aenderung aenderung)
+    {
+        assert aenderung != null : "Vorbedingung verletzt: aenderung != null";
+        synchronized (_sperre)
+        {
+            if (!_aenderungsBeobachterListe.isEmpty())
+            {
+                _offeneAenderungen.add(aenderung);
+            }
+        }
+        stelleZu();
+    }
+
+    /**
+     * Stellt die offenen Änderungen sofort zu oder plant ihre Zustellung.
+     */
+    private void stelleZu()
+    {
+        Zustellung zustellung;
+        synchronized (_sperre)
+        {
+            if (_stapeltiefe > 0)
+            {
+                _aenderungImStapel = true;
+                return;
+            }
+            zustellung = _zustellung;
+            if (!zustellung.istSofort())
+            {
+                if (_zustellungGeplant)
+                {
+                    return;
+                }
+                _zustellungGeplant = true;
+            }
+        }
+        if (zustellung.istSofort())
+        {
+            benachrichtigeBeobachter();
+        }
+        else
+        {
+            zustellung.plane(_stelleZu);
+        }
+    }
+
+    private void benachrichtigeBeobachter()
+    {
+        List<Aenderung> aenderungen;
+        synchronized (_sperre)
+        {
+            aenderungen = _offeneAenderungen;
+            _offeneAenderungen = new ArrayList<Aenderung>();
+        }
         for (ServiceBeobachter beobachter : _beobachterListe)
         {
             beobachter.informiereUeberAenderung();
         }
+        if (!aenderungen.isEmpty())
+        {
+            for (AenderungsBeobachter beobachter : _aenderungsBeobachterListe)
+            {
+                beobachter.informiereUeberAenderungen(aenderungen);
+            }
+        }
     }
 }
@@ -0,0 +1,200 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+
+/**
+ * Beschreibt eine einzelne Änderung an einem {@link BeobachtbarerService}:
+ * ihre {@link Aenderungsart}, die betroffenen Medien und gegebenenfalls den
+ * betroffenen Kunden. Damit können {@link AenderungsBeobachter} ihre Anzeige
+ * gezielt anpassen, statt den ganzen Zustand des Services neu abzufragen.
+ *
+ * Aenderung ist ein Wertobjekt und unveränderlich.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public final class Aenderung
+{
+    private static final Aenderung UNBESTIMMT = new Aenderung(
+            Aenderungsart.UNBESTIMMT, Collections.<Medium> emptyList(), null);
+
+    private static final Aenderung MEDIEN_GEAENDERT = new Aenderung(
+            Aenderungsart.MEDIEN_GEAENDERT, Collections.<Medium> emptyList(),
+            null);
+
+    private final Aenderungsart _art;
+    private final List<Medium> _medien;
+    private final Kunde _kunde;
+
+    private Aenderung(Aenderungsart art, List<Medium> medien, Kunde kunde)
+    {
+        _art = art;
+        _medien = medien;
+        _kunde = kunde;
+    }
+
+    /**
+     * Ein Medium wurde in den Bestand aufgenommen.
+     *
+     * @require medium != null
+     */
+    public static Aenderung mediumHinzugefuegt(Medium medium)
+    {
+        assert medium != null : "Vorbedingung verletzt: medium != null";
+        return new Aenderung(Aenderungsart.MEDIUM_HINZUGEFUEGT,
+                Collections.singletonList(medium), null);
+    }
+
+    /**
+     * Ein Medium wurde aus dem Bestand entfernt.
+     *
+     * @require medium != null
+     */
+    public static Aenderung mediumEntfernt(Medium medium)
+    {
+        assert medium != null : "Vorbedingung verletzt: medium != null";
+        return new Aenderung(Aenderungsart.MEDIUM_ENTFERNT,
+                Collections.singletonList(medium), null);
+    }
+
+    /**
+     * Medien des Bestands wurden bearbeitet, ohne dass bekannt ist, welche.
+     */
+    public static Aenderung medienGeaendert()
+    {
+        return MEDIEN_GEAENDERT;
+    }
+
+    /**
+     * Ein Kunde wurde in den Kundenstamm aufgenommen.
+     *
+     * @require kunde != null
+     */
+    public static Aenderung kundeHinzugefuegt(Kunde kunde)
+    {
+        assert kunde != null : "Vorbedingung verletzt: kunde != null";
+        return new Aenderung(Aenderungsart.KUNDE_HINZUGEFUEGT,
+                Collections.<Medium> emptyList(), kunde);
+    }
+
+    /**
+     * Ein Kunde wurde aus dem Kundenstamm entfernt.
+     *
+     * @require kunde != null
+     */
+    public static Aenderung kundeEntfernt(Kunde kunde)
+    {
+        assert kunde != null : "Vorbedingung verletzt: kunde != null";
+        return new Aenderung(Aenderungsart.KUNDE_ENTFERNT,
+                Collections.<Medium> emptyList(), kunde);
+    }
+
+    /**
+     * Die Medien wurden an den Kunden verliehen.
+     *
+     * @require medien != null
+     * @require kunde != null
+     */
+    public static Aenderung verliehen(List<Medium> medien, Kunde kunde)
+    {
+        assert medien != null : "Vorbedingung verletzt: medien != null";
+        assert kunde != null : "Vorbedingung verletzt: kunde != null";
+        return new Aenderung(Aenderungsart.VERLIEHEN, kopiere(medien), kunde);
+    }
+
+    /**
+     * Die Medien wurden zurückgenommen.
+     *
+     * @require medien != null
+     */
+    public static Aenderung zurueckgenommen(List<Medium> medien)
+    {
+        assert medien != null : "Vorbedingung verletzt: medien != null";
+        return new Aenderung(Aenderungsart.ZURUECKGENOMMEN, kopiere(medien),
+                null);
+    }
+
+    /**
+     * Der Kunde hat das Medium vorgemerkt oder seine Vormerkung wurde
+     * gelöscht.
+     *
+     * @require medium != null
+     * @require kunde != null
+     */
+    public static Aenderung vormerkerGeaendert(Medium medium, Kunde kunde)
+    {
+        assert medium != null : "Vorbedingung verletzt: medium != null";
+        assert kunde != null : "Vorbedingung verletzt: kunde != null";
+        return new Aenderung(Aenderungsart.VORMERKER_GEAENDERT,
+                Collections.singletonList(medium), kunde);
+    }
+
+    /**
+     * Das zurückgenommene Medium liegt für den Kunden, seinen ersten
+     * Vormerker, zur Abholung bereit.
+     *
+     * @require medium != null
+     * @require kunde != null
+     */
+    public static Aenderung abholbereit(Medium medium, Kunde kunde)
+    {
+        assert medium != null : "Vorbedingung verletzt: medium != null";
+        assert kunde != null : "Vorbedingung verletzt: kunde != null";
+        return new Aenderung(Aenderungsart.ABHOLBEREIT,
+                Collections.singletonList(medium), kunde);
+    }
+
+    /**
+     * Eine Änderung, über die nichts Näheres bekannt ist.
+     */
+    public static Aenderung unbestimmt()
+    {
+        return UNBESTIMMT;
+    }
+
+    /**
+     * Gibt die Art der Änderung zurück.
+     *
+     * @ensure result != null
+     */
+    public Aenderungsart getArt()
+    {
+        return _art;
+    }
+
+    /**
+     * Gibt die von der Änderung betroffenen Medien zurück. Die Liste ist leer,
+     * wenn die Änderung keine bestimmten Medien betrifft.
+     *
+     * @ensure result != null
+     */
+    public List<Medium> getMedien()
+    {
+        return _medien;
+    }
+
+    /**
+     * Gibt den von der Änderung betroffenen Kunden zurück, oder null, wenn die
+     * Änderung keinen Kunden betrifft.
+     */
+    public Kunde getKunde()
+    {
+        return _kunde;
+    }
+
+    @Override
+    public String toString()
+    {
+        return _art + " " + _medien + (_kunde == null ? "" : " " + _kunde);
+    }
+
+    private static List<Medium> kopiere(List<Medium> medien)
+    {
+        return Collections.unmodifiableList(new ArrayList<Medium>(medien));
+    }
+}
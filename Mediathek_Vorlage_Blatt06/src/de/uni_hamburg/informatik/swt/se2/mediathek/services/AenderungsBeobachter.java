@@ -0,0 +1,27 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services;
+
+import java.util.List;
+
+/**
+ * Interface für Beobachter, die nicht nur wissen wollen, dass sich an einem
+ * {@link BeobachtbarerService} etwas geändert hat, sondern was.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public interface AenderungsBeobachter
+{
+
+    /**
+     * Diese Operation wird aufgerufen, sobald sich an dem beobachteten Service
+     * etwas relevantes geändert hat. Wurden mehrere Änderungen zu einer
+     * Benachrichtigung zusammengefasst, stehen sie in der Reihenfolge ihres
+     * Auftretens in der Liste.
+     *
+     * @param aenderungen
+     *            Die Änderungen seit der letzten Benachrichtigung.
+     *
+     * @require aenderungen != null && !aenderungen.isEmpty()
+     */
+    void informiereUeberAenderungen(List<Aenderung> aenderungen);
+}
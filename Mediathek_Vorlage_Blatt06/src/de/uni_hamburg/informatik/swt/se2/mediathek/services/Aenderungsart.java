@@ -0,0 +1,64 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services;
+
+/**
+ * Die Arten von {@link Aenderung}en, über die ein
+ * {@link BeobachtbarerService} seine {@link AenderungsBeobachter} informiert.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public enum Aenderungsart
+{
+    /**
+     * Ein Medium wurde in den Bestand aufgenommen.
+     */
+    MEDIUM_HINZUGEFUEGT,
+
+    /**
+     * Ein Medium wurde aus dem Bestand entfernt.
+     */
+    MEDIUM_ENTFERNT,
+
+    /**
+     * Medien des Bestands wurden bearbeitet. Welche, ist nicht bekannt.
+     */
+    MEDIEN_GEAENDERT,
+
+    /**
+     * Ein Kunde wurde in den Kundenstamm aufgenommen.
+     */
+    KUNDE_HINZUGEFUEGT,
+
+    /**
+     * Ein Kunde wurde aus dem Kundenstamm entfernt.
+     */
+    KUNDE_ENTFERNT,
+
+    /**
+     * Medien wurden an einen Kunden verliehen.
+     */
+    VERLIEHEN,
+
+    /**
+     * Verliehene Medien wurden zurückgenommen.
+     */
+    ZURUECKGENOMMEN,
+
+    /**
+     * Ein Kunde hat ein Medium vorgemerkt oder seine Vormerkung wurde
+     * gelöscht.
+     */
+    VORMERKER_GEAENDERT,
+
+    /**
+     * Ein zurückgenommenes Medium ist vorgemerkt und soll für seinen ersten
+     * Vormerker zurückgelegt werden.
+     */
+    ABHOLBEREIT,
+
+    /**
+     * Eine Änderung, über die nichts Näheres bekannt ist. Beobachter müssen
+     * den Zustand des Services neu abfragen.
+     */
+    UNBESTIMMT
+}
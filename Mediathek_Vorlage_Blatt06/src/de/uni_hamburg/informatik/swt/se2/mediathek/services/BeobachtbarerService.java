@@ -29,4 +29,25 @@ public interface BeobachtbarerService
      * @require beobachter != null
      */
     void entferneBeobachter(ServiceBeobachter beobachter);
+
+    /**
+     * Meldet den gegebenen Beobachter an, der mit jeder Benachrichtigung die
+     * eingetretenen Änderungen erhält.
+     * 
+     * @param beobachter
+     *            Ein Beobachter, der angemeldet werden soll.
+     * 
+     * @require beobachter != null
+     */
+    void registriereAenderungsBeobachter(AenderungsBeobachter beobachter);
+
+    /**
+     * Meldet den gegebenen Beobachter von Änderungen ab.
+     * 
+     * @param beobachter
+     *            Ein Beobachter, der abgemeldet werden soll.
+     * 
+     * @require beobachter != null
+     */
+    void entferneAenderungsBeobachter(AenderungsBeobachter beobachter);
 }
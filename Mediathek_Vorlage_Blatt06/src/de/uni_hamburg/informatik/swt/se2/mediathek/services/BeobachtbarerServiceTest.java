@@ -0,0 +1,173 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BeobachtbarerServiceTest
+{
+    private TestService _service;
+    private ZaehlenderBeobachter _beobachter;
+
+    @Before
+    public void setUp()
+    {
+        _service = new TestService();
+        _beobachter = new ZaehlenderBeobachter();
+        _service.registriereBeobachter(_beobachter);
+    }
+
+    @Test
+    public void testSofortigeZustellung()
+    {
+        _service.aendere();
+        _service.aendere();
+        assertEquals(2, _beobachter._aufrufe);
+    }
+
+    @Test
+    public void testBeobachterWirdNurEinmalAngemeldet()
+    {
+        _service.registriereBeobachter(_beobachter);
+        _service.aendere();
+        assertEquals(1, _beobachter._aufrufe);
+    }
+
+    @Test
+    public void testStapelFasstAenderungenZusammen()
+    {
+        _service.beginneStapel();
+        _service.aendere();
+        _service.beginneStapel();
+        _service.aendere();
+        _service.beendeStapel();
+        assertEquals(0, _beobachter._aufrufe);
+        _service.aendere();
+        _service.beendeStapel();
+        assertEquals(1, _beobachter._aufrufe);
+    }
+
+    @Test
+    public void testStapelOhneAenderungBenachrichtigtNicht()
+    {
+        _service.beginneStapel();
+        _service.beendeStapel();
+        assertEquals(0, _beobachter._aufrufe);
+    }
+
+    @Test
+    public void testGebuendelteZustellungAufAusfuehrer()
+    {
+        final List<Runnable> geplant = new ArrayList<Runnable>();
+        _service.setZustellung(Zustellung.gebuendelt(new Executor()
+        {
+            @Override
+            public void execute(Runnable befehl)
+            {
+                geplant.add(befehl);
+            }
+        }));
+        for (int i = 0; i < 10000; i++)
+        {
+            _service.aendere();
+        }
+        assertEquals(0, _beobachter._aufrufe);
+        assertEquals(1, geplant.size());
+
+        geplant.remove(0).run();
+        assertEquals(1, _beobachter._aufrufe);
+
+        _service.aendere();
+        assertEquals(1, geplant.size());
+    }
+
+    @Test
+    public void testZustellungNachIntervall() throws InterruptedException
+    {
+        final CountDownLatch zugestellt = new CountDownLatch(1);
+        _service.registriereBeobachter(new ServiceBeobachter()
+        {
+            @Override
+            public void informiereUeberAenderung()
+            {
+                zugestellt.countDown();
+            }
+        });
+        _service.setZustellung(Zustellung.gebuendelt(new Executor()
+        {
+            @Override
+            public void execute(Runnable befehl)
+            {
+                befehl.run();
+            }
+        }, 20));
+        for (int i = 0; i < 100; i++)
+        {
+            _service.aendere();
+        }
+        assertTrue(zugestellt.await(5, TimeUnit.SECONDS));
+        assertEquals(1, _beobachter._aufrufe);
+    }
+
+    @Test
+    public void testAenderungenWerdenZusammengefasstZugestellt()
+    {
+        final List<List<Aenderung>> zugestellt = new ArrayList<List<Aenderung>>();
+        _service.registriereAenderungsBeobachter(new AenderungsBeobachter()
+        {
+            @Override
+            public void informiereUeberAenderungen(List<Aenderung> aenderungen)
+            {
+                zugestellt.add(aenderungen);
+            }
+        });
+        _service.aendere();
+        assertEquals(1, zugestellt.size());
+        assertEquals(Collections.singletonList(Aenderung.unbestimmt()),
+                zugestellt.get(0));
+
+        _service.beginneStapel();
+        _service.aendere(Aenderung.medienGeaendert());
+        _service.aendere();
+        _service.beendeStapel();
+        assertEquals(2, zugestellt.size());
+        assertEquals(
+                Arrays.asList(Aenderung.medienGeaendert(),
+                        Aenderung.unbestimmt()), zugestellt.get(1));
+        assertEquals(2, _beobachter._aufrufe);
+    }
+
+    private static class TestService extends AbstractBeobachtbarerService
+    {
+        void aendere()
+        {
+            informiereUeberAenderung();
+        }
+
+        void aendere(Aenderung aenderung)
+        {
+            informiereUeberAenderung(aenderung);
+        }
+    }
+
+    private static class ZaehlenderBeobachter implements ServiceBeobachter
+    {
+        private volatile int _aufrufe;
+
+        @Override
+        public void informiereUeberAenderung()
+        {
+            _aufrufe++;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zerlegt Texte in Wörter, wie sie die Suchindizes der Services verwenden:
+ * klein geschrieben und nur aus Buchstaben und Ziffern. Alle anderen Zeichen
+ * trennen Wörter.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public final class Textzerleger
+{
+    private Textzerleger()
+    {
+    }
+
+    /**
+     * Zerlegt einen Text in klein geschriebene Wörter aus Buchstaben und
+     * Ziffern.
+     * 
+     * @param text
+     *            Der zu zerlegende Text.
+     * 
+     * @require text != null
+     * 
+     * @ensure result != null
+     */
+    public static List<String> zerlege(String text)
+    {
+        assert text != null : "Vorbedingung verletzt: text != null";
+        List<String> result = new ArrayList<String>();
+        StringBuilder wort = new StringBuilder();
+        for (int i = 0; i < text.length(); i++)
+        {
+            char zeichen = text.charAt(i);
+            if (Character.isLetterOrDigit(zeichen))
+            {
+                wort.append(Character.toLowerCase(zeichen));
+            }
+            else if (wort.length() > 0)
+            {
+                result.add(wort.toString());
+                wort.setLength(0);
+            }
+        }
+        if (wort.length() > 0)
+        {
+            result.add(wort.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Gibt nur die Ziffern eines Textes als ein Wort zurück, etwa für
+     * Telefonnummern, die mit Leerzeichen, Schrägstrichen oder Bindestrichen
+     * geschrieben werden.
+     * 
+     * @param text
+     *            Der Text.
+     * 
+     * @require text != null
+     * 
+     * @ensure result != null
+     */
+    public static String nurZiffern(String text)
+    {
+        assert text != null : "Vorbedingung verletzt: text != null";
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++)
+        {
+            char zeichen = text.charAt(i);
+            if (zeichen >= '0' && zeichen <= '9')
+            {
+                result.append(zeichen);
+            }
+        }
+        return result.toString();
+    }
+}
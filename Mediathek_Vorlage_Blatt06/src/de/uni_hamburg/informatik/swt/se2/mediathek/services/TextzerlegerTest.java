@@ -0,0 +1,32 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class TextzerlegerTest
+{
+    @Test
+    public void testZerlege()
+    {
+        assertEquals(Arrays.asList("abbey", "road", "1969"),
+                Textzerleger.zerlege("Abbey-Road (1969)"));
+        assertEquals(Arrays.asList("müller", "lüdenscheid"),
+                Textzerleger.zerlege("MÜLLER, Lüdenscheid"));
+        assertTrue(Textzerleger.zerlege(" ,. ").isEmpty());
+    }
+
+    @Test
+    public void testNurZiffern()
+    {
+        assertEquals("0401234567", Textzerleger.nurZiffern("040 / 123-45 67"));
+        assertEquals("", Textzerleger.nurZiffern("keine"));
+    }
+}
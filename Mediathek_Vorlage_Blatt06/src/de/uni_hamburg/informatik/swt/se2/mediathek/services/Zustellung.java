@@ -0,0 +1,140 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Legt fest, wie ein {@link AbstractBeobachtbarerService} seine Beobachter
+ * über Änderungen informiert.
+ * 
+ * Bei {@link #sofort()} wird jeder Beobachter bei jeder Änderung im Thread
+ * des Aufrufers informiert. Bei den gebündelten Zustellungen werden alle
+ * Änderungen bis zur Zustellung zu einer Benachrichtigung zusammengefasst,
+ * die auf einem {@link Executor} ausgeführt wird.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public final class Zustellung
+{
+    private static final Executor SWING = new Executor()
+    {
+        @Override
+        public void execute(Runnable befehl)
+        {
+            SwingUtilities.invokeLater(befehl);
+        }
+    };
+
+    private static ScheduledExecutorService _zeitgeber;
+
+    private final Executor _ausfuehrer;
+    private final long _millisekunden;
+
+    private Zustellung(Executor ausfuehrer, long millisekunden)
+    {
+        _ausfuehrer = ausfuehrer;
+        _millisekunden = millisekunden;
+    }
+
+    /**
+     * Jede Änderung wird sofort im Thread des Aufrufers zugestellt.
+     */
+    public static Zustellung sofort()
+    {
+        return new Zustellung(null, 0);
+    }
+
+    /**
+     * Änderungen werden zusammengefasst, bis der Ausführer die Zustellung
+     * ausführt.
+     * 
+     * @require ausfuehrer != null
+     */
+    public static Zustellung gebuendelt(Executor ausfuehrer)
+    {
+        assert ausfuehrer != null : "Vorbedingung verletzt: ausfuehrer != null";
+        return new Zustellung(ausfuehrer, 0);
+    }
+
+    /**
+     * Änderungen werden ab der ersten Änderung für die angegebene Zeit
+     * gesammelt und dann auf dem Ausführer zugestellt.
+     * 
+     * @require ausfuehrer != null
+     * @require millisekunden > 0
+     */
+    public static Zustellung gebuendelt(Executor ausfuehrer, long millisekunden)
+    {
+        assert ausfuehrer != null : "Vorbedingung verletzt: ausfuehrer != null";
+        assert millisekunden > 0 : "Vorbedingung verletzt: millisekunden > 0";
+        return new Zustellung(ausfuehrer, millisekunden);
+    }
+
+    /**
+     * Änderungen werden auf dem Event-Dispatch-Thread von Swing zugestellt,
+     * alle Änderungen bis dahin als eine Benachrichtigung.
+     */
+    public static Zustellung swing()
+    {
+        return gebuendelt(SWING);
+    }
+
+    /**
+     * Gibt zurück, ob sofort im Thread des Aufrufers zugestellt wird.
+     */
+    boolean istSofort()
+    {
+        return _ausfuehrer == null;
+    }
+
+    /**
+     * Plant die Ausführung einer Zustellung.
+     * 
+     * @require !istSofort()
+     */
+    void plane(final Runnable zustellung)
+    {
+        assert !istSofort() : "Vorbedingung verletzt: !istSofort()";
+        if (_millisekunden == 0)
+        {
+            _ausfuehrer.execute(zustellung);
+            return;
+        }
+        getZeitgeber().schedule(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                _ausfuehrer.execute(zustellung);
+            }
+        }, _millisekunden, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gibt den gemeinsamen Zeitgeber für verzögerte Zustellungen zurück.
+     */
+    private static synchronized ScheduledExecutorService getZeitgeber()
+    {
+        if (_zeitgeber == null)
+        {
+            _zeitgeber = Executors
+                    .newSingleThreadScheduledExecutor(new ThreadFactory()
+                    {
+                        @Override
+                        public Thread newThread(Runnable befehl)
+                        {
+                            Thread thread = new Thread(befehl, "Zustellung");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+        return _zeitgeber;
+    }
+}
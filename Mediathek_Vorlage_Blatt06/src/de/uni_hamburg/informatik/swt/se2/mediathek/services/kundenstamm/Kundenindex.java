@@ -0,0 +1,785 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.AenderungsBeobachter;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Textzerleger;
+
+/**
+ * Ein Suchindex über die Kunden eines {@link KundenstammService}. Indiziert
+ * werden die Wörter aus Vorname, Nachname und Wohnort sowie PLZ und
+ * Telefonnummer (jeweils nur die Ziffern).
+ *
+ * Die Wörter stehen in einem kompakten Präfixbaum (Radix-Baum): Ketten von
+ * Knoten mit nur einem Kind werden zu einer Kante zusammengefasst. So bleiben
+ * auch viele eindeutige Telefonnummern klein. Jeder Knoten kennt die Anzahl
+ * der Einträge unter ihm, damit bei Anfragen aus mehreren Wörtern mit dem
+ * seltensten Wort begonnen werden kann.
+ *
+ * Ein Kunde wird gefunden, wenn er zu jedem Wort der Anfrage ein passendes
+ * Wort enthält. Ein gleiches Wort zählt 3, ein Wort mit diesem Anfang 2 und
+ * ein Wort, dessen Anfang sich um einen Tippfehler unterscheidet, 1 (ab 8
+ * Zeichen auch zwei Tippfehler, unter 4 Zeichen keiner). Die Treffer werden
+ * nach dieser Summe geordnet. Die Suche bricht ab, sobald keine weiteren
+ * Treffer mehr besser sein können als die bisher gefundenen.
+ *
+ * Der Index meldet sich als {@link AenderungsBeobachter} am Kundenstamm an
+ * und nimmt eingefügte und entfernte Kunden einzeln auf. Werden die Daten
+ * eines Kunden geändert, muss das als unbestimmte Änderung gemeldet werden,
+ * dann wird der Index neu aufgebaut.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class Kundenindex implements AenderungsBeobachter
+{
+    private static final int GLEICH = 3;
+    private static final int PRAEFIX = 2;
+    private static final int TIPPFEHLER = 1;
+
+    private final KundenstammService _kundenstamm;
+
+    private Knoten _wurzel;
+
+    /**
+     * Initialisiert einen neuen Index über alle Kunden des gegebenen
+     * Kundenstamms und meldet ihn als Beobachter an.
+     *
+     * @param kundenstamm
+     *            Der zu indizierende Kundenstamm.
+     *
+     * @require kundenstamm != null
+     */
+    public Kundenindex(KundenstammService kundenstamm)
+    {
+        assert kundenstamm != null : "Vorbedingung verletzt: kundenstamm != null";
+        _kundenstamm = kundenstamm;
+        baueAuf();
+        _kundenstamm.registriereAenderungsBeobachter(this);
+    }
+
+    /**
+     * Meldet den Index vom Kundenstamm ab. Danach wird er nicht mehr
+     * aktualisiert.
+     */
+    public void beende()
+    {
+        _kundenstamm.entferneAenderungsBeobachter(this);
+    }
+
+    @Override
+    public synchronized void informiereUeberAenderungen(
+            List<Aenderung> aenderungen)
+    {
+        for (Aenderung aenderung : aenderungen)
+        {
+            switch (aenderung.getArt())
+            {
+            case KUNDE_HINZUGEFUEGT:
+                for (String wort : getWoerter(aenderung.getKunde()))
+                {
+                    fuegeEin(wort, aenderung.getKunde());
+                }
+                break;
+            case KUNDE_ENTFERNT:
+                for (String wort : getWoerter(aenderung.getKunde()))
+                {
+                    entferne(wort, aenderung.getKunde());
+                }
+                break;
+            case UNBESTIMMT:
+                baueAuf();
+                return;
+            default:
+                break;
+            }
+        }
+    }
+
+    /**
+     * Sucht die Kunden, die zu jedem Wort der Anfrage ein gleiches, damit
+     * beginnendes oder bis auf Tippfehler gleiches Wort enthalten.
+     *
+     * @param anfrage
+     *            Die Suchwörter, durch Leer- oder Satzzeichen getrennt.
+     * @param anzahl
+     *            Die höchste Anzahl von Treffern.
+     * @return Die Treffer, die besten zuerst.
+     *
+     * @require anfrage != null
+     * @require anzahl > 0
+     *
+     * @ensure result != null && result.size() <= anzahl
+     */
+    public synchronized List<Kunde> suche(String anfrage, int anzahl)
+    {
+        assert anfrage != null : "Vorbedingung verletzt: anfrage != null";
+        assert anzahl > 0 : "Vorbedingung verletzt: anzahl > 0";
+
+        List<String> woerter = new ArrayList<String>(new LinkedHashSet<String>(
+                Textzerleger.zerlege(anfrage)));
+        if (woerter.isEmpty())
+        {
+            return new ArrayList<Kunde>();
+        }
+
+        // Das Wort mit den wenigsten Einträgen bestimmt die Kandidaten, die
+        // übrigen Wörter werden an den Kandidaten geprüft.
+        int fuehrend = 0;
+        int wenigste = Integer.MAX_VALUE;
+        for (int i = 0; i < woerter.size(); i++)
+        {
+            Stelle stelle = finde(woerter.get(i));
+            int eintraege = stelle == null ? 0
+                    : stelle._knoten._anzahlImTeilbaum;
+            if (eintraege < wenigste)
+            {
+                wenigste = eintraege;
+                fuehrend = i;
+            }
+        }
+        String wort = woerter.remove(fuehrend);
+        int hoechstePunkte = 0;
+        for (String weiteres : woerter)
+        {
+            hoechstePunkte += getHoechstePunkte(weiteres);
+        }
+        Suchlauf lauf = new Suchlauf(woerter, hoechstePunkte, anzahl);
+        lauf.sammle(wort);
+        return lauf.getErgebnis();
+    }
+
+    /**
+     * Gibt die höchste Bewertung zurück, die ein Suchwort bei irgendeinem
+     * Kunden erreichen kann: GLEICH nur, wenn das Wort eingetragen ist,
+     * PRAEFIX nur, wenn ein Wort so beginnt.
+     */
+    private int getHoechstePunkte(String wort)
+    {
+        Stelle stelle = finde(wort);
+        int result = TIPPFEHLER;
+        if (stelle != null && !stelle._mitteDerKante
+                && stelle._knoten._anzahlKunden > 0)
+        {
+            result = GLEICH;
+        }
+        else if (stelle != null)
+        {
+            result = PRAEFIX;
+        }
+        return result;
+    }
+
+    /**
+     * Gibt die indizierten Wörter eines Kunden zurück.
+     */
+    static List<String> getWoerter(Kunde kunde)
+    {
+        List<String> result = new ArrayList<String>();
+        result.addAll(Textzerleger.zerlege(kunde.getVorname()));
+        result.addAll(Textzerleger.zerlege(kunde.getNachname()));
+        if (kunde.getWohnort() != null)
+        {
+            result.addAll(Textzerleger.zerlege(kunde.getWohnort()));
+        }
+        if (kunde.getPLZ() != null)
+        {
+            fuegeHinzuWennNichtLeer(result,
+                    Textzerleger.nurZiffern(kunde.getPLZ().toString()));
+        }
+        if (kunde.getTelefonnummer() != null)
+        {
+            fuegeHinzuWennNichtLeer(result,
+                    Textzerleger.nurZiffern(kunde.getTelefonnummer()));
+        }
+        return new ArrayList<String>(new LinkedHashSet<String>(result));
+    }
+
+    private static void fuegeHinzuWennNichtLeer(List<String> woerter,
+            String wort)
+    {
+        if (!wort.isEmpty())
+        {
+            woerter.add(wort);
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der erlaubten Tippfehler für ein Suchwort zurück.
+     */
+    static int getErlaubteTippfehler(String wort)
+    {
+        int result = 0;
+        if (wort.length() >= 8)
+        {
+            result = 2;
+        }
+        else if (wort.length() >= 4)
+        {
+            result = 1;
+        }
+        return result;
+    }
+
+    /**
+     * Bewertet, wie gut ein Suchwort zu den Wörtern eines Kunden passt.
+     *
+     * @return GLEICH, PRAEFIX, TIPPFEHLER oder 0, wenn kein Wort passt.
+     */
+    static int bewerte(String gesucht, List<String> woerter)
+    {
+        int fehler = getErlaubteTippfehler(gesucht);
+        int result = 0;
+        for (String wort : woerter)
+        {
+            if (wort.equals(gesucht))
+            {
+                return GLEICH;
+            }
+            if (wort.startsWith(gesucht))
+            {
+                result = PRAEFIX;
+            }
+            else if (result == 0 && fehler > 0
+                    && getAbstandZuAnfang(gesucht, wort) <= fehler)
+            {
+                result = TIPPFEHLER;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gibt den kleinsten Editierabstand (Levenshtein) zwischen dem Suchwort
+     * und einem Anfang des Wortes zurück.
+     */
+    static int getAbstandZuAnfang(String gesucht, String wort)
+    {
+        int[] zeile = ersteZeile(gesucht.length());
+        int result = zeile[gesucht.length()];
+        for (int i = 0; i < wort.length(); i++)
+        {
+            zeile = naechsteZeile(zeile, gesucht, wort.charAt(i));
+            result = Math.min(result, zeile[gesucht.length()]);
+        }
+        return result;
+    }
+
+    private static int[] ersteZeile(int laenge)
+    {
+        int[] result = new int[laenge + 1];
+        for (int i = 0; i <= laenge; i++)
+        {
+            result[i] = i;
+        }
+        return result;
+    }
+
+    private static int[] naechsteZeile(int[] zeile, String gesucht, char zeichen)
+    {
+        int[] result = new int[zeile.length];
+        result[0] = zeile[0] + 1;
+        for (int i = 1; i < zeile.length; i++)
+        {
+            int ersetzen = zeile[i - 1]
+                    + (gesucht.charAt(i - 1) == zeichen ? 0 : 1);
+            result[i] = Math.min(ersetzen,
+                    Math.min(zeile[i] + 1, result[i - 1] + 1));
+        }
+        return result;
+    }
+
+    private static int minimum(int[] zeile)
+    {
+        int result = Integer.MAX_VALUE;
+        for (int wert : zeile)
+        {
+            result = Math.min(result, wert);
+        }
+        return result;
+    }
+
+    /**
+     * Baut den Index aus dem aktuellen Kundenstamm neu auf.
+     */
+    private void baueAuf()
+    {
+        _wurzel = new Knoten("");
+        for (Kunde kunde : _kundenstamm.getKunden())
+        {
+            for (String wort : getWoerter(kunde))
+            {
+                fuegeEin(wort, kunde);
+            }
+        }
+    }
+
+    /**
+     * Trägt einen Kunden unter einem Wort ein. Endet das Wort mitten in einer
+     * Kante, wird die Kante geteilt.
+     */
+    private void fuegeEin(String wort, Kunde kunde)
+    {
+        Knoten knoten = _wurzel;
+        knoten._anzahlImTeilbaum++;
+        int position = 0;
+        while (position < wort.length())
+        {
+            Knoten kind = knoten.getKind(wort.charAt(position));
+            if (kind == null)
+            {
+                kind = new Knoten(wort.substring(position));
+                knoten.fuegeKindEin(kind);
+                position = wort.length();
+            }
+            else
+            {
+                int gemeinsam = gemeinsamerAnfang(kind._kante, wort, position);
+                if (gemeinsam < kind._kante.length())
+                {
+                    Knoten mitte = new Knoten(kind._kante.substring(0,
+                            gemeinsam));
+                    knoten.ersetzeKind(mitte);
+                    kind._kante = kind._kante.substring(gemeinsam);
+                    mitte.fuegeKindEin(kind);
+                    mitte._anzahlImTeilbaum = kind._anzahlImTeilbaum;
+                    kind = mitte;
+                }
+                position += gemeinsam;
+            }
+            kind._anzahlImTeilbaum++;
+            knoten = kind;
+        }
+        knoten.fuegeKundenHinzu(kunde);
+    }
+
+    /**
+     * Entfernt einen Kunden unter einem Wort. Leere Knoten werden entfernt und
+     * Knoten mit nur einem Kind wieder mit diesem zusammengefasst.
+     */
+    private void entferne(String wort, Kunde kunde)
+    {
+        Stelle stelle = finde(wort);
+        if (stelle == null || stelle._mitteDerKante
+                || !stelle._knoten.entferneKunden(kunde))
+        {
+            return;
+        }
+        List<Knoten> pfad = stelle._pfad;
+        for (Knoten knoten : pfad)
+        {
+            knoten._anzahlImTeilbaum--;
+        }
+        for (int i = pfad.size() - 1; i > 0; i--)
+        {
+            Knoten knoten = pfad.get(i);
+            Knoten eltern = pfad.get(i - 1);
+            if (knoten._anzahlImTeilbaum == 0)
+            {
+                eltern.entferneKind(knoten);
+            }
+            else if (knoten._anzahlKunden == 0 && knoten._anzahlKinder == 1)
+            {
+                Knoten kind = knoten._kinder[0];
+                kind._kante = knoten._kante + kind._kante;
+                eltern.ersetzeKind(kind);
+            }
+        }
+    }
+
+    private static int gemeinsamerAnfang(String kante, String wort,
+            int position)
+    {
+        int result = 0;
+        int laenge = Math.min(kante.length(), wort.length() - position);
+        while (result < laenge
+                && kante.charAt(result) == wort.charAt(position + result))
+        {
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * Sucht die Stelle im Baum, an der ein Wort endet.
+     *
+     * @return Die Stelle oder null, wenn kein eingetragenes Wort so beginnt.
+     */
+    private Stelle finde(String wort)
+    {
+        List<Knoten> pfad = new ArrayList<Knoten>();
+        Knoten knoten = _wurzel;
+        pfad.add(knoten);
+        int position = 0;
+        while (position < wort.length())
+        {
+            Knoten kind = knoten.getKind(wort.charAt(position));
+            if (kind == null)
+            {
+                return null;
+            }
+            int gemeinsam = gemeinsamerAnfang(kind._kante, wort, position);
+            position += gemeinsam;
+            if (gemeinsam < kind._kante.length())
+            {
+                if (position < wort.length())
+                {
+                    return null;
+                }
+                pfad.add(kind);
+                return new Stelle(kind, pfad, true);
+            }
+            pfad.add(kind);
+            knoten = kind;
+        }
+        return new Stelle(knoten, pfad, false);
+    }
+
+    /**
+     * Die Stelle, an der ein Wort im Baum endet: der Knoten, in dem oder in
+     * dessen Kante es endet, und der Weg von der Wurzel dorthin.
+     */
+    private static final class Stelle
+    {
+        private final Knoten _knoten;
+        private final List<Knoten> _pfad;
+        private final boolean _mitteDerKante;
+
+        Stelle(Knoten knoten, List<Knoten> pfad, boolean mitteDerKante)
+        {
+            _knoten = knoten;
+            _pfad = pfad;
+            _mitteDerKante = mitteDerKante;
+        }
+    }
+
+    /**
+     * Ein Knoten des Radix-Baums. Die Kinder sind nach dem ersten Zeichen
+     * ihrer Kante sortiert.
+     */
+    private static final class Knoten
+    {
+        private static final Knoten[] KEINE_KINDER = new Knoten[0];
+        private static final Kunde[] KEINE_KUNDEN = new Kunde[0];
+
+        private String _kante;
+        private Knoten[] _kinder = KEINE_KINDER;
+        private int _anzahlKinder;
+        private Kunde[] _kunden = KEINE_KUNDEN;
+        private int _anzahlKunden;
+        private int _anzahlImTeilbaum;
+
+        Knoten(String kante)
+        {
+            _kante = kante;
+        }
+
+        Knoten getKind(char zeichen)
+        {
+            int index = sucheKind(zeichen);
+            return index >= 0 ? _kinder[index] : null;
+        }
+
+        void fuegeKindEin(Knoten kind)
+        {
+            int index = -sucheKind(kind._kante.charAt(0)) - 1;
+            if (_anzahlKinder == _kinder.length)
+            {
+                _kinder = Arrays.copyOf(_kinder, _anzahlKinder * 2 + 1);
+            }
+            System.arraycopy(_kinder, index, _kinder, index + 1, _anzahlKinder
+                    - index);
+            _kinder[index] = kind;
+            _anzahlKinder++;
+        }
+
+        /**
+         * Ersetzt das Kind, dessen Kante mit demselben Zeichen beginnt.
+         */
+        void ersetzeKind(Knoten kind)
+        {
+            _kinder[sucheKind(kind._kante.charAt(0))] = kind;
+        }
+
+        void entferneKind(Knoten kind)
+        {
+            int index = sucheKind(kind._kante.charAt(0));
+            System.arraycopy(_kinder, index + 1, _kinder, index, _anzahlKinder
+                    - index - 1);
+            _kinder[--_anzahlKinder] = null;
+        }
+
+        private int sucheKind(char zeichen)
+        {
+            int unten = 0;
+            int oben = _anzahlKinder - 1;
+            while (unten <= oben)
+            {
+                int mitte = (unten + oben) >>> 1;
+                char anfang = _kinder[mitte]._kante.charAt(0);
+                if (anfang < zeichen)
+                {
+                    unten = mitte + 1;
+                }
+                else if (anfang > zeichen)
+                {
+                    oben = mitte - 1;
+                }
+                else
+                {
+                    return mitte;
+                }
+            }
+            return -(unten + 1);
+        }
+
+        void fuegeKundenHinzu(Kunde kunde)
+        {
+            if (_anzahlKunden == _kunden.length)
+            {
+                _kunden = Arrays.copyOf(_kunden, _anzahlKunden * 2 + 1);
+            }
+            _kunden[_anzahlKunden++] = kunde;
+        }
+
+        /**
+         * Entfernt einen Kunden. Bei häufigen Wörtern wie Wohnorten ist das
+         * linear in der Anzahl der Kunden mit diesem Wort.
+         */
+        boolean entferneKunden(Kunde kunde)
+        {
+            for (int i = _anzahlKunden - 1; i >= 0; i--)
+            {
+                if (_kunden[i] == kunde)
+                {
+                    System.arraycopy(_kunden, i + 1, _kunden, i, _anzahlKunden
+                            - i - 1);
+                    _kunden[--_anzahlKunden] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Ein Treffer mit seiner Bewertung und der Reihenfolge, in der er
+     * gefunden wurde.
+     */
+    private static final class Kandidat
+    {
+        private final Kunde _kunde;
+        private final int _punkte;
+        private final int _nummer;
+
+        Kandidat(Kunde kunde, int punkte, int nummer)
+        {
+            _kunde = kunde;
+            _punkte = punkte;
+            _nummer = nummer;
+        }
+    }
+
+    /**
+     * Der schlechteste Kandidat zuerst: weniger Punkte, bei gleichen Punkten
+     * der später gefundene.
+     */
+    private static final Comparator<Kandidat> SCHLECHTESTER_ZUERST = new Comparator<Kandidat>()
+    {
+        @Override
+        public int compare(Kandidat a, Kandidat b)
+        {
+            if (a._punkte != b._punkte)
+            {
+                return Integer.compare(a._punkte, b._punkte);
+            }
+            return Integer.compare(b._nummer, a._nummer);
+        }
+    };
+
+    /**
+     * Eine einzelne Suche. Die Kandidaten des führenden Wortes werden in drei
+     * Stufen gesammelt: gleiche Wörter, längere Wörter mit diesem Anfang (in
+     * Breitensuche, kürzere zuerst) und Wörter mit Tippfehlern. Jeder
+     * Kandidat wird an den übrigen Wörtern geprüft und bewertet.
+     */
+    private final class Suchlauf
+    {
+        private final List<String> _weitereWoerter;
+        private final int _hoechstePunkteWeitere;
+        private final int _anzahl;
+        private final PriorityQueue<Kandidat> _beste;
+        private final Set<Kunde> _gesehen;
+        private int _gefunden;
+        private boolean _fertig;
+
+        Suchlauf(List<String> weitereWoerter, int hoechstePunkteWeitere,
+                int anzahl)
+        {
+            _weitereWoerter = weitereWoerter;
+            _hoechstePunkteWeitere = hoechstePunkteWeitere;
+            _anzahl = anzahl;
+            _beste = new PriorityQueue<Kandidat>(anzahl + 1,
+                    SCHLECHTESTER_ZUERST);
+            _gesehen = Collections
+                    .newSetFromMap(new IdentityHashMap<Kunde, Boolean>());
+        }
+
+        void sammle(String wort)
+        {
+            Stelle stelle = finde(wort);
+            if (stelle != null)
+            {
+                if (!stelle._mitteDerKante)
+                {
+                    pruefeStufe(GLEICH);
+                    nimmKundenAuf(stelle._knoten, GLEICH);
+                }
+                pruefeStufe(PRAEFIX);
+                Queue<Knoten> warteschlange = new ArrayDeque<Knoten>();
+                if (stelle._mitteDerKante)
+                {
+                    warteschlange.add(stelle._knoten);
+                }
+                else
+                {
+                    fuegeKinderHinzu(warteschlange, stelle._knoten);
+                }
+                while (!warteschlange.isEmpty() && !_fertig)
+                {
+                    Knoten knoten = warteschlange.poll();
+                    nimmKundenAuf(knoten, PRAEFIX);
+                    fuegeKinderHinzu(warteschlange, knoten);
+                }
+            }
+            int fehler = getErlaubteTippfehler(wort);
+            if (fehler > 0)
+            {
+                pruefeStufe(TIPPFEHLER);
+                int[] zeile = ersteZeile(wort.length());
+                for (int i = 0; i < _wurzel._anzahlKinder && !_fertig; i++)
+                {
+                    sammleMitTippfehlern(_wurzel._kinder[i], wort, zeile,
+                            fehler);
+                }
+            }
+        }
+
+        /**
+         * Durchläuft den Baum und führt dabei die Zeile der
+         * Levenshtein-Tabelle mit. Sobald ein Anfang nah genug am Suchwort
+         * ist, passt der ganze Teilbaum.
+         */
+        private void sammleMitTippfehlern(Knoten knoten, String wort,
+                int[] zeile, int fehler)
+        {
+            for (int i = 0; i < knoten._kante.length(); i++)
+            {
+                zeile = naechsteZeile(zeile, wort, knoten._kante.charAt(i));
+                if (zeile[wort.length()] <= fehler)
+                {
+                    nimmTeilbaumAuf(knoten);
+                    return;
+                }
+                if (minimum(zeile) > fehler)
+                {
+                    return;
+                }
+            }
+            for (int i = 0; i < knoten._anzahlKinder && !_fertig; i++)
+            {
+                sammleMitTippfehlern(knoten._kinder[i], wort, zeile, fehler);
+            }
+        }
+
+        private void nimmTeilbaumAuf(Knoten knoten)
+        {
+            nimmKundenAuf(knoten, TIPPFEHLER);
+            for (int i = 0; i < knoten._anzahlKinder && !_fertig; i++)
+            {
+                nimmTeilbaumAuf(knoten._kinder[i]);
+            }
+        }
+
+        private void fuegeKinderHinzu(Queue<Knoten> warteschlange,
+                Knoten knoten)
+        {
+            for (int i = 0; i < knoten._anzahlKinder; i++)
+            {
+                warteschlange.add(knoten._kinder[i]);
+            }
+        }
+
+        /**
+         * Beendet die Suche, wenn kein Kandidat der nächsten Stufe mehr
+         * besser sein kann als der schlechteste der bisher besten.
+         */
+        private void pruefeStufe(int stufe)
+        {
+            int hoechstePunkte = stufe + _hoechstePunkteWeitere;
+            if (_beste.size() == _anzahl
+                    && _beste.peek()._punkte >= hoechstePunkte)
+            {
+                _fertig = true;
+            }
+        }
+
+        private void nimmKundenAuf(Knoten knoten, int stufe)
+        {
+            for (int i = 0; i < knoten._anzahlKunden && !_fertig; i++)
+            {
+                Kunde kunde = knoten._kunden[i];
+                if (_gesehen.add(kunde))
+                {
+                    bewerteKandidat(kunde, stufe);
+                    pruefeStufe(stufe);
+                }
+            }
+        }
+
+        private void bewerteKandidat(Kunde kunde, int stufe)
+        {
+            int punkte = stufe;
+            if (!_weitereWoerter.isEmpty())
+            {
+                List<String> woerter = getWoerter(kunde);
+                for (String gesucht : _weitereWoerter)
+                {
+                    int bewertung = bewerte(gesucht, woerter);
+                    if (bewertung == 0)
+                    {
+                        return;
+                    }
+                    punkte += bewertung;
+                }
+            }
+            _beste.add(new Kandidat(kunde, punkte, _gefunden++));
+            if (_beste.size() > _anzahl)
+            {
+                _beste.poll();
+            }
+        }
+
+        List<Kunde> getErgebnis()
+        {
+            Kunde[] result = new Kunde[_beste.size()];
+            for (int i = result.length - 1; i >= 0; i--)
+            {
+                result[i] = _beste.poll()._kunde;
+            }
+            return new ArrayList<Kunde>(Arrays.asList(result));
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.PLZ;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+
+/**
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class KundenindexTest
+{
+    private Kunde _klaus;
+    private Kunde _klara;
+    private Kunde _susi;
+    private KundenstammService _kundenstamm;
+    private Kundenindex _index;
+
+    @Before
+    public void setUp()
+    {
+        _klaus = erzeugeKunde(123456, "Klaus", "Schmidt", "Hamburg", "22527",
+                "040 / 123 45 67");
+        _klara = erzeugeKunde(123457, "Klara", "Schmitt", "Harburg", "21073",
+                "040 765 43 21");
+        _susi = erzeugeKunde(654321, "Susi", "Sonnenschein", "Hamburg",
+                "22529", null);
+        _kundenstamm = new KundenstammServiceImpl(Arrays.asList(_klaus,
+                _klara, _susi));
+        _index = new Kundenindex(_kundenstamm);
+    }
+
+    @Test
+    public void testGleicheWoerterUndPraefixe()
+    {
+        assertEquals(Arrays.asList(_susi), _index.suche("sonnenschein", 10));
+        // Gleiche Präfixtreffer in alphabetischer Reihenfolge der Wörter
+        assertEquals(Arrays.asList(_klara, _klaus), _index.suche("kla", 10));
+        assertEquals(Arrays.asList(_susi), _index.suche("hamburg so", 10));
+        assertEquals(Arrays.asList(_klaus, _susi), _index.suche("2252", 10));
+        assertEquals(Arrays.asList(_klaus), _index.suche("0401234", 10));
+        assertEquals(Arrays.asList(_klaus), _index.suche("hamburg", 1));
+        assertTrue(_index.suche("meier", 10).isEmpty());
+        assertTrue(_index.suche("", 10).isEmpty());
+    }
+
+    @Test
+    public void testTippfehler()
+    {
+        // Ein gleiches Wort vor einem mit Tippfehler
+        assertEquals(Arrays.asList(_klara, _klaus),
+                _index.suche("schmitt", 10));
+        assertEquals(Arrays.asList(_klaus, _klara),
+                _index.suche("schmidt", 10));
+        assertEquals(Arrays.asList(_klaus, _susi, _klara),
+                _index.suche("hamburg", 10));
+        assertEquals(Arrays.asList(_klaus), _index.suche("klaos", 10));
+        // Ab 8 Zeichen zwei Tippfehler
+        assertEquals(Arrays.asList(_susi), _index.suche("sonennschein", 10));
+        // Kurze Wörter ohne Tippfehler
+        assertEquals(Arrays.asList(_susi), _index.suche("sus", 10));
+        assertTrue(_index.suche("sua", 10).isEmpty());
+    }
+
+    @Test
+    public void testAenderungenDesKundenstamms()
+    {
+        Kunde karl = erzeugeKunde(111111, "Karl", "Schmidt", "Hamburg",
+                "22527", null);
+        _kundenstamm.fuegeKundenEin(karl);
+        assertEquals(Arrays.asList(_klaus, karl, _klara),
+                _index.suche("schmidt", 10));
+
+        _kundenstamm.entferneKunden(_klaus);
+        assertEquals(Arrays.asList(karl, _klara), _index.suche("schmidt", 10));
+        assertTrue(_index.suche("klaus", 10).isEmpty());
+
+        _kundenstamm.entferneKunden(karl);
+        _kundenstamm.entferneKunden(_klara);
+        _kundenstamm.entferneKunden(_susi);
+        assertTrue(_index.suche("s", 10).isEmpty());
+
+        _kundenstamm.fuegeKundenEin(_klaus);
+        assertEquals(Arrays.asList(_klaus), _index.suche("schmidt", 10));
+
+        _index.beende();
+        _kundenstamm.fuegeKundenEin(karl);
+        assertEquals(Arrays.asList(_klaus), _index.suche("schmidt", 10));
+    }
+
+    @Test
+    public void testVergleichMitVollerSuche()
+    {
+        Random random = new Random(11);
+        String[] namen = { "anna", "anne", "annika", "ben", "bernd", "berta",
+                "meier", "meyer", "maier", "mayer", "müller", "möller" };
+        List<Kunde> kunden = new ArrayList<Kunde>(_kundenstamm.getKunden());
+        for (int i = 0; i < 600; i++)
+        {
+            Kunde kunde = erzeugeKunde(200000 + i,
+                    namen[random.nextInt(namen.length)],
+                    namen[random.nextInt(namen.length)],
+                    namen[random.nextInt(namen.length)] + "stadt",
+                    String.valueOf(10000 + random.nextInt(300)),
+                    String.valueOf(random.nextInt(100000)));
+            kunden.add(kunde);
+            _kundenstamm.fuegeKundenEin(kunde);
+        }
+        for (int i = 0; i < 250; i++)
+        {
+            _kundenstamm.entferneKunden(kunden.remove(random.nextInt(kunden
+                    .size())));
+        }
+
+        String[] anfragen = { "anna", "ann", "an", "meier", "meir", "mayr",
+                "müler", "anna meyer", "be mei", "berta 100", "annastadt",
+                "anastadt", "1" };
+        for (String anfrage : anfragen)
+        {
+            List<Kunde> treffer = _index.suche(anfrage, 1000);
+            assertEquals(anfrage, durchsuche(kunden, anfrage),
+                    new HashSet<Kunde>(treffer));
+            for (int i = 1; i < treffer.size(); i++)
+            {
+                assertTrue(anfrage,
+                        punkte(treffer.get(i - 1), anfrage) >= punkte(
+                                treffer.get(i), anfrage));
+            }
+            // Die besten 5 müssen genauso gut sein wie die ersten 5 aller
+            List<Kunde> beste = _index.suche(anfrage, 5);
+            for (int i = 0; i < beste.size(); i++)
+            {
+                assertEquals(anfrage, punkte(treffer.get(i), anfrage),
+                        punkte(beste.get(i), anfrage));
+            }
+        }
+    }
+
+    private static Set<Kunde> durchsuche(List<Kunde> kunden, String anfrage)
+    {
+        Set<Kunde> result = new HashSet<Kunde>();
+        for (Kunde kunde : kunden)
+        {
+            if (punkte(kunde, anfrage) > 0)
+            {
+                result.add(kunde);
+            }
+        }
+        return result;
+    }
+
+    private static int punkte(Kunde kunde, String anfrage)
+    {
+        List<String> woerter = Kundenindex.getWoerter(kunde);
+        int result = 0;
+        for (String gesucht : new HashSet<String>(Arrays.asList(anfrage
+                .split(" "))))
+        {
+            int bewertung = Kundenindex.bewerte(gesucht, woerter);
+            if (bewertung == 0)
+            {
+                return 0;
+            }
+            result += bewertung;
+        }
+        return result;
+    }
+
+    private static Kunde erzeugeKunde(int kundennummer, String vorname,
+            String nachname, String wohnort, String plz, String telefonnummer)
+    {
+        Kunde result = new Kunde(new Kundennummer(kundennummer), vorname,
+                nachname);
+        result.setWohnort(wohnort);
+        result.setPLZ(new PLZ(plz));
+        result.setTelefonnummer(telefonnummer);
+        return result;
+    }
+}
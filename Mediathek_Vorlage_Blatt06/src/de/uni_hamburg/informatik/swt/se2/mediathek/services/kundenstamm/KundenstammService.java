@@ -51,6 +51,7 @@ public interface KundenstammService extends BeobachtbarerService
      *            Ein neuer Kunde.
      * 
      * @require !enthaeltKunden(neuerKunde)
+     * @require getKunden(neuerKunde.getKundennummer()) == null
      * @ensure enthaeltKunden(neuerKunde)
      */
     void fuegeKundenEin(Kunde neuerKunde);
@@ -1,11 +1,14 @@
 package de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.AbstractBeobachtbarerService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
 
 /**
  * Ein Kundenstamm ist ein Service, der die Menge von Kunden verwaltet. Auf
@@ -19,9 +22,10 @@ public class KundenstammServiceImpl extends AbstractBeobachtbarerService
 {
 
     /**
-     * Eine Liste, die alle Kunden enthält.
+     * Alle Kunden, über ihre Kundennummer erreichbar. Die Einfügereihenfolge
+     * bleibt für {@link #getKunden()} erhalten.
      */
-    private List<Kunde> _kundenstamm;
+    private Map<Kundennummer, Kunde> _kundenstamm;
 
     /**
      * Konstruktor. Initialisiert einen Kundenstamm.
@@ -34,53 +38,48 @@ public class KundenstammServiceImpl extends AbstractBeobachtbarerService
     public KundenstammServiceImpl(List<Kunde> kunden)
     {
         assert kunden != null : "Vorbedingung verletzt: kunden != null";
-        _kundenstamm = new ArrayList<Kunde>(kunden);
+        _kundenstamm = new LinkedHashMap<Kundennummer, Kunde>();
+        for (Kunde kunde : kunden)
+        {
+            _kundenstamm.put(kunde.getKundennummer(), kunde);
+        }
     }
 
     @Override
     public void entferneKunden(Kunde kunde)
     {
         assert enthaeltKunden(kunde) : "Vorbedingung verletzt: enthaeltKunden(kunde) ";
-        _kundenstamm.remove(kunde);
-        informiereUeberAenderung();
+        _kundenstamm.remove(kunde.getKundennummer());
+        informiereUeberAenderung(Aenderung.kundeEntfernt(kunde));
     }
 
     @Override
     public boolean enthaeltKunden(Kunde kunde)
     {
         assert kunde != null : "Vorbedingung verletzt: kunde != null";
-        return _kundenstamm.contains(kunde);
+        return kunde.equals(_kundenstamm.get(kunde.getKundennummer()));
     }
 
     @Override
     public void fuegeKundenEin(Kunde neuerKunde)
     {
         assert !enthaeltKunden(neuerKunde) : "Vorbedingung verletzt: !enthaelt(kunden)";
-        _kundenstamm.add(neuerKunde);
-        informiereUeberAenderung();
+        assert getKunden(neuerKunde.getKundennummer()) == null : "Vorbedingung verletzt: getKunden(neuerKunde.getKundennummer()) == null";
+        _kundenstamm.put(neuerKunde.getKundennummer(), neuerKunde);
+        informiereUeberAenderung(Aenderung.kundeHinzugefuegt(neuerKunde));
     }
 
     @Override
     public List<Kunde> getKunden()
     {
-        return new ArrayList<Kunde>(_kundenstamm);
+        return new ArrayList<Kunde>(_kundenstamm.values());
     }
 
     @Override
     public Kunde getKunden(Kundennummer kundennummer)
     {
         assert kundennummer != null : "Vorbedingung verletzt: kundennummer != null";
-
-        Kunde result = null;
-        for (Kunde kunde : _kundenstamm)
-        {
-            if (kunde.getKundennummer().equals(kundennummer))
-            {
-                result = kunde;
-                break;
-            }
-        }
-        return result;
+        return _kundenstamm.get(kundennummer);
     }
 
 }
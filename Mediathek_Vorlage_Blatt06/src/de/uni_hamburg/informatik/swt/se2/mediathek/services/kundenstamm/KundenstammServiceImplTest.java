@@ -7,6 +7,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -115,6 +116,32 @@ public class KundenstammServiceImplTest
 
         kunde = _kundenstamm.getKunden(new Kundennummer(987654));
         assertNull(kunde);
+
+        _kundenstamm.entferneKunden(_klaus);
+        assertNull(_kundenstamm.getKunden(kundennummerKlaus));
+    }
+
+    @Test
+    public void testGetKundenBehaeltReihenfolge()
+    {
+        Kunde erna = new Kunde(new Kundennummer(111111), "Erna", "Meier");
+        _kundenstamm = new KundenstammServiceImpl(Arrays.asList(_susi, erna));
+        _kundenstamm.fuegeKundenEin(_klaus);
+
+        assertEquals(Arrays.asList(_susi, erna, _klaus),
+                _kundenstamm.getKunden());
+
+        _kundenstamm.entferneKunden(erna);
+        assertEquals(Arrays.asList(_susi, _klaus), _kundenstamm.getKunden());
+    }
+
+    @Test
+    public void testEnthaeltKundenMitGleicherKundennummer()
+    {
+        _kundenstamm.fuegeKundenEin(_klaus);
+        Kunde anderer = new Kunde(_klaus.getKundennummer(), "Klaus",
+                "Schmidt");
+        assertFalse(_kundenstamm.enthaeltKunden(anderer));
     }
 
 }
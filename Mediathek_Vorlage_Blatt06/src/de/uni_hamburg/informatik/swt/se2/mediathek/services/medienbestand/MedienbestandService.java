@@ -69,6 +69,32 @@ public interface MedienbestandService extends BeobachtbarerService
      */
     List<Medium> getMedien();
 
+    /**
+     * Liefert die Medien-ID eines Mediums. Die ID wird beim Einfügen in den
+     * Bestand vergeben, ändert sich danach nicht und wird nicht für ein
+     * anderes Medium wiederverwendet. Andere Services können ein Medium über
+     * seine ID referenzieren, ohne das Medien-Objekt zu halten.
+     * 
+     * @param medium
+     *            Ein Medium
+     * @return Die Medien-ID des Mediums.
+     * 
+     * @require enthaeltMedium(medium)
+     * 
+     * @ensure result > 0
+     */
+    int getMedienId(Medium medium);
+
+    /**
+     * Liefert das Medium zu einer Medien-ID.
+     * 
+     * @param medienId
+     *            Eine Medien-ID
+     * @return Das Medium mit dieser ID oder null, wenn es kein solches Medium
+     *         im Bestand gibt.
+     */
+    Medium getMedium(int medienId);
+
     /**
      * Informiert diesen Service darüber, dass Medien von einem Werkzeug
      * geändert wurden. Eine Implementation wird daraufhin wahrscheinlich alle
@@ -1,10 +1,14 @@
 package de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.AbstractBeobachtbarerService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
 
 /**
  * Ein Medienbestand enthält alle zur Verfügung stehenden Medien. Diese können
@@ -12,6 +16,12 @@ import de.uni_hamburg.informatik.swt.se2.mediathek.services.AbstractBeobachtbare
  * bestimmten Titel kann es mehrere Medien-Objekte im Bestand geben. So kann
  * z.B. die gleiche CD mehrfach vorhanden sein.
  * 
+ * Jedes Medium erhält beim Einfügen eine fortlaufende Medien-ID. Die Medien
+ * werden unter dieser ID in Einfügereihenfolge gehalten, zusätzlich gibt es
+ * einen Index über die Identität der Medien-Objekte. Dadurch sind Einfügen,
+ * Entfernen und {@link #enthaeltMedium(Medium)} unabhängig von der Größe des
+ * Bestands.
+ * 
  * @author SE2-Team
  * @version SoSe 2012
  */
@@ -20,9 +30,19 @@ public class MedienbestandServiceImpl extends AbstractBeobachtbarerService
 {
 
     /**
-     * Eine Liste aller Medien
+     * Alle Medien, nach ihrer Medien-ID in Einfügereihenfolge.
+     */
+    private Map<Integer, Medium> _medienbestand;
+
+    /**
+     * Die Medien-IDs, nach der Identität der Medien-Objekte.
      */
-    private List<Medium> _medienbestand;
+    private Map<Medium, Integer> _medienIds;
+
+    /**
+     * Die ID, die das nächste eingefügte Medium erhält.
+     */
+    private int _naechsteMedienId;
 
     /**
      * Initialisiert einen neuen Medienbestand.
@@ -35,44 +55,73 @@ public class MedienbestandServiceImpl extends AbstractBeobachtbarerService
     public MedienbestandServiceImpl(List<Medium> medien)
     {
         assert medien != null : "Vorbedingung verletzt: medien != null";
-        _medienbestand = new ArrayList<Medium>(medien);
+        _medienbestand = new LinkedHashMap<Integer, Medium>();
+        _medienIds = new IdentityHashMap<Medium, Integer>();
+        _naechsteMedienId = 1;
+        for (Medium medium : medien)
+        {
+            nimmAuf(medium);
+        }
     }
 
     @Override
     public void entferneMedium(Medium medium)
     {
         assert enthaeltMedium(medium) : "Vorbedingung verletzt: enthaeltMedium(medium)";
-        _medienbestand.remove(medium);
+        _medienbestand.remove(_medienIds.remove(medium));
 
-        informiereUeberAenderung();
+        informiereUeberAenderung(Aenderung.mediumEntfernt(medium));
     }
 
     @Override
     public boolean enthaeltMedium(Medium medium)
     {
         assert medium != null : "Vorbedingung verletzt: medium != null";
-        return _medienbestand.contains(medium);
+        return _medienIds.containsKey(medium);
     }
 
     @Override
     public void fuegeMediumEin(Medium neuesMedium)
     {
         assert !enthaeltMedium(neuesMedium) : "Vorbedingung verletzt: !enthaeltMedium(medium)";
-        _medienbestand.add(neuesMedium);
+        nimmAuf(neuesMedium);
 
-        informiereUeberAenderung();
+        informiereUeberAenderung(Aenderung.mediumHinzugefuegt(neuesMedium));
     }
 
     @Override
     public List<Medium> getMedien()
     {
-        return new ArrayList<Medium>(_medienbestand);
+        return new ArrayList<Medium>(_medienbestand.values());
+    }
+
+    @Override
+    public int getMedienId(Medium medium)
+    {
+        assert enthaeltMedium(medium) : "Vorbedingung verletzt: enthaeltMedium(medium)";
+        return _medienIds.get(medium);
+    }
+
+    @Override
+    public Medium getMedium(int medienId)
+    {
+        return _medienbestand.get(medienId);
     }
 
     @Override
     public void medienWurdenGeaendert()
     {
-        informiereUeberAenderung();
+        informiereUeberAenderung(Aenderung.medienGeaendert());
+    }
+
+    /**
+     * Nimmt ein Medium unter der nächsten freien Medien-ID in den Bestand auf.
+     */
+    private void nimmAuf(Medium medium)
+    {
+        int medienId = _naechsteMedienId++;
+        _medienbestand.put(medienId, medium);
+        _medienIds.put(medium, medienId);
     }
 
 }
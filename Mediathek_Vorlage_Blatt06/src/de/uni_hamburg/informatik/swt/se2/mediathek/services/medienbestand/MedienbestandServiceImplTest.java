@@ -2,9 +2,12 @@ package de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Before;
@@ -95,4 +98,40 @@ public class MedienbestandServiceImplTest
         assertEquals(2, _medienbestand.getMedien().size());
         assertTrue(_medienbestand.enthaeltMedium(_cd2));
     }
+
+    @Test
+    public void getMedienBehaeltReihenfolgeTest()
+    {
+        Medium cd3 = new CD("Mein CD3-Titel", "Mein CD3-Kommentar",
+                "Mein Interpret 3", 42);
+        _medienbestand = new MedienbestandServiceImpl(Arrays.asList(_cd2,
+                _cd1));
+        _medienbestand.fuegeMediumEin(cd3);
+        assertEquals(Arrays.asList(_cd2, _cd1, cd3),
+                _medienbestand.getMedien());
+
+        _medienbestand.entferneMedium(_cd1);
+        assertEquals(Arrays.asList(_cd2, cd3), _medienbestand.getMedien());
+    }
+
+    @Test
+    public void medienIdTest()
+    {
+        _medienbestand.fuegeMediumEin(_cd1);
+        _medienbestand.fuegeMediumEin(_cd2);
+
+        int idCd1 = _medienbestand.getMedienId(_cd1);
+        int idCd2 = _medienbestand.getMedienId(_cd2);
+        assertTrue(idCd1 > 0);
+        assertTrue(idCd1 != idCd2);
+        assertSame(_cd1, _medienbestand.getMedium(idCd1));
+        assertSame(_cd2, _medienbestand.getMedium(idCd2));
+
+        _medienbestand.entferneMedium(_cd1);
+        assertNull(_medienbestand.getMedium(idCd1));
+        assertEquals(idCd2, _medienbestand.getMedienId(_cd2));
+
+        _medienbestand.fuegeMediumEin(_cd1);
+        assertTrue(_medienbestand.getMedienId(_cd1) != idCd1);
+    }
 }
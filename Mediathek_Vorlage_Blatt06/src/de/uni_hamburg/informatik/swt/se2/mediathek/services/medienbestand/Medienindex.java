@@ -0,0 +1,515 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.DVD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.KonsolenVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.PCVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.AenderungsBeobachter;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Textzerleger;
+
+/**
+ * Ein invertierter Volltextindex über die Medien eines
+ * {@link MedienbestandService}. Indiziert werden die Wörter aus Titel und
+ * Kommentar sowie Interpret (CD), Regisseur (DVD) und System (Videospiele).
+ *
+ * Für jedes Wort hält der Index die Medien-IDs der Medien, in denen es
+ * vorkommt, aufsteigend sortiert. Eine Suche schlägt nur die Wörter der
+ * Anfrage nach und schneidet deren Listen, statt alle Medien zu durchlaufen.
+ * Die Wörter liegen zusätzlich sortiert vor, sodass auch alle Wörter mit
+ * einem gegebenen Anfang gefunden werden.
+ *
+ * Ein Medium wird gefunden, wenn es jedes Wort der Anfrage enthält. Die
+ * Treffer werden danach gewichtet, in welchem Feld die Wörter stehen (Titel
+ * vor Urheber vor Kommentar); bei der Präfixsuche zählt ein ganz
+ * übereinstimmendes Wort doppelt. Bei gleichem Gewicht steht das früher
+ * eingefügte Medium vorn.
+ *
+ * Der Index meldet sich als {@link AenderungsBeobachter} am Medienbestand an
+ * und nimmt hinzugefügte und entfernte Medien einzeln auf. Wurden Medien auf
+ * unbekannte Weise geändert, wird er neu aufgebaut.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class Medienindex implements AenderungsBeobachter
+{
+    // Die Felder, in denen ein Wort vorkommen kann, als Bits
+    private static final int TITEL = 1;
+    private static final int URHEBER = 2;
+    private static final int KOMMENTAR = 4;
+
+    private final MedienbestandService _medienbestand;
+
+    /**
+     * Die Trefferlisten je Wort.
+     */
+    private final Map<String, Trefferliste> _woerter;
+
+    /**
+     * Dieselben Trefferlisten nach Wörtern sortiert, für die Präfixsuche. Sie
+     * wird nur geändert, wenn ein neues Wort hinzukommt.
+     */
+    private final NavigableMap<String, Trefferliste> _sortierteWoerter;
+
+    /**
+     * Die Anzahl der indizierten Medien, einschließlich der entfernten.
+     */
+    private int _anzahlIndiziert;
+
+    /**
+     * Die Anzahl der entfernten Medien, die noch in Trefferlisten stehen.
+     */
+    private int _anzahlEntfernt;
+
+    /**
+     * Die höchste indizierte Medien-ID. Medien-IDs werden aufsteigend
+     * vergeben, daher ist ein Medium mit kleinerer oder gleicher ID schon
+     * indiziert.
+     */
+    private int _hoechsteMedienId;
+
+    /**
+     * Initialisiert einen neuen Index über alle Medien des gegebenen
+     * Medienbestands und meldet ihn als Beobachter an.
+     *
+     * @param medienbestand
+     *            Der zu indizierende Medienbestand.
+     *
+     * @require medienbestand != null
+     */
+    public Medienindex(MedienbestandService medienbestand)
+    {
+        assert medienbestand != null : "Vorbedingung verletzt: medienbestand != null";
+        _medienbestand = medienbestand;
+        _woerter = new HashMap<String, Trefferliste>();
+        _sortierteWoerter = new TreeMap<String, Trefferliste>();
+        baueAuf();
+        _medienbestand.registriereAenderungsBeobachter(this);
+    }
+
+    /**
+     * Meldet den Index vom Medienbestand ab. Danach wird er nicht mehr
+     * aktualisiert.
+     */
+    public void beende()
+    {
+        _medienbestand.entferneAenderungsBeobachter(this);
+    }
+
+    @Override
+    public synchronized void informiereUeberAenderungen(
+            List<Aenderung> aenderungen)
+    {
+        for (Aenderung aenderung : aenderungen)
+        {
+            switch (aenderung.getArt())
+            {
+            case MEDIUM_HINZUGEFUEGT:
+                for (Medium medium : aenderung.getMedien())
+                {
+                    // Bei gebündelter Zustellung kann das Medium schon wieder
+                    // entfernt oder bereits beim Aufbau indiziert sein.
+                    if (_medienbestand.enthaeltMedium(medium)
+                            && _medienbestand.getMedienId(medium) > _hoechsteMedienId)
+                    {
+                        indiziere(_medienbestand.getMedienId(medium), medium);
+                    }
+                }
+                break;
+            case MEDIUM_ENTFERNT:
+                // Die Einträge bleiben stehen und werden bei der Suche
+                // übersprungen, bis sich ein Neuaufbau lohnt.
+                _anzahlEntfernt += aenderung.getMedien().size();
+                if (_anzahlEntfernt > _anzahlIndiziert / 2)
+                {
+                    // Der Neuaufbau enthält auch die folgenden Änderungen.
+                    baueAuf();
+                    return;
+                }
+                break;
+            case MEDIEN_GEAENDERT:
+            case UNBESTIMMT:
+                baueAuf();
+                return;
+            default:
+                break;
+            }
+        }
+    }
+
+    /**
+     * Sucht die Medien, die alle Wörter der Anfrage enthalten.
+     *
+     * @param anfrage
+     *            Die Suchwörter, durch Leer- oder Satzzeichen getrennt.
+     * @param anzahl
+     *            Die höchste Anzahl von Treffern.
+     * @return Die Treffer, die besten zuerst.
+     *
+     * @require anfrage != null
+     * @require anzahl > 0
+     *
+     * @ensure result != null && result.size() <= anzahl
+     */
+    public synchronized List<Medium> sucheWoerter(String anfrage, int anzahl)
+    {
+        return suche(anfrage, anzahl, false);
+    }
+
+    /**
+     * Sucht die Medien, die zu jedem Wort der Anfrage ein Wort mit diesem
+     * Anfang enthalten, etwa für eine Suche während der Eingabe.
+     *
+     * @param anfrage
+     *            Die Wortanfänge, durch Leer- oder Satzzeichen getrennt.
+     * @param anzahl
+     *            Die höchste Anzahl von Treffern.
+     * @return Die Treffer, die besten zuerst.
+     *
+     * @require anfrage != null
+     * @require anzahl > 0
+     *
+     * @ensure result != null && result.size() <= anzahl
+     */
+    public synchronized List<Medium> suchePraefixe(String anfrage, int anzahl)
+    {
+        return suche(anfrage, anzahl, true);
+    }
+
+    private List<Medium> suche(String anfrage, int anzahl, boolean praefix)
+    {
+        assert anfrage != null : "Vorbedingung verletzt: anfrage != null";
+        assert anzahl > 0 : "Vorbedingung verletzt: anzahl > 0";
+
+        Set<String> woerter = new LinkedHashSet<String>(
+                Textzerleger.zerlege(anfrage));
+        if (woerter.isEmpty())
+        {
+            return new ArrayList<Medium>();
+        }
+        List<Treffer> trefferJeWort = new ArrayList<Treffer>(woerter.size());
+        for (String wort : woerter)
+        {
+            Treffer treffer = praefix ? sammlePraefix(wort) : sammleWort(wort);
+            if (treffer._anzahl == 0)
+            {
+                return new ArrayList<Medium>();
+            }
+            trefferJeWort.add(treffer);
+        }
+
+        // Mit der kürzesten Liste beginnen, damit die Schnitte klein bleiben
+        Collections.sort(trefferJeWort);
+        Treffer schnitt = trefferJeWort.get(0);
+        for (int i = 1; i < trefferJeWort.size() && schnitt._anzahl > 0; i++)
+        {
+            schnitt = schnitt.schneide(trefferJeWort.get(i));
+        }
+        return besteTreffer(schnitt, anzahl);
+    }
+
+    /**
+     * Wählt die besten Treffer mit einer Halde der Größe anzahl aus. Ein
+     * Treffer wird als long aus Gewicht und umgekehrter Medien-ID
+     * verschlüsselt, sodass ein größerer Wert ein besserer Treffer ist.
+     */
+    private List<Medium> besteTreffer(Treffer treffer, int anzahl)
+    {
+        PriorityQueue<Long> halde = new PriorityQueue<Long>(anzahl + 1);
+        long schlechtester = Long.MIN_VALUE;
+        for (int i = 0; i < treffer._anzahl; i++)
+        {
+            long schluessel = ((long) treffer._gewichte[i] << 32)
+                    | (Integer.MAX_VALUE - treffer._ids[i]);
+            if (halde.size() == anzahl && schluessel <= schlechtester)
+            {
+                continue;
+            }
+            if (_medienbestand.getMedium(treffer._ids[i]) == null)
+            {
+                continue;
+            }
+            halde.add(schluessel);
+            if (halde.size() > anzahl)
+            {
+                halde.poll();
+            }
+            if (halde.size() == anzahl)
+            {
+                schlechtester = halde.peek();
+            }
+        }
+        Medium[] result = new Medium[halde.size()];
+        for (int i = result.length - 1; i >= 0; i--)
+        {
+            int id = Integer.MAX_VALUE - (int) (halde.poll() & 0xFFFFFFFFL);
+            result[i] = _medienbestand.getMedium(id);
+        }
+        return new ArrayList<Medium>(Arrays.asList(result));
+    }
+
+    private Treffer sammleWort(String wort)
+    {
+        Trefferliste liste = _woerter.get(wort);
+        if (liste == null)
+        {
+            return new Treffer(new int[0], new int[0], 0);
+        }
+        int[] gewichte = new int[liste._anzahl];
+        for (int i = 0; i < liste._anzahl; i++)
+        {
+            gewichte[i] = gewicht(liste._felder[i]);
+        }
+        return new Treffer(liste._ids, gewichte, liste._anzahl);
+    }
+
+    /**
+     * Sammelt die Treffer aller Wörter mit dem gegebenen Anfang. Kommt ein
+     * Medium unter mehreren dieser Wörter vor, zählt das höchste Gewicht.
+     */
+    private Treffer sammlePraefix(String praefix)
+    {
+        Collection<Map.Entry<String, Trefferliste>> eintraege = _sortierteWoerter
+                .subMap(praefix, true, praefix + Character.MAX_VALUE, false)
+                .entrySet();
+        int gesamt = 0;
+        for (Map.Entry<String, Trefferliste> eintrag : eintraege)
+        {
+            gesamt += eintrag.getValue()._anzahl;
+        }
+        long[] schluessel = new long[gesamt];
+        int n = 0;
+        for (Map.Entry<String, Trefferliste> eintrag : eintraege)
+        {
+            Trefferliste liste = eintrag.getValue();
+            int faktor = eintrag.getKey().length() == praefix.length() ? 2 : 1;
+            for (int i = 0; i < liste._anzahl; i++)
+            {
+                schluessel[n++] = ((long) liste._ids[i] << 32)
+                        | (faktor * gewicht(liste._felder[i]));
+            }
+        }
+        if (eintraege.size() > 1)
+        {
+            Arrays.sort(schluessel);
+        }
+
+        int[] ids = new int[gesamt];
+        int[] gewichte = new int[gesamt];
+        int anzahl = 0;
+        for (int i = 0; i < gesamt; i++)
+        {
+            int id = (int) (schluessel[i] >>> 32);
+            int gewicht = (int) schluessel[i];
+            if (anzahl > 0 && ids[anzahl - 1] == id)
+            {
+                gewichte[anzahl - 1] = Math.max(gewichte[anzahl - 1], gewicht);
+            }
+            else
+            {
+                ids[anzahl] = id;
+                gewichte[anzahl] = gewicht;
+                anzahl++;
+            }
+        }
+        return new Treffer(ids, gewichte, anzahl);
+    }
+
+    private static int gewicht(byte felder)
+    {
+        int result = 0;
+        if ((felder & TITEL) != 0)
+        {
+            result += 4;
+        }
+        if ((felder & URHEBER) != 0)
+        {
+            result += 2;
+        }
+        if ((felder & KOMMENTAR) != 0)
+        {
+            result += 1;
+        }
+        return result;
+    }
+
+    /**
+     * Baut den Index aus dem aktuellen Medienbestand neu auf.
+     */
+    private void baueAuf()
+    {
+        _woerter.clear();
+        _sortierteWoerter.clear();
+        _anzahlIndiziert = 0;
+        _anzahlEntfernt = 0;
+        _hoechsteMedienId = 0;
+        // getMedien liefert die Medien in Einfügereihenfolge, also nach
+        // aufsteigender Medien-ID.
+        for (Medium medium : _medienbestand.getMedien())
+        {
+            indiziere(_medienbestand.getMedienId(medium), medium);
+        }
+    }
+
+    /**
+     * Trägt ein Medium unter allen seinen Wörtern ein. Medien-IDs werden
+     * aufsteigend vergeben, daher bleiben die Trefferlisten beim Anhängen
+     * sortiert.
+     */
+    private void indiziere(int medienId, Medium medium)
+    {
+        Map<String, Integer> felderJeWort = new HashMap<String, Integer>();
+        sammleWoerter(felderJeWort, medium.getTitel(), TITEL);
+        sammleWoerter(felderJeWort, getUrheber(medium), URHEBER);
+        sammleWoerter(felderJeWort, medium.getKommentar(), KOMMENTAR);
+        for (Map.Entry<String, Integer> eintrag : felderJeWort.entrySet())
+        {
+            Trefferliste liste = _woerter.get(eintrag.getKey());
+            if (liste == null)
+            {
+                liste = new Trefferliste();
+                _woerter.put(eintrag.getKey(), liste);
+                _sortierteWoerter.put(eintrag.getKey(), liste);
+            }
+            liste.haengeAn(medienId, eintrag.getValue().byteValue());
+        }
+        _anzahlIndiziert++;
+        _hoechsteMedienId = medienId;
+    }
+
+    private static void sammleWoerter(Map<String, Integer> felderJeWort,
+            String text, int feld)
+    {
+        if (text == null)
+        {
+            return;
+        }
+        for (String wort : Textzerleger.zerlege(text))
+        {
+            Integer felder = felderJeWort.get(wort);
+            felderJeWort.put(wort, felder == null ? feld : felder | feld);
+        }
+    }
+
+    /**
+     * Gibt Interpret, Regisseur oder System des Mediums zurück, oder null.
+     */
+    private static String getUrheber(Medium medium)
+    {
+        String result = null;
+        if (medium instanceof CD)
+        {
+            result = ((CD) medium).getInterpret();
+        }
+        else if (medium instanceof DVD)
+        {
+            result = ((DVD) medium).getRegisseur();
+        }
+        else if (medium instanceof KonsolenVideospiel)
+        {
+            result = ((KonsolenVideospiel) medium).getSystem();
+        }
+        else if (medium instanceof PCVideospiel)
+        {
+            result = ((PCVideospiel) medium).getSystem();
+        }
+        return result;
+    }
+
+    /**
+     * Die Medien-IDs, unter denen ein Wort vorkommt, mit den Feldern, in
+     * denen es steht.
+     */
+    private static final class Trefferliste
+    {
+        private int[] _ids = new int[2];
+        private byte[] _felder = new byte[2];
+        private int _anzahl;
+
+        void haengeAn(int medienId, byte felder)
+        {
+            if (_anzahl == _ids.length)
+            {
+                int kapazitaet = _anzahl + (_anzahl >> 1) + 1;
+                _ids = Arrays.copyOf(_ids, kapazitaet);
+                _felder = Arrays.copyOf(_felder, kapazitaet);
+            }
+            _ids[_anzahl] = medienId;
+            _felder[_anzahl] = felder;
+            _anzahl++;
+        }
+    }
+
+    /**
+     * Gewichtete Treffer für einen Teil der Anfrage, aufsteigend nach
+     * Medien-ID.
+     */
+    private static final class Treffer implements Comparable<Treffer>
+    {
+        private final int[] _ids;
+        private final int[] _gewichte;
+        private final int _anzahl;
+
+        Treffer(int[] ids, int[] gewichte, int anzahl)
+        {
+            _ids = ids;
+            _gewichte = gewichte;
+            _anzahl = anzahl;
+        }
+
+        /**
+         * Gibt die Treffer zurück, die in beiden Listen stehen, mit der Summe
+         * ihrer Gewichte.
+         */
+        Treffer schneide(Treffer andere)
+        {
+            int laenge = Math.min(_anzahl, andere._anzahl);
+            int[] ids = new int[laenge];
+            int[] gewichte = new int[laenge];
+            int anzahl = 0;
+            int i = 0;
+            int j = 0;
+            while (i < _anzahl && j < andere._anzahl)
+            {
+                if (_ids[i] < andere._ids[j])
+                {
+                    i++;
+                }
+                else if (_ids[i] > andere._ids[j])
+                {
+                    j++;
+                }
+                else
+                {
+                    ids[anzahl] = _ids[i];
+                    gewichte[anzahl] = _gewichte[i] + andere._gewichte[j];
+                    anzahl++;
+                    i++;
+                    j++;
+                }
+            }
+            return new Treffer(ids, gewichte, anzahl);
+        }
+
+        @Override
+        public int compareTo(Treffer andere)
+        {
+            return Integer.compare(_anzahl, andere._anzahl);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.DVD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.KonsolenVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.PCVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Textzerleger;
+
+/**
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class MedienindexTest
+{
+    private Medium _abbey;
+    private Medium _matrix;
+    private Medium _zelda;
+    private Medium _sims;
+    private MedienbestandService _medienbestand;
+    private Medienindex _index;
+
+    @Before
+    public void setUp()
+    {
+        _abbey = new CD("Abbey Road", "Mit Here Comes the Sun", "The Beatles",
+                47);
+        _matrix = new DVD("The Matrix", "Science-Fiction", "Wachowski", 136);
+        _zelda = new KonsolenVideospiel("Zelda", "Abenteuer mit Matrix-Rätseln",
+                "Wii");
+        _sims = new PCVideospiel("Die Sims", "Lebenssimulation", "Windows");
+        _medienbestand = new MedienbestandServiceImpl(Arrays.asList(_abbey,
+                _matrix, _zelda));
+        _index = new Medienindex(_medienbestand);
+    }
+
+    @Test
+    public void testSucheWoerter()
+    {
+        assertEquals(Arrays.asList(_abbey), _index.sucheWoerter("beatles", 10));
+        assertEquals(Arrays.asList(_abbey),
+                _index.sucheWoerter("ROAD abbey", 10));
+        assertEquals(Arrays.asList(_zelda), _index.sucheWoerter("wii", 10));
+        assertTrue(_index.sucheWoerter("beat", 10).isEmpty());
+        assertTrue(_index.sucheWoerter("abbey matrix", 10).isEmpty());
+        assertTrue(_index.sucheWoerter("", 10).isEmpty());
+    }
+
+    @Test
+    public void testRangfolge()
+    {
+        // Im Titel von The Matrix, im Kommentar von Zelda
+        assertEquals(Arrays.asList(_matrix, _zelda),
+                _index.sucheWoerter("matrix", 10));
+        assertEquals(Arrays.asList(_matrix), _index.sucheWoerter("matrix", 1));
+        // "the" steht im Titel von The Matrix, bei Abbey Road im Interpreten
+        // und im Kommentar
+        assertEquals(Arrays.asList(_matrix, _abbey),
+                _index.sucheWoerter("the", 10));
+    }
+
+    @Test
+    public void testSuchePraefixe()
+    {
+        assertEquals(Arrays.asList(_abbey), _index.suchePraefixe("beat", 10));
+        assertEquals(Arrays.asList(_abbey, _zelda),
+                _index.suchePraefixe("ab", 10));
+        // Ein ganz übereinstimmendes Wort zählt doppelt
+        Medium rosen = new CD("A", "Rosen", "", 1);
+        Medium rose = new CD("B", "Rose", "", 1);
+        _medienbestand.fuegeMediumEin(rosen);
+        _medienbestand.fuegeMediumEin(rose);
+        assertEquals(Arrays.asList(rose, rosen),
+                _index.suchePraefixe("rose", 10));
+        assertEquals(Arrays.asList(_abbey), _index.suchePraefixe("ab ro", 10));
+        assertTrue(_index.suchePraefixe("xyz", 10).isEmpty());
+    }
+
+    @Test
+    public void testAenderungenDesBestands()
+    {
+        _medienbestand.fuegeMediumEin(_sims);
+        assertEquals(Arrays.asList(_sims), _index.sucheWoerter("windows", 10));
+
+        _medienbestand.entferneMedium(_matrix);
+        assertEquals(Arrays.asList(_zelda), _index.sucheWoerter("matrix", 10));
+
+        _medienbestand.fuegeMediumEin(_matrix);
+        assertEquals(Arrays.asList(_matrix, _zelda),
+                _index.sucheWoerter("matrix", 10));
+
+        _zelda.setTitel("Mario");
+        _medienbestand.medienWurdenGeaendert();
+        assertTrue(_index.sucheWoerter("zelda", 10).isEmpty());
+        assertEquals(Arrays.asList(_zelda), _index.sucheWoerter("mario", 10));
+
+        _index.beende();
+        _medienbestand.entferneMedium(_sims);
+        _medienbestand.fuegeMediumEin(new CD("Windows", "", "", 1));
+        assertTrue(_index.sucheWoerter("windows", 10).isEmpty());
+    }
+
+    @Test
+    public void testGebuendeltesEntfernenUndEinfuegen()
+    {
+        // Die Änderungen kommen erst nach dem letzten Aufruf gesammelt an.
+        _index.beende();
+        _medienbestand.entferneMedium(_abbey);
+        _medienbestand.entferneMedium(_matrix);
+        _medienbestand.fuegeMediumEin(_sims);
+        _index.informiereUeberAenderungen(Arrays.asList(
+                Aenderung.mediumEntfernt(_abbey),
+                Aenderung.mediumEntfernt(_matrix),
+                Aenderung.mediumHinzugefuegt(_sims)));
+
+        assertEquals(Arrays.asList(_sims), _index.sucheWoerter("windows", 10));
+        assertEquals(Arrays.asList(_zelda), _index.sucheWoerter("matrix", 10));
+    }
+
+    @Test
+    public void testEinfuegenNachDemAufbau()
+    {
+        // Das Einfügen wird erst zugestellt, nachdem der Index das Medium
+        // beim Aufbau schon aufgenommen hat.
+        _index.beende();
+        _medienbestand.fuegeMediumEin(_sims);
+        Medienindex index = new Medienindex(_medienbestand);
+        index.informiereUeberAenderungen(Arrays.asList(Aenderung
+                .mediumHinzugefuegt(_sims)));
+
+        assertEquals(Arrays.asList(_sims), index.sucheWoerter("windows", 10));
+    }
+
+    @Test
+    public void testVergleichMitVollerSuche()
+    {
+        Random random = new Random(7);
+        String[] woerter = { "rot", "rose", "rosen", "blau", "blume", "see",
+                "seele", "stern", "sterne", "tag" };
+        List<Medium> medien = new ArrayList<Medium>(_medienbestand.getMedien());
+        for (int i = 0; i < 500; i++)
+        {
+            Medium medium = new CD(woerter[random.nextInt(woerter.length)]
+                    + " " + woerter[random.nextInt(woerter.length)],
+                    woerter[random.nextInt(woerter.length)],
+                    woerter[random.nextInt(woerter.length)], 1);
+            medien.add(medium);
+            _medienbestand.fuegeMediumEin(medium);
+        }
+        for (int i = 0; i < 200; i++)
+        {
+            _medienbestand.entferneMedium(medien.remove(random.nextInt(medien
+                    .size())));
+        }
+
+        for (String erstes : woerter)
+        {
+            for (String zweites : new String[] { "ros", "st", "blau", "se" })
+            {
+                String anfrage = erstes + " " + zweites;
+                assertEquals(durchsuche(medien, anfrage, false),
+                        new HashSet<Medium>(_index.sucheWoerter(anfrage, 1000)));
+                assertEquals(durchsuche(medien, anfrage, true),
+                        new HashSet<Medium>(_index.suchePraefixe(anfrage, 1000)));
+            }
+        }
+    }
+
+    /**
+     * Sucht ohne Index alle Medien, die zu jedem Wort der Anfrage ein
+     * gleiches oder, bei der Präfixsuche, damit beginnendes Wort enthalten.
+     */
+    private static Set<Medium> durchsuche(List<Medium> medien,
+            String anfrage, boolean praefix)
+    {
+        Set<Medium> result = new HashSet<Medium>();
+        for (Medium medium : medien)
+        {
+            List<String> text = new ArrayList<String>();
+            text.addAll(Textzerleger.zerlege(medium.getTitel()));
+            text.addAll(Textzerleger.zerlege(medium.getKommentar()));
+            if (medium instanceof CD)
+            {
+                text.addAll(Textzerleger.zerlege(((CD) medium)
+                        .getInterpret()));
+            }
+            boolean alleGefunden = true;
+            for (String gesucht : Textzerleger.zerlege(anfrage))
+            {
+                boolean gefunden = false;
+                for (String wort : text)
+                {
+                    gefunden |= praefix ? wort.startsWith(gesucht) : wort
+                            .equals(gesucht);
+                }
+                alleGefunden &= gefunden;
+            }
+            if (alleGefunden)
+            {
+                result.add(medium);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,159 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Hilfsfunktionen, um eine Datei atomar zu ersetzen: Der neue Inhalt wird in
+ * eine temporäre Datei im selben Verzeichnis geschrieben, auf die Platte
+ * gezwungen und dann über die alte Datei umbenannt.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public final class AtomareDatei
+{
+    /**
+     * Schreibt den neuen Inhalt einer Datei, siehe
+     * {@link AtomareDatei#schreibe(File, Inhalt)}.
+     */
+    public interface Inhalt
+    {
+        /**
+         * Schreibt den Inhalt vollständig in die Ausgabe. Eigene Puffer
+         * müssen dabei geleert werden, die Ausgabe selbst wird danach
+         * geschlossen.
+         */
+        void schreibeIn(OutputStream ausgabe) throws IOException;
+    }
+
+    private AtomareDatei()
+    {
+    }
+
+    /**
+     * Ersetzt die Zieldatei atomar durch den angegebenen Inhalt. Scheitert
+     * das Schreiben, bleibt die Zieldatei unverändert und die temporäre
+     * Datei wird gelöscht.
+     * 
+     * @throws DateiSchreibException
+     *             wenn das Dateisystem kein atomares Umbenennen kann.
+     * 
+     * @require ziel != null
+     * @require inhalt != null
+     */
+    public static void schreibe(File ziel, Inhalt inhalt) throws IOException
+    {
+        assert ziel != null : "Vorbedingung verletzt: ziel != null";
+        assert inhalt != null : "Vorbedingung verletzt: inhalt != null";
+        File tempDatei = erzeugeTempDatei(ziel);
+        FileOutputStream ausgabe = null;
+        try
+        {
+            ausgabe = new FileOutputStream(tempDatei);
+            inhalt.schreibeIn(ausgabe);
+            ausgabe.getChannel().force(true);
+            ausgabe.close();
+            ausgabe = null;
+            ersetze(tempDatei, ziel);
+            tempDatei = null;
+        }
+        finally
+        {
+            schliesse(ausgabe);
+            if (tempDatei != null)
+            {
+                tempDatei.delete();
+            }
+        }
+    }
+
+    /**
+     * Legt eine temporäre Datei im Verzeichnis der Zieldatei an.
+     * 
+     * @require ziel != null
+     */
+    static File erzeugeTempDatei(File ziel) throws IOException
+    {
+        assert ziel != null : "Vorbedingung verletzt: ziel != null";
+        return File.createTempFile(ziel.getName(), ".tmp", ziel
+                .getAbsoluteFile().getParentFile());
+    }
+
+    /**
+     * Benennt die bereits auf die Platte gezwungene temporäre Datei atomar in
+     * die Zieldatei um und zwingt die Umbenennung auf die Platte.
+     * 
+     * @throws DateiSchreibException
+     *             wenn das Dateisystem kein atomares Umbenennen kann.
+     * 
+     * @require tempDatei != null
+     * @require ziel != null
+     */
+    public static void ersetze(File tempDatei, File ziel) throws IOException
+    {
+        assert tempDatei != null : "Vorbedingung verletzt: tempDatei != null";
+        assert ziel != null : "Vorbedingung verletzt: ziel != null";
+        try
+        {
+            Files.move(tempDatei.toPath(), ziel.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            throw new DateiSchreibException("Die Datei " + ziel
+                    + " kann nicht atomar ersetzt werden.");
+        }
+        synchronisiereVerzeichnis(ziel.getAbsoluteFile().getParentFile());
+    }
+
+    /**
+     * Schließt den Stream oder Kanal, falls er nicht null ist.
+     */
+    static void schliesse(Closeable closeable)
+    {
+        if (closeable != null)
+        {
+            try
+            {
+                closeable.close();
+            }
+            catch (IOException e)
+            {
+                // Diese Exception wird geschluckt.
+            }
+        }
+    }
+
+    /**
+     * Zwingt die Umbenennung auf die Platte. Nicht alle Systeme erlauben das
+     * für Verzeichnisse, dann bleibt es beim Umbenennen.
+     */
+    private static void synchronisiereVerzeichnis(File verzeichnis)
+    {
+        FileChannel kanal = null;
+        try
+        {
+            kanal = FileChannel.open(verzeichnis.toPath(),
+                    StandardOpenOption.READ);
+            kanal.force(true);
+        }
+        catch (IOException e)
+        {
+            // Diese Exception wird geschluckt, die Datei selbst ist bereits
+            // geschrieben.
+        }
+        finally
+        {
+            schliesse(kanal);
+        }
+    }
+}
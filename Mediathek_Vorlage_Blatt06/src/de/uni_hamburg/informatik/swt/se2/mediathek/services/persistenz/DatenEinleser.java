@@ -30,6 +30,11 @@ public class DatenEinleser
      */
     private final File _kundenDatei;
 
+    /**
+     * Der Modus, in dem die Dateien gelesen werden.
+     */
+    private final Einlesemodus _modus;
+
     /**
      * Die eingelesenen Kunden, ist null wenn noch nicht eingelesen wurde.
      */
@@ -48,7 +53,7 @@ public class DatenEinleser
 
     /**
      * Initialisiert einen neuen {@link DatenEinleser}, der aus den angebenen Dateien
-     * einliest.
+     * zeilenweise einliest.
      * 
      * @param medienDatei
      *            Die Datei in der die Medien gespeichert sind.
@@ -59,12 +64,34 @@ public class DatenEinleser
      * @require kundenDatei != null
      */
     public DatenEinleser(File medienDatei, File kundenDatei)
+    {
+        this(medienDatei, kundenDatei, Einlesemodus.ZEILENWEISE);
+    }
+
+    /**
+     * Initialisiert einen neuen {@link DatenEinleser}, der aus den angebenen
+     * Dateien im angegebenen Modus einliest.
+     * 
+     * @param medienDatei
+     *            Die Datei in der die Medien gespeichert sind.
+     * @param kundenDatei
+     *            Die Datei in der die Kunden gespeichert sind.
+     * @param modus
+     *            Der Modus, in dem die Dateien gelesen werden.
+     * 
+     * @require medienDatei != null
+     * @require kundenDatei != null
+     * @require modus != null
+     */
+    public DatenEinleser(File medienDatei, File kundenDatei, Einlesemodus modus)
     {
         assert medienDatei != null : "Vorbedingung verletzt: medienDatei != null";
         assert kundenDatei != null : "Vorbedingung verletzt: kundenDatei != null";
+        assert modus != null : "Vorbedingung verletzt: modus != null";
 
         _medienDatei = medienDatei;
         _kundenDatei = kundenDatei;
+        _modus = modus;
     }
 
     /**
@@ -80,11 +107,27 @@ public class DatenEinleser
      */
     public void leseDaten() throws DateiLeseException
     {
-        KundenEinleser kundenEinleser = new KundenEinleser();
-        _kunden = kundenEinleser.leseKundenEin(_kundenDatei);
-        MedienEinleser medienEinleser = new MedienEinleser();
-        Map<Medium, Verleihkarte> medienMap = medienEinleser.leseMedienEin(
-                _kunden, _medienDatei);
+        Map<Medium, Verleihkarte> medienMap;
+        if (_modus == Einlesemodus.PARALLEL)
+        {
+            ParallelerEinleser einleser = new ParallelerEinleser();
+            einleser.leseEin(_kundenDatei, _medienDatei);
+            _kunden = einleser.getKunden();
+            medienMap = einleser.getMedien();
+        }
+        else if (_modus == Einlesemodus.SPEICHERABGEBILDET)
+        {
+            _kunden = new MappedKundenEinleser().leseKundenEin(_kundenDatei);
+            medienMap = new MappedMedienEinleser().leseMedienEin(_kunden,
+                    _medienDatei);
+        }
+        else
+        {
+            KundenEinleser kundenEinleser = new KundenEinleser();
+            _kunden = kundenEinleser.leseKundenEin(_kundenDatei);
+            MedienEinleser medienEinleser = new MedienEinleser();
+            medienMap = medienEinleser.leseMedienEin(_kunden, _medienDatei);
+        }
         _medien = new ArrayList<Medium>(medienMap.keySet());
         _verleihkarten = new ArrayList<Verleihkarte>();
         for (Entry<Medium, Verleihkarte> entry : medienMap.entrySet())
@@ -0,0 +1,165 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+
+public class DatenEinleserTest
+{
+    private static final String KUNDEN = "123456;Susi;Sonnenschein;Sonnenallee 20;22760;Hamburg\n"
+            + "123457;Kai;Konrad;Kannenweg 23;D-21868;Stade\r\n"
+            + "12345;Zu;Kurz;Weg 1;22760;Hamburg\n"
+            + "123458;Klaus;Müller;Müllerweg 1;2276;Hamburg\n"
+            + "123459;Julia;Schmidt;Julianenallee22;24103;Kiel";
+
+    private static final String MEDIEN = "2.4.2012;123457;CD;Greatest Hits;2 Scheiben;Billy Joel;140\n"
+            + " ; ;CD;Garden State;Soundtrack;Various;56\n"
+            + "12.11.2011;123456;KonsolenVideospiel;Gehirn Jogging; Wie fit?;Nintendo DS\r\n"
+            + " ; ;DVD;Kung Fu Panda; ;John Stevenson;115\n"
+            + "31.2.2012; ;PCVideospiel;Siedler;Aufbau;Windows\n"
+            + "1.1.2012;123459;DVD;Titel;;Leerfelder;Regie;90\n"
+            + " ; ;Buch;Unbekannt;wird übersprungen\n"
+            + "3.4.2012;123459;PCVideospiel;Portal;Puzzle;Linux\n";
+
+    private File _kundenDatei;
+    private File _medienDatei;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        _kundenDatei = File.createTempFile("kundenstamm", ".txt");
+        _medienDatei = File.createTempFile("medienbestand", ".txt");
+        schreibe(_kundenDatei, KUNDEN);
+        schreibe(_medienDatei, MEDIEN);
+    }
+
+    @After
+    public void tearDown()
+    {
+        _kundenDatei.delete();
+        _medienDatei.delete();
+    }
+
+    @Test
+    public void testSpeicherabgebildetWieZeilenweise() throws IOException
+    {
+        DatenEinleser zeilenweise = leseEin(Einlesemodus.ZEILENWEISE);
+        DatenEinleser abgebildet = leseEin(Einlesemodus.SPEICHERABGEBILDET);
+
+        assertEquals(3, abgebildet.getKunden().size());
+        assertEquals(beschreibeKunden(zeilenweise.getKunden()),
+                beschreibeKunden(abgebildet.getKunden()));
+
+        assertEquals(7, abgebildet.getMedien().size());
+        assertEquals(4, abgebildet.getVerleihkarten().size());
+        assertEquals(beschreibeMedien(zeilenweise.getMedien()),
+                beschreibeMedien(abgebildet.getMedien()));
+        assertEquals(beschreibeVerleihkarten(zeilenweise.getVerleihkarten()),
+                beschreibeVerleihkarten(abgebildet.getVerleihkarten()));
+    }
+
+    @Test
+    public void testSpeicherabgebildetDekodiertLeerzeichen() throws IOException
+    {
+        DatenEinleser abgebildet = leseEin(Einlesemodus.SPEICHERABGEBILDET);
+        for (Medium medium : abgebildet.getMedien())
+        {
+            if (medium.getTitel().equals("Kung Fu Panda"))
+            {
+                assertEquals("", medium.getKommentar());
+            }
+        }
+        for (Verleihkarte verleihkarte : abgebildet.getVerleihkarten())
+        {
+            assertNotNull(verleihkarte.getEntleiher());
+        }
+    }
+
+    @Test(expected = DateiLeseException.class)
+    public void testFehlendeDatei() throws IOException
+    {
+        _medienDatei.delete();
+        leseEin(Einlesemodus.SPEICHERABGEBILDET);
+    }
+
+    @Test
+    public void testUnvollstaendigeZeile() throws IOException
+    {
+        schreibe(_medienDatei, " ; ;CD;Nur Titel\n");
+        DatenEinleser einleser = new DatenEinleser(_medienDatei,
+                _kundenDatei, Einlesemodus.SPEICHERABGEBILDET);
+        DateiLeseException fehler = null;
+        try
+        {
+            einleser.leseDaten();
+        }
+        catch (DateiLeseException e)
+        {
+            fehler = e;
+        }
+        assertNotNull(fehler);
+    }
+
+    private DatenEinleser leseEin(Einlesemodus modus) throws IOException
+    {
+        DatenEinleser einleser = new DatenEinleser(_medienDatei,
+                _kundenDatei, modus);
+        einleser.leseDaten();
+        return einleser;
+    }
+
+    private static List<String> beschreibeKunden(List<Kunde> kunden)
+    {
+        List<String> result = new ArrayList<String>();
+        for (Kunde kunde : kunden)
+        {
+            result.add(kunde.getFormatiertenString());
+        }
+        return result;
+    }
+
+    private static List<String> beschreibeMedien(List<Medium> medien)
+    {
+        List<String> result = new ArrayList<String>();
+        for (Medium medium : medien)
+        {
+            result.add(medium.getFormatiertenString());
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private static List<String> beschreibeVerleihkarten(
+            List<Verleihkarte> verleihkarten)
+    {
+        List<String> result = new ArrayList<String>();
+        for (Verleihkarte verleihkarte : verleihkarten)
+        {
+            result.add(verleihkarte.getFormatiertenString());
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private static void schreibe(File datei, String inhalt)
+            throws IOException
+    {
+        FileOutputStream stream = new FileOutputStream(datei);
+        stream.write(inhalt.getBytes("UTF-8"));
+        stream.close();
+    }
+}
@@ -0,0 +1,143 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.File;
+import java.util.List;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+
+/**
+ * Ein {@link DatenSchreiber} schreibt Kunden, Medien und Verleihkarten in dem
+ * Format zurück, das der {@link DatenEinleser} liest.
+ * 
+ * Jede Datei wird über eine temporäre Datei geschrieben, auf die Platte
+ * gezwungen und atomar umbenannt. Wird derselbe {@link DatenSchreiber}
+ * mehrfach verwendet, werden nur die Abschnitte der Dateien neu formatiert, in
+ * denen sich seit dem letzten Speichern etwas geändert hat; der Rest wird aus
+ * der alten Datei kopiert.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class DatenSchreiber
+{
+
+    private final MedienSchreiber _medienSchreiber;
+
+    private final KundenSchreiber _kundenSchreiber;
+
+    /**
+     * Initialisiert einen neuen {@link DatenSchreiber}, der in die angegebenen
+     * Dateien schreibt.
+     * 
+     * @param medienDatei
+     *            Die Datei in der die Medien gespeichert werden.
+     * @param kundenDatei
+     *            Die Datei in der die Kunden gespeichert werden.
+     * 
+     * @require medienDatei != null
+     * @require kundenDatei != null
+     */
+    public DatenSchreiber(File medienDatei, File kundenDatei)
+    {
+        this(medienDatei, kundenDatei, SegmentierterSchreiber.SEGMENTGROESSE);
+    }
+
+    /**
+     * Initialisiert einen neuen {@link DatenSchreiber} mit der angegebenen
+     * Segmentgröße.
+     * 
+     * @require medienDatei != null
+     * @require kundenDatei != null
+     * @require segmentgroesse > 0
+     */
+    DatenSchreiber(File medienDatei, File kundenDatei, int segmentgroesse)
+    {
+        assert medienDatei != null : "Vorbedingung verletzt: medienDatei != null";
+        assert kundenDatei != null : "Vorbedingung verletzt: kundenDatei != null";
+
+        _medienSchreiber = new MedienSchreiber(medienDatei, segmentgroesse);
+        _kundenSchreiber = new KundenSchreiber(kundenDatei, segmentgroesse);
+    }
+
+    /**
+     * Setzt die Sicherungsdateien. Vor jedem Speichern wird der bisherige
+     * Stand der Dateien dorthin übernommen.
+     * 
+     * @param medienSicherung
+     *            Die Sicherungsdatei für die Medien oder null.
+     * @param kundenSicherung
+     *            Die Sicherungsdatei für die Kunden oder null.
+     */
+    public void setSicherungsdateien(File medienSicherung,
+            File kundenSicherung)
+    {
+        _medienSchreiber.setSicherungsdatei(medienSicherung);
+        _kundenSchreiber.setSicherungsdatei(kundenSicherung);
+    }
+
+    /**
+     * Schreibt die Daten in die beim Konstruktoraufruf angegebenen Dateien.
+     * 
+     * @param kunden
+     *            Die Kunden.
+     * @param medien
+     *            Die Medien.
+     * @param verleihkarten
+     *            Die Verleihkarten der verliehenen Medien.
+     * 
+     * @throws DateiSchreibException
+     *             Wenn ein Fehler beim Schreiben der Dateien auftritt. Die
+     *             betroffene Datei bleibt dann unverändert.
+     * 
+     * @require kunden != null
+     * @require medien != null
+     * @require verleihkarten != null
+     */
+    public void schreibeDaten(List<Kunde> kunden, List<Medium> medien,
+            List<Verleihkarte> verleihkarten) throws DateiSchreibException
+    {
+        assert kunden != null : "Vorbedingung verletzt: kunden != null";
+        assert medien != null : "Vorbedingung verletzt: medien != null";
+        assert verleihkarten != null : "Vorbedingung verletzt: verleihkarten != null";
+
+        _kundenSchreiber.schreibe(kunden);
+        _medienSchreiber.schreibe(medien, verleihkarten);
+    }
+
+    /**
+     * Markiert einen Kunden, dessen Daten geändert wurden, damit er beim
+     * nächsten Speichern neu geschrieben wird.
+     * 
+     * @require kunde != null
+     */
+    public void markiereGeaendert(Kunde kunde)
+    {
+        assert kunde != null : "Vorbedingung verletzt: kunde != null";
+        _kundenSchreiber.markiereGeaendert(kunde);
+    }
+
+    /**
+     * Markiert ein Medium, dessen Daten geändert wurden, damit es beim
+     * nächsten Speichern neu geschrieben wird. Ausleihen und Zurücknehmen
+     * müssen nicht markiert werden.
+     * 
+     * @require medium != null
+     */
+    public void markiereGeaendert(Medium medium)
+    {
+        assert medium != null : "Vorbedingung verletzt: medium != null";
+        _medienSchreiber.markiereGeaendert(medium);
+    }
+
+    /**
+     * Gibt die Anzahl der Abschnitte zurück, die beim letzten Speichern neu
+     * formatiert wurden.
+     */
+    int getNeuGeschriebeneSegmente()
+    {
+        return _kundenSchreiber.getNeuGeschriebeneSegmente()
+                + _medienSchreiber.getNeuGeschriebeneSegmente();
+    }
+}
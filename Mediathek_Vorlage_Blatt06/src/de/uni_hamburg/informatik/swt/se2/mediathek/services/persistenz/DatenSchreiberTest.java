@@ -0,0 +1,228 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.PLZ;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.DVD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.KonsolenVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.PCVideospiel;
+
+public class DatenSchreiberTest
+{
+    private File _verzeichnis;
+    private File _kundenDatei;
+    private File _medienDatei;
+
+    private List<Kunde> _kunden;
+    private List<Medium> _medien;
+    private List<Verleihkarte> _verleihkarten;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        _verzeichnis = Files.createTempDirectory("bestand").toFile();
+        _kundenDatei = new File(_verzeichnis, "kundenstamm.txt");
+        _medienDatei = new File(_verzeichnis, "medienbestand.txt");
+
+        _kunden = new ArrayList<Kunde>();
+        for (int i = 0; i < 10; i++)
+        {
+            Kunde kunde = new Kunde(new Kundennummer(123450 + i), "Vorname"
+                    + i, "Müller");
+            kunde.setStrasse("Weg " + i);
+            kunde.setPLZ(new PLZ(i % 2 == 0 ? "22760" : "D-21868"));
+            kunde.setWohnort("Hamburg");
+            _kunden.add(kunde);
+        }
+
+        _medien = new ArrayList<Medium>();
+        for (int i = 0; i < 10; i++)
+        {
+            _medien.add(new CD("CD " + i, "", "Interpret", 60 + i));
+            _medien.add(new DVD("DVD " + i, "Kommentar", "Regie", 90 + i));
+            _medien.add(new KonsolenVideospiel("Spiel " + i, "Kommentar",
+                    "Nintendo DS"));
+            _medien.add(new PCVideospiel("PC-Spiel " + i, "Kommentar",
+                    "Linux"));
+        }
+
+        _verleihkarten = new ArrayList<Verleihkarte>();
+        _verleihkarten.add(new Verleihkarte(_kunden.get(1), _medien.get(2),
+                new Datum(2, 4, 2012)));
+        _verleihkarten.add(new Verleihkarte(_kunden.get(3), _medien.get(37),
+                new Datum(12, 11, 2011)));
+    }
+
+    @After
+    public void tearDown()
+    {
+        for (File datei : _verzeichnis.listFiles())
+        {
+            datei.delete();
+        }
+        _verzeichnis.delete();
+    }
+
+    @Test
+    public void testGeschriebeneDatenWerdenWiederEingelesen()
+            throws IOException
+    {
+        new DatenSchreiber(_medienDatei, _kundenDatei).schreibeDaten(_kunden,
+                _medien, _verleihkarten);
+
+        DatenEinleser einleser = new DatenEinleser(_medienDatei,
+                _kundenDatei, Einlesemodus.SPEICHERABGEBILDET);
+        einleser.leseDaten();
+
+        assertEquals(beschreibeKunden(_kunden),
+                beschreibeKunden(einleser.getKunden()));
+        assertEquals(beschreibeMedien(_medien),
+                beschreibeMedien(einleser.getMedien()));
+        assertEquals(beschreibeVerleihkarten(_verleihkarten),
+                beschreibeVerleihkarten(einleser.getVerleihkarten()));
+    }
+
+    @Test
+    public void testNurGeaenderteSegmenteWerdenNeuGeschrieben()
+            throws IOException
+    {
+        DatenSchreiber schreiber = new DatenSchreiber(_medienDatei,
+                _kundenDatei, 4);
+        schreiber.schreibeDaten(_kunden, _medien, _verleihkarten);
+        assertEquals(3 + 10, schreiber.getNeuGeschriebeneSegmente());
+
+        schreiber.schreibeDaten(_kunden, _medien, _verleihkarten);
+        assertEquals(0, schreiber.getNeuGeschriebeneSegmente());
+
+        // Eine Ausleihe, eine Rücknahme und eine Titeländerung
+        _verleihkarten.add(new Verleihkarte(_kunden.get(0), _medien.get(5),
+                new Datum(3, 4, 2012)));
+        _verleihkarten.remove(1);
+        _medien.get(20).setTitel("Neuer Titel");
+        schreiber.markiereGeaendert(_medien.get(20));
+        _kunden.get(9).setWohnort("Kiel");
+        schreiber.markiereGeaendert(_kunden.get(9));
+        schreiber.schreibeDaten(_kunden, _medien, _verleihkarten);
+        assertEquals(4, schreiber.getNeuGeschriebeneSegmente());
+
+        // Ein neues Medium am Ende betrifft nur das letzte Segment
+        _medien.add(new CD("Neu", "", "Interpret", 1));
+        schreiber.schreibeDaten(_kunden, _medien, _verleihkarten);
+        assertEquals(1, schreiber.getNeuGeschriebeneSegmente());
+
+        String inkrementell = lese(_medienDatei) + lese(_kundenDatei);
+        new DatenSchreiber(_medienDatei, _kundenDatei).schreibeDaten(_kunden,
+                _medien, _verleihkarten);
+        assertEquals(lese(_medienDatei) + lese(_kundenDatei), inkrementell);
+    }
+
+    @Test
+    public void testFremdeAenderungErzwingtVollstaendigesSchreiben()
+            throws IOException
+    {
+        DatenSchreiber schreiber = new DatenSchreiber(_medienDatei,
+                _kundenDatei, 4);
+        schreiber.schreibeDaten(_kunden, _medien, _verleihkarten);
+        Files.write(_medienDatei.toPath(), "kaputt\n".getBytes("UTF-8"));
+        schreiber.schreibeDaten(_kunden, _medien, _verleihkarten);
+        assertEquals(10, schreiber.getNeuGeschriebeneSegmente());
+    }
+
+    @Test
+    public void testFehlerLaesstAlteDateiUnveraendert() throws IOException
+    {
+        DatenSchreiber schreiber = new DatenSchreiber(_medienDatei,
+                _kundenDatei);
+        schreiber.schreibeDaten(_kunden, _medien, _verleihkarten);
+        String vorher = lese(_medienDatei);
+
+        _medien.get(0).setKommentar("mit ; Trennzeichen");
+        schreiber.markiereGeaendert(_medien.get(0));
+        DateiSchreibException fehler = null;
+        try
+        {
+            schreiber.schreibeDaten(_kunden, _medien, _verleihkarten);
+        }
+        catch (DateiSchreibException e)
+        {
+            fehler = e;
+        }
+        assertNotNull(fehler);
+        assertEquals(vorher, lese(_medienDatei));
+        assertEquals(2, _verzeichnis.listFiles().length);
+    }
+
+    @Test
+    public void testSicherungsdateiEnthaeltAltenStand() throws IOException
+    {
+        File medienSicherung = new File(_verzeichnis,
+                "medienbestandBackup.txt");
+        File kundenSicherung = new File(_verzeichnis, "kundenstammBackup.txt");
+        DatenSchreiber schreiber = new DatenSchreiber(_medienDatei,
+                _kundenDatei);
+        schreiber.setSicherungsdateien(medienSicherung, kundenSicherung);
+        schreiber.schreibeDaten(_kunden, _medien, _verleihkarten);
+        String alterStand = lese(_medienDatei);
+
+        _verleihkarten.clear();
+        schreiber.schreibeDaten(_kunden, _medien, _verleihkarten);
+
+        assertEquals(alterStand, lese(medienSicherung));
+        assertTrue(!alterStand.equals(lese(_medienDatei)));
+        assertEquals(lese(_kundenDatei), lese(kundenSicherung));
+    }
+
+    private static String lese(File datei) throws IOException
+    {
+        return new String(Files.readAllBytes(datei.toPath()), "UTF-8");
+    }
+
+    private static List<String> beschreibeKunden(List<Kunde> kunden)
+    {
+        List<String> result = new ArrayList<String>();
+        for (Kunde kunde : kunden)
+        {
+            result.add(kunde.getFormatiertenString());
+        }
+        return result;
+    }
+
+    private static List<String> beschreibeMedien(List<Medium> medien)
+    {
+        List<String> result = new ArrayList<String>();
+        for (Medium medium : medien)
+        {
+            result.add(medium.getFormatiertenString());
+        }
+        return result;
+    }
+
+    private static List<String> beschreibeVerleihkarten(
+            List<Verleihkarte> verleihkarten)
+    {
+        List<String> result = new ArrayList<String>();
+        for (Verleihkarte verleihkarte : verleihkarten)
+        {
+            result.add(verleihkarte.getFormatiertenString());
+        }
+        return result;
+    }
+}
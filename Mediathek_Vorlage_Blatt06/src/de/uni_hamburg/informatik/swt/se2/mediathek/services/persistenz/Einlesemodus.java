@@ -0,0 +1,29 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+/**
+ * Legt fest, wie ein {@link DatenEinleser} die Bestandsdateien liest. Alle
+ * Modi liefern dieselben Kunden, Medien und Verleihkarten.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public enum Einlesemodus
+{
+    /**
+     * Liest die Dateien zeilenweise über einen Reader ein.
+     */
+    ZEILENWEISE,
+
+    /**
+     * Bildet die Dateien in den Speicher ab und zerlegt sie direkt auf den
+     * Bytes. Für große Bestände deutlich schneller.
+     */
+    SPEICHERABGEBILDET,
+
+    /**
+     * Wie {@link #SPEICHERABGEBILDET}, zerlegt die Dateien aber in Stücke,
+     * die parallel auf allen Prozessorkernen gelesen werden. Kunden und
+     * Medien werden gleichzeitig gelesen.
+     */
+    PARALLEL
+}
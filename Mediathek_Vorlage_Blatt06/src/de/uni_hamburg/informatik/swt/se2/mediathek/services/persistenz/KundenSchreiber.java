@@ -0,0 +1,56 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.File;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+
+/**
+ * Schreibt Kunden im Format des {@link KundenEinleser}s in eine Textdatei.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+class KundenSchreiber extends SegmentierterSchreiber<Kunde>
+{
+    /**
+     * Initialisiert einen neuen {@link KundenSchreiber}.
+     * 
+     * @param kundenDatei
+     *            Die Datei in der die Kunden gespeichert werden.
+     * @param segmentgroesse
+     *            Die Anzahl der Kunden pro Segment.
+     * 
+     * @require kundenDatei != null
+     * @require segmentgroesse > 0
+     */
+    KundenSchreiber(File kundenDatei, int segmentgroesse)
+    {
+        super(kundenDatei, segmentgroesse);
+    }
+
+    @Override
+    protected Object getZustand(Kunde kunde)
+    {
+        return null;
+    }
+
+    @Override
+    protected void formatiereZeile(Kunde kunde, StringBuilder zeile)
+            throws DateiSchreibException
+    {
+        if (kunde.getPLZ() == null)
+        {
+            throw new DateiSchreibException("Der Kunde "
+                    + kunde.getKundennummer()
+                    + " hat keine PLZ und kann nicht gespeichert werden.");
+        }
+        zeile.append(kunde.getKundennummer()).append(';');
+        haengeTextAn(zeile, kunde.getVorname());
+        zeile.append(';');
+        haengeTextAn(zeile, kunde.getNachname());
+        zeile.append(';');
+        haengeTextAn(zeile, kunde.getStrasse());
+        zeile.append(';').append(kunde.getPLZ()).append(';');
+        haengeTextAn(zeile, kunde.getWohnort());
+    }
+}
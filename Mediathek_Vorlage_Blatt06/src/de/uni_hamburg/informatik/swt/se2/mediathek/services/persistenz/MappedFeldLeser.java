@@ -0,0 +1,373 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Ein {@link MappedFeldLeser} liest eine Textdatei, deren Felder mit ";"
+ * getrennt sind, über eine speicherabgebildete Datei (memory-mapped file) ein.
+ * Zeilen und Felder werden direkt auf den Bytes der Datei gesucht, erst beim
+ * Abfragen eines Feldes als Text wird dieses dekodiert.
+ *
+ * Wie beim {@link java.util.StringTokenizer} werden leere Felder übersprungen.
+ * Leere Zeilen werden ebenfalls übersprungen. Dateien, die größer als ein
+ * {@link #FENSTERGROESSE} sind, werden in mehreren zeilenbündigen Fenstern
+ * abgebildet.
+ *
+ * Ein Leser kann auch nur einen zeilenbündigen Bereich einer Datei lesen.
+ * Mehrere solche Leser können sich einen {@link FileChannel} teilen und
+ * nebenläufig arbeiten.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+class MappedFeldLeser
+{
+    /**
+     * Die Zeichenkodierung der Bestandsdateien.
+     */
+    static final Charset ZEICHENSATZ = Charset.forName("UTF-8");
+
+    /**
+     * Die maximale Größe eines auf einmal abgebildeten Dateiausschnitts.
+     */
+    static final int FENSTERGROESSE = 1 << 30;
+
+    private static final byte TRENNZEICHEN = ';';
+
+    /**
+     * Der Stream, aus dem der Kanal stammt, oder null, wenn der Kanal nicht
+     * diesem Leser gehört.
+     */
+    private final FileInputStream _stream;
+    private final FileChannel _channel;
+
+    /**
+     * Das Ende (exklusiv) des zu lesenden Bereichs in der Datei.
+     */
+    private final long _bereichsEnde;
+    private final int _fenstergroesse;
+
+    /**
+     * Der aktuell abgebildete Ausschnitt der Datei.
+     */
+    private MappedByteBuffer _puffer;
+
+    /**
+     * Die Position in der Datei, an der der aktuelle Ausschnitt beginnt.
+     */
+    private long _fensterAnfang;
+
+    /**
+     * Das Ende der letzten vollständigen Zeile im aktuellen Ausschnitt.
+     */
+    private int _fensterEnde;
+
+    // Anfang und Ende (exklusiv) der aktuellen Zeile und des aktuellen Feldes
+    // im Ausschnitt.
+    private int _zeilenAnfang;
+    private int _zeilenEnde;
+    private int _feldAnfang;
+    private int _feldEnde;
+
+    /**
+     * Wird zum Dekodieren von Feldern wiederverwendet.
+     */
+    private byte[] _textpuffer;
+
+    /**
+     * Öffnet die angegebene Datei zum Lesen.
+     *
+     * @param datei
+     *            Die zu lesende Datei.
+     *
+     * @throws IOException
+     *             wenn die Datei nicht geöffnet werden kann.
+     *
+     * @require datei != null
+     */
+    public MappedFeldLeser(File datei) throws IOException
+    {
+        this(datei, FENSTERGROESSE);
+    }
+
+    /**
+     * Öffnet die angegebene Datei zum Lesen und bildet sie in Ausschnitten
+     * der angegebenen Größe ab.
+     *
+     * @param datei
+     *            Die zu lesende Datei.
+     * @param fenstergroesse
+     *            Die maximale Größe eines abgebildeten Ausschnitts in Bytes.
+     *
+     * @throws IOException
+     *             wenn die Datei nicht geöffnet werden kann.
+     *
+     * @require datei != null
+     * @require fenstergroesse > 0
+     */
+    MappedFeldLeser(File datei, int fenstergroesse) throws IOException
+    {
+        assert datei != null : "Vorbedingung verletzt: datei != null";
+        assert fenstergroesse > 0 : "Vorbedingung verletzt: fenstergroesse > 0";
+        _fenstergroesse = fenstergroesse;
+        _stream = new FileInputStream(datei);
+        _channel = _stream.getChannel();
+        _bereichsEnde = _channel.size();
+        _fensterAnfang = 0;
+        _zeilenEnde = 0;
+        _fensterEnde = 0;
+        _textpuffer = new byte[256];
+    }
+
+    /**
+     * Erzeugt einen Leser für einen Bereich eines bereits geöffneten Kanals.
+     * Der Bereich muss am Dateianfang oder hinter einem Zeilenende beginnen.
+     * {@link #schliesse()} schließt den Kanal in diesem Fall nicht.
+     *
+     * @param channel
+     *            Der Kanal der Datei.
+     * @param anfang
+     *            Der Anfang des Bereichs in Bytes.
+     * @param ende
+     *            Das Ende (exklusiv) des Bereichs in Bytes.
+     *
+     * @require channel != null
+     * @require 0 <= anfang <= ende
+     */
+    MappedFeldLeser(FileChannel channel, long anfang, long ende)
+    {
+        assert channel != null : "Vorbedingung verletzt: channel != null";
+        assert 0 <= anfang && anfang <= ende : "Vorbedingung verletzt: 0 <= anfang <= ende";
+        _fenstergroesse = FENSTERGROESSE;
+        _stream = null;
+        _channel = channel;
+        _bereichsEnde = ende;
+        _fensterAnfang = anfang;
+        _zeilenEnde = 0;
+        _fensterEnde = 0;
+        _textpuffer = new byte[256];
+    }
+
+    /**
+     * Geht zur nächsten nicht leeren Zeile.
+     *
+     * @return true, wenn es eine weitere Zeile gibt, sonst false.
+     *
+     * @throws IOException
+     *             wenn die Datei nicht gelesen werden kann.
+     */
+    public boolean naechsteZeile() throws IOException
+    {
+        while (true)
+        {
+            _zeilenAnfang = _zeilenEnde;
+            while (_zeilenAnfang < _fensterEnde
+                    && istZeilenende(_puffer.get(_zeilenAnfang)))
+            {
+                _zeilenAnfang++;
+            }
+            if (_zeilenAnfang < _fensterEnde)
+            {
+                break;
+            }
+            if (!bildeNaechstesFensterAb())
+            {
+                return false;
+            }
+        }
+        _zeilenEnde = _zeilenAnfang;
+        while (_zeilenEnde < _fensterEnde
+                && !istZeilenende(_puffer.get(_zeilenEnde)))
+        {
+            _zeilenEnde++;
+        }
+        _feldEnde = _zeilenAnfang;
+        return true;
+    }
+
+    /**
+     * Geht zum nächsten nicht leeren Feld der aktuellen Zeile.
+     *
+     * @return true, wenn es in der Zeile ein weiteres Feld gibt, sonst false.
+     */
+    public boolean naechstesFeld()
+    {
+        _feldAnfang = _feldEnde;
+        while (_feldAnfang < _zeilenEnde
+                && _puffer.get(_feldAnfang) == TRENNZEICHEN)
+        {
+            _feldAnfang++;
+        }
+        _feldEnde = _feldAnfang;
+        while (_feldEnde < _zeilenEnde
+                && _puffer.get(_feldEnde) != TRENNZEICHEN)
+        {
+            _feldEnde++;
+        }
+        return _feldAnfang < _feldEnde;
+    }
+
+    /**
+     * Gibt die Länge des aktuellen Feldes in Bytes zurück.
+     */
+    public int getFeldlaenge()
+    {
+        return _feldEnde - _feldAnfang;
+    }
+
+    /**
+     * Gibt ein Byte des aktuellen Feldes zurück.
+     *
+     * @param index
+     *            Die Position im Feld.
+     *
+     * @require 0 <= index < getFeldlaenge()
+     */
+    public byte getFeldByte(int index)
+    {
+        assert 0 <= index && index < getFeldlaenge() : "Vorbedingung verletzt: 0 <= index < getFeldlaenge()";
+        return _puffer.get(_feldAnfang + index);
+    }
+
+    /**
+     * Prüft, ob das aktuelle Feld genau aus den angegebenen Bytes besteht.
+     *
+     * @param bytes
+     *            Die zu vergleichenden Bytes.
+     *
+     * @require bytes != null
+     */
+    public boolean feldIstGleich(byte[] bytes)
+    {
+        assert bytes != null : "Vorbedingung verletzt: bytes != null";
+        if (bytes.length != getFeldlaenge())
+        {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++)
+        {
+            if (_puffer.get(_feldAnfang + i) != bytes[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gibt das aktuelle Feld als Text zurück.
+     *
+     * @ensure result != null
+     */
+    public String feldAlsText()
+    {
+        int laenge = getFeldlaenge();
+        if (_textpuffer.length < laenge)
+        {
+            _textpuffer = new byte[Math.max(laenge, 2 * _textpuffer.length)];
+        }
+        _puffer.position(_feldAnfang);
+        _puffer.get(_textpuffer, 0, laenge);
+        return new String(_textpuffer, 0, laenge, ZEICHENSATZ);
+    }
+
+    /**
+     * Liest die Ziffern von start (inklusiv) bis ende (exklusiv) im aktuellen
+     * Feld als nicht-negative Zahl.
+     *
+     * @return Die Zahl oder -1, wenn der Bereich leer ist, zu lang ist oder
+     *         andere Zeichen als Ziffern enthält.
+     */
+    public int feldAlsZahl(int start, int ende)
+    {
+        if (start >= ende || ende - start > 9)
+        {
+            return -1;
+        }
+        int zahl = 0;
+        for (int i = start; i < ende; i++)
+        {
+            int ziffer = getFeldByte(i) - '0';
+            if (ziffer < 0 || ziffer > 9)
+            {
+                return -1;
+            }
+            zahl = zahl * 10 + ziffer;
+        }
+        return zahl;
+    }
+
+    /**
+     * Liest das ganze aktuelle Feld als nicht-negative Zahl.
+     *
+     * @return Die Zahl oder -1, wenn das Feld keine Zahl ist.
+     */
+    public int feldAlsZahl()
+    {
+        return feldAlsZahl(0, getFeldlaenge());
+    }
+
+    /**
+     * Schließt die Datei, wenn der Kanal diesem Leser gehört.
+     */
+    public void schliesse()
+    {
+        if (_stream == null)
+        {
+            return;
+        }
+        try
+        {
+            _channel.close();
+            _stream.close();
+        }
+        catch (IOException e)
+        {
+            // Diese Exception wird geschluckt, es wurde nur gelesen.
+        }
+    }
+
+    /**
+     * Bildet den Dateiausschnitt hinter dem aktuellen Fenster ab. Ein Fenster
+     * endet immer hinter einem Zeilenende, außer am Dateiende.
+     *
+     * @return false, wenn die Datei zu Ende ist.
+     */
+    private boolean bildeNaechstesFensterAb() throws IOException
+    {
+        long anfang = _fensterAnfang + _fensterEnde;
+        if (anfang >= _bereichsEnde)
+        {
+            return false;
+        }
+        long laenge = Math.min(_fenstergroesse, _bereichsEnde - anfang);
+        _puffer = _channel.map(FileChannel.MapMode.READ_ONLY, anfang, laenge);
+        _fensterAnfang = anfang;
+        _fensterEnde = (int) laenge;
+        if (anfang + laenge < _bereichsEnde)
+        {
+            while (_fensterEnde > 0
+                    && !istZeilenende(_puffer.get(_fensterEnde - 1)))
+            {
+                _fensterEnde--;
+            }
+            if (_fensterEnde == 0)
+            {
+                throw new IOException("Zeile länger als " + _fenstergroesse
+                        + " Bytes ab Position " + anfang);
+            }
+        }
+        _zeilenEnde = 0;
+        return true;
+    }
+
+    private static boolean istZeilenende(byte b)
+    {
+        return b == '\n' || b == '\r';
+    }
+}
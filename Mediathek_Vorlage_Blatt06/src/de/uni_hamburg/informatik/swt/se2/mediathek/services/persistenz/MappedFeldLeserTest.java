@@ -0,0 +1,98 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedFeldLeserTest
+{
+    private File _datei;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        _datei = File.createTempFile("feldleser", ".txt");
+    }
+
+    @After
+    public void tearDown()
+    {
+        _datei.delete();
+    }
+
+    @Test
+    public void testZeilenUndFelder() throws IOException
+    {
+        schreibe("a;bb;;ccc\r\n\r\n12;Müller\n");
+        MappedFeldLeser leser = new MappedFeldLeser(_datei);
+
+        assertTrue(leser.naechsteZeile());
+        assertTrue(leser.naechstesFeld());
+        assertEquals("a", leser.feldAlsText());
+        assertTrue(leser.naechstesFeld());
+        assertEquals("bb", leser.feldAlsText());
+        assertTrue(leser.naechstesFeld());
+        assertEquals("ccc", leser.feldAlsText());
+        assertEquals(-1, leser.feldAlsZahl());
+        assertFalse(leser.naechstesFeld());
+
+        assertTrue(leser.naechsteZeile());
+        assertTrue(leser.naechstesFeld());
+        assertEquals(12, leser.feldAlsZahl());
+        assertTrue(leser.naechstesFeld());
+        assertEquals("Müller", leser.feldAlsText());
+        assertTrue(leser.feldIstGleich("Müller".getBytes("UTF-8")));
+
+        assertFalse(leser.naechsteZeile());
+        leser.schliesse();
+    }
+
+    @Test
+    public void testMehrereFenster() throws IOException
+    {
+        schreibe("eins;1\nzwei;2\ndrei;3\nvier;4");
+        MappedFeldLeser leser = new MappedFeldLeser(_datei, 9);
+
+        String[] erwartet = { "eins", "zwei", "drei", "vier" };
+        for (int i = 0; i < erwartet.length; i++)
+        {
+            assertTrue(leser.naechsteZeile());
+            assertTrue(leser.naechstesFeld());
+            assertEquals(erwartet[i], leser.feldAlsText());
+            assertTrue(leser.naechstesFeld());
+            assertEquals(i + 1, leser.feldAlsZahl());
+        }
+        assertFalse(leser.naechsteZeile());
+        leser.schliesse();
+    }
+
+    @Test(expected = IOException.class)
+    public void testZeileLaengerAlsFenster() throws IOException
+    {
+        schreibe("eine sehr lange Zeile\nkurz\n");
+        MappedFeldLeser leser = new MappedFeldLeser(_datei, 8);
+        try
+        {
+            leser.naechsteZeile();
+        }
+        finally
+        {
+            leser.schliesse();
+        }
+    }
+
+    private void schreibe(String inhalt) throws IOException
+    {
+        FileOutputStream stream = new FileOutputStream(_datei);
+        stream.write(inhalt.getBytes("UTF-8"));
+        stream.close();
+    }
+}
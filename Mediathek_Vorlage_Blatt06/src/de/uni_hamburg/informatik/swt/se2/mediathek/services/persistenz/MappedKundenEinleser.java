@@ -0,0 +1,129 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.PLZ;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+
+/**
+ * Liest Kunden im Format des {@link KundenEinleser}s über einen
+ * {@link MappedFeldLeser} ein. Das Ergebnis entspricht dem des
+ * {@link KundenEinleser}s, die Kundennummer wird aber direkt aus den Bytes der
+ * Datei gelesen.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+class MappedKundenEinleser
+{
+
+    /**
+     * Liest Kunden aus einer Textdatei ein und gibt alle eingelesenen Kunden
+     * zurück.
+     * 
+     * @param kundenDatei
+     *            Die Datei in der die Kunden gespeichert sind.
+     * @throws DateiLeseException
+     *             wenn der Kundenstamm nicht gelesen werden konnte.
+     * 
+     * @require kundenDatei != null
+     * 
+     * @ensure result != null
+     */
+    public List<Kunde> leseKundenEin(File kundenDatei)
+            throws DateiLeseException
+    {
+        assert kundenDatei != null : "Vorbedingung verletzt: kundenDatei != null";
+        List<Kunde> eingeleseneKunden = new ArrayList<Kunde>();
+        MappedFeldLeser leser = null;
+        try
+        {
+            leser = new MappedFeldLeser(kundenDatei);
+            while (leser.naechsteZeile())
+            {
+                Kunde kunde = leseKundenEin(leser);
+                if (kunde != null)
+                {
+                    eingeleseneKunden.add(kunde);
+                }
+            }
+        }
+        catch (FileNotFoundException e)
+        {
+            throw new DateiLeseException(
+                    "Der Kundenstamm konnte nicht eingelesen werden, da die Datei nicht gefunden wurde.");
+        }
+        catch (IOException e)
+        {
+            throw new DateiLeseException(
+                    "Der Kundenstamm konnte nicht eingelesen werden, da die Datei nicht gelesen werden konnte.");
+        }
+        finally
+        {
+            if (leser != null)
+            {
+                leser.schliesse();
+            }
+        }
+        return eingeleseneKunden;
+    }
+
+    /**
+     * Liest einen Kunden aus der aktuellen Zeile des Lesers.
+     * 
+     * @return Den Kunden oder null, wenn Kundennummer oder PLZ ungültig sind.
+     * 
+     * @throws DateiLeseException
+     *             wenn die Zeile zu wenige Felder hat oder die Kundennummer
+     *             keine Zahl ist.
+     */
+    static Kunde leseKundenEin(MappedFeldLeser leser)
+            throws DateiLeseException
+    {
+        naechstesFeld(leser);
+        int kundennummer = leser.feldAlsZahl();
+        if (kundennummer < 0)
+        {
+            throw new DateiLeseException("Ungültige Kundennummer: "
+                    + leser.feldAlsText());
+        }
+        String vorname = naechsterText(leser);
+        String nachname = naechsterText(leser);
+        String strasse = naechsterText(leser);
+        String plz = naechsterText(leser);
+        String ort = naechsterText(leser);
+
+        Kunde kunde = null;
+        if (Kundennummer.istGueltig(kundennummer) && PLZ.istGueltig(plz))
+        {
+            kunde = new Kunde(new Kundennummer(kundennummer), vorname,
+                    nachname);
+            kunde.setStrasse(strasse);
+            kunde.setWohnort(ort);
+            kunde.setPLZ(new PLZ(plz));
+        }
+        return kunde;
+    }
+
+    private static String naechsterText(MappedFeldLeser leser)
+            throws DateiLeseException
+    {
+        naechstesFeld(leser);
+        return leser.feldAlsText();
+    }
+
+    private static void naechstesFeld(MappedFeldLeser leser)
+            throws DateiLeseException
+    {
+        if (!leser.naechstesFeld())
+        {
+            throw new DateiLeseException(
+                    "Eine Zeile im Kundenstamm ist unvollständig.");
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.DVD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.KonsolenVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.PCVideospiel;
+
+/**
+ * Liest Medien im Format des {@link MedienEinleser}s über einen
+ * {@link MappedFeldLeser} ein. Das Ergebnis entspricht dem des
+ * {@link MedienEinleser}s. Ausleihdatum, Kundennummer und Zahlenfelder werden
+ * ohne reguläre Ausdrücke direkt aus den Bytes der Datei gelesen, die
+ * Medienbezeichnung wird auf den Bytes verglichen.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+class MappedMedienEinleser
+{
+
+    private static final byte[] CD_BEZEICHNUNG = bytes("CD");
+    private static final byte[] DVD_BEZEICHNUNG = bytes("DVD");
+    private static final byte[] KONSOLENVIDEOSPIEL_BEZEICHNUNG = bytes("KonsolenVideospiel");
+    private static final byte[] PCVIDEOSPIEL_BEZEICHNUNG = bytes("PCVideospiel");
+
+    private static final String LEERSTRING = "";
+
+    private static final String LEERZEICHEN = " ";
+
+    /**
+     * Liest Medien aus einer Textdatei ein und gibt alle eingelesenen Medien
+     * und eventuell dazugehörende {@link Verleihkarte}n zurück.
+     * 
+     * @param kundenstamm
+     *            Ein Kundenstamm, um Kunden anhand ihrer Kundennummer zu
+     *            finden.
+     * @param medienDatei
+     *            Die Datei in der die Medien gespeichert sind.
+     * @return Eine Map der Medien und zugehöriger Verleihkarten (falls
+     *         existent), in der Reihenfolge der Datei.
+     * @throws DateiLeseException
+     *             wenn der Medien-Datenbestand nicht gelesen werden konnte.
+     * 
+     * @require kundenstamm != null
+     * @require medienDatei != null
+     * 
+     * @ensure result != null
+     */
+    public Map<Medium, Verleihkarte> leseMedienEin(List<Kunde> kundenstamm,
+            File medienDatei) throws DateiLeseException
+    {
+        assert kundenstamm != null : "Vorbedingung verletzt: kundenstamm != null";
+        assert medienDatei != null : "Vorbedingung verletzt: medienDatei != null";
+
+        Map<Kundennummer, Kunde> kundenMap = new HashMap<Kundennummer, Kunde>();
+        for (Kunde kunde : kundenstamm)
+        {
+            kundenMap.put(kunde.getKundennummer(), kunde);
+        }
+
+        Map<Medium, Verleihkarte> eingeleseneMedien = new LinkedHashMap<Medium, Verleihkarte>();
+        MappedFeldLeser leser = null;
+        try
+        {
+            leser = new MappedFeldLeser(medienDatei);
+            while (leser.naechsteZeile())
+            {
+                Zeile zeile = leseZeileEin(leser);
+                if (zeile != null)
+                {
+                    zeile.loeseEntleiherAuf(kundenMap);
+                    eingeleseneMedien.put(zeile.getMedium(),
+                            zeile.getVerleihkarte());
+                }
+            }
+        }
+        catch (FileNotFoundException e)
+        {
+            throw new DateiLeseException(
+                    "Der Medien-Datenbestand konnte nicht eingelesen werden, da die Datei nicht gefunden wurde.");
+        }
+        catch (IOException e)
+        {
+            throw new DateiLeseException(
+                    "Der Medien-Datenbestand konnte nicht eingelesen werden, da die Datei nicht gelesen werden konnte.");
+        }
+        finally
+        {
+            if (leser != null)
+            {
+                leser.schliesse();
+            }
+        }
+        return eingeleseneMedien;
+    }
+
+    /**
+     * Liest die aktuelle Zeile des Lesers ein. Der Entleiher wird dabei noch
+     * nicht aufgelöst, damit Zeilen auch vor dem Kundenstamm gelesen werden
+     * können.
+     * 
+     * @return Die eingelesene Zeile oder null, wenn die Zeile kein bekanntes
+     *         Medium beschreibt.
+     * 
+     * @throws DateiLeseException
+     *             wenn die Zeile zu wenige Felder hat.
+     */
+    static Zeile leseZeileEin(MappedFeldLeser leser) throws DateiLeseException
+    {
+        naechstesFeld(leser);
+        Datum ausleihDatum = ermittleAusleihdatum(leser);
+        naechstesFeld(leser);
+        Kundennummer kundennummer = ermittleKundennummer(leser);
+
+        Medium medium = leseMediumEin(leser);
+        Zeile zeile = null;
+        if (medium != null)
+        {
+            zeile = new Zeile(medium, kundennummer, ausleihDatum);
+        }
+        return zeile;
+    }
+
+    /**
+     * Liest das aktuelle Feld als Datum der Form T.M.JJJJ (Tag und Monat ein-
+     * oder zweistellig).
+     * 
+     * @return Ein ermitteltes Datum oder null, wenn kein Datum extrahiert
+     *         werden konnte.
+     */
+    private static Datum ermittleAusleihdatum(MappedFeldLeser leser)
+    {
+        int laenge = leser.getFeldlaenge();
+        int punkt1 = findePunkt(leser, 0);
+        int punkt2 = findePunkt(leser, punkt1 + 1);
+        Datum ergebnis = null;
+        if (punkt1 >= 1 && punkt1 <= 2 && punkt2 - punkt1 >= 2
+                && punkt2 - punkt1 <= 3 && laenge - punkt2 == 5)
+        {
+            int tag = leser.feldAlsZahl(0, punkt1);
+            int monat = leser.feldAlsZahl(punkt1 + 1, punkt2);
+            int jahr = leser.feldAlsZahl(punkt2 + 1, laenge);
+            if (tag >= 0 && monat >= 0 && jahr >= 0
+                    && Datum.istGueltig(tag, monat, jahr))
+            {
+                ergebnis = new Datum(tag, monat, jahr);
+            }
+        }
+        return ergebnis;
+    }
+
+    /**
+     * Sucht ab der angegebenen Position den nächsten Punkt im aktuellen Feld.
+     * 
+     * @return Die Position des Punktes oder -1, wenn es keinen gibt.
+     */
+    private static int findePunkt(MappedFeldLeser leser, int start)
+    {
+        for (int i = start; i < leser.getFeldlaenge(); i++)
+        {
+            if (leser.getFeldByte(i) == '.')
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Liest das aktuelle Feld als sechsstellige Kundennummer.
+     * 
+     * @return Eine ermittelte Kundennummer oder null, wenn keine Kundennummer
+     *         extrahiert werden konnte.
+     */
+    private static Kundennummer ermittleKundennummer(MappedFeldLeser leser)
+    {
+        Kundennummer ergebnis = null;
+        if (leser.getFeldlaenge() == 6)
+        {
+            int nummer = leser.feldAlsZahl();
+            if (nummer >= 0 && Kundennummer.istGueltig(nummer))
+            {
+                ergebnis = new Kundennummer(nummer);
+            }
+        }
+        return ergebnis;
+    }
+
+    /**
+     * Liest die Daten für ein Medium aus den restlichen Feldern der Zeile und
+     * erzeugt ein konkretes Objekt eines Subtyps von {@link Medium}.
+     * 
+     * @return ein neu erzeugtes {@link Medium} oder null, wenn kein Medium
+     *         erzeugt werden konnte.
+     */
+    private static Medium leseMediumEin(MappedFeldLeser leser)
+            throws DateiLeseException
+    {
+        naechstesFeld(leser);
+        boolean istCD = leser.feldIstGleich(CD_BEZEICHNUNG);
+        boolean istDVD = leser.feldIstGleich(DVD_BEZEICHNUNG);
+        boolean istKonsolenVideospiel = leser
+                .feldIstGleich(KONSOLENVIDEOSPIEL_BEZEICHNUNG);
+        boolean istPCVideospiel = leser
+                .feldIstGleich(PCVIDEOSPIEL_BEZEICHNUNG);
+        String titel = naechsterText(leser);
+        String kommentar = naechsterText(leser);
+
+        Medium medium = null;
+        if (istCD)
+        {
+            String interpret = naechsterText(leser);
+            int spiellaenge = naechsteZahl(leser);
+
+            medium = new CD(titel, kommentar, interpret, spiellaenge);
+        }
+        else if (istDVD)
+        {
+            String regisseur = naechsterText(leser);
+            int laufzeit = naechsteZahl(leser);
+
+            medium = new DVD(titel, kommentar, regisseur, laufzeit);
+        }
+        else if (istKonsolenVideospiel)
+        {
+            medium = new KonsolenVideospiel(titel, kommentar,
+                    naechsterText(leser));
+        }
+        else if (istPCVideospiel)
+        {
+            medium = new PCVideospiel(titel, kommentar, naechsterText(leser));
+        }
+        return medium;
+    }
+
+    /**
+     * Liest das nächste Feld als Text und dekodiert es wie der
+     * {@link MedienEinleser}: ein einzelnes Leerzeichen steht für einen leeren
+     * Text.
+     */
+    private static String naechsterText(MappedFeldLeser leser)
+            throws DateiLeseException
+    {
+        naechstesFeld(leser);
+        String text = leser.feldAlsText();
+        if (text.equals(LEERZEICHEN))
+        {
+            text = LEERSTRING;
+        }
+        return text;
+    }
+
+    /**
+     * Liest das nächste Feld als Zahl.
+     * 
+     * @throws DateiLeseException
+     *             wenn das Feld keine Zahl ist.
+     */
+    private static int naechsteZahl(MappedFeldLeser leser)
+            throws DateiLeseException
+    {
+        naechstesFeld(leser);
+        int zahl = leser.feldAlsZahl();
+        if (zahl < 0)
+        {
+            throw new DateiLeseException("Ungültige Zahl im Medienbestand: "
+                    + leser.feldAlsText());
+        }
+        return zahl;
+    }
+
+    private static void naechstesFeld(MappedFeldLeser leser)
+            throws DateiLeseException
+    {
+        if (!leser.naechstesFeld())
+        {
+            throw new DateiLeseException(
+                    "Eine Zeile im Medien-Datenbestand ist unvollständig.");
+        }
+    }
+
+    private static byte[] bytes(String text)
+    {
+        return text.getBytes(MappedFeldLeser.ZEICHENSATZ);
+    }
+
+    /**
+     * Eine eingelesene Zeile des Medienbestands: das Medium und, falls es
+     * verliehen ist, Kundennummer und Ausleihdatum. Die Verleihkarte wird
+     * erst mit {@link #loeseEntleiherAuf(Map)} angelegt.
+     */
+    static class Zeile
+    {
+        private final Medium _medium;
+        private final Kundennummer _kundennummer;
+        private final Datum _ausleihDatum;
+        private Verleihkarte _verleihkarte;
+
+        Zeile(Medium medium, Kundennummer kundennummer, Datum ausleihDatum)
+        {
+            _medium = medium;
+            _kundennummer = kundennummer;
+            _ausleihDatum = ausleihDatum;
+        }
+
+        /**
+         * Gibt das eingelesene Medium zurück.
+         */
+        Medium getMedium()
+        {
+            return _medium;
+        }
+
+        /**
+         * Legt die Verleihkarte dieser Zeile an, falls das Medium verliehen
+         * ist.
+         * 
+         * @param kundenMap
+         *            Die Kunden nach ihrer Kundennummer.
+         */
+        void loeseEntleiherAuf(Map<Kundennummer, Kunde> kundenMap)
+        {
+            if (_kundennummer != null)
+            {
+                _verleihkarte = new Verleihkarte(kundenMap.get(_kundennummer),
+                        _medium, _ausleihDatum);
+            }
+        }
+
+        /**
+         * Gibt die Verleihkarte zurück, oder null, wenn das Medium nicht
+         * verliehen ist oder der Entleiher noch nicht aufgelöst wurde.
+         */
+        Verleihkarte getVerleihkarte()
+        {
+            return _verleihkarte;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
@@ -117,7 +118,7 @@ class MedienEinleser
      * @param medienDatei
      *            Die Datei in der die Medien gespeichert sind.
      * @return Eine Map der Medien und zugehöriger Verleihkarten (falls
-     *         existent).
+     *         existent), in der Reihenfolge der Datei.
      * @throws DateiLeseException
      *             wenn der Medien-Datenbestand nicht gelesen werden konnte.
      * 
@@ -131,7 +132,7 @@ class MedienEinleser
     {
         assert kundenstamm != null : "Vorbedingung verletzt: kundenstamm != null";
         assert medienDatei != null : "Vorbedingung verletzt: medienDatei != null";
-        Map<Medium, Verleihkarte> eingeleseneMedien = new HashMap<Medium, Verleihkarte>();
+        Map<Medium, Verleihkarte> eingeleseneMedien = new LinkedHashMap<Medium, Verleihkarte>();
 
         BufferedReader reader = null;
         try
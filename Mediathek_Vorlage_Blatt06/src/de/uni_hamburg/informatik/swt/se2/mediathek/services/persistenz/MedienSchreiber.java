@@ -0,0 +1,133 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.File;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.DVD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.KonsolenVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.PCVideospiel;
+
+/**
+ * Schreibt Medien und ihre Verleihkarten im Format des
+ * {@link MedienEinleser}s in eine Textdatei. Die Verleihkarte eines Mediums
+ * ist sein Zustand: Ausleihen und Zurücknehmen werden also ohne Markierung
+ * als Änderung erkannt.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+class MedienSchreiber extends SegmentierterSchreiber<Medium>
+{
+    private static final String NICHT_VERLIEHEN = " ; ";
+
+    private Map<Medium, Verleihkarte> _verleihkarten;
+
+    /**
+     * Initialisiert einen neuen {@link MedienSchreiber}.
+     * 
+     * @param medienDatei
+     *            Die Datei in der die Medien gespeichert werden.
+     * @param segmentgroesse
+     *            Die Anzahl der Medien pro Segment.
+     * 
+     * @require medienDatei != null
+     * @require segmentgroesse > 0
+     */
+    MedienSchreiber(File medienDatei, int segmentgroesse)
+    {
+        super(medienDatei, segmentgroesse);
+    }
+
+    /**
+     * Schreibt die Medien mit ihren Verleihkarten in die Datei.
+     * 
+     * @param medien
+     *            Die Medien in der Reihenfolge der Datei.
+     * @param verleihkarten
+     *            Die Verleihkarten der verliehenen Medien.
+     * 
+     * @throws DateiSchreibException
+     *             wenn die Datei nicht geschrieben werden konnte.
+     * 
+     * @require medien != null
+     * @require verleihkarten != null
+     */
+    void schreibe(List<Medium> medien, List<Verleihkarte> verleihkarten)
+            throws DateiSchreibException
+    {
+        assert medien != null : "Vorbedingung verletzt: medien != null";
+        assert verleihkarten != null : "Vorbedingung verletzt: verleihkarten != null";
+        _verleihkarten = new IdentityHashMap<Medium, Verleihkarte>();
+        for (Verleihkarte verleihkarte : verleihkarten)
+        {
+            _verleihkarten.put(verleihkarte.getMedium(), verleihkarte);
+        }
+        try
+        {
+            schreibe(medien);
+        }
+        finally
+        {
+            _verleihkarten = null;
+        }
+    }
+
+    @Override
+    protected Object getZustand(Medium medium)
+    {
+        return _verleihkarten.get(medium);
+    }
+
+    @Override
+    protected void formatiereZeile(Medium medium, StringBuilder zeile)
+            throws DateiSchreibException
+    {
+        Verleihkarte verleihkarte = _verleihkarten.get(medium);
+        if (verleihkarte != null)
+        {
+            zeile.append(verleihkarte.getAusleihdatum()).append(';')
+                    .append(verleihkarte.getEntleiher().getKundennummer());
+        }
+        else
+        {
+            zeile.append(NICHT_VERLIEHEN);
+        }
+        zeile.append(';').append(medium.getMedienBezeichnung()).append(';');
+        haengeTextAn(zeile, medium.getTitel());
+        zeile.append(';');
+        haengeTextAn(zeile, medium.getKommentar());
+        zeile.append(';');
+
+        if (medium instanceof CD)
+        {
+            CD cd = (CD) medium;
+            haengeTextAn(zeile, cd.getInterpret());
+            zeile.append(';').append(cd.getSpiellaenge());
+        }
+        else if (medium instanceof DVD)
+        {
+            DVD dvd = (DVD) medium;
+            haengeTextAn(zeile, dvd.getRegisseur());
+            zeile.append(';').append(dvd.getLaufzeit());
+        }
+        else if (medium instanceof KonsolenVideospiel)
+        {
+            haengeTextAn(zeile, ((KonsolenVideospiel) medium).getSystem());
+        }
+        else if (medium instanceof PCVideospiel)
+        {
+            haengeTextAn(zeile, ((PCVideospiel) medium).getSystem());
+        }
+        else
+        {
+            throw new DateiSchreibException("Das Medium "
+                    + medium.getMedienBezeichnung()
+                    + " kann nicht gespeichert werden.");
+        }
+    }
+}
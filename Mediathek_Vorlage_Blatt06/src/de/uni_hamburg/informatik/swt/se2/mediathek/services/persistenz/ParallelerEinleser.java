@@ -0,0 +1,490 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+
+/**
+ * Liest Kundenstamm und Medienbestand parallel ein. Beide Dateien werden in
+ * zeilenbündige Stücke zerlegt, die auf einem {@link ForkJoinPool} von
+ * {@link MappedFeldLeser}n gelesen werden. Kunden und Medien werden
+ * gleichzeitig gelesen, die Medienstücke warten erst beim Anlegen der
+ * Verleihkarten auf die Kundennummer-Kunde-Zuordnung.
+ *
+ * Die Ergebnisse werden in Dateireihenfolge zusammengefügt und sind daher
+ * dieselben wie beim sequentiellen Einlesen mit {@link MappedKundenEinleser}
+ * und {@link MappedMedienEinleser}.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+class ParallelerEinleser
+{
+    /**
+     * Die Größe, ab der eine Datei in mehrere Stücke zerlegt wird.
+     */
+    static final int STUECKGROESSE = 4 << 20;
+
+    private final int _stueckgroesse;
+
+    private List<Kunde> _kunden;
+
+    private Map<Medium, Verleihkarte> _medien;
+
+    /**
+     * Initialisiert einen neuen {@link ParallelerEinleser} mit der
+     * Standardstückgröße.
+     */
+    public ParallelerEinleser()
+    {
+        this(STUECKGROESSE);
+    }
+
+    /**
+     * Initialisiert einen neuen {@link ParallelerEinleser}.
+     *
+     * @param stueckgroesse
+     *            Die ungefähre Größe eines Stücks in Bytes.
+     *
+     * @require stueckgroesse > 0
+     */
+    ParallelerEinleser(int stueckgroesse)
+    {
+        assert stueckgroesse > 0 : "Vorbedingung verletzt: stueckgroesse > 0";
+        _stueckgroesse = stueckgroesse;
+    }
+
+    /**
+     * Liest beide Dateien ein. Das Ergebnis kann mit {@link #getKunden()} und
+     * {@link #getMedien()} abgefragt werden.
+     *
+     * @param kundenDatei
+     *            Die Datei in der die Kunden gespeichert sind.
+     * @param medienDatei
+     *            Die Datei in der die Medien gespeichert sind.
+     *
+     * @throws DateiLeseException
+     *             wenn eine der Dateien nicht gelesen werden konnte.
+     *
+     * @require kundenDatei != null
+     * @require medienDatei != null
+     */
+    public void leseEin(File kundenDatei, File medienDatei)
+            throws DateiLeseException
+    {
+        assert kundenDatei != null : "Vorbedingung verletzt: kundenDatei != null";
+        assert medienDatei != null : "Vorbedingung verletzt: medienDatei != null";
+
+        FileInputStream kundenStream = oeffne(kundenDatei,
+                "Der Kundenstamm konnte nicht eingelesen werden, da die Datei nicht gefunden wurde.");
+        FileInputStream medienStream = null;
+        ForkJoinPool pool = new ForkJoinPool();
+        try
+        {
+            medienStream = oeffne(medienDatei,
+                    "Der Medien-Datenbestand konnte nicht eingelesen werden, da die Datei nicht gefunden wurde.");
+            FileChannel kundenKanal = kundenStream.getChannel();
+            FileChannel medienKanal = medienStream.getChannel();
+            Einlesen einlesen = new Einlesen(
+                    new StueckListe(kundenKanal, teileInStuecke(kundenKanal,
+                            "Der Kundenstamm konnte nicht eingelesen werden, da die Datei nicht gelesen werden konnte.")),
+                    new StueckListe(medienKanal, teileInStuecke(medienKanal,
+                            "Der Medien-Datenbestand konnte nicht eingelesen werden, da die Datei nicht gelesen werden konnte.")));
+            pool.invoke(einlesen);
+            _kunden = einlesen._kunden;
+            _medien = einlesen._medien;
+        }
+        catch (RuntimeException e)
+        {
+            DateiLeseException ursache = findeLeseFehler(e);
+            if (ursache == null)
+            {
+                throw e;
+            }
+            throw ursache;
+        }
+        finally
+        {
+            pool.shutdown();
+            schliesse(kundenStream);
+            schliesse(medienStream);
+        }
+    }
+
+    /**
+     * Gibt die eingelesenen Kunden in Dateireihenfolge zurück.
+     *
+     * @require leseEin wurde erfolgreich aufgerufen
+     */
+    public List<Kunde> getKunden()
+    {
+        return _kunden;
+    }
+
+    /**
+     * Gibt die eingelesenen Medien mit ihren Verleihkarten in
+     * Dateireihenfolge zurück.
+     *
+     * @require leseEin wurde erfolgreich aufgerufen
+     */
+    public Map<Medium, Verleihkarte> getMedien()
+    {
+        return _medien;
+    }
+
+    /**
+     * Zerlegt den Inhalt eines Kanals in zeilenbündige Stücke von ungefähr
+     * der Stückgröße. Jedes Stück außer dem letzten endet direkt hinter einem
+     * '\n'.
+     *
+     * @return Die Stückgrenzen, beginnend mit 0 und endend mit der
+     *         Dateigröße.
+     */
+    List<Long> teileInStuecke(FileChannel channel, String fehlermeldung)
+            throws DateiLeseException
+    {
+        List<Long> grenzen = new ArrayList<Long>();
+        try
+        {
+            long groesse = channel.size();
+            ByteBuffer puffer = ByteBuffer.allocate(4096);
+            long grenze = 0;
+            grenzen.add(grenze);
+            while (grenze + _stueckgroesse < groesse)
+            {
+                grenze = findeZeilenende(channel, puffer, grenze
+                        + _stueckgroesse, groesse);
+                grenzen.add(grenze);
+            }
+            if (grenze < groesse)
+            {
+                grenzen.add(groesse);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new DateiLeseException(fehlermeldung);
+        }
+        return grenzen;
+    }
+
+    /**
+     * Sucht ab der angegebenen Position das nächste '\n' und gibt die
+     * Position dahinter zurück, oder die Dateigröße, wenn es keines gibt.
+     */
+    private static long findeZeilenende(FileChannel channel,
+            ByteBuffer puffer, long position, long groesse)
+            throws IOException
+    {
+        while (position < groesse)
+        {
+            puffer.clear();
+            int gelesen = channel.read(puffer, position);
+            if (gelesen <= 0)
+            {
+                break;
+            }
+            for (int i = 0; i < gelesen; i++)
+            {
+                if (puffer.get(i) == '\n')
+                {
+                    return position + i + 1;
+                }
+            }
+            position += gelesen;
+        }
+        return groesse;
+    }
+
+    private static FileInputStream oeffne(File datei, String fehlermeldung)
+            throws DateiLeseException
+    {
+        try
+        {
+            return new FileInputStream(datei);
+        }
+        catch (FileNotFoundException e)
+        {
+            throw new DateiLeseException(fehlermeldung);
+        }
+    }
+
+    private static void schliesse(FileInputStream stream)
+    {
+        if (stream != null)
+        {
+            try
+            {
+                stream.close();
+            }
+            catch (IOException e)
+            {
+                // Diese Exception wird geschluckt, es wurde nur gelesen.
+            }
+        }
+    }
+
+    /**
+     * Sucht in der Ursachenkette einer Exception aus dem Pool nach der
+     * ursprünglichen {@link DateiLeseException}.
+     */
+    private static DateiLeseException findeLeseFehler(Throwable fehler)
+    {
+        while (fehler != null)
+        {
+            if (fehler instanceof DateiLeseException)
+            {
+                return (DateiLeseException) fehler;
+            }
+            fehler = fehler.getCause();
+        }
+        return null;
+    }
+
+    /**
+     * Transportiert eine {@link DateiLeseException} aus einer Aufgabe des
+     * Pools heraus.
+     */
+    private static class LeseFehler extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        LeseFehler(Throwable ursache)
+        {
+            super(ursache);
+        }
+    }
+
+    /**
+     * Die Wurzelaufgabe: startet das Lesen aller Stücke beider Dateien und
+     * fügt die Ergebnisse zusammen.
+     */
+    private static class Einlesen extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final StueckListe _kundenStuecke;
+        private final StueckListe _medienStuecke;
+
+        List<Kunde> _kunden;
+        Map<Medium, Verleihkarte> _medien;
+
+        Einlesen(StueckListe kundenStuecke, StueckListe medienStuecke)
+        {
+            _kundenStuecke = kundenStuecke;
+            _medienStuecke = medienStuecke;
+        }
+
+        @Override
+        protected void compute()
+        {
+            List<KundenStueck> kundenStuecke = new ArrayList<KundenStueck>();
+            for (int i = 0; i < _kundenStuecke.anzahl(); i++)
+            {
+                KundenStueck stueck = new KundenStueck(_kundenStuecke, i);
+                stueck.fork();
+                kundenStuecke.add(stueck);
+            }
+            KundenZuordnung zuordnung = new KundenZuordnung(kundenStuecke);
+            zuordnung.fork();
+
+            List<MedienStueck> medienStuecke = new ArrayList<MedienStueck>();
+            for (int i = 0; i < _medienStuecke.anzahl(); i++)
+            {
+                MedienStueck stueck = new MedienStueck(_medienStuecke, i,
+                        zuordnung);
+                stueck.fork();
+                medienStuecke.add(stueck);
+            }
+
+            _medien = new LinkedHashMap<Medium, Verleihkarte>();
+            for (MedienStueck stueck : medienStuecke)
+            {
+                for (MappedMedienEinleser.Zeile zeile : stueck.join())
+                {
+                    _medien.put(zeile.getMedium(), zeile.getVerleihkarte());
+                }
+            }
+            _kunden = zuordnung.join()._kunden;
+        }
+    }
+
+    /**
+     * Die Stückgrenzen einer Datei zusammen mit ihrem Kanal.
+     */
+    private static class StueckListe
+    {
+        private final FileChannel _channel;
+        private final List<Long> _grenzen;
+
+        StueckListe(FileChannel channel, List<Long> grenzen)
+        {
+            _channel = channel;
+            _grenzen = grenzen;
+        }
+
+        int anzahl()
+        {
+            return _grenzen.size() - 1;
+        }
+
+        MappedFeldLeser erzeugeLeser(int stueck)
+        {
+            return new MappedFeldLeser(_channel, _grenzen.get(stueck),
+                    _grenzen.get(stueck + 1));
+        }
+    }
+
+    /**
+     * Liest die Kunden eines Stücks.
+     */
+    private static class KundenStueck extends RecursiveTask<List<Kunde>>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final StueckListe _stuecke;
+        private final int _stueck;
+
+        KundenStueck(StueckListe stuecke, int stueck)
+        {
+            _stuecke = stuecke;
+            _stueck = stueck;
+        }
+
+        @Override
+        protected List<Kunde> compute()
+        {
+            List<Kunde> kunden = new ArrayList<Kunde>();
+            MappedFeldLeser leser = _stuecke.erzeugeLeser(_stueck);
+            try
+            {
+                while (leser.naechsteZeile())
+                {
+                    Kunde kunde = MappedKundenEinleser.leseKundenEin(leser);
+                    if (kunde != null)
+                    {
+                        kunden.add(kunde);
+                    }
+                }
+            }
+            catch (DateiLeseException e)
+            {
+                throw new LeseFehler(e);
+            }
+            catch (IOException e)
+            {
+                throw new LeseFehler(new DateiLeseException(
+                        "Der Kundenstamm konnte nicht eingelesen werden, da die Datei nicht gelesen werden konnte."));
+            }
+            return kunden;
+        }
+    }
+
+    /**
+     * Fügt die Kunden aller Stücke zusammen und baut die Zuordnung von
+     * Kundennummer zu Kunde auf.
+     */
+    private static class KundenZuordnung extends RecursiveTask<KundenZuordnung>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final List<KundenStueck> _stuecke;
+
+        List<Kunde> _kunden;
+        Map<Kundennummer, Kunde> _kundenMap;
+
+        KundenZuordnung(List<KundenStueck> stuecke)
+        {
+            _stuecke = stuecke;
+        }
+
+        @Override
+        protected KundenZuordnung compute()
+        {
+            _kunden = new ArrayList<Kunde>();
+            for (KundenStueck stueck : _stuecke)
+            {
+                _kunden.addAll(stueck.join());
+            }
+            _kundenMap = new HashMap<Kundennummer, Kunde>();
+            for (Kunde kunde : _kunden)
+            {
+                _kundenMap.put(kunde.getKundennummer(), kunde);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Liest die Medien eines Stücks und legt nach dem Warten auf die
+     * Kundenzuordnung ihre Verleihkarten an.
+     */
+    private static class MedienStueck extends
+            RecursiveTask<List<MappedMedienEinleser.Zeile>>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final StueckListe _stuecke;
+        private final int _stueck;
+        private final KundenZuordnung _zuordnung;
+
+        MedienStueck(StueckListe stuecke, int stueck,
+                KundenZuordnung zuordnung)
+        {
+            _stuecke = stuecke;
+            _stueck = stueck;
+            _zuordnung = zuordnung;
+        }
+
+        @Override
+        protected List<MappedMedienEinleser.Zeile> compute()
+        {
+            List<MappedMedienEinleser.Zeile> zeilen = new ArrayList<MappedMedienEinleser.Zeile>();
+            MappedFeldLeser leser = _stuecke.erzeugeLeser(_stueck);
+            try
+            {
+                while (leser.naechsteZeile())
+                {
+                    MappedMedienEinleser.Zeile zeile = MappedMedienEinleser
+                            .leseZeileEin(leser);
+                    if (zeile != null)
+                    {
+                        zeilen.add(zeile);
+                    }
+                }
+            }
+            catch (DateiLeseException e)
+            {
+                throw new LeseFehler(e);
+            }
+            catch (IOException e)
+            {
+                throw new LeseFehler(new DateiLeseException(
+                        "Der Medien-Datenbestand konnte nicht eingelesen werden, da die Datei nicht gelesen werden konnte."));
+            }
+
+            Map<Kundennummer, Kunde> kundenMap = _zuordnung.join()._kundenMap;
+            for (MappedMedienEinleser.Zeile zeile : zeilen)
+            {
+                zeile.loeseEntleiherAuf(kundenMap);
+            }
+            return zeilen;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+
+/**
+ * Prüft an zufällig erzeugten Dateien, dass der {@link ParallelerEinleser}
+ * bei beliebigen Stückgrößen dasselbe Ergebnis liefert wie das sequentielle
+ * Einlesen.
+ */
+public class ParallelerEinleserTest
+{
+    private static final int DURCHLAEUFE = 200;
+
+    private static final String[] NAMEN = { "Susi", "Kai", "Müller", "Ærø",
+            "Łódź", "日本", " ", "Sonnenallee 20" };
+
+    private File _kundenDatei;
+    private File _medienDatei;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        _kundenDatei = File.createTempFile("kundenstamm", ".txt");
+        _medienDatei = File.createTempFile("medienbestand", ".txt");
+    }
+
+    @After
+    public void tearDown()
+    {
+        _kundenDatei.delete();
+        _medienDatei.delete();
+    }
+
+    @Test
+    public void testGleichesErgebnisWieSequentiell() throws IOException
+    {
+        Random random = new Random(4711);
+        for (int i = 0; i < DURCHLAEUFE; i++)
+        {
+            List<Integer> kundennummern = new ArrayList<Integer>();
+            schreibe(_kundenDatei, erzeugeKunden(random, kundennummern));
+            schreibe(_medienDatei, erzeugeMedien(random, kundennummern));
+
+            List<Kunde> erwarteteKunden = new MappedKundenEinleser()
+                    .leseKundenEin(_kundenDatei);
+            Map<Medium, Verleihkarte> erwarteteMedien = new MappedMedienEinleser()
+                    .leseMedienEin(erwarteteKunden, _medienDatei);
+
+            ParallelerEinleser einleser = new ParallelerEinleser(
+                    1 + random.nextInt(200));
+            einleser.leseEin(_kundenDatei, _medienDatei);
+
+            assertEquals(beschreibeKunden(erwarteteKunden),
+                    beschreibeKunden(einleser.getKunden()));
+            assertEquals(
+                    beschreibeMedien(erwarteteMedien, erwarteteKunden),
+                    beschreibeMedien(einleser.getMedien(),
+                            einleser.getKunden()));
+        }
+    }
+
+    @Test
+    public void testLeereDateien() throws IOException
+    {
+        schreibe(_kundenDatei, "");
+        schreibe(_medienDatei, "");
+        ParallelerEinleser einleser = new ParallelerEinleser(16);
+        einleser.leseEin(_kundenDatei, _medienDatei);
+        assertEquals(0, einleser.getKunden().size());
+        assertEquals(0, einleser.getMedien().size());
+    }
+
+    @Test
+    public void testUnvollstaendigeZeileInSpaeteremStueck()
+            throws IOException
+    {
+        schreibe(_kundenDatei,
+                "123456;Susi;Sonnenschein;Sonnenallee 20;22760;Hamburg\n");
+        StringBuilder medien = new StringBuilder();
+        for (int i = 0; i < 20; i++)
+        {
+            medien.append(" ; ;CD;Titel").append(i)
+                    .append(";Kommentar;Interpret;60\n");
+        }
+        medien.append(" ; ;CD;Nur Titel\n");
+        schreibe(_medienDatei, medien.toString());
+
+        DateiLeseException fehler = null;
+        try
+        {
+            new ParallelerEinleser(64).leseEin(_kundenDatei, _medienDatei);
+        }
+        catch (DateiLeseException e)
+        {
+            fehler = e;
+        }
+        assertNotNull(fehler);
+    }
+
+    @Test(expected = DateiLeseException.class)
+    public void testFehlendeDatei() throws IOException
+    {
+        _kundenDatei.delete();
+        new ParallelerEinleser(64).leseEin(_kundenDatei, _medienDatei);
+    }
+
+    /**
+     * Erzeugt einen Kundenstamm mit gültigen und ungültigen Kunden, leeren
+     * Zeilen und gemischten Zeilenenden. Die Nummern der gültigen Kunden
+     * werden in die übergebene Liste eingetragen.
+     */
+    private static String erzeugeKunden(Random random,
+            List<Integer> kundennummern)
+    {
+        StringBuilder text = new StringBuilder();
+        int anzahl = random.nextInt(40);
+        for (int i = 0; i < anzahl; i++)
+        {
+            int nummer = 100000 + i;
+            String plz = "22760";
+            int art = random.nextInt(10);
+            if (art == 0)
+            {
+                text.append("12345").append(i);
+                nummer = -1;
+            }
+            else
+            {
+                text.append(nummer);
+            }
+            if (art == 1)
+            {
+                plz = "2276";
+                nummer = -1;
+            }
+            if (nummer > 0)
+            {
+                kundennummern.add(nummer);
+            }
+            text.append(';').append(name(random)).append(';')
+                    .append(name(random)).append(';').append(name(random))
+                    .append(';').append(plz).append(';')
+                    .append(name(random));
+            text.append(zeilenende(random, i == anzahl - 1));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Erzeugt einen Medienbestand aus allen Medienarten, mit unbekannten
+     * Arten, leeren Feldern und Verleihkarten für gültige Kunden.
+     */
+    private static String erzeugeMedien(Random random,
+            List<Integer> kundennummern)
+    {
+        StringBuilder text = new StringBuilder();
+        int anzahl = random.nextInt(60);
+        for (int i = 0; i < anzahl; i++)
+        {
+            if (!kundennummern.isEmpty() && random.nextBoolean())
+            {
+                text.append(1 + random.nextInt(28)).append('.')
+                        .append(1 + random.nextInt(12)).append('.')
+                        .append(2000 + random.nextInt(20)).append(';')
+                        .append(kundennummern.get(random
+                                .nextInt(kundennummern.size())));
+            }
+            else
+            {
+                text.append(random.nextBoolean() ? " ; " : "31.2.2012; ");
+            }
+            text.append(';');
+            String titel = name(random) + i;
+            switch (random.nextInt(5))
+            {
+            case 0:
+                text.append("CD;").append(titel).append(';')
+                        .append(name(random)).append(';')
+                        .append(name(random)).append(';')
+                        .append(1 + random.nextInt(200));
+                break;
+            case 1:
+                text.append("DVD;").append(titel).append(";;")
+                        .append(name(random)).append(';')
+                        .append(name(random)).append(';')
+                        .append(1 + random.nextInt(200));
+                break;
+            case 2:
+                text.append("KonsolenVideospiel;").append(titel).append(';')
+                        .append(name(random)).append(";Nintendo DS");
+                break;
+            case 3:
+                text.append("PCVideospiel;").append(titel).append(';')
+                        .append(name(random)).append(";Linux");
+                break;
+            default:
+                text.append("Buch;").append(titel).append(';')
+                        .append(name(random));
+                break;
+            }
+            text.append(zeilenende(random, i == anzahl - 1));
+        }
+        return text.toString();
+    }
+
+    private static String name(Random random)
+    {
+        return NAMEN[random.nextInt(NAMEN.length)];
+    }
+
+    private static String zeilenende(Random random, boolean letzteZeile)
+    {
+        switch (random.nextInt(5))
+        {
+        case 0:
+            return "\r\n";
+        case 1:
+            return "\n\n";
+        case 2:
+            return letzteZeile ? "" : "\n";
+        default:
+            return "\n";
+        }
+    }
+
+    private static List<String> beschreibeKunden(List<Kunde> kunden)
+    {
+        List<String> result = new ArrayList<String>();
+        for (Kunde kunde : kunden)
+        {
+            result.add(kunde.getFormatiertenString());
+        }
+        return result;
+    }
+
+    /**
+     * Beschreibt die Medien in ihrer Reihenfolge, samt Verleihkarte und
+     * Position des Entleihers im Kundenstamm.
+     */
+    private static List<String> beschreibeMedien(
+            Map<Medium, Verleihkarte> medien, List<Kunde> kunden)
+    {
+        List<String> result = new ArrayList<String>();
+        for (Map.Entry<Medium, Verleihkarte> eintrag : medien.entrySet())
+        {
+            String beschreibung = eintrag.getKey().getFormatiertenString();
+            Verleihkarte verleihkarte = eintrag.getValue();
+            if (verleihkarte != null)
+            {
+                assertEquals(eintrag.getKey(), verleihkarte.getMedium());
+                beschreibung += verleihkarte.getFormatiertenString()
+                        + kunden.indexOf(verleihkarte.getEntleiher());
+            }
+            result.add(beschreibung);
+        }
+        return result;
+    }
+
+    private static void schreibe(File datei, String inhalt)
+            throws IOException
+    {
+        FileOutputStream stream = new FileOutputStream(datei);
+        stream.write(inhalt.getBytes("UTF-8"));
+        stream.close();
+    }
+}
@@ -0,0 +1,412 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Schreibt eine Liste von Einträgen zeilenweise in eine Textdatei, deren
+ * Felder mit ";" getrennt sind.
+ *
+ * Die Datei wird immer komplett in eine temporäre Datei im selben Verzeichnis
+ * geschrieben, auf die Platte gezwungen und dann atomar umbenannt. Ein Absturz
+ * während des Speicherns hinterlässt also entweder die alte oder die neue
+ * Datei, nie eine halb geschriebene.
+ *
+ * Die Einträge werden in Segmente von {@link #SEGMENTGROESSE} Zeilen
+ * aufgeteilt. Der Schreiber merkt sich, welche Einträge mit welchem Zustand in
+ * welchem Segment der zuletzt geschriebenen Datei stehen. Ein Segment, dessen
+ * Einträge und Zustände seitdem dieselben Objekte sind und das nicht mit
+ * {@link #markiereGeaendert(Object)} markiert wurde, wird beim nächsten
+ * Speichern nicht neu formatiert, sondern byteweise aus der alten Datei
+ * kopiert.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+abstract class SegmentierterSchreiber<E>
+{
+    /**
+     * Die Anzahl der Zeilen pro Segment.
+     */
+    static final int SEGMENTGROESSE = 4096;
+
+    private static final Charset ZEICHENSATZ = Charset.forName("UTF-8");
+
+    private static final String LEERZEICHEN = " ";
+
+    private final File _datei;
+    private final int _segmentgroesse;
+
+    /**
+     * Die Sicherungsdatei, die vor dem Ersetzen die alte Datei aufnimmt, oder
+     * null.
+     */
+    private File _sicherungsdatei;
+
+    /**
+     * Die Einträge, die seit dem letzten Speichern geändert wurden.
+     */
+    private final Set<E> _geaendert;
+
+    /**
+     * Die Segmente der zuletzt geschriebenen Datei, oder null, wenn noch nicht
+     * geschrieben wurde.
+     */
+    private List<Segment> _segmente;
+
+    // Größe und Änderungszeit der zuletzt geschriebenen Datei, um fremde
+    // Änderungen zu erkennen.
+    private long _dateigroesse;
+    private long _dateiZeitstempel;
+
+    /**
+     * Initialisiert einen neuen Schreiber.
+     *
+     * @param datei
+     *            Die zu schreibende Datei.
+     * @param segmentgroesse
+     *            Die Anzahl der Zeilen pro Segment.
+     *
+     * @require datei != null
+     * @require segmentgroesse > 0
+     */
+    SegmentierterSchreiber(File datei, int segmentgroesse)
+    {
+        assert datei != null : "Vorbedingung verletzt: datei != null";
+        assert segmentgroesse > 0 : "Vorbedingung verletzt: segmentgroesse > 0";
+        _datei = datei;
+        _segmentgroesse = segmentgroesse;
+        _geaendert = Collections
+                .newSetFromMap(new IdentityHashMap<E, Boolean>());
+    }
+
+    /**
+     * Setzt die Sicherungsdatei. Vor jedem Speichern wird der bisherige Stand
+     * der Datei dorthin übernommen.
+     *
+     * @param sicherungsdatei
+     *            Die Sicherungsdatei oder null, wenn keine Sicherung angelegt
+     *            werden soll.
+     */
+    void setSicherungsdatei(File sicherungsdatei)
+    {
+        _sicherungsdatei = sicherungsdatei;
+    }
+
+    /**
+     * Markiert einen Eintrag als geändert, so dass sein Segment beim nächsten
+     * Speichern neu formatiert wird. Das ist nur für Änderungen am Eintrag
+     * selbst nötig, etwa einen neuen Titel; hinzugefügte, entfernte oder
+     * verschobene Einträge und geänderte Zustände werden selbst erkannt.
+     *
+     * @require eintrag != null
+     */
+    void markiereGeaendert(E eintrag)
+    {
+        assert eintrag != null : "Vorbedingung verletzt: eintrag != null";
+        _geaendert.add(eintrag);
+    }
+
+    /**
+     * Gibt die Anzahl der Segmente zurück, die beim letzten Speichern neu
+     * formatiert wurden.
+     */
+    int getNeuGeschriebeneSegmente()
+    {
+        int anzahl = 0;
+        if (_segmente != null)
+        {
+            for (Segment segment : _segmente)
+            {
+                if (segment._neuGeschrieben)
+                {
+                    anzahl++;
+                }
+            }
+        }
+        return anzahl;
+    }
+
+    /**
+     * Schreibt die Einträge in die Datei.
+     *
+     * @param eintraege
+     *            Die Einträge in der Reihenfolge, in der sie in der Datei
+     *            stehen sollen.
+     *
+     * @throws DateiSchreibException
+     *             wenn die Datei nicht geschrieben werden konnte oder ein
+     *             Eintrag nicht im Dateiformat darstellbar ist.
+     *
+     * @require eintraege != null
+     */
+    void schreibe(List<E> eintraege) throws DateiSchreibException
+    {
+        assert eintraege != null : "Vorbedingung verletzt: eintraege != null";
+
+        File tempDatei = null;
+        FileOutputStream ausgabe = null;
+        FileInputStream alteDatei = null;
+        try
+        {
+            tempDatei = AtomareDatei.erzeugeTempDatei(_datei);
+            ausgabe = new FileOutputStream(tempDatei);
+            FileChannel ziel = ausgabe.getChannel();
+            if (istAlteDateiUnveraendert())
+            {
+                alteDatei = new FileInputStream(_datei);
+            }
+
+            List<Segment> segmente = new ArrayList<Segment>();
+            long position = 0;
+            for (int anfang = 0; anfang < eintraege.size(); anfang += _segmentgroesse)
+            {
+                int ende = Math.min(anfang + _segmentgroesse,
+                        eintraege.size());
+                Segment segment = new Segment(eintraege.subList(anfang, ende));
+                Segment altesSegment = null;
+                if (alteDatei != null && segmente.size() < _segmente.size())
+                {
+                    altesSegment = _segmente.get(segmente.size());
+                }
+
+                segment._anfang = position;
+                if (altesSegment != null && altesSegment.istGleich(segment)
+                        && !enthaeltGeaenderte(segment))
+                {
+                    kopiere(alteDatei.getChannel(), altesSegment, ziel);
+                    segment._laenge = altesSegment._laenge;
+                }
+                else
+                {
+                    segment._laenge = schreibeSegment(segment, ziel);
+                    segment._neuGeschrieben = true;
+                }
+                position += segment._laenge;
+                segmente.add(segment);
+            }
+
+            ziel.force(true);
+            ausgabe.close();
+            ausgabe = null;
+            if (alteDatei != null)
+            {
+                alteDatei.close();
+                alteDatei = null;
+            }
+
+            sichereAlteDatei();
+            AtomareDatei.ersetze(tempDatei, _datei);
+            tempDatei = null;
+
+            _segmente = segmente;
+            _geaendert.clear();
+            _dateigroesse = _datei.length();
+            _dateiZeitstempel = _datei.lastModified();
+        }
+        catch (DateiSchreibException e)
+        {
+            throw e;
+        }
+        catch (IOException e)
+        {
+            throw new DateiSchreibException("Die Datei " + _datei
+                    + " konnte nicht geschrieben werden.");
+        }
+        finally
+        {
+            AtomareDatei.schliesse(ausgabe);
+            AtomareDatei.schliesse(alteDatei);
+            if (tempDatei != null)
+            {
+                tempDatei.delete();
+            }
+        }
+    }
+
+    /**
+     * Gibt den Zustand eines Eintrags zurück, der mit in seine Zeile
+     * geschrieben wird, etwa die Verleihkarte eines Mediums. Ändert sich das
+     * Zustandsobjekt, wird das Segment neu formatiert.
+     *
+     * @return Der Zustand oder null.
+     */
+    protected abstract Object getZustand(E eintrag);
+
+    /**
+     * Hängt die Zeile für einen Eintrag ohne Zeilenende an.
+     *
+     * @throws DateiSchreibException
+     *             wenn der Eintrag nicht im Dateiformat darstellbar ist.
+     */
+    protected abstract void formatiereZeile(E eintrag, StringBuilder zeile)
+            throws DateiSchreibException;
+
+    /**
+     * Hängt einen Text als Feld an. Leere Texte werden wie beim Einlesen als
+     * einzelnes Leerzeichen dargestellt.
+     *
+     * @throws DateiSchreibException
+     *             wenn der Text ein Trennzeichen oder einen Zeilenumbruch
+     *             enthält.
+     */
+    protected static void haengeTextAn(StringBuilder zeile, String text)
+            throws DateiSchreibException
+    {
+        if (text == null || text.isEmpty())
+        {
+            zeile.append(LEERZEICHEN);
+        }
+        else if (text.indexOf(';') >= 0 || text.indexOf('\n') >= 0
+                || text.indexOf('\r') >= 0)
+        {
+            throw new DateiSchreibException("Der Text \"" + text
+                    + "\" kann nicht gespeichert werden.");
+        }
+        else
+        {
+            zeile.append(text);
+        }
+    }
+
+    private boolean istAlteDateiUnveraendert()
+    {
+        return _segmente != null && _datei.length() == _dateigroesse
+                && _datei.lastModified() == _dateiZeitstempel;
+    }
+
+    private boolean enthaeltGeaenderte(Segment segment)
+    {
+        if (!_geaendert.isEmpty())
+        {
+            for (Object eintrag : segment._eintraege)
+            {
+                if (_geaendert.contains(eintrag))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Formatiert die Zeilen eines Segments und schreibt sie in den Kanal.
+     *
+     * @return Die Anzahl der geschriebenen Bytes.
+     */
+    @SuppressWarnings("unchecked")
+    private long schreibeSegment(Segment segment, FileChannel ziel)
+            throws IOException
+    {
+        StringBuilder text = new StringBuilder();
+        for (Object eintrag : segment._eintraege)
+        {
+            formatiereZeile((E) eintrag, text);
+            text.append('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(text.toString().getBytes(
+                ZEICHENSATZ));
+        long laenge = bytes.remaining();
+        while (bytes.hasRemaining())
+        {
+            ziel.write(bytes);
+        }
+        return laenge;
+    }
+
+    private void kopiere(FileChannel quelle, Segment segment,
+            FileChannel ziel) throws IOException
+    {
+        long kopiert = 0;
+        while (kopiert < segment._laenge)
+        {
+            long anzahl = quelle.transferTo(segment._anfang + kopiert,
+                    segment._laenge - kopiert, ziel);
+            if (anzahl <= 0)
+            {
+                throw new IOException("Unerwartetes Dateiende");
+            }
+            kopiert += anzahl;
+        }
+    }
+
+    /**
+     * Übernimmt den bisherigen Stand der Datei in die Sicherungsdatei. Wo
+     * möglich wird dafür nur ein harter Link angelegt.
+     */
+    private void sichereAlteDatei() throws IOException
+    {
+        if (_sicherungsdatei != null && _datei.exists())
+        {
+            Files.deleteIfExists(_sicherungsdatei.toPath());
+            try
+            {
+                Files.createLink(_sicherungsdatei.toPath(), _datei.toPath());
+            }
+            catch (IOException e)
+            {
+                Files.copy(_datei.toPath(), _sicherungsdatei.toPath());
+            }
+            catch (UnsupportedOperationException e)
+            {
+                Files.copy(_datei.toPath(), _sicherungsdatei.toPath());
+            }
+        }
+    }
+
+    /**
+     * Ein Segment der Datei: seine Einträge mit ihren Zuständen und seine
+     * Lage in der Datei.
+     */
+    private class Segment
+    {
+        private final Object[] _eintraege;
+        private final Object[] _zustaende;
+        private long _anfang;
+        private long _laenge;
+        private boolean _neuGeschrieben;
+
+        Segment(List<E> eintraege)
+        {
+            _eintraege = eintraege.toArray();
+            _zustaende = new Object[_eintraege.length];
+            for (int i = 0; i < _zustaende.length; i++)
+            {
+                _zustaende[i] = getZustand(eintraege.get(i));
+            }
+        }
+
+        /**
+         * Prüft, ob das andere Segment dieselben Einträge mit denselben
+         * Zuständen enthält.
+         */
+        boolean istGleich(Segment anderes)
+        {
+            if (_eintraege.length != anderes._eintraege.length)
+            {
+                return false;
+            }
+            for (int i = 0; i < _eintraege.length; i++)
+            {
+                if (_eintraege[i] != anderes._eintraege[i]
+                        || _zustaende[i] != anderes._zustaende[i])
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,533 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.PLZ;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.DVD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.KonsolenVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.PCVideospiel;
+
+/**
+ * Ein {@link SnapshotEinleser} liest einen mit dem {@link SnapshotSchreiber}
+ * geschriebenen Snapshot ein. Er bietet dieselben Abfragen wie der
+ * {@link DatenEinleser}.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class SnapshotEinleser
+{
+    private static final Charset ZEICHENSATZ = Charset.forName("UTF-8");
+
+    private static final int PUFFERGROESSE = 1 << 20;
+
+    private static final String BESCHAEDIGT = "Der Snapshot konnte nicht eingelesen werden, da er beschädigt ist.";
+
+    private final File _snapshotDatei;
+
+    private List<Kunde> _kunden;
+
+    private List<Medium> _medien;
+
+    private Map<Medium, List<Kunde>> _vormerker;
+
+    private List<Verleihkarte> _verleihkarten;
+
+    private long _pruefsumme;
+
+    /**
+     * Initialisiert einen neuen {@link SnapshotEinleser}.
+     * 
+     * @param snapshotDatei
+     *            Die Datei, in der der Snapshot gespeichert ist.
+     * 
+     * @require snapshotDatei != null
+     */
+    public SnapshotEinleser(File snapshotDatei)
+    {
+        assert snapshotDatei != null : "Vorbedingung verletzt: snapshotDatei != null";
+        _snapshotDatei = snapshotDatei;
+    }
+
+    /**
+     * Prüft, ob es den Snapshot gibt und er nicht älter als die angegebenen
+     * Textdateien ist.
+     * 
+     * @param snapshotDatei
+     *            Die Datei, in der der Snapshot gespeichert ist.
+     * @param textdateien
+     *            Die Textdateien, aus denen der Bestand sonst gelesen wird.
+     * 
+     * @require snapshotDatei != null
+     * @require textdateien != null
+     */
+    public static boolean istAktuell(File snapshotDatei, File... textdateien)
+    {
+        assert snapshotDatei != null : "Vorbedingung verletzt: snapshotDatei != null";
+        assert textdateien != null : "Vorbedingung verletzt: textdateien != null";
+
+        if (!snapshotDatei.isFile())
+        {
+            return false;
+        }
+        long zeitstempel = snapshotDatei.lastModified();
+        for (File textdatei : textdateien)
+        {
+            if (textdatei.lastModified() > zeitstempel)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Liest den Snapshot ein. Das Ergebnis kann mit {@link #getKunden()},
+     * {@link #getMedien()} und {@link #getVerleihkarten()} abgefragt werden.
+     * 
+     * @throws DateiLeseException
+     *             wenn der Snapshot nicht gelesen werden konnte, eine andere
+     *             Version hat oder die Prüfsumme nicht stimmt.
+     * 
+     * @ensure wurdeEingelesen() == true
+     */
+    public void leseDaten() throws DateiLeseException
+    {
+        FileInputStream stream = null;
+        try
+        {
+            stream = new FileInputStream(_snapshotDatei);
+            Leser leser = new Leser(stream.getChannel());
+
+            if (leser.leseInt() != SnapshotFormat.MAGIC)
+            {
+                throw new DateiLeseException(
+                        "Die Datei ist kein Snapshot der Mediathek.");
+            }
+            int version = leser.leseInt();
+            if (version != SnapshotFormat.VERSION)
+            {
+                throw new DateiLeseException("Der Snapshot hat die Version "
+                        + version + ", unterstützt wird nur Version "
+                        + SnapshotFormat.VERSION + ".");
+            }
+            int anzahlTexte = pruefeAnzahl(leser.leseInt());
+            int anzahlKunden = pruefeAnzahl(leser.leseInt());
+            int anzahlMedien = pruefeAnzahl(leser.leseInt());
+            int anzahlVerleihkarten = pruefeAnzahl(leser.leseInt());
+
+            String[] texte = new String[anzahlTexte];
+            for (int i = 0; i < anzahlTexte; i++)
+            {
+                texte[i] = leser.leseText();
+            }
+            List<Kunde> kunden = leseKunden(leser, texte, anzahlKunden);
+            Map<Medium, List<Kunde>> vormerker = new HashMap<Medium, List<Kunde>>();
+            List<Medium> medien = leseMedien(leser, texte, kunden, vormerker,
+                    anzahlMedien);
+            List<Verleihkarte> verleihkarten = leseVerleihkarten(leser,
+                    kunden, medien, anzahlVerleihkarten);
+            _pruefsumme = leser.pruefeEnde();
+            _kunden = kunden;
+            _medien = medien;
+            _vormerker = vormerker;
+            _verleihkarten = verleihkarten;
+        }
+        catch (FileNotFoundException e)
+        {
+            throw new DateiLeseException(
+                    "Der Snapshot konnte nicht eingelesen werden, da die Datei nicht gefunden wurde.");
+        }
+        catch (DateiLeseException e)
+        {
+            throw e;
+        }
+        catch (EOFException e)
+        {
+            throw new DateiLeseException(BESCHAEDIGT);
+        }
+        catch (IOException e)
+        {
+            throw new DateiLeseException(
+                    "Der Snapshot konnte nicht eingelesen werden, da die Datei nicht gelesen werden konnte.");
+        }
+        finally
+        {
+            AtomareDatei.schliesse(stream);
+        }
+    }
+
+    /**
+     * Gibt zurück, ob der Snapshot bereits eingelesen wurde.
+     */
+    public boolean wurdeEingelesen()
+    {
+        return _kunden != null;
+    }
+
+    /**
+     * Gibt die eingelesenen Kunden zurück.
+     * 
+     * @require wurdeEingelesen()
+     * 
+     * @ensure result != null
+     */
+    public List<Kunde> getKunden()
+    {
+        assert wurdeEingelesen() : "Vorbedingung verletzt: wurdeEingelesen()";
+        return _kunden;
+    }
+
+    /**
+     * Gibt die eingelesenen Medien zurück.
+     * 
+     * @require wurdeEingelesen()
+     * 
+     * @ensure result != null
+     */
+    public List<Medium> getMedien()
+    {
+        assert wurdeEingelesen() : "Vorbedingung verletzt: wurdeEingelesen()";
+        return _medien;
+    }
+
+    /**
+     * Gibt die eingelesenen Vormerker je Medium zurück. Medien ohne Vormerker
+     * sind nicht enthalten.
+     * 
+     * @require wurdeEingelesen()
+     * 
+     * @ensure result != null
+     */
+    public Map<Medium, List<Kunde>> getVormerker()
+    {
+        assert wurdeEingelesen() : "Vorbedingung verletzt: wurdeEingelesen()";
+        return _vormerker;
+    }
+
+    /**
+     * Gibt die eingelesenen Verleihkarten zurück.
+     * 
+     * @require wurdeEingelesen()
+     * 
+     * @ensure result != null
+     */
+    public List<Verleihkarte> getVerleihkarten()
+    {
+        assert wurdeEingelesen() : "Vorbedingung verletzt: wurdeEingelesen()";
+        return _verleihkarten;
+    }
+
+    /**
+     * Gibt die Prüfsumme des eingelesenen Snapshots zurück. Sie kennzeichnet
+     * den Stand, auf dem ein Verleihjournal aufsetzt.
+     * 
+     * @require wurdeEingelesen()
+     */
+    public long getPruefsumme()
+    {
+        assert wurdeEingelesen() : "Vorbedingung verletzt: wurdeEingelesen()";
+        return _pruefsumme;
+    }
+
+    private static List<Kunde> leseKunden(Leser leser, String[] texte,
+            int anzahl) throws IOException
+    {
+        // PLZ-Objekte sind unveränderlich und werden je Text nur einmal
+        // erzeugt.
+        PLZ[] postleitzahlen = new PLZ[texte.length];
+        List<Kunde> kunden = new ArrayList<Kunde>(anzahl);
+        for (int i = 0; i < anzahl; i++)
+        {
+            int nummer = leser.leseInt();
+            String vorname = gibText(texte, leser.leseInt());
+            String nachname = gibText(texte, leser.leseInt());
+            String strasse = gibOptionalenText(texte, leser.leseInt());
+            int plz = leser.leseInt();
+            String wohnort = gibOptionalenText(texte, leser.leseInt());
+            if (!Kundennummer.istGueltig(nummer))
+            {
+                throw new DateiLeseException(BESCHAEDIGT);
+            }
+
+            Kunde kunde = new Kunde(new Kundennummer(nummer), vorname,
+                    nachname);
+            kunde.setStrasse(strasse);
+            kunde.setWohnort(wohnort);
+            if (plz != SnapshotFormat.KEIN_EINTRAG)
+            {
+                if (postleitzahlen[pruefeIndex(plz, texte.length)] == null)
+                {
+                    if (!PLZ.istGueltig(texte[plz]))
+                    {
+                        throw new DateiLeseException(BESCHAEDIGT);
+                    }
+                    postleitzahlen[plz] = new PLZ(texte[plz]);
+                }
+                kunde.setPLZ(postleitzahlen[plz]);
+            }
+            kunden.add(kunde);
+        }
+        return kunden;
+    }
+
+    private static List<Medium> leseMedien(Leser leser, String[] texte,
+            List<Kunde> kunden, Map<Medium, List<Kunde>> vormerker, int anzahl)
+            throws IOException
+    {
+        List<Medium> medien = new ArrayList<Medium>(anzahl);
+        for (int i = 0; i < anzahl; i++)
+        {
+            byte art = leser.leseByte();
+            String titel = gibText(texte, leser.leseInt());
+            String kommentar = gibText(texte, leser.leseInt());
+            String zusatz = gibText(texte, leser.leseInt());
+            int zahl = leser.leseInt();
+
+            Medium medium;
+            if (art == SnapshotFormat.CD && zahl > 0)
+            {
+                medium = new CD(titel, kommentar, zusatz, zahl);
+            }
+            else if (art == SnapshotFormat.DVD && zahl > 0)
+            {
+                medium = new DVD(titel, kommentar, zusatz, zahl);
+            }
+            else if (art == SnapshotFormat.KONSOLENVIDEOSPIEL)
+            {
+                medium = new KonsolenVideospiel(titel, kommentar, zusatz);
+            }
+            else if (art == SnapshotFormat.PCVIDEOSPIEL)
+            {
+                medium = new PCVideospiel(titel, kommentar, zusatz);
+            }
+            else
+            {
+                throw new DateiLeseException(BESCHAEDIGT);
+            }
+
+            // Jeder Kunde steht höchstens einmal unter den Vormerkern.
+            int anzahlVormerker = leser.leseInt();
+            if (anzahlVormerker < 0 || anzahlVormerker > kunden.size())
+            {
+                throw new DateiLeseException(BESCHAEDIGT);
+            }
+            if (anzahlVormerker > 0)
+            {
+                List<Kunde> vormerkerDesMediums = new ArrayList<Kunde>(
+                        anzahlVormerker);
+                for (int j = 0; j < anzahlVormerker; j++)
+                {
+                    vormerkerDesMediums.add(kunden.get(pruefeIndex(
+                            leser.leseInt(), kunden.size())));
+                }
+                vormerker.put(medium, vormerkerDesMediums);
+            }
+            medien.add(medium);
+        }
+        return medien;
+    }
+
+    private static List<Verleihkarte> leseVerleihkarten(Leser leser,
+            List<Kunde> kunden, List<Medium> medien, int anzahl)
+            throws IOException
+    {
+        List<Verleihkarte> verleihkarten = new ArrayList<Verleihkarte>(anzahl);
+        // Datum-Objekte sind unveränderlich, viele Karten teilen sich eines.
+        Map<Integer, Datum> daten = new HashMap<Integer, Datum>();
+        for (int i = 0; i < anzahl; i++)
+        {
+            Medium medium = medien.get(pruefeIndex(leser.leseInt(),
+                    medien.size()));
+            Kunde entleiher = kunden.get(pruefeIndex(leser.leseInt(),
+                    kunden.size()));
+            int kodiert = leser.leseInt();
+            Datum ausleihdatum = daten.get(kodiert);
+            if (ausleihdatum == null)
+            {
+                ausleihdatum = dekodiereDatum(kodiert);
+                daten.put(kodiert, ausleihdatum);
+            }
+            verleihkarten.add(new Verleihkarte(entleiher, medium,
+                    ausleihdatum));
+        }
+        return verleihkarten;
+    }
+
+    /**
+     * Dekodiert ein als JJJJMMTT gespeichertes Datum.
+     */
+    private static Datum dekodiereDatum(int kodiert)
+            throws DateiLeseException
+    {
+        int jahr = kodiert / 10000;
+        int monat = kodiert / 100 % 100;
+        int tag = kodiert % 100;
+        if (!Datum.istGueltig(tag, monat, jahr))
+        {
+            throw new DateiLeseException(BESCHAEDIGT);
+        }
+        return new Datum(tag, monat, jahr);
+    }
+
+    private static String gibText(String[] texte, int index)
+            throws DateiLeseException
+    {
+        return texte[pruefeIndex(index, texte.length)];
+    }
+
+    private static String gibOptionalenText(String[] texte, int index)
+            throws DateiLeseException
+    {
+        if (index == SnapshotFormat.KEIN_EINTRAG)
+        {
+            return null;
+        }
+        return gibText(texte, index);
+    }
+
+    private static int pruefeIndex(int index, int anzahl)
+            throws DateiLeseException
+    {
+        if (index < 0 || index >= anzahl)
+        {
+            throw new DateiLeseException(BESCHAEDIGT);
+        }
+        return index;
+    }
+
+    private static int pruefeAnzahl(int anzahl) throws DateiLeseException
+    {
+        if (anzahl < 0)
+        {
+            throw new DateiLeseException(BESCHAEDIGT);
+        }
+        return anzahl;
+    }
+
+    /**
+     * Liest die Felder des Snapshots über einen Puffer aus dem Kanal und
+     * berechnet dabei die Prüfsumme der gelesenen Bytes.
+     */
+    private static class Leser
+    {
+        private final FileChannel _channel;
+        private final CRC32 _pruefsumme;
+        private ByteBuffer _puffer;
+
+        /**
+         * Die Position im Puffer, bis zu der die Prüfsumme berechnet ist.
+         */
+        private int _geprueft;
+
+        Leser(FileChannel channel)
+        {
+            _channel = channel;
+            _pruefsumme = new CRC32();
+            _puffer = ByteBuffer.allocate(PUFFERGROESSE);
+            _puffer.flip();
+        }
+
+        byte leseByte() throws IOException
+        {
+            stelleBereit(1);
+            return _puffer.get();
+        }
+
+        int leseInt() throws IOException
+        {
+            stelleBereit(4);
+            return _puffer.getInt();
+        }
+
+        String leseText() throws IOException
+        {
+            int laenge = leseInt();
+            if (laenge < 0)
+            {
+                throw new DateiLeseException(BESCHAEDIGT);
+            }
+            stelleBereit(laenge);
+            int position = _puffer.position();
+            _puffer.position(position + laenge);
+            return new String(_puffer.array(), position, laenge, ZEICHENSATZ);
+        }
+
+        /**
+         * Liest die Prüfsumme und prüft, dass die Datei danach zu Ende ist.
+         * 
+         * @return Die Prüfsumme.
+         */
+        long pruefeEnde() throws IOException
+        {
+            aktualisierePruefsumme();
+            long berechnet = _pruefsumme.getValue();
+            stelleBereit(SnapshotFormat.PRUEFSUMME_BYTES);
+            long gespeichert = _puffer.getLong();
+            if (berechnet != gespeichert || _puffer.hasRemaining()
+                    || _channel.position() != _channel.size())
+            {
+                throw new DateiLeseException(BESCHAEDIGT);
+            }
+            return gespeichert;
+        }
+
+        /**
+         * Sorgt dafür, dass mindestens die angegebene Anzahl Bytes im Puffer
+         * bereitsteht.
+         */
+        private void stelleBereit(int anzahl) throws IOException
+        {
+            if (_puffer.remaining() >= anzahl)
+            {
+                return;
+            }
+            aktualisierePruefsumme();
+            if (anzahl > _puffer.capacity())
+            {
+                ByteBuffer groesser = ByteBuffer.allocate(anzahl);
+                groesser.put(_puffer);
+                _puffer = groesser;
+            }
+            else
+            {
+                _puffer.compact();
+            }
+            while (_puffer.position() < anzahl)
+            {
+                if (_channel.read(_puffer) < 0)
+                {
+                    throw new EOFException();
+                }
+            }
+            _puffer.flip();
+            _geprueft = 0;
+        }
+
+        private void aktualisierePruefsumme()
+        {
+            int position = _puffer.position();
+            _pruefsumme.update(_puffer.array(), _geprueft, position
+                    - _geprueft);
+            _geprueft = position;
+        }
+    }
+}
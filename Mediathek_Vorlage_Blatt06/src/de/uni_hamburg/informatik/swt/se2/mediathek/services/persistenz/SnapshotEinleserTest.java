@@ -0,0 +1,285 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.PLZ;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.DVD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.KonsolenVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.PCVideospiel;
+
+public class SnapshotEinleserTest
+{
+    private File _snapshotDatei;
+
+    private List<Kunde> _kunden;
+    private List<Medium> _medien;
+    private Map<Medium, List<Kunde>> _vormerker;
+    private List<Verleihkarte> _verleihkarten;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        _snapshotDatei = File.createTempFile("mediathek", ".snapshot");
+
+        _kunden = new ArrayList<Kunde>();
+        Kunde susi = new Kunde(new Kundennummer(123456), "Susi",
+                "Sonnenschein");
+        susi.setStrasse("Sonnenallee 20");
+        susi.setPLZ(new PLZ("D-22760"));
+        susi.setWohnort("Hamburg");
+        _kunden.add(susi);
+        Kunde kai = new Kunde(new Kundennummer(123457), "Kai", "Müller");
+        _kunden.add(kai);
+        Kunde julia = new Kunde(new Kundennummer(999999), "Julia", "日本");
+        julia.setPLZ(new PLZ("22760"));
+        _kunden.add(julia);
+
+        _medien = new ArrayList<Medium>();
+        _medien.add(new CD("Greatest Hits", "", "Billy Joel", 140));
+        _medien.add(new DVD("Kung Fu Panda", "Kommentar", "John Stevenson",
+                115));
+        _medien.add(new KonsolenVideospiel("Gehirn Jogging", "Kommentar",
+                "Nintendo DS"));
+        _medien.add(new PCVideospiel("Portal", "Kommentar", "Linux"));
+        _vormerker = new HashMap<Medium, List<Kunde>>();
+        _vormerker.put(_medien.get(1), Arrays.asList(kai, julia, susi));
+        _vormerker.put(_medien.get(3), Arrays.asList(susi));
+
+        _verleihkarten = new ArrayList<Verleihkarte>();
+        _verleihkarten.add(new Verleihkarte(susi, _medien.get(1), new Datum(
+                29, 2, 2012)));
+        _verleihkarten.add(new Verleihkarte(julia, _medien.get(3), new Datum(
+                31, 12, 1999)));
+    }
+
+    @After
+    public void tearDown()
+    {
+        _snapshotDatei.delete();
+    }
+
+    @Test
+    public void testGeschriebenerSnapshotWirdWiederEingelesen()
+            throws IOException
+    {
+        SnapshotEinleser einleser = schreibeUndLese();
+
+        assertEquals(beschreibeKunden(_kunden),
+                beschreibeKunden(einleser.getKunden()));
+        assertNull(einleser.getKunden().get(1).getPLZ());
+        assertNull(einleser.getKunden().get(1).getStrasse());
+        assertEquals(beschreibeMedien(_medien),
+                beschreibeMedien(einleser.getMedien()));
+
+        List<Kunde> kunden = einleser.getKunden();
+        List<Medium> medien = einleser.getMedien();
+        List<Kunde> vormerker = einleser.getVormerker().get(medien.get(1));
+        assertEquals(3, vormerker.size());
+        assertSame(kunden.get(1), vormerker.get(0));
+        assertSame(kunden.get(2), vormerker.get(1));
+        assertSame(kunden.get(0), vormerker.get(2));
+        assertEquals(Arrays.asList(kunden.get(0)), einleser.getVormerker()
+                .get(medien.get(3)));
+        assertFalse(einleser.getVormerker().containsKey(medien.get(0)));
+
+        assertEquals(2, einleser.getVerleihkarten().size());
+        for (int i = 0; i < 2; i++)
+        {
+            Verleihkarte erwartet = _verleihkarten.get(i);
+            Verleihkarte verleihkarte = einleser.getVerleihkarten().get(i);
+            assertEquals(erwartet.getFormatiertenString(),
+                    verleihkarte.getFormatiertenString());
+            assertSame(kunden.get(_kunden.indexOf(erwartet.getEntleiher())),
+                    verleihkarte.getEntleiher());
+            assertSame(einleser.getMedien().get(
+                    _medien.indexOf(erwartet.getMedium())),
+                    verleihkarte.getMedium());
+        }
+    }
+
+    @Test
+    public void testBeliebigVieleVormerker() throws IOException
+    {
+        List<Kunde> vormerkerDesMediums = new ArrayList<Kunde>();
+        for (int i = 0; i < 5; i++)
+        {
+            Kunde kunde = new Kunde(new Kundennummer(200000 + i), "Kunde",
+                    "Nummer " + i);
+            _kunden.add(kunde);
+            vormerkerDesMediums.add(kunde);
+        }
+        _vormerker.put(_medien.get(0), vormerkerDesMediums);
+        SnapshotEinleser einleser = schreibeUndLese();
+
+        List<Kunde> vormerker = einleser.getVormerker().get(
+                einleser.getMedien().get(0));
+        assertEquals(5, vormerker.size());
+        for (int i = 0; i < 5; i++)
+        {
+            assertSame(einleser.getKunden().get(3 + i), vormerker.get(i));
+        }
+    }
+
+    @Test
+    public void testLeererBestand() throws IOException
+    {
+        _kunden.clear();
+        _medien.clear();
+        _vormerker.clear();
+        _verleihkarten.clear();
+        SnapshotEinleser einleser = schreibeUndLese();
+        assertTrue(einleser.getKunden().isEmpty());
+        assertTrue(einleser.getMedien().isEmpty());
+        assertTrue(einleser.getVormerker().isEmpty());
+        assertTrue(einleser.getVerleihkarten().isEmpty());
+    }
+
+    @Test
+    public void testBeschaedigterSnapshotWirdErkannt() throws IOException
+    {
+        new SnapshotSchreiber(_snapshotDatei).schreibeDaten(_kunden, _medien,
+                _vormerker, _verleihkarten);
+        RandomAccessFile datei = new RandomAccessFile(_snapshotDatei, "rw");
+        datei.seek(SnapshotFormat.KOPF_BYTES + 6);
+        int wert = datei.read();
+        datei.seek(SnapshotFormat.KOPF_BYTES + 6);
+        datei.write(wert ^ 1);
+        datei.close();
+
+        assertLeseFehler();
+    }
+
+    @Test
+    public void testAbgeschnittenerSnapshotWirdErkannt() throws IOException
+    {
+        new SnapshotSchreiber(_snapshotDatei).schreibeDaten(_kunden, _medien,
+                _vormerker, _verleihkarten);
+        RandomAccessFile datei = new RandomAccessFile(_snapshotDatei, "rw");
+        datei.setLength(datei.length() - 3);
+        datei.close();
+
+        assertLeseFehler();
+    }
+
+    @Test
+    public void testAndereVersionWirdAbgelehnt() throws IOException
+    {
+        new SnapshotSchreiber(_snapshotDatei).schreibeDaten(_kunden, _medien,
+                _vormerker, _verleihkarten);
+        RandomAccessFile datei = new RandomAccessFile(_snapshotDatei, "rw");
+        datei.seek(4);
+        datei.writeInt(SnapshotFormat.VERSION + 1);
+        datei.close();
+
+        assertLeseFehler();
+    }
+
+    @Test
+    public void testUnbekannterEntleiherWirdNichtGeschrieben()
+            throws IOException
+    {
+        _kunden.remove(2);
+        DateiSchreibException fehler = null;
+        try
+        {
+            new SnapshotSchreiber(_snapshotDatei).schreibeDaten(_kunden,
+                    _medien, _vormerker, _verleihkarten);
+        }
+        catch (DateiSchreibException e)
+        {
+            fehler = e;
+        }
+        assertNotNull(fehler);
+        assertEquals(0, _snapshotDatei.length());
+    }
+
+    @Test
+    public void testIstAktuell() throws IOException
+    {
+        File textdatei = File.createTempFile("medienbestand", ".txt");
+        try
+        {
+            textdatei.setLastModified(_snapshotDatei.lastModified() - 10000);
+            assertTrue(SnapshotEinleser.istAktuell(_snapshotDatei, textdatei));
+            textdatei.setLastModified(_snapshotDatei.lastModified() + 10000);
+            assertFalse(SnapshotEinleser
+                    .istAktuell(_snapshotDatei, textdatei));
+            _snapshotDatei.delete();
+            assertFalse(SnapshotEinleser.istAktuell(_snapshotDatei));
+        }
+        finally
+        {
+            textdatei.delete();
+        }
+    }
+
+    private SnapshotEinleser schreibeUndLese() throws IOException
+    {
+        new SnapshotSchreiber(_snapshotDatei).schreibeDaten(_kunden, _medien,
+                _vormerker, _verleihkarten);
+        SnapshotEinleser einleser = new SnapshotEinleser(_snapshotDatei);
+        einleser.leseDaten();
+        assertTrue(einleser.wurdeEingelesen());
+        return einleser;
+    }
+
+    private void assertLeseFehler()
+    {
+        SnapshotEinleser einleser = new SnapshotEinleser(_snapshotDatei);
+        DateiLeseException fehler = null;
+        try
+        {
+            einleser.leseDaten();
+        }
+        catch (DateiLeseException e)
+        {
+            fehler = e;
+        }
+        assertNotNull(fehler);
+        assertFalse(einleser.wurdeEingelesen());
+    }
+
+    private static List<String> beschreibeKunden(List<Kunde> kunden)
+    {
+        List<String> result = new ArrayList<String>();
+        for (Kunde kunde : kunden)
+        {
+            result.add(kunde.getFormatiertenString());
+        }
+        return result;
+    }
+
+    private static List<String> beschreibeMedien(List<Medium> medien)
+    {
+        List<String> result = new ArrayList<String>();
+        for (Medium medium : medien)
+        {
+            result.add(medium.getFormatiertenString());
+        }
+        return result;
+    }
+}
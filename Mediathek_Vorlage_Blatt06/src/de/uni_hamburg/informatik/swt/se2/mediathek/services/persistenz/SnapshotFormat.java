@@ -0,0 +1,56 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+/**
+ * Beschreibt das binäre Snapshot-Format, in dem der komplette Zustand der
+ * Mediathek gespeichert werden kann. Alle Zahlen sind big-endian.
+ * 
+ * <pre>
+ * Kopf:          int MAGIC, int VERSION, int anzahlTexte, int anzahlKunden,
+ *                int anzahlMedien, int anzahlVerleihkarten
+ * Texttabelle:   je Text int Länge in Bytes, dann die Bytes in UTF-8
+ * Kunden:        je Kunde int Kundennummer, int Vorname, int Nachname,
+ *                int Straße, int PLZ, int Wohnort
+ * Medien:        je Medium byte Art, int Titel, int Kommentar,
+ *                int Interpret/Regisseur/System, int Spiellänge/Laufzeit,
+ *                int anzahlVormerker, je Vormerker int Kunde
+ * Verleihkarten: je Karte int Medium, int Entleiher, int Ausleihdatum
+ * Prüfsumme:     long CRC32 über alle vorherigen Bytes
+ * </pre>
+ * 
+ * Texte werden als Index in die Texttabelle gespeichert, jeder Text steht nur
+ * einmal darin. Kunden und Medien werden als Index in ihre Abschnitte
+ * gespeichert, ein Datum als JJJJMMTT. Fehlende Texte sind
+ * {@link #KEIN_EINTRAG}.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+final class SnapshotFormat
+{
+    /**
+     * Kennzeichnet eine Snapshot-Datei ("MTHS").
+     */
+    static final int MAGIC = 0x4D544853;
+
+    /**
+     * Die Version des Formats. Sie muss bei jeder Änderung des Formats erhöht
+     * werden.
+     */
+    static final int VERSION = 2;
+
+    static final byte CD = 1;
+    static final byte DVD = 2;
+    static final byte KONSOLENVIDEOSPIEL = 3;
+    static final byte PCVIDEOSPIEL = 4;
+
+    static final int KEIN_EINTRAG = -1;
+
+    static final int KOPF_BYTES = 6 * 4;
+    static final int KUNDE_BYTES = 6 * 4;
+    static final int VERLEIHKARTE_BYTES = 3 * 4;
+    static final int PRUEFSUMME_BYTES = 8;
+
+    private SnapshotFormat()
+    {
+    }
+}
@@ -0,0 +1,360 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.DVD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.KonsolenVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.PCVideospiel;
+
+/**
+ * Ein {@link SnapshotSchreiber} schreibt Kunden, Medien mit ihren Vormerkern
+ * und Verleihkarten im {@link SnapshotFormat}. Die Datei wird wie beim
+ * {@link DatenSchreiber} atomar ersetzt.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class SnapshotSchreiber
+{
+    private static final Charset ZEICHENSATZ = Charset.forName("UTF-8");
+
+    private final File _snapshotDatei;
+
+    private long _pruefsumme;
+
+    /**
+     * Initialisiert einen neuen {@link SnapshotSchreiber}.
+     * 
+     * @param snapshotDatei
+     *            Die Datei, in die der Snapshot geschrieben wird.
+     * 
+     * @require snapshotDatei != null
+     */
+    public SnapshotSchreiber(File snapshotDatei)
+    {
+        assert snapshotDatei != null : "Vorbedingung verletzt: snapshotDatei != null";
+        _snapshotDatei = snapshotDatei;
+    }
+
+    /**
+     * Schreibt einen Snapshot der übergebenen Daten.
+     * 
+     * @param kunden
+     *            Die Kunden.
+     * @param medien
+     *            Die Medien.
+     * @param vormerker
+     *            Die Vormerker je Medium. Medien ohne Eintrag haben keine
+     *            Vormerker.
+     * @param verleihkarten
+     *            Die Verleihkarten der verliehenen Medien.
+     * 
+     * @throws DateiSchreibException
+     *             wenn der Snapshot nicht geschrieben werden konnte oder ein
+     *             Entleiher oder Vormerker nicht unter den Kunden ist. Die
+     *             alte Datei bleibt dann unverändert.
+     * 
+     * @require kunden != null
+     * @require medien != null
+     * @require vormerker != null
+     * @require verleihkarten != null
+     */
+    public void schreibeDaten(List<Kunde> kunden, List<Medium> medien,
+            Map<Medium, List<Kunde>> vormerker,
+            List<Verleihkarte> verleihkarten) throws DateiSchreibException
+    {
+        assert kunden != null : "Vorbedingung verletzt: kunden != null";
+        assert medien != null : "Vorbedingung verletzt: medien != null";
+        assert vormerker != null : "Vorbedingung verletzt: vormerker != null";
+        assert verleihkarten != null : "Vorbedingung verletzt: verleihkarten != null";
+
+        Texttabelle texte = new Texttabelle();
+        int[] kundenTexte = new int[kunden.size() * 5];
+        for (int i = 0; i < kunden.size(); i++)
+        {
+            Kunde kunde = kunden.get(i);
+            kundenTexte[i * 5] = texte.index(kunde.getVorname());
+            kundenTexte[i * 5 + 1] = texte.index(kunde.getNachname());
+            kundenTexte[i * 5 + 2] = texte.index(kunde.getStrasse());
+            kundenTexte[i * 5 + 3] = texte.index(kunde.getPLZ() == null ? null
+                    : kunde.getPLZ().toString());
+            kundenTexte[i * 5 + 4] = texte.index(kunde.getWohnort());
+        }
+        int[] medienTexte = new int[medien.size() * 3];
+        for (int i = 0; i < medien.size(); i++)
+        {
+            Medium medium = medien.get(i);
+            medienTexte[i * 3] = texte.index(medium.getTitel());
+            medienTexte[i * 3 + 1] = texte.index(medium.getKommentar());
+            medienTexte[i * 3 + 2] = texte.index(getZusatztext(medium));
+        }
+
+        Map<Kunde, Integer> kundenIndex = indiziere(kunden);
+        Map<Medium, Integer> medienIndex = indiziere(medien);
+
+        File tempDatei = null;
+        FileOutputStream datei = null;
+        try
+        {
+            tempDatei = AtomareDatei.erzeugeTempDatei(_snapshotDatei);
+            datei = new FileOutputStream(tempDatei);
+            CRC32 pruefsumme = new CRC32();
+            DataOutputStream ausgabe = new DataOutputStream(
+                    new BufferedOutputStream(new CheckedOutputStream(datei,
+                            pruefsumme), 1 << 16));
+
+            ausgabe.writeInt(SnapshotFormat.MAGIC);
+            ausgabe.writeInt(SnapshotFormat.VERSION);
+            ausgabe.writeInt(texte.anzahl());
+            ausgabe.writeInt(kunden.size());
+            ausgabe.writeInt(medien.size());
+            ausgabe.writeInt(verleihkarten.size());
+
+            for (String text : texte.getTexte())
+            {
+                byte[] bytes = text.getBytes(ZEICHENSATZ);
+                ausgabe.writeInt(bytes.length);
+                ausgabe.write(bytes);
+            }
+
+            for (int i = 0; i < kunden.size(); i++)
+            {
+                ausgabe.writeInt(kunden.get(i).getKundennummer().getZahl());
+                for (int j = 0; j < 5; j++)
+                {
+                    ausgabe.writeInt(kundenTexte[i * 5 + j]);
+                }
+            }
+
+            for (int i = 0; i < medien.size(); i++)
+            {
+                Medium medium = medien.get(i);
+                ausgabe.writeByte(getArt(medium));
+                ausgabe.writeInt(medienTexte[i * 3]);
+                ausgabe.writeInt(medienTexte[i * 3 + 1]);
+                ausgabe.writeInt(medienTexte[i * 3 + 2]);
+                ausgabe.writeInt(getZusatzzahl(medium));
+                schreibeVormerker(ausgabe, vormerker.get(medium),
+                        kundenIndex);
+            }
+
+            for (Verleihkarte verleihkarte : verleihkarten)
+            {
+                ausgabe.writeInt(gibIndex(medienIndex, verleihkarte
+                        .getMedium()));
+                ausgabe.writeInt(gibIndex(kundenIndex, verleihkarte
+                        .getEntleiher()));
+                ausgabe.writeInt(kodiere(verleihkarte.getAusleihdatum()));
+            }
+            ausgabe.flush();
+
+            ByteBuffer ende = ByteBuffer
+                    .allocate(SnapshotFormat.PRUEFSUMME_BYTES);
+            ende.putLong(pruefsumme.getValue());
+            ende.flip();
+            while (ende.hasRemaining())
+            {
+                datei.getChannel().write(ende);
+            }
+            datei.getChannel().force(true);
+            datei.close();
+            datei = null;
+
+            AtomareDatei.ersetze(tempDatei, _snapshotDatei);
+            tempDatei = null;
+            _pruefsumme = pruefsumme.getValue();
+        }
+        catch (DateiSchreibException e)
+        {
+            throw e;
+        }
+        catch (IOException e)
+        {
+            throw new DateiSchreibException("Der Snapshot " + _snapshotDatei
+                    + " konnte nicht geschrieben werden.");
+        }
+        finally
+        {
+            AtomareDatei.schliesse(datei);
+            if (tempDatei != null)
+            {
+                tempDatei.delete();
+            }
+        }
+    }
+
+    /**
+     * Gibt die Prüfsumme des zuletzt geschriebenen Snapshots zurück. Sie
+     * kennzeichnet den Stand, auf dem ein Verleihjournal aufsetzt.
+     */
+    public long getPruefsumme()
+    {
+        return _pruefsumme;
+    }
+
+    /**
+     * Kodiert ein Datum als JJJJMMTT.
+     */
+    static int kodiere(Datum datum)
+    {
+        return datum.getJahr() * 10000 + datum.getMonat() * 100
+                + datum.getTag();
+    }
+
+    private static void schreibeVormerker(DataOutputStream ausgabe,
+            List<Kunde> vormerker, Map<Kunde, Integer> kundenIndex)
+            throws IOException
+    {
+        if (vormerker == null)
+        {
+            ausgabe.writeInt(0);
+            return;
+        }
+        ausgabe.writeInt(vormerker.size());
+        for (Kunde kunde : vormerker)
+        {
+            ausgabe.writeInt(gibIndex(kundenIndex, kunde));
+        }
+    }
+
+    private static byte getArt(Medium medium) throws DateiSchreibException
+    {
+        if (medium instanceof CD)
+        {
+            return SnapshotFormat.CD;
+        }
+        if (medium instanceof DVD)
+        {
+            return SnapshotFormat.DVD;
+        }
+        if (medium instanceof KonsolenVideospiel)
+        {
+            return SnapshotFormat.KONSOLENVIDEOSPIEL;
+        }
+        if (medium instanceof PCVideospiel)
+        {
+            return SnapshotFormat.PCVIDEOSPIEL;
+        }
+        throw new DateiSchreibException("Das Medium "
+                + medium.getMedienBezeichnung()
+                + " kann nicht gespeichert werden.");
+    }
+
+    /**
+     * Gibt Interpret, Regisseur oder System des Mediums zurück.
+     */
+    private static String getZusatztext(Medium medium)
+    {
+        String text = null;
+        if (medium instanceof CD)
+        {
+            text = ((CD) medium).getInterpret();
+        }
+        else if (medium instanceof DVD)
+        {
+            text = ((DVD) medium).getRegisseur();
+        }
+        else if (medium instanceof KonsolenVideospiel)
+        {
+            text = ((KonsolenVideospiel) medium).getSystem();
+        }
+        else if (medium instanceof PCVideospiel)
+        {
+            text = ((PCVideospiel) medium).getSystem();
+        }
+        return text;
+    }
+
+    /**
+     * Gibt Spiellänge oder Laufzeit des Mediums zurück, sonst 0.
+     */
+    private static int getZusatzzahl(Medium medium)
+    {
+        int zahl = 0;
+        if (medium instanceof CD)
+        {
+            zahl = ((CD) medium).getSpiellaenge();
+        }
+        else if (medium instanceof DVD)
+        {
+            zahl = ((DVD) medium).getLaufzeit();
+        }
+        return zahl;
+    }
+
+    private static <T> Map<T, Integer> indiziere(List<T> liste)
+    {
+        Map<T, Integer> index = new IdentityHashMap<T, Integer>(liste.size());
+        for (int i = 0; i < liste.size(); i++)
+        {
+            index.put(liste.get(i), i);
+        }
+        return index;
+    }
+
+    private static <T> int gibIndex(Map<T, Integer> index, T objekt)
+            throws DateiSchreibException
+    {
+        Integer result = index.get(objekt);
+        if (result == null)
+        {
+            throw new DateiSchreibException(objekt
+                    + " ist nicht im Bestand und kann nicht referenziert werden.");
+        }
+        return result;
+    }
+
+    /**
+     * Die Texttabelle des Snapshots: vergibt jedem verschiedenen Text einen
+     * Index in der Reihenfolge des ersten Auftretens.
+     */
+    private static class Texttabelle
+    {
+        private final Map<String, Integer> _indizes = new HashMap<String, Integer>();
+        private final List<String> _texte = new ArrayList<String>();
+
+        int index(String text)
+        {
+            if (text == null)
+            {
+                return SnapshotFormat.KEIN_EINTRAG;
+            }
+            Integer index = _indizes.get(text);
+            if (index == null)
+            {
+                index = _texte.size();
+                _indizes.put(text, index);
+                _texte.add(text);
+            }
+            return index;
+        }
+
+        int anzahl()
+        {
+            return _texte.size();
+        }
+
+        List<String> getTexte()
+        {
+            return _texte;
+        }
+    }
+}
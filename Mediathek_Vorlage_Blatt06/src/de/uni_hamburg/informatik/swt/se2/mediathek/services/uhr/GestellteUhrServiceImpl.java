@@ -0,0 +1,67 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.uhr;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+
+/**
+ * Eine Uhr, deren Datum von Hand gestellt wird. Damit lassen sich Gebühren und
+ * Überziehungen über beliebig lange Zeiträume in Tests und Simulationen
+ * durchspielen, ohne auf die Systemzeit zu warten.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class GestellteUhrServiceImpl implements UhrService
+{
+    private volatile Datum _heute;
+
+    /**
+     * Initialisiert eine neue Uhr, die auf das gegebene Datum gestellt ist.
+     *
+     * @param heute
+     *            Das Datum, das die Uhr anzeigen soll.
+     *
+     * @require heute != null
+     *
+     * @ensure heute() == heute
+     */
+    public GestellteUhrServiceImpl(Datum heute)
+    {
+        setHeute(heute);
+    }
+
+    @Override
+    public Datum heute()
+    {
+        return _heute;
+    }
+
+    /**
+     * Stellt die Uhr auf das gegebene Datum.
+     *
+     * @param heute
+     *            Das Datum, das die Uhr anzeigen soll.
+     *
+     * @require heute != null
+     *
+     * @ensure heute() == heute
+     */
+    public void setHeute(Datum heute)
+    {
+        assert heute != null : "Vorbedingung verletzt: heute != null";
+        _heute = heute;
+    }
+
+    /**
+     * Stellt die Uhr um die gegebene Anzahl Tage vor.
+     *
+     * @param tage
+     *            Die Anzahl der Tage.
+     *
+     * @require tage >= 0
+     */
+    public void stelleVor(int tage)
+    {
+        assert tage >= 0 : "Vorbedingung verletzt: tage >= 0";
+        _heute = _heute.plus(tage);
+    }
+}
@@ -0,0 +1,21 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.uhr;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+
+/**
+ * Eine Uhr ist ein Service, der das heutige Datum liefert. Werkzeuge und
+ * Services erfragen das Datum hier statt über {@link Datum#heute()}, damit die
+ * Zeit für Tests und Simulationen gestellt werden kann.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public interface UhrService
+{
+    /**
+     * Gibt das heutige Datum zurück.
+     *
+     * @ensure result != null
+     */
+    Datum heute();
+}
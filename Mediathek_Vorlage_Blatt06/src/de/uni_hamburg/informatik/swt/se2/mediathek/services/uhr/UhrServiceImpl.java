@@ -0,0 +1,65 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.uhr;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+
+/**
+ * Eine Uhr, die das heutige Datum nach der Systemzeit (GMT) liefert, wie
+ * {@link Datum#heute()}. Das Datum wird zwischengespeichert und erst neu
+ * erzeugt, wenn die Systemzeit den gespeicherten Tag verlassen hat, sodass
+ * eine Anfrage nur die Systemzeit liest und nichts anlegt.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class UhrServiceImpl implements UhrService
+{
+    // Die Anzahl von Millesekunden an einem Tag
+    private static final long MILLISEKUNDEN_PRO_TAG = 24L * 60 * 60 * 1000;
+
+    /**
+     * Der zuletzt ermittelte Tag oder null vor der ersten Anfrage. Er wird
+     * als Ganzes ersetzt, damit gleichzeitige Anfragen nie Datum und Grenzen
+     * verschiedener Tage sehen.
+     */
+    private volatile Tag _tag;
+
+    @Override
+    public Datum heute()
+    {
+        long jetzt = getSystemzeit();
+        Tag tag = _tag;
+        if (tag == null || jetzt >= tag._ende || jetzt < tag._beginn)
+        {
+            tag = new Tag(jetzt);
+            _tag = tag;
+        }
+        return tag._datum;
+    }
+
+    /**
+     * Gibt die Systemzeit in Millisekunden seit 1970 zurück. Tests
+     * überschreiben die Methode, um die Zeit vorzugeben.
+     */
+    long getSystemzeit()
+    {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Ein Datum zusammen mit dem Zeitraum, in dem es gilt.
+     */
+    private static final class Tag
+    {
+        private final Datum _datum;
+        private final long _beginn;
+        private final long _ende;
+
+        Tag(long millisekunden)
+        {
+            long tageSeitEpoche = millisekunden / MILLISEKUNDEN_PRO_TAG;
+            _datum = Datum.ausTagenSeitEpoche((int) tageSeitEpoche);
+            _beginn = tageSeitEpoche * MILLISEKUNDEN_PRO_TAG;
+            _ende = _beginn + MILLISEKUNDEN_PRO_TAG;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.uhr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+
+public class UhrServiceImplTest
+{
+    private static final long MILLISEKUNDEN_PRO_TAG = 24L * 60 * 60 * 1000;
+
+    /**
+     * Eine Uhr, deren Systemzeit der Test vorgibt.
+     */
+    private static class TestUhr extends UhrServiceImpl
+    {
+        private long _jetzt;
+
+        @Override
+        long getSystemzeit()
+        {
+            return _jetzt;
+        }
+    }
+
+    @Test
+    public void testHeute()
+    {
+        Datum tag = new Datum(14, 4, 2012);
+        long beginn = tag.getTageSeitEpoche() * MILLISEKUNDEN_PRO_TAG;
+        TestUhr uhr = new TestUhr();
+
+        uhr._jetzt = beginn;
+        Datum heute = uhr.heute();
+        assertEquals(tag, heute);
+
+        // Innerhalb des Tages wird das gespeicherte Datum geliefert.
+        uhr._jetzt = beginn + MILLISEKUNDEN_PRO_TAG - 1;
+        assertSame(heute, uhr.heute());
+
+        // Um Mitternacht beginnt der nächste Tag.
+        uhr._jetzt = beginn + MILLISEKUNDEN_PRO_TAG;
+        Datum morgen = uhr.heute();
+        assertEquals(tag.plus(1), morgen);
+        assertSame(morgen, uhr.heute());
+
+        // Wird die Systemzeit zurückgestellt, gilt wieder der alte Tag.
+        uhr._jetzt = beginn;
+        Datum zurueckgestellt = uhr.heute();
+        assertEquals(tag, zurueckgestellt);
+        assertNotSame(morgen, zurueckgestellt);
+    }
+
+    @Test
+    public void testGestellteUhr()
+    {
+        GestellteUhrServiceImpl uhr = new GestellteUhrServiceImpl(new Datum(1,
+                1, 2012));
+        assertEquals(new Datum(1, 1, 2012), uhr.heute());
+        uhr.stelleVor(366);
+        assertEquals(new Datum(1, 1, 2013), uhr.heute());
+        uhr.setHeute(new Datum(29, 2, 2016));
+        assertEquals(new Datum(29, 2, 2016), uhr.heute());
+    }
+}
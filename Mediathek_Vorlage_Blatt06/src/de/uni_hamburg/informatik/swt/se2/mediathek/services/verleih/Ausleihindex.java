@@ -0,0 +1,141 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+
+/**
+ * Ein nach Ausleihdatum geordneter Index von Verleihkarten. Er beantwortet
+ * Anfragen nach Zeiträumen, ohne alle Verleihkarten zu durchlaufen: das
+ * Aufsuchen des ersten Ausleihtags kostet O(log n), danach wird nur über die
+ * k gefundenen Karten gelaufen.
+ * 
+ * Die Karten eines Ausleihtags liegen in einer Menge, sodass auch das
+ * Entfernen bei vielen Ausleihen am selben Tag nicht von deren Anzahl
+ * abhängt.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+final class Ausleihindex
+{
+    private final NavigableMap<Datum, Set<Verleihkarte>> _karten;
+
+    private int _anzahl;
+
+    /**
+     * Initialisiert einen neuen Index mit den gegebenen Verleihkarten.
+     * 
+     * @require verleihkarten != null
+     */
+    Ausleihindex(Collection<Verleihkarte> verleihkarten)
+    {
+        assert verleihkarten != null : "Vorbedingung verletzt: verleihkarten != null";
+        _karten = new TreeMap<Datum, Set<Verleihkarte>>();
+        for (Verleihkarte verleihkarte : verleihkarten)
+        {
+            fuegeEin(verleihkarte);
+        }
+    }
+
+    /**
+     * Trägt eine Verleihkarte unter ihrem Ausleihdatum ein.
+     * 
+     * @require verleihkarte != null
+     */
+    void fuegeEin(Verleihkarte verleihkarte)
+    {
+        assert verleihkarte != null : "Vorbedingung verletzt: verleihkarte != null";
+        Set<Verleihkarte> karten = _karten.get(verleihkarte.getAusleihdatum());
+        if (karten == null)
+        {
+            karten = new LinkedHashSet<Verleihkarte>();
+            _karten.put(verleihkarte.getAusleihdatum(), karten);
+        }
+        if (karten.add(verleihkarte))
+        {
+            _anzahl++;
+        }
+    }
+
+    /**
+     * Entfernt eine Verleihkarte. Ist an ihrem Ausleihtag danach nichts mehr
+     * verliehen, wird der Tag ganz entfernt.
+     * 
+     * @require verleihkarte != null
+     */
+    void entferne(Verleihkarte verleihkarte)
+    {
+        assert verleihkarte != null : "Vorbedingung verletzt: verleihkarte != null";
+        Set<Verleihkarte> karten = _karten.get(verleihkarte.getAusleihdatum());
+        if (karten != null && karten.remove(verleihkarte))
+        {
+            _anzahl--;
+            if (karten.isEmpty())
+            {
+                _karten.remove(verleihkarte.getAusleihdatum());
+            }
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der eingetragenen Verleihkarten zurück.
+     */
+    int getAnzahl()
+    {
+        return _anzahl;
+    }
+
+    /**
+     * Gibt die Verleihkarten zurück, deren Ausleihdatum zwischen von und bis
+     * liegt (beide eingeschlossen), aufsteigend nach Ausleihdatum.
+     * 
+     * @require von != null
+     * @require bis != null
+     * 
+     * @ensure result != null
+     */
+    List<Verleihkarte> getAusgeliehenZwischen(Datum von, Datum bis)
+    {
+        assert von != null : "Vorbedingung verletzt: von != null";
+        assert bis != null : "Vorbedingung verletzt: bis != null";
+        if (von.compareTo(bis) > 0)
+        {
+            return new ArrayList<Verleihkarte>();
+        }
+        return sammle(_karten.subMap(von, true, bis, true));
+    }
+
+    /**
+     * Gibt die Verleihkarten zurück, deren Ausleihdatum vor dem gegebenen
+     * Datum liegt, aufsteigend nach Ausleihdatum.
+     * 
+     * @require datum != null
+     * 
+     * @ensure result != null
+     */
+    List<Verleihkarte> getAusgeliehenVor(Datum datum)
+    {
+        assert datum != null : "Vorbedingung verletzt: datum != null";
+        return sammle(_karten.headMap(datum, false));
+    }
+
+    private static List<Verleihkarte> sammle(
+            Map<Datum, Set<Verleihkarte>> tage)
+    {
+        List<Verleihkarte> result = new ArrayList<Verleihkarte>();
+        for (Set<Verleihkarte> karten : tage.values())
+        {
+            result.addAll(karten);
+        }
+        return result;
+    }
+}
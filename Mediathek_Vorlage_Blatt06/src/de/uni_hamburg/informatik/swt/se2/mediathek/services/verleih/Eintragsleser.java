@@ -0,0 +1,163 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Liest die Einträge eines {@link Verleihjournal} der Reihe nach. Das Lesen
+ * endet am ersten unvollständigen oder beschädigten Eintrag, denn nur der
+ * zuletzt geschriebene Eintrag kann bei einem Absturz unvollständig sein.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+class Eintragsleser
+{
+    private static final int PUFFEREINTRAEGE = 4096;
+
+    private final FileChannel _kanal;
+    private final ByteBuffer _puffer;
+    private final CRC32 _pruefsumme;
+    private boolean _dateiende;
+    private long _gueltigeLaenge;
+
+    private long _zeitstempel;
+    private byte _art;
+    private int _kundennummer;
+    private int _medienId;
+    private int _datum;
+
+    /**
+     * Initialisiert einen Eintragsleser, der am Anfang des Kanals beginnt.
+     * 
+     * @require kanal != null
+     */
+    Eintragsleser(FileChannel kanal)
+    {
+        assert kanal != null : "Vorbedingung verletzt: kanal != null";
+        _kanal = kanal;
+        _puffer = ByteBuffer.allocate(PUFFEREINTRAEGE
+                * VerleihjournalFormat.EINTRAG_BYTES);
+        _puffer.flip();
+        _pruefsumme = new CRC32();
+    }
+
+    /**
+     * Liest den Kopf des Journals.
+     * 
+     * @return Die Basis des Journals.
+     * 
+     * @throws ProtokollierException
+     *             wenn die Datei kein Verleihjournal dieser Version ist.
+     */
+    long leseKopf() throws IOException, ProtokollierException
+    {
+        _kanal.position(0);
+        if (!stelleBereit(VerleihjournalFormat.KOPF_BYTES)
+                || _puffer.getInt() != VerleihjournalFormat.MAGIC)
+        {
+            throw new ProtokollierException(
+                    "Die Datei ist kein Verleihjournal der Mediathek.");
+        }
+        int version = _puffer.getInt();
+        if (version != VerleihjournalFormat.VERSION)
+        {
+            throw new ProtokollierException("Das Verleihjournal hat die Version "
+                    + version + ", unterstützt wird nur Version "
+                    + VerleihjournalFormat.VERSION + ".");
+        }
+        long basis = _puffer.getLong();
+        _gueltigeLaenge = VerleihjournalFormat.KOPF_BYTES;
+        return basis;
+    }
+
+    /**
+     * Liest den nächsten Eintrag.
+     * 
+     * @return true, wenn ein vollständiger, unbeschädigter Eintrag gelesen
+     *         wurde.
+     */
+    boolean naechster() throws IOException
+    {
+        if (!stelleBereit(VerleihjournalFormat.EINTRAG_BYTES))
+        {
+            return false;
+        }
+        int anfang = _puffer.position();
+        _pruefsumme.reset();
+        _pruefsumme.update(_puffer.array(), anfang,
+                VerleihjournalFormat.EINTRAG_BYTES - 4);
+        _zeitstempel = _puffer.getLong();
+        _art = _puffer.get();
+        _kundennummer = _puffer.getInt();
+        _medienId = _puffer.getInt();
+        _datum = _puffer.getInt();
+        if (_puffer.getInt() != (int) _pruefsumme.getValue())
+        {
+            _puffer.position(anfang);
+            return false;
+        }
+        _gueltigeLaenge += VerleihjournalFormat.EINTRAG_BYTES;
+        return true;
+    }
+
+    /**
+     * Gibt die Länge des Journals bis zum Ende des letzten gültigen Eintrags
+     * zurück.
+     */
+    long getGueltigeLaenge()
+    {
+        return _gueltigeLaenge;
+    }
+
+    long getZeitstempel()
+    {
+        return _zeitstempel;
+    }
+
+    byte getArt()
+    {
+        return _art;
+    }
+
+    int getKundennummer()
+    {
+        return _kundennummer;
+    }
+
+    int getMedienId()
+    {
+        return _medienId;
+    }
+
+    int getDatum()
+    {
+        return _datum;
+    }
+
+    /**
+     * Sorgt dafür, dass mindestens die angegebene Anzahl Bytes im Puffer
+     * bereitsteht.
+     * 
+     * @return false, wenn die Datei vorher endet.
+     */
+    private boolean stelleBereit(int anzahl) throws IOException
+    {
+        if (_puffer.remaining() < anzahl && !_dateiende)
+        {
+            _puffer.compact();
+            while (_puffer.hasRemaining())
+            {
+                if (_kanal.read(_puffer) < 0)
+                {
+                    _dateiende = true;
+                    break;
+                }
+            }
+            _puffer.flip();
+        }
+        return _puffer.remaining() >= anzahl;
+    }
+}
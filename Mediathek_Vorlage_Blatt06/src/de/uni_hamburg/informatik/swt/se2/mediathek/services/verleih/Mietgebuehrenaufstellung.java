@@ -0,0 +1,152 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Geldbetrag;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.GeldbetragSumme;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Tarif;
+
+/**
+ * Das Ergebnis eines {@link Mietgebuehrenrechner}s: die Mietgebühr jeder
+ * Verleihkarte zum Stichtag sowie Anzahl und Summe je {@link Tarif}. Die
+ * Karten stehen in der Reihenfolge, in der sie dem Rechner übergeben wurden.
+ *
+ * Die Gebühren werden als Eurocent gehalten, ein {@link Geldbetrag} wird erst
+ * auf Anfrage erzeugt.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class Mietgebuehrenaufstellung
+{
+    private final Datum _stichtag;
+    private final Verleihkarte[] _verleihkarten;
+    private final int[] _gebuehren;
+    private final int[] _anzahlen;
+    private final long[] _summen;
+
+    Mietgebuehrenaufstellung(Datum stichtag, Verleihkarte[] verleihkarten,
+            int[] gebuehren, int[] anzahlen, long[] summen)
+    {
+        _stichtag = stichtag;
+        _verleihkarten = verleihkarten;
+        _gebuehren = gebuehren;
+        _anzahlen = anzahlen;
+        _summen = summen;
+    }
+
+    /**
+     * Gibt den Stichtag zurück, bis zu dem die Gebühren berechnet wurden.
+     *
+     * @ensure result != null
+     */
+    public Datum getStichtag()
+    {
+        return _stichtag;
+    }
+
+    /**
+     * Gibt die Anzahl der berechneten Verleihkarten zurück.
+     */
+    public int getAnzahl()
+    {
+        return _verleihkarten.length;
+    }
+
+    /**
+     * Gibt die Anzahl der berechneten Verleihkarten mit dem gegebenen Tarif
+     * zurück.
+     *
+     * @require tarif != null
+     */
+    public int getAnzahl(Tarif tarif)
+    {
+        assert tarif != null : "Vorbedingung verletzt: tarif != null";
+        return _anzahlen[tarif.ordinal()];
+    }
+
+    /**
+     * Gibt die Verleihkarte an der angegebenen Stelle zurück.
+     *
+     * @require index >= 0 && index < getAnzahl()
+     *
+     * @ensure result != null
+     */
+    public Verleihkarte getVerleihkarte(int index)
+    {
+        assert index >= 0 && index < getAnzahl() : "Vorbedingung verletzt: index >= 0 && index < getAnzahl()";
+        return _verleihkarten[index];
+    }
+
+    /**
+     * Gibt die Mietgebühr der Verleihkarte an der angegebenen Stelle in
+     * Eurocent zurück.
+     *
+     * @require index >= 0 && index < getAnzahl()
+     */
+    public int getMietgebuehrInCent(int index)
+    {
+        assert index >= 0 && index < getAnzahl() : "Vorbedingung verletzt: index >= 0 && index < getAnzahl()";
+        return _gebuehren[index];
+    }
+
+    /**
+     * Gibt die Mietgebühr der Verleihkarte an der angegebenen Stelle zurück.
+     *
+     * @require index >= 0 && index < getAnzahl()
+     *
+     * @ensure result.equals(getVerleihkarte(index).getMietgebuehr(getStichtag()))
+     */
+    public Geldbetrag getMietgebuehr(int index)
+    {
+        return new Geldbetrag(getMietgebuehrInCent(index));
+    }
+
+    /**
+     * Gibt die Summe aller Mietgebühren in Eurocent zurück.
+     */
+    public long getSummeInCent()
+    {
+        GeldbetragSumme summe = new GeldbetragSumme();
+        for (long teilsumme : _summen)
+        {
+            summe.addiere(teilsumme);
+        }
+        return summe.getEurocent();
+    }
+
+    /**
+     * Gibt die Summe der Mietgebühren aller Verleihkarten mit dem gegebenen
+     * Tarif in Eurocent zurück.
+     *
+     * @require tarif != null
+     */
+    public long getSummeInCent(Tarif tarif)
+    {
+        assert tarif != null : "Vorbedingung verletzt: tarif != null";
+        return _summen[tarif.ordinal()];
+    }
+
+    /**
+     * Gibt die Summe aller Mietgebühren zurück.
+     *
+     * @ensure result != null
+     */
+    public Geldbetrag getSumme()
+    {
+        return Geldbetrag.ausEurocent(getSummeInCent());
+    }
+
+    /**
+     * Gibt die Summe der Mietgebühren aller Verleihkarten mit dem gegebenen
+     * Tarif zurück.
+     *
+     * @require tarif != null
+     *
+     * @ensure result != null
+     */
+    public Geldbetrag getSumme(Tarif tarif)
+    {
+        return Geldbetrag.ausEurocent(getSummeInCent(tarif));
+    }
+}
@@ -0,0 +1,286 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Tarif;
+
+/**
+ * Berechnet die Mietgebühren vieler Verleihkarten zu einem Stichtag in einem
+ * Durchgang, etwa für einen Mahnlauf über alle offenen Verleihkarten.
+ *
+ * Statt für jede Karte {@link Verleihkarte#getMietgebuehr(Datum)} aufzurufen,
+ * werden zuerst Ausleihtag und {@link Tarif} aller Karten in Felder gelesen.
+ * Die Karten werden dann nach Tarif gruppiert und je Tarif in einer Schleife
+ * über Ganzzahlen berechnet, ohne für jede Karte einen Geldbetrag anzulegen.
+ *
+ * Mit einem {@link ForkJoinPool} werden Lesen und Berechnen in Stücken
+ * parallel ausgeführt. Das Ergebnis ist dasselbe wie beim sequentiellen
+ * Berechnen.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class Mietgebuehrenrechner
+{
+    /**
+     * Die Anzahl Karten, ab der parallel in mehreren Stücken gerechnet wird.
+     */
+    static final int STUECKGROESSE = 1 << 16;
+
+    private static final Tarif[] TARIFE = Tarif.values();
+
+    private final ForkJoinPool _pool;
+
+    private final int _stueckgroesse;
+
+    /**
+     * Initialisiert einen neuen {@link Mietgebuehrenrechner}, der sequentiell
+     * rechnet.
+     */
+    public Mietgebuehrenrechner()
+    {
+        _pool = null;
+        _stueckgroesse = STUECKGROESSE;
+    }
+
+    /**
+     * Initialisiert einen neuen {@link Mietgebuehrenrechner}, der auf dem
+     * gegebenen Pool parallel rechnet.
+     *
+     * @param pool
+     *            Der Pool, auf dem gerechnet wird.
+     *
+     * @require pool != null
+     */
+    public Mietgebuehrenrechner(ForkJoinPool pool)
+    {
+        this(pool, STUECKGROESSE);
+    }
+
+    /**
+     * Initialisiert einen neuen {@link Mietgebuehrenrechner} mit der
+     * angegebenen Stückgröße. Für Tests.
+     *
+     * @require pool != null
+     * @require stueckgroesse > 0
+     */
+    Mietgebuehrenrechner(ForkJoinPool pool, int stueckgroesse)
+    {
+        assert pool != null : "Vorbedingung verletzt: pool != null";
+        assert stueckgroesse > 0 : "Vorbedingung verletzt: stueckgroesse > 0";
+        _pool = pool;
+        _stueckgroesse = stueckgroesse;
+    }
+
+    /**
+     * Berechnet die Mietgebühren der gegebenen Verleihkarten bis zum
+     * Stichtag.
+     *
+     * @param verleihkarten
+     *            Die Verleihkarten, zum Beispiel alle offenen Karten des
+     *            Verleih-Services oder die eines Kunden.
+     * @param stichtag
+     *            Der Tag, bis zu dem die Gebühren berechnet werden.
+     *
+     * @require verleihkarten != null
+     * @require stichtag != null
+     * @require kein Ausleihdatum liegt nach dem Stichtag
+     *
+     * @ensure result != null
+     */
+    public Mietgebuehrenaufstellung berechne(List<Verleihkarte> verleihkarten,
+            Datum stichtag)
+    {
+        assert verleihkarten != null : "Vorbedingung verletzt: verleihkarten != null";
+        assert stichtag != null : "Vorbedingung verletzt: stichtag != null";
+
+        Verleihkarte[] karten = verleihkarten
+                .toArray(new Verleihkarte[verleihkarten.size()]);
+        int anzahl = karten.length;
+        int[] ausleihtage = new int[anzahl];
+        byte[] tarife = new byte[anzahl];
+        fuehreAus(new Lesen(karten, ausleihtage, tarife, 0, anzahl));
+
+        // Die Karten werden stabil nach Tarif sortiert (Counting Sort), die
+        // Ausleihtage jeder Gruppe liegen danach zusammenhängend.
+        int[] gruppenanfang = new int[TARIFE.length + 1];
+        for (byte tarif : tarife)
+        {
+            gruppenanfang[tarif + 1]++;
+        }
+        for (int i = 0; i < TARIFE.length; i++)
+        {
+            gruppenanfang[i + 1] += gruppenanfang[i];
+        }
+        int[] position = gruppenanfang.clone();
+        int[] reihenfolge = new int[anzahl];
+        int[] gruppierteTage = new int[anzahl];
+        for (int i = 0; i < anzahl; i++)
+        {
+            int ziel = position[tarife[i]]++;
+            reihenfolge[ziel] = i;
+            gruppierteTage[ziel] = ausleihtage[i];
+        }
+
+        int[] gruppierteGebuehren = new int[anzahl];
+        int stichtagTag = stichtag.getTageSeitEpoche();
+        for (int t = 0; t < TARIFE.length; t++)
+        {
+            fuehreAus(new Berechnen(TARIFE[t], stichtagTag, gruppierteTage,
+                    gruppierteGebuehren, gruppenanfang[t],
+                    gruppenanfang[t + 1]));
+        }
+
+        int[] gebuehren = new int[anzahl];
+        long[] summen = new long[TARIFE.length];
+        int[] anzahlen = new int[TARIFE.length];
+        for (int t = 0; t < TARIFE.length; t++)
+        {
+            long summe = 0;
+            for (int i = gruppenanfang[t]; i < gruppenanfang[t + 1]; i++)
+            {
+                summe += gruppierteGebuehren[i];
+                gebuehren[reihenfolge[i]] = gruppierteGebuehren[i];
+            }
+            summen[t] = summe;
+            anzahlen[t] = gruppenanfang[t + 1] - gruppenanfang[t];
+        }
+        return new Mietgebuehrenaufstellung(stichtag, karten, gebuehren,
+                anzahlen, summen);
+    }
+
+    private void fuehreAus(Abschnitt abschnitt)
+    {
+        if (_pool == null)
+        {
+            abschnitt.bearbeite();
+        }
+        else
+        {
+            _pool.invoke(abschnitt);
+        }
+    }
+
+    /**
+     * Ein Abschnitt von Karten, der bei paralleler Ausführung so lange
+     * halbiert wird, bis er nicht größer als die Stückgröße ist.
+     */
+    private abstract class Abschnitt extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        protected final int _von;
+        protected final int _bis;
+
+        Abschnitt(int von, int bis)
+        {
+            _von = von;
+            _bis = bis;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (_bis - _von <= _stueckgroesse)
+            {
+                bearbeite();
+            }
+            else
+            {
+                int mitte = (_von + _bis) >>> 1;
+                invokeAll(teilabschnitt(_von, mitte),
+                        teilabschnitt(mitte, _bis));
+            }
+        }
+
+        /**
+         * Bearbeitet den ganzen Abschnitt im aktuellen Thread.
+         */
+        abstract void bearbeite();
+
+        abstract Abschnitt teilabschnitt(int von, int bis);
+    }
+
+    /**
+     * Liest Ausleihtag und Tarif der Karten.
+     */
+    private final class Lesen extends Abschnitt
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Verleihkarte[] _karten;
+        private final int[] _ausleihtage;
+        private final byte[] _tarife;
+
+        Lesen(Verleihkarte[] karten, int[] ausleihtage, byte[] tarife,
+                int von, int bis)
+        {
+            super(von, bis);
+            _karten = karten;
+            _ausleihtage = ausleihtage;
+            _tarife = tarife;
+        }
+
+        @Override
+        void bearbeite()
+        {
+            for (int i = _von; i < _bis; i++)
+            {
+                Verleihkarte karte = _karten[i];
+                _ausleihtage[i] = karte.getAusleihdatum().getTageSeitEpoche();
+                _tarife[i] = (byte) karte.getMedium().getTarif().ordinal();
+            }
+        }
+
+        @Override
+        Abschnitt teilabschnitt(int von, int bis)
+        {
+            return new Lesen(_karten, _ausleihtage, _tarife, von, bis);
+        }
+    }
+
+    /**
+     * Berechnet die Gebühren eines Abschnitts von Karten desselben Tarifs.
+     */
+    private final class Berechnen extends Abschnitt
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Tarif _tarif;
+        private final int _stichtag;
+        private final int[] _ausleihtage;
+        private final int[] _gebuehren;
+
+        Berechnen(Tarif tarif, int stichtag, int[] ausleihtage,
+                int[] gebuehren, int von, int bis)
+        {
+            super(von, bis);
+            _tarif = tarif;
+            _stichtag = stichtag;
+            _ausleihtage = ausleihtage;
+            _gebuehren = gebuehren;
+        }
+
+        @Override
+        void bearbeite()
+        {
+            Tarif tarif = _tarif;
+            for (int i = _von; i < _bis; i++)
+            {
+                _gebuehren[i] = tarif.berechneMietgebuehr(_stichtag
+                        - _ausleihtage[i] + 1);
+            }
+        }
+
+        @Override
+        Abschnitt teilabschnitt(int von, int bis)
+        {
+            return new Berechnen(_tarif, _stichtag, _ausleihtage, _gebuehren,
+                    von, bis);
+        }
+    }
+}
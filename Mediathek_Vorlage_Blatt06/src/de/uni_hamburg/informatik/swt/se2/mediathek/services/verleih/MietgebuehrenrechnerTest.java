@@ -0,0 +1,123 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Geldbetrag;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.DVD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.KonsolenVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.PCVideospiel;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Tarif;
+
+/**
+ * Prüft, dass der {@link Mietgebuehrenrechner} sequentiell und parallel
+ * dieselben Gebühren berechnet wie {@link Verleihkarte#getMietgebuehr(Datum)}.
+ */
+public class MietgebuehrenrechnerTest
+{
+    private Datum _stichtag;
+    private List<Verleihkarte> _verleihkarten;
+
+    @Before
+    public void setUp()
+    {
+        Random random = new Random(42);
+        Kunde kunde = new Kunde(new Kundennummer(123456), "Susi", "Schmitz");
+        _stichtag = new Datum(1, 4, 2012);
+        _verleihkarten = new ArrayList<Verleihkarte>();
+        for (int i = 0; i < 1000; i++)
+        {
+            Medium medium;
+            switch (random.nextInt(4))
+            {
+            case 0:
+                medium = new CD("CD" + i, "Kommentar", "Interpret", 60);
+                break;
+            case 1:
+                medium = new DVD("DVD" + i, "Kommentar", "Regisseur", 90);
+                break;
+            case 2:
+                medium = new KonsolenVideospiel("Spiel" + i, "Kommentar",
+                        "Wii");
+                break;
+            default:
+                medium = new PCVideospiel("PC-Spiel" + i, "Kommentar",
+                        "Windows");
+                break;
+            }
+            _verleihkarten.add(new Verleihkarte(kunde, medium, _stichtag
+                    .minus(random.nextInt(400))));
+        }
+    }
+
+    @Test
+    public void testSequentiell()
+    {
+        pruefe(new Mietgebuehrenrechner().berechne(_verleihkarten, _stichtag));
+    }
+
+    @Test
+    public void testParallel()
+    {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try
+        {
+            pruefe(new Mietgebuehrenrechner(pool, 7).berechne(_verleihkarten,
+                    _stichtag));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testLeereListe()
+    {
+        Mietgebuehrenaufstellung aufstellung = new Mietgebuehrenrechner()
+                .berechne(Collections.<Verleihkarte> emptyList(), _stichtag);
+        assertEquals(0, aufstellung.getAnzahl());
+        assertEquals(0, aufstellung.getSummeInCent());
+    }
+
+    private void pruefe(Mietgebuehrenaufstellung aufstellung)
+    {
+        assertEquals(_verleihkarten.size(), aufstellung.getAnzahl());
+        long summe = 0;
+        long[] summen = new long[Tarif.values().length];
+        int[] anzahlen = new int[Tarif.values().length];
+        for (int i = 0; i < _verleihkarten.size(); i++)
+        {
+            Verleihkarte karte = _verleihkarten.get(i);
+            assertEquals(karte, aufstellung.getVerleihkarte(i));
+            assertEquals(karte.getMietgebuehr(_stichtag),
+                    aufstellung.getMietgebuehr(i));
+            Tarif tarif = karte.getMedium().getTarif();
+            summen[tarif.ordinal()] += aufstellung.getMietgebuehrInCent(i);
+            anzahlen[tarif.ordinal()]++;
+            summe += aufstellung.getMietgebuehrInCent(i);
+        }
+        assertEquals(summe, aufstellung.getSummeInCent());
+        assertEquals(Geldbetrag.ausEurocent(summe), aufstellung.getSumme());
+        for (Tarif tarif : Tarif.values())
+        {
+            assertEquals(summen[tarif.ordinal()],
+                    aufstellung.getSummeInCent(tarif));
+            assertEquals(anzahlen[tarif.ordinal()], aufstellung.getAnzahl(tarif));
+        }
+    }
+}
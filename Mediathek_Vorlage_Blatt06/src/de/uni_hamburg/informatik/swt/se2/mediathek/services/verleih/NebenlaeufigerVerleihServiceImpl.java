@@ -0,0 +1,820 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.AbstractBeobachtbarerService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.vormerk.VormerkService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.vormerk.VormerkServiceImpl;
+
+/**
+ * Ein {@link VerleihService} für mehrere Ausleihtheken, die in derselben JVM
+ * gleichzeitig verleihen und zurücknehmen.
+ *
+ * Jedes Medium gehört zu einer von {@link #ANZAHL_SPERREN} Sperren. Ein
+ * Vorgang sperrt die Sperren aller seiner Medien in aufsteigender
+ * Reihenfolge, sodass sich zwei Vorgänge nicht gegenseitig blockieren
+ * können. Unter diesen Sperren wird geprüft, ob der Vorgang möglich ist, und
+ * er wird für alle Medien ganz oder gar nicht ausgeführt. Auch die
+ * Vormerkungen eines Mediums werden nur unter seiner Sperre verändert.
+ * Journal und Protokoll werden unter den Sperren geschrieben, bevor der
+ * Vorgang ausgeführt wird, damit die Einträge für ein Medium in der
+ * Reihenfolge der Vorgänge stehen. Die
+ * Beobachter werden erst danach und im Thread des Vorgangs benachrichtigt.
+ *
+ * Lesende Anfragen sperren nicht, sie sehen für jedes einzelne Medium einen
+ * gültigen Stand. Kundenstamm und Medienbestand werden nur gelesen und
+ * dürfen nicht gleichzeitig zu Verleihvorgängen geändert werden.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class NebenlaeufigerVerleihServiceImpl extends
+        AbstractBeobachtbarerService implements VerleihService
+{
+    /**
+     * Die Anzahl der Sperren, auf die die Medien verteilt werden. Eine
+     * Zweierpotenz.
+     */
+    static final int ANZAHL_SPERREN = 256;
+
+    private final ReentrantLock[] _sperren;
+
+    /**
+     * Die Verleihkarten der verliehenen Medien.
+     */
+    private final ConcurrentMap<Medium, Verleihkarte> _verleihkarten;
+
+    /**
+     * Die Verleihkarten je Entleiher. Jede Liste wird unter ihrem eigenen
+     * Monitor verändert und gelesen. Leere Listen bleiben stehen, damit ein
+     * gleichzeitiges Einfügen nicht in einer entfernten Liste landet.
+     */
+    private final ConcurrentMap<Kunde, List<Verleihkarte>> _verleihkartenProKunde;
+
+    /**
+     * Die Verleihkarten nach Ausleihdatum, unter seinem eigenen Monitor
+     * gepflegt.
+     */
+    private final Ausleihindex _ausleihindex;
+
+    private final MedienbestandService _medienbestand;
+
+    private final KundenstammService _kundenstamm;
+
+    private final Vorgangsschreiber _vorgangsschreiber;
+
+    /**
+     * Der Service, der die Vormerklisten der Medien verwaltet. Die
+     * Vormerkungen eines Mediums werden nur unter seiner Sperre geändert.
+     */
+    private final VormerkService _vormerkService;
+
+    /**
+     * Konstruktor. Erzeugt einen neuen {@link NebenlaeufigerVerleihServiceImpl}.
+     *
+     * @param kundenstamm
+     *            Der {@link KundenstammService}.
+     * @param medienbestand
+     *            Der {@link MedienbestandService}.
+     * @param initialBestand
+     *            Der initiale Bestand.
+     *
+     * @require kundenstamm != null
+     * @require medienbestand != null
+     * @require initialBestand != null
+     */
+    public NebenlaeufigerVerleihServiceImpl(KundenstammService kundenstamm,
+            MedienbestandService medienbestand,
+            List<Verleihkarte> initialBestand)
+    {
+        this(kundenstamm, medienbestand, initialBestand,
+                new VormerkServiceImpl(kundenstamm, medienbestand),
+                new Verleihprotokollierer());
+    }
+
+    /**
+     * Konstruktor. Erzeugt einen neuen {@link NebenlaeufigerVerleihServiceImpl},
+     * der das Verleihprotokoll mit der angegebenen Synchronisierung schreibt.
+     *
+     * @param kundenstamm
+     *            Der {@link KundenstammService}.
+     * @param medienbestand
+     *            Der {@link MedienbestandService}.
+     * @param initialBestand
+     *            Der initiale Bestand.
+     * @param synchronisierung
+     *            Legt fest, wann das Verleihprotokoll auf die Platte
+     *            gezwungen wird.
+     *
+     * @require kundenstamm != null
+     * @require medienbestand != null
+     * @require initialBestand != null
+     * @require synchronisierung != null
+     */
+    public NebenlaeufigerVerleihServiceImpl(KundenstammService kundenstamm,
+            MedienbestandService medienbestand,
+            List<Verleihkarte> initialBestand,
+            Protokollsynchronisierung synchronisierung)
+    {
+        this(kundenstamm, medienbestand, initialBestand,
+                new VormerkServiceImpl(kundenstamm, medienbestand),
+                synchronisierung);
+    }
+
+    /**
+     * Konstruktor. Erzeugt einen neuen {@link NebenlaeufigerVerleihServiceImpl},
+     * der die Vormerklisten mit dem angegebenen VormerkService verwaltet und
+     * das Verleihprotokoll mit der angegebenen Synchronisierung schreibt.
+     *
+     * @param kundenstamm
+     *            Der {@link KundenstammService}.
+     * @param medienbestand
+     *            Der {@link MedienbestandService}.
+     * @param initialBestand
+     *            Der initiale Bestand.
+     * @param vormerkService
+     *            Ein VormerkService für denselben Medienbestand, der von
+     *            mehreren Threads benutzt werden kann.
+     * @param synchronisierung
+     *            Legt fest, wann das Verleihprotokoll auf die Platte
+     *            gezwungen wird.
+     *
+     * @require kundenstamm != null
+     * @require medienbestand != null
+     * @require initialBestand != null
+     * @require vormerkService != null
+     * @require synchronisierung != null
+     */
+    public NebenlaeufigerVerleihServiceImpl(KundenstammService kundenstamm,
+            MedienbestandService medienbestand,
+            List<Verleihkarte> initialBestand, VormerkService vormerkService,
+            Protokollsynchronisierung synchronisierung)
+    {
+        this(kundenstamm, medienbestand, initialBestand, vormerkService,
+                new Verleihprotokollierer(synchronisierung));
+    }
+
+    private NebenlaeufigerVerleihServiceImpl(KundenstammService kundenstamm,
+            MedienbestandService medienbestand,
+            List<Verleihkarte> initialBestand, VormerkService vormerkService,
+            Verleihprotokollierer protokollierer)
+    {
+        assert kundenstamm != null : "Vorbedingung verletzt: kundenstamm != null";
+        assert medienbestand != null : "Vorbedingung verletzt: medienbestand != null";
+        assert initialBestand != null : "Vorbedingung verletzt: initialBestand != null";
+        assert vormerkService != null : "Vorbedingung verletzt: vormerkService != null";
+        _sperren = new ReentrantLock[ANZAHL_SPERREN];
+        for (int i = 0; i < _sperren.length; i++)
+        {
+            _sperren[i] = new ReentrantLock();
+        }
+        _verleihkarten = new ConcurrentHashMap<Medium, Verleihkarte>();
+        _verleihkartenProKunde = new ConcurrentHashMap<Kunde, List<Verleihkarte>>();
+        for (Verleihkarte verleihkarte : initialBestand)
+        {
+            _verleihkarten.put(verleihkarte.getMedium(), verleihkarte);
+            fuegeInKundenIndexEin(verleihkarte);
+        }
+        _ausleihindex = new Ausleihindex(_verleihkarten.values());
+        _kundenstamm = kundenstamm;
+        _medienbestand = medienbestand;
+        protokollierer.beginneMit(initialBestand);
+        _vorgangsschreiber = new Vorgangsschreiber(medienbestand,
+                protokollierer);
+        _vormerkService = vormerkService;
+    }
+
+    /**
+     * Setzt das Journal, in dem ab jetzt jede Ausleihe und Rückgabe
+     * festgehalten wird.
+     *
+     * @param journal
+     *            Ein geöffnetes Verleihjournal oder null, wenn kein Journal
+     *            geschrieben werden soll.
+     */
+    public void setVerleihjournal(Verleihjournal journal)
+    {
+        _vorgangsschreiber.setVerleihjournal(journal);
+    }
+
+    @Override
+    public List<Verleihkarte> getVerleihkarten()
+    {
+        return new ArrayList<Verleihkarte>(_verleihkarten.values());
+    }
+
+    @Override
+    public boolean istVerliehen(Medium medium)
+    {
+        assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumExistiert(medium)";
+        return _verleihkarten.containsKey(medium);
+    }
+
+    @Override
+    public boolean istVerleihenMoeglich(List<Medium> medien, Kunde kunde)
+    {
+        assert kundeImBestand(kunde) : "Vorbedingung verletzt: kundeImBestand(kunde)";
+        assert medienImBestand(medien) : "Vorbedingung verletzt: medienImBestand(medien)";
+        ReentrantLock[] sperren = sperre(medien);
+        try
+        {
+            return pruefeVerleihenMoeglich(medien, kunde);
+        }
+        finally
+        {
+            entsperre(sperren);
+        }
+    }
+
+    @Override
+    public void verleiheAn(Kunde kunde, List<Medium> medien, Datum ausleihDatum)
+            throws ProtokollierException
+    {
+        assert kundeImBestand(kunde) : "Vorbedingung verletzt: kundeImBestand(kunde)";
+        assert medienImBestand(medien) : "Vorbedingung verletzt: medienImBestand(medien)";
+        assert ausleihDatum != null : "Vorbedingung verletzt: ausleihDatum != null";
+        boolean verliehen = verleihe(kunde, medien, ausleihDatum);
+        assert verliehen : "Vorbedingung verletzt: istVerleihenMoeglich(medien, kunde)";
+    }
+
+    @Override
+    public boolean verleiheWennMoeglich(Kunde kunde, List<Medium> medien,
+            Datum ausleihDatum) throws ProtokollierException
+    {
+        assert kundeImBestand(kunde) : "Vorbedingung verletzt: kundeImBestand(kunde)";
+        assert medienImBestand(medien) : "Vorbedingung verletzt: medienImBestand(medien)";
+        assert ausleihDatum != null : "Vorbedingung verletzt: ausleihDatum != null";
+        return verleihe(kunde, medien, ausleihDatum);
+    }
+
+    @Override
+    public boolean istVerleihenMoeglich(Verleihauftrag auftrag)
+    {
+        assert auftrag != null && !auftrag.istLeer() : "Vorbedingung verletzt: auftrag != null && !auftrag.istLeer()";
+        ReentrantLock[] sperren = sperre(auftrag.getMedien());
+        try
+        {
+            return pruefeVerleihenMoeglich(auftrag);
+        }
+        finally
+        {
+            entsperre(sperren);
+        }
+    }
+
+    @Override
+    public boolean verleiheWennMoeglich(Verleihauftrag auftrag)
+            throws ProtokollierException
+    {
+        assert auftrag != null && !auftrag.istLeer() : "Vorbedingung verletzt: auftrag != null && !auftrag.istLeer()";
+        return verleihe(auftrag);
+    }
+
+    /**
+     * Verleiht die Medien unter ihren Sperren, wenn das möglich ist.
+     *
+     * @return true, wenn verliehen wurde, sonst false.
+     */
+    private boolean verleihe(Kunde kunde, List<Medium> medien,
+            Datum ausleihDatum) throws ProtokollierException
+    {
+        Verleihauftrag auftrag = new Verleihauftrag(ausleihDatum);
+        auftrag.fuegeHinzu(kunde, medien);
+        return verleihe(auftrag);
+    }
+
+    /**
+     * Verleiht die Medien des Auftrags unter ihren Sperren, wenn das für alle
+     * möglich ist. Der Auftrag wird in Journal und Protokoll festgehalten,
+     * bevor er ausgeführt wird.
+     *
+     * @return true, wenn verliehen wurde, sonst false.
+     */
+    private boolean verleihe(Verleihauftrag auftrag)
+            throws ProtokollierException
+    {
+        boolean verliehen = false;
+        ReentrantLock[] sperren = sperre(auftrag.getMedien());
+        try
+        {
+            if (pruefeVerleihenMoeglich(auftrag))
+            {
+                List<Verleihkarte> verleihkarten = auftrag
+                        .erzeugeVerleihkarten();
+                _vorgangsschreiber.halteAusleiheFest(verleihkarten,
+                        auftrag.getAusleihdatum());
+                for (Verleihkarte verleihkarte : verleihkarten)
+                {
+                    loescheVormerkung(verleihkarte.getEntleiher(),
+                            verleihkarte.getMedium());
+                    _verleihkarten.put(verleihkarte.getMedium(), verleihkarte);
+                    fuegeInKundenIndexEin(verleihkarte);
+                }
+                synchronized (_ausleihindex)
+                {
+                    for (Verleihkarte verleihkarte : verleihkarten)
+                    {
+                        _ausleihindex.fuegeEin(verleihkarte);
+                    }
+                }
+                verliehen = true;
+            }
+        }
+        finally
+        {
+            entsperre(sperren);
+        }
+        if (verliehen)
+        {
+            beginneStapel();
+            try
+            {
+                for (Kunde kunde : auftrag.getKunden())
+                {
+                    informiereUeberAenderung(Aenderung.verliehen(
+                            auftrag.getMedienFuer(kunde), kunde));
+                }
+            }
+            finally
+            {
+                beendeStapel();
+            }
+        }
+        return verliehen;
+    }
+
+    @Override
+    public void nimmZurueck(List<Medium> medien, Datum rueckgabeDatum)
+            throws ProtokollierException
+    {
+        assert medienImBestand(medien) : "Vorbedingung verletzt: medienImBestand(medien)";
+        assert rueckgabeDatum != null : "Vorbedingung verletzt: rueckgabeDatum != null";
+
+        List<Aenderung> aenderungen = null;
+        ReentrantLock[] sperren = sperre(medien);
+        try
+        {
+            boolean alleVerliehen = sindAlleVerliehen(medien);
+            assert alleVerliehen : "Vorbedingung verletzt: sindAlleVerliehen(medien)";
+            if (alleVerliehen)
+            {
+                List<Verleihkarte> verleihkarten = new ArrayList<Verleihkarte>(
+                        medien.size());
+                for (Medium medium : medien)
+                {
+                    verleihkarten.add(_verleihkarten.get(medium));
+                }
+                _vorgangsschreiber.halteRueckgabeFest(verleihkarten,
+                        rueckgabeDatum);
+                for (Verleihkarte verleihkarte : verleihkarten)
+                {
+                    _verleihkarten.remove(verleihkarte.getMedium());
+                    entferneAusKundenIndex(verleihkarte);
+                }
+                synchronized (_ausleihindex)
+                {
+                    for (Verleihkarte verleihkarte : verleihkarten)
+                    {
+                        _ausleihindex.entferne(verleihkarte);
+                    }
+                }
+                aenderungen = new ArrayList<Aenderung>();
+                aenderungen.add(Aenderung.zurueckgenommen(medien));
+                for (Medium medium : medien)
+                {
+                    Kunde vormerker = _vormerkService
+                            .getErsterVormerker(medium);
+                    if (vormerker != null)
+                    {
+                        aenderungen.add(Aenderung.abholbereit(medium,
+                                vormerker));
+                    }
+                }
+            }
+        }
+        finally
+        {
+            entsperre(sperren);
+        }
+        if (aenderungen != null)
+        {
+            beginneStapel();
+            try
+            {
+                for (Aenderung aenderung : aenderungen)
+                {
+                    informiereUeberAenderung(aenderung);
+                }
+            }
+            finally
+            {
+                beendeStapel();
+            }
+        }
+    }
+
+    @Override
+    public boolean sindAlleNichtVerliehen(List<Medium> medien)
+    {
+        assert medienImBestand(medien) : "Vorbedingung verletzt: medienExistieren(medien)";
+        boolean result = true;
+        for (Medium medium : medien)
+        {
+            if (istVerliehen(medium))
+            {
+                result = false;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean sindAlleVerliehen(List<Medium> medien)
+    {
+        assert medienImBestand(medien) : "Vorbedingung verletzt: medienExistieren(medien)";
+        boolean result = true;
+        for (Medium medium : medien)
+        {
+            if (!istVerliehen(medium))
+            {
+                result = false;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean kundeImBestand(Kunde kunde)
+    {
+        return _kundenstamm.enthaeltKunden(kunde);
+    }
+
+    @Override
+    public boolean mediumImBestand(Medium medium)
+    {
+        return _medienbestand.enthaeltMedium(medium);
+    }
+
+    @Override
+    public boolean medienImBestand(List<Medium> medien)
+    {
+        assert medien != null : "Vorbedingung verletzt: medien != null";
+        assert !medien.isEmpty() : "Vorbedingung verletzt: !medien.isEmpty()";
+
+        boolean result = true;
+        for (Medium medium : medien)
+        {
+            if (!mediumImBestand(medium))
+            {
+                result = false;
+                break;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Medium> getAusgelieheneMedienFuer(Kunde kunde)
+    {
+        assert kundeImBestand(kunde) : "Vorbedingung verletzt: kundeImBestand(kunde)";
+        List<Medium> result = new ArrayList<Medium>();
+        for (Verleihkarte verleihkarte : getVerleihkartenFuer(kunde))
+        {
+            result.add(verleihkarte.getMedium());
+        }
+        return result;
+    }
+
+    @Override
+    public Kunde getEntleiherFuer(Medium medium)
+    {
+        return getVerleihkarteFuer(medium).getEntleiher();
+    }
+
+    @Override
+    public Verleihkarte getVerleihkarteFuer(Medium medium)
+    {
+        Verleihkarte verleihkarte = _verleihkarten.get(medium);
+        assert verleihkarte != null : "Vorbedingung verletzt: istVerliehen(medium)";
+        return verleihkarte;
+    }
+
+    @Override
+    public List<Verleihkarte> getVerleihkartenFuer(Kunde kunde)
+    {
+        assert kundeImBestand(kunde) : "Vorbedingung verletzt: kundeImBestand(kunde)";
+        List<Verleihkarte> result = new ArrayList<Verleihkarte>();
+        List<Verleihkarte> verleihkarten = _verleihkartenProKunde.get(kunde);
+        if (verleihkarten != null)
+        {
+            synchronized (verleihkarten)
+            {
+                result.addAll(verleihkarten);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Verleihkarte> getVerleihkartenAusgeliehenZwischen(Datum von,
+            Datum bis)
+    {
+        assert von != null : "Vorbedingung verletzt: von != null";
+        assert bis != null : "Vorbedingung verletzt: bis != null";
+        synchronized (_ausleihindex)
+        {
+            return _ausleihindex.getAusgeliehenZwischen(von, bis);
+        }
+    }
+
+    @Override
+    public List<Verleihkarte> getVerleihkartenAelterAls(int tage, Datum stichtag)
+    {
+        assert tage >= 0 : "Vorbedingung verletzt: tage >= 0";
+        assert stichtag != null : "Vorbedingung verletzt: stichtag != null";
+        synchronized (_ausleihindex)
+        {
+            return _ausleihindex.getAusgeliehenVor(stichtag.minus(tage));
+        }
+    }
+
+    /**
+     * Prüft unter den bereits gehaltenen Sperren seiner Medien, ob der
+     * Auftrag ausgeführt werden kann.
+     */
+    private boolean pruefeVerleihenMoeglich(Verleihauftrag auftrag)
+    {
+        for (Kunde kunde : auftrag.getKunden())
+        {
+            if (!pruefeVerleihenMoeglich(auftrag.getMedienFuer(kunde), kunde))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prüft unter den bereits gehaltenen Sperren der Medien, ob sie an den
+     * Kunden verliehen werden können.
+     */
+    private boolean pruefeVerleihenMoeglich(List<Medium> medien, Kunde kunde)
+    {
+        for (Medium medium : medien)
+        {
+            Kunde vormerker = _vormerkService.getErsterVormerker(medium);
+            if (_verleihkarten.containsKey(medium)
+                    || (vormerker != null && !vormerker.equals(kunde)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Trägt eine Verleihkarte unter ihrem Entleiher in den Index ein.
+     */
+    private void fuegeInKundenIndexEin(Verleihkarte verleihkarte)
+    {
+        Kunde entleiher = verleihkarte.getEntleiher();
+        List<Verleihkarte> verleihkarten = _verleihkartenProKunde
+                .get(entleiher);
+        if (verleihkarten == null)
+        {
+            List<Verleihkarte> neu = new ArrayList<Verleihkarte>();
+            verleihkarten = _verleihkartenProKunde.putIfAbsent(entleiher, neu);
+            if (verleihkarten == null)
+            {
+                verleihkarten = neu;
+            }
+        }
+        synchronized (verleihkarten)
+        {
+            verleihkarten.add(verleihkarte);
+        }
+    }
+
+    /**
+     * Entfernt eine Verleihkarte aus dem Index ihres Entleihers.
+     */
+    private void entferneAusKundenIndex(Verleihkarte verleihkarte)
+    {
+        List<Verleihkarte> verleihkarten = _verleihkartenProKunde
+                .get(verleihkarte.getEntleiher());
+        synchronized (verleihkarten)
+        {
+            verleihkarten.remove(verleihkarte);
+        }
+    }
+
+    /*
+     * ################# Sperren ################
+     */
+
+    /**
+     * Gibt die Nummer der Sperre zurück, zu der das Medium gehört.
+     */
+    private static int getSperrnummer(Medium medium)
+    {
+        int hash = System.identityHashCode(medium);
+        return (hash ^ (hash >>> 16)) & (ANZAHL_SPERREN - 1);
+    }
+
+    /**
+     * Sperrt die Sperren der gegebenen Medien, jede einmal und in
+     * aufsteigender Reihenfolge.
+     *
+     * @return Die gesperrten Sperren, für {@link #entsperre(ReentrantLock[])}.
+     */
+    private ReentrantLock[] sperre(List<Medium> medien)
+    {
+        int[] nummern = new int[medien.size()];
+        for (int i = 0; i < nummern.length; i++)
+        {
+            nummern[i] = getSperrnummer(medien.get(i));
+        }
+        Arrays.sort(nummern);
+        int anzahl = 0;
+        for (int i = 0; i < nummern.length; i++)
+        {
+            if (i == 0 || nummern[i] != nummern[i - 1])
+            {
+                nummern[anzahl++] = nummern[i];
+            }
+        }
+        ReentrantLock[] result = new ReentrantLock[anzahl];
+        for (int i = 0; i < anzahl; i++)
+        {
+            result[i] = _sperren[nummern[i]];
+            result[i].lock();
+        }
+        return result;
+    }
+
+    /**
+     * Gibt die gegebenen Sperren in umgekehrter Reihenfolge wieder frei.
+     */
+    private static void entsperre(ReentrantLock[] sperren)
+    {
+        for (int i = sperren.length - 1; i >= 0; i--)
+        {
+            sperren[i].unlock();
+        }
+    }
+
+    /*
+     * ################# Teil für das Vormerken ################
+     */
+
+    @Override
+    public void setVormerker(Kunde kunde, Medium medium)
+    {
+        assert kundeImBestand(kunde) : "Vorbedingung verletzt: kundeImBestand(kunde)";
+        assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumImBestand(medium)";
+
+        ReentrantLock sperre = _sperren[getSperrnummer(medium)];
+        sperre.lock();
+        try
+        {
+            assert pruefeVormerkenMoeglich(kunde, medium) : "Vorbedingung verletzt: istVormerkenMoeglich(kunde, medium)";
+            _vormerkService.setVormerker(kunde, medium);
+        }
+        finally
+        {
+            sperre.unlock();
+        }
+        informiereUeberAenderung(Aenderung.vormerkerGeaendert(medium, kunde));
+    }
+
+    @Override
+    public boolean vormerkenWennMoeglich(Kunde kunde, Medium medium)
+    {
+        assert kundeImBestand(kunde) : "Vorbedingung verletzt: kundeImBestand(kunde)";
+        assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumImBestand(medium)";
+
+        boolean vorgemerkt = false;
+        ReentrantLock sperre = _sperren[getSperrnummer(medium)];
+        sperre.lock();
+        try
+        {
+            if (pruefeVormerkenMoeglich(kunde, medium))
+            {
+                _vormerkService.setVormerker(kunde, medium);
+                vorgemerkt = true;
+            }
+        }
+        finally
+        {
+            sperre.unlock();
+        }
+        if (vorgemerkt)
+        {
+            informiereUeberAenderung(Aenderung.vormerkerGeaendert(medium,
+                    kunde));
+        }
+        return vorgemerkt;
+    }
+
+    @Override
+    public List<Kunde> getVormerker(Medium medium)
+    {
+        assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumImBestand(medium)";
+
+        return _vormerkService.getVormerker(medium);
+    }
+
+    @Override
+    public List<Medium> getVorgemerkteMedienFuer(Kunde kunde)
+    {
+        assert kundeImBestand(kunde) : "Vorbedingung verletzt: kundeImBestand(kunde)";
+
+        return _vormerkService.getVorgemerkteMedienFuer(kunde);
+    }
+
+    @Override
+    public Kunde getErsterVormerker(Medium medium)
+    {
+        assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumImBestand(medium)";
+
+        return _vormerkService.getErsterVormerker(medium);
+    }
+
+    @Override
+    public void vormerkerLoeschen(Kunde kunde, Medium medium)
+    {
+        assert kundeImBestand(kunde) : "Vorbedingung verletzt: kundeImBestand(kunde)";
+        assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumImBestand(medium)";
+
+        ReentrantLock sperre = _sperren[getSperrnummer(medium)];
+        sperre.lock();
+        try
+        {
+            _vormerkService.vormerkerLoeschen(kunde, medium);
+        }
+        finally
+        {
+            sperre.unlock();
+        }
+        informiereUeberAenderung(Aenderung.vormerkerGeaendert(medium, kunde));
+    }
+
+    @Override
+    public boolean istVormerkenMoeglich(List<Medium> medien, Kunde kunde)
+    {
+        if (kunde == null || medien.contains(null))
+        {
+            return false;
+        }
+        ReentrantLock[] sperren = sperre(medien);
+        try
+        {
+            boolean result = true;
+            for (Medium medium : medien)
+            {
+                result &= pruefeVormerkenMoeglich(kunde, medium);
+            }
+            return result;
+        }
+        finally
+        {
+            entsperre(sperren);
+        }
+    }
+
+    /**
+     * Prüft unter der bereits gehaltenen Sperre des Mediums, ob der Kunde es
+     * vormerken kann.
+     */
+    private boolean pruefeVormerkenMoeglich(Kunde kunde, Medium medium)
+    {
+        Verleihkarte verleihkarte = _verleihkarten.get(medium);
+        return (verleihkarte == null || !kunde.equals(verleihkarte
+                .getEntleiher()))
+                && _vormerkService.istVormerkenMoeglich(kunde, medium);
+    }
+
+    /**
+     * Löscht unter der bereits gehaltenen Sperre des Mediums die Vormerkung
+     * des Kunden, wenn er es vorgemerkt hat.
+     */
+    private void loescheVormerkung(Kunde kunde, Medium medium)
+    {
+        if (_vormerkService.istVorgemerkt(kunde, medium))
+        {
+            _vormerkService.vormerkerLoeschen(kunde, medium);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammServiceImpl;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandServiceImpl;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.vormerk.VormerkServiceImpl;
+
+/**
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class NebenlaeufigerVerleihServiceImplTest
+{
+    private static final int ANZAHL_THREADS = 64;
+    private static final int ANZAHL_MEDIEN = 40;
+    private static final int VORGAENGE_JE_THREAD = 1000;
+
+    private Datum _datum;
+    private List<Kunde> _kunden;
+    private List<Medium> _medien;
+    private NebenlaeufigerVerleihServiceImpl _service;
+
+    @Before
+    public void setUp()
+    {
+        _datum = new Datum(3, 4, 2009);
+        KundenstammService kundenstamm = new KundenstammServiceImpl(
+                new ArrayList<Kunde>());
+        _kunden = new ArrayList<Kunde>();
+        for (int i = 0; i < ANZAHL_THREADS; i++)
+        {
+            Kunde kunde = new Kunde(new Kundennummer(100000 + i), "Vorname"
+                    + i, "Nachname" + i);
+            kundenstamm.fuegeKundenEin(kunde);
+            _kunden.add(kunde);
+        }
+        MedienbestandService medienbestand = new MedienbestandServiceImpl(
+                new ArrayList<Medium>());
+        for (int i = 0; i < ANZAHL_MEDIEN; i++)
+        {
+            medienbestand.fuegeMediumEin(new CD("CD" + i, "", "", 1));
+        }
+        _medien = medienbestand.getMedien();
+        _service = new NebenlaeufigerVerleihServiceImpl(kundenstamm,
+                medienbestand, new ArrayList<Verleihkarte>());
+    }
+
+    @Test
+    public void testeAllesOderNichts() throws Exception
+    {
+        Kunde kunde1 = _kunden.get(0);
+        Kunde kunde2 = _kunden.get(1);
+        Medium a = _medien.get(0);
+        Medium b = _medien.get(1);
+        Medium c = _medien.get(2);
+
+        assertTrue(_service.verleiheWennMoeglich(kunde1, Arrays.asList(a, b),
+                _datum));
+        assertFalse(_service.verleiheWennMoeglich(kunde2, Arrays.asList(c, a),
+                _datum));
+        assertFalse(_service.istVerliehen(c));
+        assertSame(kunde1, _service.getEntleiherFuer(a));
+        assertEquals(Arrays.asList(a, b),
+                _service.getAusgelieheneMedienFuer(kunde1));
+        assertTrue(_service.getVerleihkartenFuer(kunde2).isEmpty());
+
+        // Ein Vormerker eines Mediums verhindert den Verleih aller Medien
+        _service.setVormerker(kunde1, c);
+        assertFalse(_service.istVerleihenMoeglich(Arrays.asList(c), kunde2));
+        _service.nimmZurueck(Arrays.asList(a, b), _datum);
+        assertFalse(_service.verleiheWennMoeglich(kunde2, Arrays.asList(a, c),
+                _datum));
+        assertTrue(_service.sindAlleNichtVerliehen(Arrays.asList(a, b, c)));
+        assertTrue(_service.verleiheWennMoeglich(kunde1, Arrays.asList(a, c),
+                _datum));
+        assertTrue(_service.getVormerker(c).isEmpty());
+        assertEquals(2, _service.getVerleihkartenAusgeliehenZwischen(_datum,
+                _datum).size());
+    }
+
+    @Test
+    public void testeVerleihauftrag() throws Exception
+    {
+        Kunde kunde1 = _kunden.get(0);
+        Kunde kunde2 = _kunden.get(1);
+        assertTrue(_service.verleiheWennMoeglich(kunde1,
+                Arrays.asList(_medien.get(2)), _datum));
+
+        Verleihauftrag auftrag = new Verleihauftrag(_datum);
+        auftrag.fuegeHinzu(kunde1, _medien.subList(0, 2));
+        auftrag.fuegeHinzu(kunde2, _medien.subList(2, 4));
+        assertFalse(_service.istVerleihenMoeglich(auftrag));
+        assertFalse(_service.verleiheWennMoeglich(auftrag));
+        assertTrue(_service.sindAlleNichtVerliehen(_medien.subList(0, 2)));
+
+        _service.nimmZurueck(Arrays.asList(_medien.get(2)), _datum);
+        assertTrue(_service.verleiheWennMoeglich(auftrag));
+        assertEquals(_medien.subList(0, 2),
+                _service.getAusgelieheneMedienFuer(kunde1));
+        assertEquals(_medien.subList(2, 4),
+                _service.getAusgelieheneMedienFuer(kunde2));
+    }
+
+    /**
+     * Alle Threads versuchen gleichzeitig, jedes Medium vorzumerken. Prüfung
+     * und Vormerkung müssen ein Ganzes sein, sonst verletzt ein Thread die
+     * Vorbedingung von setVormerker oder die Vormerkliste wird zu lang. Die
+     * Entleiherin des ersten Mediums darf es nicht vormerken.
+     */
+    @Test
+    public void testeGleichzeitigesVormerken() throws Exception
+    {
+        final Kunde entleiherin = _kunden.get(0);
+        assertTrue(_service.verleiheWennMoeglich(entleiherin,
+                Arrays.asList(_medien.get(0)), _datum));
+        final Queue<Throwable> fehler = new ConcurrentLinkedQueue<Throwable>();
+        final AtomicInteger vorgemerkt = new AtomicInteger();
+        final AtomicInteger entleiherinVorgemerkt = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < ANZAHL_THREADS; t++)
+        {
+            final Kunde kunde = _kunden.get(t);
+            Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                        for (Medium medium : _medien)
+                        {
+                            if (_service.vormerkenWennMoeglich(kunde, medium))
+                            {
+                                vorgemerkt.incrementAndGet();
+                                if (kunde == entleiherin
+                                        && medium == _medien.get(0))
+                                {
+                                    entleiherinVorgemerkt.incrementAndGet();
+                                }
+                            }
+                        }
+                    }
+                    catch (Throwable e)
+                    {
+                        fehler.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        assertTrue(fehler.toString(), fehler.isEmpty());
+        assertEquals(0, entleiherinVorgemerkt.get());
+        int maximal = VormerkServiceImpl.STANDARD_MAXIMALE_VORMERKER;
+        assertEquals(ANZAHL_MEDIEN * maximal, vorgemerkt.get());
+        for (Medium medium : _medien)
+        {
+            List<Kunde> vormerker = _service.getVormerker(medium);
+            assertEquals(maximal, vormerker.size());
+            assertEquals(maximal, new HashSet<Kunde>(vormerker).size());
+            assertFalse(_service.vormerkenWennMoeglich(_kunden.get(1), medium));
+        }
+    }
+
+    /**
+     * Jeder Thread ist eine Ausleihtheke mit eigenem Kunden, die zufällige,
+     * sich überschneidende Medien verleiht und wieder zurücknimmt. Jedes
+     * verliehene Medium wird in einer Besitzer-Tabelle eingetragen, ein
+     * doppelter Verleih fiele dort auf. Am Ende muss der Service genau die
+     * Medien als verliehen kennen, die die Threads noch halten.
+     */
+    @Test
+    public void testeGleichzeitigesVerleihenUndZuruecknehmen() throws Exception
+    {
+        final AtomicReferenceArray<Kunde> besitzer = new AtomicReferenceArray<Kunde>(
+                ANZAHL_MEDIEN);
+        final Queue<Throwable> fehler = new ConcurrentLinkedQueue<Throwable>();
+        final AtomicInteger verliehen = new AtomicInteger();
+        final AtomicInteger abgelehnt = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<List<Integer>> gehalten = new ArrayList<List<Integer>>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < ANZAHL_THREADS; t++)
+        {
+            final Kunde kunde = _kunden.get(t);
+            final Random random = new Random(t);
+            final List<Integer> meine = new ArrayList<Integer>();
+            gehalten.add(meine);
+            Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                        for (int i = 0; i < VORGAENGE_JE_THREAD; i++)
+                        {
+                            if (!meine.isEmpty() && random.nextInt(3) == 0)
+                            {
+                                gibZurueck(kunde, meine, besitzer);
+                            }
+                            else
+                            {
+                                leiheAus(kunde, random, meine, besitzer);
+                            }
+                        }
+                    }
+                    catch (Throwable e)
+                    {
+                        fehler.add(e);
+                    }
+                }
+
+                private void leiheAus(Kunde kunde, Random random,
+                        List<Integer> meine,
+                        AtomicReferenceArray<Kunde> besitzer) throws Exception
+                {
+                    Set<Integer> nummern = new HashSet<Integer>();
+                    for (int n = 1 + random.nextInt(3); n > 0; n--)
+                    {
+                        nummern.add(random.nextInt(ANZAHL_MEDIEN));
+                    }
+                    List<Medium> medien = new ArrayList<Medium>();
+                    for (int nummer : nummern)
+                    {
+                        medien.add(_medien.get(nummer));
+                    }
+                    if (_service.verleiheWennMoeglich(kunde, medien, _datum))
+                    {
+                        for (int nummer : nummern)
+                        {
+                            if (!besitzer.compareAndSet(nummer, null, kunde))
+                            {
+                                throw new AssertionError("CD" + nummer
+                                        + " doppelt verliehen");
+                            }
+                            meine.add(nummer);
+                        }
+                        verliehen.incrementAndGet();
+                    }
+                    else
+                    {
+                        abgelehnt.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        assertTrue(fehler.toString(), fehler.isEmpty());
+        assertTrue(verliehen.get() > 0);
+        assertTrue(abgelehnt.get() > 0);
+
+        int anzahlGehalten = 0;
+        for (int t = 0; t < ANZAHL_THREADS; t++)
+        {
+            Kunde kunde = _kunden.get(t);
+            Set<Medium> erwartet = new HashSet<Medium>();
+            for (int nummer : gehalten.get(t))
+            {
+                erwartet.add(_medien.get(nummer));
+                assertSame(kunde, _service.getEntleiherFuer(_medien
+                        .get(nummer)));
+            }
+            assertEquals(erwartet, new HashSet<Medium>(
+                    _service.getAusgelieheneMedienFuer(kunde)));
+            anzahlGehalten += erwartet.size();
+        }
+        assertEquals(anzahlGehalten, _service.getVerleihkarten().size());
+        assertEquals(anzahlGehalten, _service
+                .getVerleihkartenAusgeliehenZwischen(_datum, _datum).size());
+
+        for (int t = 0; t < ANZAHL_THREADS; t++)
+        {
+            if (!gehalten.get(t).isEmpty())
+            {
+                gibZurueck(_kunden.get(t), gehalten.get(t), besitzer);
+            }
+        }
+        assertTrue(_service.getVerleihkarten().isEmpty());
+        assertTrue(_service.getVerleihkartenAusgeliehenZwischen(_datum, _datum)
+                .isEmpty());
+    }
+
+    /**
+     * Gibt alle Medien zurück, die der Kunde hält. Der Besitz wird vor der
+     * Rückgabe gelöscht, da die Medien danach sofort neu verliehen werden
+     * können.
+     */
+    private void gibZurueck(Kunde kunde, List<Integer> meine,
+            AtomicReferenceArray<Kunde> besitzer) throws Exception
+    {
+        List<Medium> medien = new ArrayList<Medium>();
+        for (int nummer : meine)
+        {
+            if (!besitzer.compareAndSet(nummer, kunde, null))
+            {
+                throw new AssertionError("CD" + nummer + " gehört nicht "
+                        + kunde);
+            }
+            medien.add(_medien.get(nummer));
+        }
+        Collections.shuffle(medien);
+        _service.nimmZurueck(medien, _datum);
+        meine.clear();
+    }
+}
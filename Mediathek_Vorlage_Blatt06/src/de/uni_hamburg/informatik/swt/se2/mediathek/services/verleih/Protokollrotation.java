@@ -0,0 +1,102 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+/**
+ * Legt fest, wann der {@link Verleihprotokollierer} die Protokolldatei als
+ * Segment abschließt und eine neue beginnt, und was mit abgeschlossenen
+ * Segmenten geschieht.
+ * 
+ * Abgeschlossene Segmente können mit gzip komprimiert werden. Von ihnen
+ * werden nur die neuesten aufbewahrt. Ist das Verdichten eingeschaltet,
+ * werden ältere Segmente vor dem Löschen zu einer Zusammenfassung der noch
+ * offenen Ausleihen verdichtet.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public final class Protokollrotation
+{
+    private final long _maxGroesse;
+    private final long _maxAlter;
+    private boolean _komprimieren;
+    private int _aufbewahrteSegmente;
+    private boolean _verdichten;
+
+    /**
+     * Initialisiert eine Rotation, die alle Segmente unkomprimiert aufbewahrt.
+     * 
+     * @param maxGroesse
+     *            Die Größe in Bytes, ab der ein neues Segment begonnen wird,
+     *            oder 0.
+     * @param maxAlter
+     *            Das Alter in Millisekunden, ab dem ein neues Segment
+     *            begonnen wird, oder 0.
+     * 
+     * @require maxGroesse >= 0
+     * @require maxAlter >= 0
+     * @require maxGroesse > 0 || maxAlter > 0
+     */
+    public Protokollrotation(long maxGroesse, long maxAlter)
+    {
+        assert maxGroesse >= 0 : "Vorbedingung verletzt: maxGroesse >= 0";
+        assert maxAlter >= 0 : "Vorbedingung verletzt: maxAlter >= 0";
+        assert maxGroesse > 0 || maxAlter > 0 : "Vorbedingung verletzt: maxGroesse > 0 || maxAlter > 0";
+        _maxGroesse = maxGroesse;
+        _maxAlter = maxAlter;
+        _aufbewahrteSegmente = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Legt fest, ob abgeschlossene Segmente mit gzip komprimiert werden.
+     */
+    public void setKomprimieren(boolean komprimieren)
+    {
+        _komprimieren = komprimieren;
+    }
+
+    /**
+     * Legt fest, wie viele abgeschlossene Segmente höchstens aufbewahrt
+     * werden. Ältere werden gelöscht.
+     * 
+     * @require anzahl >= 0
+     */
+    public void setAufbewahrteSegmente(int anzahl)
+    {
+        assert anzahl >= 0 : "Vorbedingung verletzt: anzahl >= 0";
+        _aufbewahrteSegmente = anzahl;
+    }
+
+    /**
+     * Legt fest, ob Segmente vor dem Löschen zu einer Zusammenfassung der
+     * offenen Ausleihen verdichtet werden.
+     */
+    public void setVerdichten(boolean verdichten)
+    {
+        _verdichten = verdichten;
+    }
+
+    /**
+     * Gibt zurück, ob ein Segment abgeschlossen werden muss, bevor es die
+     * angegebene Größe erreicht, weil es sonst zu groß oder bereits zu alt
+     * ist.
+     */
+    boolean istFaellig(long groesse, long alter)
+    {
+        return (_maxGroesse > 0 && groesse > _maxGroesse)
+                || (_maxAlter > 0 && alter >= _maxAlter);
+    }
+
+    boolean istKomprimieren()
+    {
+        return _komprimieren;
+    }
+
+    int getAufbewahrteSegmente()
+    {
+        return _aufbewahrteSegmente;
+    }
+
+    boolean istVerdichten()
+    {
+        return _verdichten;
+    }
+}
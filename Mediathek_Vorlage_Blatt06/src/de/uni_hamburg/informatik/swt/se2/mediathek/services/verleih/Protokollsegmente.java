@@ -0,0 +1,279 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz.AtomareDatei;
+
+/**
+ * Verwaltet die abgeschlossenen Segmente einer Protokolldatei nach einer
+ * {@link Protokollrotation}.
+ * 
+ * Aus "verleihProtokoll.txt" wird beim Abschließen
+ * "verleihProtokoll-JJJJMMTT-hhmmss-SSS.txt", komprimiert mit der Endung
+ * ".gz". Die Zusammenfassung der offenen Ausleihen steht in
+ * "verleihProtokoll-offen.txt".
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+class Protokollsegmente
+{
+    private static final String KOMPRIMIERT = ".gz";
+    private static final String ZEITSTEMPEL = "yyyyMMdd-HHmmss-SSS";
+
+    private final File _protokollDatei;
+    private final File _verzeichnis;
+    private final String _praefix;
+    private final String _endung;
+    private final Pattern _segmentname;
+    private final Protokollrotation _rotation;
+
+    /**
+     * Initialisiert die Segmentverwaltung für eine Protokolldatei.
+     * 
+     * @require protokollDatei != null
+     * @require rotation != null
+     */
+    Protokollsegmente(File protokollDatei, Protokollrotation rotation)
+    {
+        assert protokollDatei != null : "Vorbedingung verletzt: protokollDatei != null";
+        assert rotation != null : "Vorbedingung verletzt: rotation != null";
+        _protokollDatei = protokollDatei;
+        _verzeichnis = protokollDatei.getAbsoluteFile().getParentFile();
+        _rotation = rotation;
+
+        String name = protokollDatei.getName();
+        int punkt = name.lastIndexOf('.');
+        _praefix = (punkt > 0 ? name.substring(0, punkt) : name) + "-";
+        _endung = punkt > 0 ? name.substring(punkt) : "";
+        _segmentname = Pattern.compile(Pattern.quote(_praefix)
+                + "\\d{8}-\\d{6}-\\d{3}" + Pattern.quote(_endung) + "("
+                + Pattern.quote(KOMPRIMIERT) + ")?");
+    }
+
+    /**
+     * Gibt zurück, ob das aktuelle Segment abgeschlossen werden muss, bevor
+     * es die angegebene Größe erreicht.
+     * 
+     * @param groesse Die Größe nach dem nächsten Schreiben in Bytes.
+     * @param alter Das Alter des Segments in Millisekunden.
+     */
+    boolean istFaellig(long groesse, long alter)
+    {
+        return _rotation.istFaellig(groesse, alter);
+    }
+
+    /**
+     * Gibt zurück, seit wann in die Protokolldatei geschrieben wird, damit
+     * das Alter des aktuellen Segments einen Neustart übersteht.
+     * 
+     * Die Protokolldatei wird begonnen, wenn das vorige Segment abgeschlossen
+     * wird, ihr Beginn steht also im Namen des neuesten Segments. Gibt es
+     * noch keines, wird der Erstellungszeitpunkt der Datei genommen. Ist die
+     * Datei leer oder nicht vorhanden, beginnt das Segment jetzt.
+     * 
+     * @param jetzt Die aktuelle Zeit in Millisekunden seit 1970.
+     * 
+     * @ensure result <= jetzt
+     */
+    long getBeginn(long jetzt)
+    {
+        if (_protokollDatei.length() == 0)
+        {
+            return jetzt;
+        }
+        List<File> segmente = getSegmente();
+        if (!segmente.isEmpty())
+        {
+            String name = segmente.get(segmente.size() - 1).getName();
+            try
+            {
+                long beginn = new SimpleDateFormat(ZEITSTEMPEL).parse(
+                        name.substring(_praefix.length(), _praefix.length()
+                                + ZEITSTEMPEL.length())).getTime();
+                return Math.min(beginn, jetzt);
+            }
+            catch (ParseException e)
+            {
+                // Der Name passt zum Muster, kann also gelesen werden.
+                throw new AssertionError(e);
+            }
+        }
+        try
+        {
+            return Math.min(Files.readAttributes(_protokollDatei.toPath(),
+                    BasicFileAttributes.class).creationTime().toMillis(), jetzt);
+        }
+        catch (IOException e)
+        {
+            return jetzt;
+        }
+    }
+
+    /**
+     * Schließt die Protokolldatei als Segment ab und wendet danach die
+     * Aufbewahrung an. Die Protokolldatei muss dafür geschlossen sein.
+     * 
+     * @param offeneAusleihen
+     *            Die formatierten Verleihkarten der am Ende des Segments
+     *            offenen Ausleihen, aus denen beim Verdichten die
+     *            Zusammenfassung geschrieben wird.
+     * 
+     * @require offeneAusleihen != null
+     */
+    void schliesseAb(Collection<String> offeneAusleihen) throws IOException
+    {
+        assert offeneAusleihen != null : "Vorbedingung verletzt: offeneAusleihen != null";
+
+        File segment = neuesSegment();
+        AtomareDatei.ersetze(_protokollDatei, segment);
+        if (_rotation.istKomprimieren())
+        {
+            komprimiere(segment);
+        }
+
+        List<File> segmente = getSegmente();
+        int ueberzaehlig = segmente.size() - _rotation.getAufbewahrteSegmente();
+        if (ueberzaehlig > 0)
+        {
+            if (_rotation.istVerdichten())
+            {
+                schreibeZusammenfassung(offeneAusleihen);
+            }
+            for (int i = 0; i < ueberzaehlig; i++)
+            {
+                Files.delete(segmente.get(i).toPath());
+            }
+        }
+    }
+
+    /**
+     * Gibt die abgeschlossenen Segmente zurück, das älteste zuerst.
+     * 
+     * @ensure result != null
+     */
+    List<File> getSegmente()
+    {
+        List<File> segmente = new ArrayList<File>();
+        File[] dateien = _verzeichnis.listFiles();
+        if (dateien != null)
+        {
+            for (File datei : dateien)
+            {
+                if (_segmentname.matcher(datei.getName()).matches())
+                {
+                    segmente.add(datei);
+                }
+            }
+        }
+        Collections.sort(segmente);
+        return segmente;
+    }
+
+    /**
+     * Gibt die Datei zurück, in der die offenen Ausleihen zusammengefasst
+     * werden.
+     */
+    File getZusammenfassung()
+    {
+        return new File(_verzeichnis, _praefix + "offen" + _endung);
+    }
+
+    /**
+     * Gibt einen noch freien Segmentnamen zurück. Der Zeitstempel wird
+     * weitergezählt, bis der Name frei ist, damit die Segmente nach ihrem
+     * Namen sortiert bleiben.
+     */
+    private File neuesSegment()
+    {
+        SimpleDateFormat format = new SimpleDateFormat(ZEITSTEMPEL);
+        long zeitpunkt = System.currentTimeMillis();
+        File segment;
+        do
+        {
+            String name = _praefix + format.format(new Date(zeitpunkt++))
+                    + _endung;
+            segment = new File(_verzeichnis, name);
+        }
+        while (segment.exists()
+                || new File(_verzeichnis, segment.getName() + KOMPRIMIERT)
+                        .exists());
+        return segment;
+    }
+
+    /**
+     * Ersetzt ein Segment durch seine mit gzip komprimierte Fassung.
+     */
+    private void komprimiere(final File segment) throws IOException
+    {
+        File komprimiert = new File(_verzeichnis, segment.getName()
+                + KOMPRIMIERT);
+        AtomareDatei.schreibe(komprimiert, new AtomareDatei.Inhalt()
+        {
+            @Override
+            public void schreibeIn(OutputStream ausgabe) throws IOException
+            {
+                InputStream eingabe = new FileInputStream(segment);
+                try
+                {
+                    GZIPOutputStream gzip = new GZIPOutputStream(ausgabe,
+                            1 << 16);
+                    byte[] puffer = new byte[1 << 16];
+                    int gelesen;
+                    while ((gelesen = eingabe.read(puffer)) >= 0)
+                    {
+                        gzip.write(puffer, 0, gelesen);
+                    }
+                    gzip.finish();
+                }
+                finally
+                {
+                    eingabe.close();
+                }
+            }
+        });
+        Files.delete(segment.toPath());
+    }
+
+    /**
+     * Ersetzt die Zusammenfassung atomar durch eine mit den übergebenen
+     * offenen Ausleihen.
+     */
+    private void schreibeZusammenfassung(
+            final Collection<String> offeneAusleihen) throws IOException
+    {
+        AtomareDatei.schreibe(getZusammenfassung(), new AtomareDatei.Inhalt()
+        {
+            @Override
+            public void schreibeIn(OutputStream ausgabe) throws IOException
+            {
+                StringBuilder text = new StringBuilder();
+                text.append(new Date().toString()).append(": ")
+                        .append(offeneAusleihen.size())
+                        .append(" offene Ausleihen\n");
+                for (String verleihkarte : offeneAusleihen)
+                {
+                    text.append(verleihkarte);
+                }
+                ausgabe.write(text.toString().getBytes(
+                        Charset.defaultCharset()));
+            }
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+/**
+ * Legt fest, wann der {@link Verleihprotokollierer} das Protokoll auf die
+ * Platte zwingt (fsync) und ob der Aufrufer darauf wartet.
+ * 
+ * Nur bei {@link #jedesEreignis()} ist ein Ereignis dauerhaft gespeichert,
+ * wenn das Protokollieren zurückkehrt, und nur dann erreicht eine
+ * {@link ProtokollierException} genau den betroffenen Aufrufer. Bei den
+ * anderen Strategien wird ein Schreibfehler beim nächsten Protokollieren
+ * gemeldet, es sei denn, der Aufrufer wartet mit
+ * {@link Verleihprotokollierer#protokolliereUndWarte} auf das fsync seines
+ * Stapels.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public final class Protokollsynchronisierung
+{
+    private final long _millisekunden;
+    private final int _ereignisse;
+
+    private Protokollsynchronisierung(long millisekunden, int ereignisse)
+    {
+        _millisekunden = millisekunden;
+        _ereignisse = ereignisse;
+    }
+
+    /**
+     * Jedes Ereignis wird vor der Rückkehr auf die Platte gezwungen. Ereignisse
+     * gleichzeitiger Aufrufer teilen sich ein fsync.
+     */
+    public static Protokollsynchronisierung jedesEreignis()
+    {
+        return new Protokollsynchronisierung(0, 1);
+    }
+
+    /**
+     * Das Protokoll wird höchstens die angegebene Zeit nach einem Ereignis auf
+     * die Platte gezwungen.
+     * 
+     * @require millisekunden > 0
+     */
+    public static Protokollsynchronisierung alleMillisekunden(
+            long millisekunden)
+    {
+        assert millisekunden > 0 : "Vorbedingung verletzt: millisekunden > 0";
+        return new Protokollsynchronisierung(millisekunden, 0);
+    }
+
+    /**
+     * Das Protokoll wird nach jeweils der angegebenen Anzahl Ereignisse auf
+     * die Platte gezwungen.
+     * 
+     * @require ereignisse > 0
+     */
+    public static Protokollsynchronisierung alleEreignisse(int ereignisse)
+    {
+        assert ereignisse > 0 : "Vorbedingung verletzt: ereignisse > 0";
+        return new Protokollsynchronisierung(0, ereignisse);
+    }
+
+    /**
+     * Gibt zurück, ob der Aufrufer wartet, bis sein Ereignis dauerhaft
+     * gespeichert ist.
+     */
+    public boolean istDauerhaft()
+    {
+        return _millisekunden == 0 && _ereignisse == 1;
+    }
+
+    /**
+     * Gibt den Abstand zwischen zwei fsync in Millisekunden zurück, oder 0,
+     * wenn nicht nach Zeit synchronisiert wird.
+     */
+    long getMillisekunden()
+    {
+        return _millisekunden;
+    }
+
+    /**
+     * Gibt die Anzahl Ereignisse zwischen zwei fsync zurück, oder 0, wenn
+     * nicht nach Anzahl synchronisiert wird.
+     */
+    int getEreignisse()
+    {
+        return _ereignisse;
+    }
+}
@@ -6,6 +6,7 @@ import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.BeobachtbarerService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.ServiceBeobachter;
 
@@ -49,7 +50,7 @@ public interface VerleihService extends BeobachtbarerService
      * 
      * @throws ProtokollierException
      *             Wenn beim Protokollieren des Verleihvorgangs ein Fehler
-     *             auftritt.
+     *             auftritt. Es wurde dann nichts verliehen.
      * 
      * @require kundeImBestand(kunde)
      * @require sindAlleNichtVerliehen(medien)
@@ -80,6 +81,74 @@ public interface VerleihService extends BeobachtbarerService
      */
     boolean istVerleihenMoeglich(List<Medium> medien, Kunde kunde);
 
+    /**
+     * Verleiht die Medien an den Kunden, wenn
+     * {@link #istVerleihenMoeglich(List, Kunde)}. Prüfung und Verleih
+     * geschehen in einem Schritt, sodass zwischen ihnen kein anderer Verleih
+     * dazwischenkommen kann, auch wenn mehrere Ausleihtheken gleichzeitig
+     * verleihen. Es werden entweder alle oder keines der Medien verliehen.
+     * 
+     * @param kunde
+     *            Ein {@link Kunde}, an den die Medien verliehen werden sollen
+     * @param medien
+     *            Die Medien, die verliehen werden sollen
+     * @param ausleihDatum
+     *            Der erste Ausleihtag
+     * 
+     * @return true, wenn die Medien verliehen wurden, sonst false.
+     * 
+     * @throws ProtokollierException
+     *             Wenn beim Protokollieren des Verleihvorgangs ein Fehler
+     *             auftritt.
+     * 
+     * @require kundeImBestand(kunde)
+     * @require medienImBestand(medien)
+     * @require ausleihDatum != null
+     * 
+     * @ensure !result || sindAlleVerliehen(medien)
+     */
+    boolean verleiheWennMoeglich(Kunde kunde, List<Medium> medien,
+            Datum ausleihDatum) throws ProtokollierException;
+
+    /**
+     * Prüft, ob alle Medien des Auftrags an ihre Kunden verliehen werden
+     * können.
+     * 
+     * @param auftrag
+     *            Ein Verleihauftrag.
+     * 
+     * @return true, wenn für jeden Kunden des Auftrags
+     *         {@link #istVerleihenMoeglich(List, Kunde)} gilt, sonst false.
+     * 
+     * @require auftrag != null && !auftrag.istLeer()
+     * @require alle Kunden und Medien des Auftrags sind im Bestand
+     */
+    boolean istVerleihenMoeglich(Verleihauftrag auftrag);
+
+    /**
+     * Führt den Verleihauftrag als Ganzes aus, wenn
+     * {@link #istVerleihenMoeglich(Verleihauftrag)}. Die Vorbedingungen
+     * werden einmal geprüft, dann werden Journal und Protokoll je einmal für
+     * alle Verleihkarten geschrieben. Erst danach werden die Medien
+     * verliehen. Schlägt das Schreiben fehl, wird nichts verliehen.
+     * 
+     * @param auftrag
+     *            Der auszuführende Verleihauftrag.
+     * 
+     * @return true, wenn die Medien verliehen wurden, sonst false.
+     * 
+     * @throws ProtokollierException
+     *             Wenn Journal oder Protokoll nicht geschrieben werden
+     *             konnten. Es wurde dann nichts verliehen.
+     * 
+     * @require auftrag != null && !auftrag.istLeer()
+     * @require alle Kunden und Medien des Auftrags sind im Bestand
+     * 
+     * @ensure !result || sindAlleVerliehen(auftrag.getMedien())
+     */
+    boolean verleiheWennMoeglich(Verleihauftrag auftrag)
+            throws ProtokollierException;
+
     /**
      * Liefert den Entleiher des angegebenen Mediums.
      * 
@@ -119,14 +188,19 @@ public interface VerleihService extends BeobachtbarerService
 
     /**
      * Nimmt zuvor ausgeliehene Medien zurück. Die entsprechenden Verleihkarten
-     * werden gelöscht.
-     * 
+     * werden gelöscht. Für jedes zurückgenommene Medium, das vorgemerkt ist,
+     * werden die Beobachter mit {@link Aenderung#abholbereit(Medium, Kunde)}
+     * benachrichtigt, damit es für seinen ersten Vormerker zurückgelegt wird.
      * 
      * @param medien
      *            Die Medien.
      * @param rueckgabeDatum
      *            Das Rückgabedatum.
      * 
+     * @throws ProtokollierException
+     *             Wenn beim Protokollieren des Rückgabevorgangs ein Fehler
+     *             auftritt. Es wurde dann nichts zurückgenommen.
+     * 
      * @require sindAlleVerliehen(medien)
      * @require rueckgabeDatum != null
      * 
@@ -222,6 +296,42 @@ public interface VerleihService extends BeobachtbarerService
      */
     List<Verleihkarte> getVerleihkartenFuer(Kunde kunde);
 
+    /**
+     * Gibt die Verleihkarten zurück, deren Ausleihdatum zwischen den beiden
+     * angegebenen Daten liegt. Beide Daten sind eingeschlossen.
+     * 
+     * @param von
+     *            Der erste Ausleihtag des Zeitraums.
+     * @param bis
+     *            Der letzte Ausleihtag des Zeitraums.
+     * @return Die Verleihkarten aufsteigend nach Ausleihdatum, leer wenn bis
+     *         vor von liegt.
+     * 
+     * @require von != null
+     * @require bis != null
+     * 
+     * @ensure result != null
+     */
+    List<Verleihkarte> getVerleihkartenAusgeliehenZwischen(Datum von, Datum bis);
+
+    /**
+     * Gibt die Verleihkarten zurück, deren Ausleihdauer am Stichtag mehr als
+     * die angegebene Anzahl von Tagen beträgt, zum Beispiel für das Mahnwesen.
+     * 
+     * @param tage
+     *            Die Anzahl der Tage, die eine Ausleihe dauern darf.
+     * @param stichtag
+     *            Der Tag, an dem die Ausleihdauer gemessen wird.
+     * @return Die Verleihkarten mit getAusleihdauer(stichtag) > tage,
+     *         aufsteigend nach Ausleihdatum.
+     * 
+     * @require tage >= 0
+     * @require stichtag != null
+     * 
+     * @ensure result != null
+     */
+    List<Verleihkarte> getVerleihkartenAelterAls(int tage, Datum stichtag);
+
     /**
      * Gibt die Verleihkarte für das angegebene Medium zurück, oder null wenn
      * das Medium nicht verliehen ist.
@@ -252,10 +362,31 @@ public interface VerleihService extends BeobachtbarerService
      * @require istVormerkenMoeglich(kunde)
      * @require mediumImBestand(medium)
      * @ensure getVormerker.contains(kunde)
-     * @ensure getVormerker.size <= 3
+     * @ensure getVormerker.size <= maximale Länge der Vormerkliste
      */
     void setVormerker(Kunde kunde, Medium medium);
 
+    /**
+     * Setzt den Kunden als neuen Vormerker an das Ende der Liste, wenn
+     * {@link #istVormerkenMoeglich(List, Kunde)}. Anders als ein Aufruf von
+     * istVormerkenMoeglich gefolgt von {@link #setVormerker(Kunde, Medium)}
+     * kann dazwischen keine andere Vormerkung oder Ausleihe das Vormerken
+     * unmöglich machen.
+     * 
+     * @param kunde
+     *            vormerkender Kunde
+     * @param medium
+     *            vorzumerkendes Medium
+     * 
+     * @return true, wenn der Kunde vorgemerkt wurde, sonst false.
+     * 
+     * @require kundeImBestand(kunde)
+     * @require mediumImBestand(medium)
+     * 
+     * @ensure !result || getVormerker(medium).contains(kunde)
+     */
+    boolean vormerkenWennMoeglich(Kunde kunde, Medium medium);
+
     /**
      * Liefert eine Liste der Vormerker für das Medium
      * 
@@ -267,6 +398,20 @@ public interface VerleihService extends BeobachtbarerService
      */
     List<Kunde> getVormerker(Medium medium);
 
+    /**
+     * Liefert die Medien, die der Kunde vorgemerkt hat, in der Reihenfolge
+     * seiner Vormerkungen.
+     * 
+     * @param kunde
+     *            Ein Kunde.
+     * 
+     * @return Die vorgemerkten Medien.
+     * 
+     * @require kundeImBestand(kunde)
+     * @ensure result != null
+     */
+    List<Medium> getVorgemerkteMedienFuer(Kunde kunde);
+
     /**
      * Gibt den Kunden an erster Stelle der Vormerkliste aus. Kann auch null
      * sein.
@@ -1,6 +1,7 @@
 package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -10,8 +11,11 @@ import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.AbstractBeobachtbarerService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.vormerk.VormerkService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.vormerk.VormerkServiceImpl;
 
 /**
  * Diese Klasse implementiert das Interface VerleihService. Siehe dortiger
@@ -28,6 +32,19 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
      */
     private Map<Medium, Verleihkarte> _verleihkarten;
 
+    /**
+     * Die Verleihkarten je Entleiher. Dieser Index wird parallel zu
+     * _verleihkarten gepflegt, damit die Anfragen für einen Kunden nicht alle
+     * Verleihkarten durchlaufen müssen.
+     */
+    private Map<Kunde, List<Verleihkarte>> _verleihkartenProKunde;
+
+    /**
+     * Die Verleihkarten nach Ausleihdatum, ebenfalls parallel zu
+     * _verleihkarten gepflegt.
+     */
+    private Ausleihindex _ausleihindex;
+
     /**
      * Der Medienbestand.
      */
@@ -39,9 +56,14 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
     private KundenstammService _kundenstamm;
 
     /**
-     * Der Protokollierer für die Verleihvorgänge.
+     * Hält die Verleihvorgänge in Journal und Protokoll fest.
      */
-    private Verleihprotokollierer _protokollierer;
+    private Vorgangsschreiber _vorgangsschreiber;
+
+    /**
+     * Der Service, der die Vormerklisten der Medien verwaltet.
+     */
+    private VormerkService _vormerkService;
 
     /**
      * Konstruktor. Erzeugt einen neuen {@link VerleihServiceImpl}.
@@ -60,14 +82,162 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
     public VerleihServiceImpl(KundenstammService kundenstamm,
             MedienbestandService medienbestand,
             List<Verleihkarte> initialBestand)
+    {
+        this(kundenstamm, medienbestand, initialBestand,
+                new Verleihprotokollierer());
+    }
+
+    /**
+     * Konstruktor. Erzeugt einen neuen {@link VerleihServiceImpl}, der das
+     * Verleihprotokoll mit der angegebenen Synchronisierung schreibt.
+     * 
+     * @param kundenstamm
+     *            Der {@link KundenstammService}.
+     * @param medienbestand
+     *            Der {@link MedienbestandService}.
+     * @param initialBestand
+     *            Der initiale Bestand.
+     * @param synchronisierung
+     *            Legt fest, wann das Verleihprotokoll auf die Platte
+     *            gezwungen wird.
+     * 
+     * @require kundenstamm != null
+     * @require medienbestand != null
+     * @require initialBestand != null
+     * @require synchronisierung != null
+     */
+    public VerleihServiceImpl(KundenstammService kundenstamm,
+            MedienbestandService medienbestand,
+            List<Verleihkarte> initialBestand,
+            Protokollsynchronisierung synchronisierung)
+    {
+        this(kundenstamm, medienbestand, initialBestand,
+                new Verleihprotokollierer(synchronisierung));
+    }
+
+    /**
+     * Konstruktor. Erzeugt einen neuen {@link VerleihServiceImpl}, der das
+     * Verleihprotokoll mit der angegebenen Synchronisierung schreibt und nach
+     * der angegebenen Rotation in Segmente aufteilt.
+     * 
+     * @param kundenstamm
+     *            Der {@link KundenstammService}.
+     * @param medienbestand
+     *            Der {@link MedienbestandService}.
+     * @param initialBestand
+     *            Der initiale Bestand.
+     * @param synchronisierung
+     *            Legt fest, wann das Verleihprotokoll auf die Platte
+     *            gezwungen wird.
+     * @param rotation
+     *            Legt fest, wann ein neues Segment des Verleihprotokolls
+     *            begonnen wird.
+     * 
+     * @require kundenstamm != null
+     * @require medienbestand != null
+     * @require initialBestand != null
+     * @require synchronisierung != null
+     * @require rotation != null
+     */
+    public VerleihServiceImpl(KundenstammService kundenstamm,
+            MedienbestandService medienbestand,
+            List<Verleihkarte> initialBestand,
+            Protokollsynchronisierung synchronisierung,
+            Protokollrotation rotation)
+    {
+        this(kundenstamm, medienbestand, initialBestand,
+                new Verleihprotokollierer(synchronisierung, rotation));
+    }
+
+    /**
+     * Konstruktor. Erzeugt einen neuen {@link VerleihServiceImpl}, der die
+     * Vormerklisten mit dem angegebenen VormerkService verwaltet und das
+     * Verleihprotokoll mit der angegebenen Synchronisierung schreibt und nach
+     * der angegebenen Rotation in Segmente aufteilt.
+     * 
+     * @param kundenstamm
+     *            Der {@link KundenstammService}.
+     * @param medienbestand
+     *            Der {@link MedienbestandService}.
+     * @param initialBestand
+     *            Der initiale Bestand.
+     * @param vormerkService
+     *            Ein VormerkService für denselben Medienbestand.
+     * @param synchronisierung
+     *            Legt fest, wann das Verleihprotokoll auf die Platte
+     *            gezwungen wird.
+     * @param rotation
+     *            Legt fest, wann ein neues Segment des Verleihprotokolls
+     *            begonnen wird.
+     * 
+     * @require kundenstamm != null
+     * @require medienbestand != null
+     * @require initialBestand != null
+     * @require vormerkService != null
+     * @require synchronisierung != null
+     * @require rotation != null
+     */
+    public VerleihServiceImpl(KundenstammService kundenstamm,
+            MedienbestandService medienbestand,
+            List<Verleihkarte> initialBestand, VormerkService vormerkService,
+            Protokollsynchronisierung synchronisierung,
+            Protokollrotation rotation)
+    {
+        this(kundenstamm, medienbestand, initialBestand, vormerkService,
+                new Verleihprotokollierer(synchronisierung, rotation));
+    }
+
+    /**
+     * Konstruktor. Erzeugt einen neuen {@link VerleihServiceImpl}, der mit dem
+     * gegebenen Protokollierer protokolliert und einen
+     * {@link VormerkServiceImpl} mit der Standardlänge der Vormerklisten
+     * benutzt.
+     */
+    VerleihServiceImpl(KundenstammService kundenstamm,
+            MedienbestandService medienbestand,
+            List<Verleihkarte> initialBestand,
+            Verleihprotokollierer protokollierer)
+    {
+        this(kundenstamm, medienbestand, initialBestand,
+                new VormerkServiceImpl(kundenstamm, medienbestand),
+                protokollierer);
+    }
+
+    /**
+     * Konstruktor. Erzeugt einen neuen {@link VerleihServiceImpl}, der mit dem
+     * gegebenen VormerkService und Protokollierer arbeitet.
+     */
+    VerleihServiceImpl(KundenstammService kundenstamm,
+            MedienbestandService medienbestand,
+            List<Verleihkarte> initialBestand, VormerkService vormerkService,
+            Verleihprotokollierer protokollierer)
     {
         assert kundenstamm != null : "Vorbedingung verletzt: kundenstamm  != null";
         assert medienbestand != null : "Vorbedingung verletzt: medienbestand  != null";
         assert initialBestand != null : "Vorbedingung verletzt: initialBestand  != null";
+        assert vormerkService != null : "Vorbedingung verletzt: vormerkService != null";
         _verleihkarten = erzeugeVerleihkartenBestand(initialBestand);
+        _verleihkartenProKunde = erzeugeKundenIndex(initialBestand);
+        _ausleihindex = new Ausleihindex(_verleihkarten.values());
         _kundenstamm = kundenstamm;
         _medienbestand = medienbestand;
-        _protokollierer = new Verleihprotokollierer();
+        protokollierer.beginneMit(initialBestand);
+        _vorgangsschreiber = new Vorgangsschreiber(medienbestand,
+                protokollierer);
+        _vormerkService = vormerkService;
+    }
+
+    /**
+     * Setzt das Journal, in dem ab jetzt jede Ausleihe und Rückgabe
+     * festgehalten wird.
+     * 
+     * @param journal
+     *            Ein geöffnetes Verleihjournal oder null, wenn kein Journal
+     *            geschrieben werden soll.
+     */
+    public void setVerleihjournal(Verleihjournal journal)
+    {
+        _vorgangsschreiber.setVerleihjournal(journal);
     }
 
     /**
@@ -84,6 +254,55 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
         return result;
     }
 
+    /**
+     * Erzeugt den Index der Verleihkarten je Entleiher aus dem Initialbestand.
+     */
+    private HashMap<Kunde, List<Verleihkarte>> erzeugeKundenIndex(
+            List<Verleihkarte> initialBestand)
+    {
+        HashMap<Kunde, List<Verleihkarte>> result = new HashMap<Kunde, List<Verleihkarte>>();
+        for (Verleihkarte verleihkarte : initialBestand)
+        {
+            fuegeInKundenIndexEin(result, verleihkarte);
+        }
+        return result;
+    }
+
+    /**
+     * Trägt eine Verleihkarte unter ihrem Entleiher in den Index ein.
+     */
+    private static void fuegeInKundenIndexEin(
+            Map<Kunde, List<Verleihkarte>> index, Verleihkarte verleihkarte)
+    {
+        List<Verleihkarte> verleihkarten = index.get(verleihkarte
+                .getEntleiher());
+        if (verleihkarten == null)
+        {
+            verleihkarten = new ArrayList<Verleihkarte>();
+            index.put(verleihkarte.getEntleiher(), verleihkarten);
+        }
+        verleihkarten.add(verleihkarte);
+    }
+
+    /**
+     * Entfernt eine Verleihkarte aus dem Index. Hat der Entleiher danach
+     * nichts mehr ausgeliehen, wird sein Eintrag ganz entfernt.
+     */
+    private static void entferneAusKundenIndex(
+            Map<Kunde, List<Verleihkarte>> index, Verleihkarte verleihkarte)
+    {
+        List<Verleihkarte> verleihkarten = index.get(verleihkarte
+                .getEntleiher());
+        if (verleihkarten != null)
+        {
+            verleihkarten.remove(verleihkarte);
+            if (verleihkarten.isEmpty())
+            {
+                index.remove(verleihkarte.getEntleiher());
+            }
+        }
+    }
+
     @Override
     public List<Verleihkarte> getVerleihkarten()
     {
@@ -106,7 +325,7 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
         for (Medium medium : medien)
         {
 
-            Kunde vormerker = medium.getErsterVormerker();
+            Kunde vormerker = _vormerkService.getErsterVormerker(medium);
 
             if (vormerker != null && !vormerker.equals(kunde))
             {
@@ -123,14 +342,38 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
         assert sindAlleVerliehen(medien) : "Vorbedingung verletzt: sindVerliehen(medien)";
         assert rueckgabeDatum != null : "Vorbedingung verletzt: rueckgabeDatum != null";
 
+        List<Verleihkarte> zurueckgenommen = new ArrayList<Verleihkarte>(
+                medien.size());
         for (Medium medium : medien)
         {
-            Verleihkarte verleihkarte = _verleihkarten.get(medium);
-            _verleihkarten.remove(medium);
-            _protokollierer.protokolliere(EREIGNIS_RUECKGABE, verleihkarte);
+            zurueckgenommen.add(_verleihkarten.get(medium));
         }
+        _vorgangsschreiber.halteRueckgabeFest(zurueckgenommen, rueckgabeDatum);
 
-        informiereUeberAenderung();
+        for (Verleihkarte verleihkarte : zurueckgenommen)
+        {
+            _verleihkarten.remove(verleihkarte.getMedium());
+            entferneAusKundenIndex(_verleihkartenProKunde, verleihkarte);
+            _ausleihindex.entferne(verleihkarte);
+        }
+        beginneStapel();
+        try
+        {
+            informiereUeberAenderung(Aenderung.zurueckgenommen(medien));
+            for (Medium medium : medien)
+            {
+                Kunde vormerker = _vormerkService.getErsterVormerker(medium);
+                if (vormerker != null)
+                {
+                    informiereUeberAenderung(Aenderung.abholbereit(medium,
+                            vormerker));
+                }
+            }
+        }
+        finally
+        {
+            beendeStapel();
+        }
     }
 
     @Override
@@ -172,17 +415,80 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
         assert ausleihDatum != null : "Vorbedingung verletzt: ausleihDatum != null";
         assert istVerleihenMoeglich(medien, kunde) : "Vorbedingung verletzt:  istVerleihenMoeglich(medien, kunde)";
 
-        for (Medium medium : medien)
+        Verleihauftrag auftrag = new Verleihauftrag(ausleihDatum);
+        auftrag.fuegeHinzu(kunde, medien);
+        verleihe(auftrag);
+    }
+
+    @Override
+    public boolean verleiheWennMoeglich(Kunde kunde, List<Medium> medien,
+            Datum ausleihDatum) throws ProtokollierException
+    {
+        assert ausleihDatum != null : "Vorbedingung verletzt: ausleihDatum != null";
+        boolean result = istVerleihenMoeglich(medien, kunde);
+        if (result)
         {
-            medium.vormerkerLoeschen(kunde);
-            
-            Verleihkarte verleihkarte = new Verleihkarte(kunde, medium,
-                    ausleihDatum);
-            _verleihkarten.put(medium, verleihkarte);
-            _protokollierer.protokolliere(EREIGNIS_AUSLEIHE, verleihkarte);
+            verleiheAn(kunde, medien, ausleihDatum);
         }
+        return result;
+    }
+
+    @Override
+    public boolean istVerleihenMoeglich(Verleihauftrag auftrag)
+    {
+        assert auftrag != null && !auftrag.istLeer() : "Vorbedingung verletzt: auftrag != null && !auftrag.istLeer()";
+        boolean result = true;
+        for (Kunde kunde : auftrag.getKunden())
+        {
+            result &= istVerleihenMoeglich(auftrag.getMedienFuer(kunde), kunde);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean verleiheWennMoeglich(Verleihauftrag auftrag)
+            throws ProtokollierException
+    {
+        boolean result = istVerleihenMoeglich(auftrag);
+        if (result)
+        {
+            verleihe(auftrag);
+        }
+        return result;
+    }
 
-        informiereUeberAenderung();
+    /**
+     * Hält den Auftrag in Journal und Protokoll fest und verleiht erst dann
+     * seine Medien. Die Beobachter werden einmal für den ganzen Auftrag
+     * benachrichtigt.
+     */
+    private void verleihe(Verleihauftrag auftrag) throws ProtokollierException
+    {
+        List<Verleihkarte> verliehen = auftrag.erzeugeVerleihkarten();
+        _vorgangsschreiber.halteAusleiheFest(verliehen,
+                auftrag.getAusleihdatum());
+
+        for (Verleihkarte verleihkarte : verliehen)
+        {
+            loescheVormerkung(verleihkarte.getEntleiher(),
+                    verleihkarte.getMedium());
+            _verleihkarten.put(verleihkarte.getMedium(), verleihkarte);
+            fuegeInKundenIndexEin(_verleihkartenProKunde, verleihkarte);
+            _ausleihindex.fuegeEin(verleihkarte);
+        }
+        beginneStapel();
+        try
+        {
+            for (Kunde kunde : auftrag.getKunden())
+            {
+                informiereUeberAenderung(Aenderung.verliehen(
+                        auftrag.getMedienFuer(kunde), kunde));
+            }
+        }
+        finally
+        {
+            beendeStapel();
+        }
     }
 
     @Override
@@ -220,12 +526,9 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
     {
         assert kundeImBestand(kunde) : "Vorbedingung verletzt: kundeImBestand(kunde)";
         List<Medium> result = new ArrayList<Medium>();
-        for (Verleihkarte verleihkarte : _verleihkarten.values())
+        for (Verleihkarte verleihkarte : getVerleihkartenAusIndex(kunde))
         {
-            if (verleihkarte.getEntleiher().equals(kunde))
-            {
-                result.add(verleihkarte.getMedium());
-            }
+            result.add(verleihkarte.getMedium());
         }
         return result;
     }
@@ -249,15 +552,40 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
     public List<Verleihkarte> getVerleihkartenFuer(Kunde kunde)
     {
         assert kundeImBestand(kunde) : "Vorbedingung verletzt: kundeImBestand(kunde)";
-        List<Verleihkarte> result = new ArrayList<Verleihkarte>();
-        for (Verleihkarte verleihkarte : _verleihkarten.values())
+        return new ArrayList<Verleihkarte>(getVerleihkartenAusIndex(kunde));
+    }
+
+    @Override
+    public List<Verleihkarte> getVerleihkartenAusgeliehenZwischen(Datum von,
+            Datum bis)
+    {
+        assert von != null : "Vorbedingung verletzt: von != null";
+        assert bis != null : "Vorbedingung verletzt: bis != null";
+        return _ausleihindex.getAusgeliehenZwischen(von, bis);
+    }
+
+    @Override
+    public List<Verleihkarte> getVerleihkartenAelterAls(int tage, Datum stichtag)
+    {
+        assert tage >= 0 : "Vorbedingung verletzt: tage >= 0";
+        assert stichtag != null : "Vorbedingung verletzt: stichtag != null";
+        // Die Ausleihdauer ist stichtag.tageSeit(ausleihdatum), sie ist
+        // größer als tage genau für die Karten vor stichtag.minus(tage).
+        return _ausleihindex.getAusgeliehenVor(stichtag.minus(tage));
+    }
+
+    /**
+     * Liefert die im Index eingetragenen Verleihkarten eines Kunden, oder
+     * eine leere Liste, wenn der Kunde nichts ausgeliehen hat.
+     */
+    private List<Verleihkarte> getVerleihkartenAusIndex(Kunde kunde)
+    {
+        List<Verleihkarte> verleihkarten = _verleihkartenProKunde.get(kunde);
+        if (verleihkarten == null)
         {
-            if (verleihkarte.getEntleiher().equals(kunde))
-            {
-                result.add(verleihkarte);
-            }
+            verleihkarten = Collections.emptyList();
         }
-        return result;
+        return verleihkarten;
     }
 
     /*
@@ -271,12 +599,24 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
         assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumImBestand(medium)";
         assert istVormerkenMoeglich(kunde, medium) : "Vorbedingung verletzt: istVormerkenMoeglich(kunde, medium)";
 
-        medium.setVormerker(kunde);
+        _vormerkService.setVormerker(kunde, medium);
 
-        List<Kunde> vormerker = getVormerker(medium);
-        assert vormerker.contains(kunde) : "Nachbedingung verletzt: getVormerker(medium).contains(kunde)";
-        assert vormerker.size() <= 3 : "Nachbedingung verletzt: vormerker.size() <= 3";
-        informiereUeberAenderung();
+        assert _vormerkService.istVorgemerkt(kunde, medium) : "Nachbedingung verletzt: getVormerker(medium).contains(kunde)";
+        informiereUeberAenderung(Aenderung.vormerkerGeaendert(medium, kunde));
+    }
+
+    @Override
+    public boolean vormerkenWennMoeglich(Kunde kunde, Medium medium)
+    {
+        assert kundeImBestand(kunde) : "Vorbedingung verletzt: kundeImBestand(kunde)";
+        assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumImBestand(medium)";
+
+        boolean result = istVormerkenMoeglich(kunde, medium);
+        if (result)
+        {
+            setVormerker(kunde, medium);
+        }
+        return result;
     }
 
     @Override
@@ -284,8 +624,15 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
     {
         assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumImBestand(medium)";
 
-        List<Kunde> vormerker = medium.getVormerker();
-        return vormerker;
+        return _vormerkService.getVormerker(medium);
+    }
+
+    @Override
+    public List<Medium> getVorgemerkteMedienFuer(Kunde kunde)
+    {
+        assert kundeImBestand(kunde) : "Vorbedingung verletzt: kundeImBestand(kunde)";
+
+        return _vormerkService.getVorgemerkteMedienFuer(kunde);
     }
 
     @Override
@@ -293,7 +640,7 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
     {
         assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumImBestand(medium)";
 
-        return medium.getErsterVormerker();
+        return _vormerkService.getErsterVormerker(medium);
     }
 
     @Override
@@ -301,12 +648,12 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
     {
         assert kundeImBestand(kunde) : "Vorbedingung verletzt: kundeImBestand(kunde)";
         assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumImBestand(medium)";
-        assert getVormerker(medium).contains(kunde) : "Nachbedingung verletzt: getVormerker(medium).contains(kunde)";
+        assert _vormerkService.istVorgemerkt(kunde, medium) : "Vorbedingung verletzt: getVormerker(medium).contains(kunde)";
 
-        medium.vormerkerLoeschen(kunde);
+        _vormerkService.vormerkerLoeschen(kunde, medium);
 
-        assert !getVormerker(medium).contains(kunde) : "Nachbedingung verletzt: !getVormerker(medium).contains(kunde)";
-        informiereUeberAenderung();
+        assert !_vormerkService.istVorgemerkt(kunde, medium) : "Nachbedingung verletzt: !getVormerker(medium).contains(kunde)";
+        informiereUeberAenderung(Aenderung.vormerkerGeaendert(medium, kunde));
     }
 
     private boolean istVormerkenMoeglich(Kunde kunde, Medium medium)
@@ -319,11 +666,6 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
     @Override
     public boolean istVormerkenMoeglich(List<Medium> medien, Kunde kunde)
     {
-        // assert kundeImBestand(kunde) :
-        // "Vorbedingung verletzt: kundeImBestand(kunde)";
-        // assert mediumImBestand(medium) :
-        // "Vorbedingung verletzt: mediumImBestand(medium)";
-
         for (Medium medium : medien)
         {
             if (kunde == null || medium == null)
@@ -335,7 +677,7 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
             {
                 return false;
             }
-            else if (!medium.istVormerkenMoeglich(kunde))
+            else if (!_vormerkService.istVormerkenMoeglich(kunde, medium))
             {
                 return false;
             }
@@ -344,4 +686,16 @@ public class VerleihServiceImpl extends AbstractBeobachtbarerService implements
         return true;
     }
 
+    /**
+     * Löscht die Vormerkung des Kunden für das Medium, wenn er es vorgemerkt
+     * hat.
+     */
+    private void loescheVormerkung(Kunde kunde, Medium medium)
+    {
+        if (_vormerkService.istVorgemerkt(kunde, medium))
+        {
+            _vormerkService.vormerkerLoeschen(kunde, medium);
+        }
+    }
+
 }
@@ -17,11 +17,15 @@ import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.AenderungsBeobachter;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderungsart;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.ServiceBeobachter;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammServiceImpl;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandServiceImpl;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.vormerk.VormerkServiceImpl;
 
 /**
  */
@@ -32,6 +36,8 @@ public class VerleihServiceImplTest
     private VerleihService _service;
     private List<Medium> _medienListe;
     private Kunde _vormerkkunde;
+    private KundenstammService _kundenstamm;
+    private MedienbestandService _medienbestand;
 
     @Before
     public void setUp()
@@ -45,8 +51,10 @@ public class VerleihServiceImplTest
 
         kundenstamm.fuegeKundenEin(_kunde);
         kundenstamm.fuegeKundenEin(_vormerkkunde);
+        _kundenstamm = kundenstamm;
         MedienbestandService medienbestand = new MedienbestandServiceImpl(
                 new ArrayList<Medium>());
+        _medienbestand = medienbestand;
         Medium medium = new CD("CD1", "baz", "foo", 123);
         medienbestand.fuegeMediumEin(medium);
         medium = new CD("CD2", "baz", "foo", 123);
@@ -110,6 +118,55 @@ public class VerleihServiceImplTest
         assertTrue(_service.getVerleihkarten().isEmpty());
     }
 
+    @Test
+    public void testeVerleiheWennMoeglich() throws Exception
+    {
+        List<Medium> medien = _medienListe.subList(0, 2);
+        _service.setVormerker(_vormerkkunde, medien.get(1));
+        assertFalse(_service.verleiheWennMoeglich(_kunde, medien, _datum));
+        assertTrue(_service.sindAlleNichtVerliehen(medien));
+        assertTrue(_service.verleiheWennMoeglich(_vormerkkunde, medien, _datum));
+        assertTrue(_service.sindAlleVerliehen(medien));
+        assertFalse(_service.verleiheWennMoeglich(_kunde,
+                _medienListe.subList(1, 3), _datum));
+        assertFalse(_service.istVerliehen(_medienListe.get(2)));
+    }
+
+    @Test
+    public void testeVerleihauftrag() throws Exception
+    {
+        _service.setVormerker(_vormerkkunde, _medienListe.get(3));
+        final int[] ereignisse = new int[1];
+        _service.registriereBeobachter(new ServiceBeobachter()
+        {
+            @Override
+            public void informiereUeberAenderung()
+            {
+                ereignisse[0]++;
+            }
+        });
+
+        Verleihauftrag auftrag = new Verleihauftrag(_datum);
+        auftrag.fuegeHinzu(_kunde, _medienListe.subList(0, 2));
+        auftrag.fuegeHinzu(_vormerkkunde, _medienListe.subList(2, 3));
+        auftrag.fuegeHinzu(_kunde, _medienListe.subList(3, 4));
+        assertFalse(_service.istVerleihenMoeglich(auftrag));
+        assertFalse(_service.verleiheWennMoeglich(auftrag));
+        assertTrue(_service.sindAlleNichtVerliehen(_medienListe));
+        assertEquals(0, ereignisse[0]);
+
+        auftrag = new Verleihauftrag(_datum);
+        auftrag.fuegeHinzu(_kunde, _medienListe.subList(0, 2));
+        auftrag.fuegeHinzu(_vormerkkunde, _medienListe.subList(2, 4));
+        assertTrue(_service.verleiheWennMoeglich(auftrag));
+        assertEquals(_medienListe.subList(0, 2),
+                _service.getAusgelieheneMedienFuer(_kunde));
+        assertEquals(_medienListe.subList(2, 4),
+                _service.getAusgelieheneMedienFuer(_vormerkkunde));
+        assertTrue(_service.getVormerker(_medienListe.get(3)).isEmpty());
+        assertEquals(1, ereignisse[0]);
+    }
+
     @Test
     public void testVerleihEreignisBeobachter() throws ProtokollierException
     {
@@ -139,6 +196,125 @@ public class VerleihServiceImplTest
         assertFalse(ereignisse[0]);
     }
 
+    @Test
+    public void testeVerleihkartenFuerKunden() throws Exception
+    {
+        List<Medium> medienKunde = _medienListe.subList(0, 2);
+        List<Medium> medienVormerkkunde = _medienListe.subList(2, 3);
+        _service.verleiheAn(_kunde, medienKunde, _datum);
+        _service.verleiheAn(_vormerkkunde, medienVormerkkunde, _datum);
+
+        assertEquals(medienKunde, _service.getAusgelieheneMedienFuer(_kunde));
+        assertEquals(medienVormerkkunde,
+                _service.getAusgelieheneMedienFuer(_vormerkkunde));
+        assertEquals(2, _service.getVerleihkartenFuer(_kunde).size());
+        assertEquals(_kunde, _service.getVerleihkartenFuer(_kunde).get(0)
+                .getEntleiher());
+
+        _service.nimmZurueck(_medienListe.subList(0, 1), _datum);
+        assertEquals(_medienListe.subList(1, 2),
+                _service.getAusgelieheneMedienFuer(_kunde));
+
+        _service.nimmZurueck(_medienListe.subList(1, 3), _datum);
+        assertTrue(_service.getAusgelieheneMedienFuer(_kunde).isEmpty());
+        assertTrue(_service.getVerleihkartenFuer(_vormerkkunde).isEmpty());
+    }
+
+    @Test
+    public void testeVerleihkartenNachAusleihdatum() throws Exception
+    {
+        Datum stichtag = _datum.plus(30);
+        _service.verleiheAn(_kunde, _medienListe.subList(2, 3), _datum.plus(20));
+        _service.verleiheAn(_kunde, _medienListe.subList(0, 2), _datum);
+        _service.verleiheAn(_vormerkkunde, _medienListe.subList(3, 4),
+                _datum.plus(10));
+
+        List<Verleihkarte> zeitraum = _service
+                .getVerleihkartenAusgeliehenZwischen(_datum.plus(10),
+                        _datum.plus(20));
+        assertEquals(2, zeitraum.size());
+        assertEquals(_medienListe.get(3), zeitraum.get(0).getMedium());
+        assertEquals(_medienListe.get(2), zeitraum.get(1).getMedium());
+        assertEquals(4,
+                _service.getVerleihkartenAusgeliehenZwischen(_datum, stichtag)
+                        .size());
+        assertTrue(_service.getVerleihkartenAusgeliehenZwischen(stichtag,
+                _datum).isEmpty());
+
+        // Ausleihdauer am Stichtag: 30, 30, 20 und 10 Tage
+        assertEquals(4, _service.getVerleihkartenAelterAls(0, stichtag).size());
+        assertEquals(3, _service.getVerleihkartenAelterAls(10, stichtag)
+                .size());
+        List<Verleihkarte> ueberzogen = _service.getVerleihkartenAelterAls(20,
+                stichtag);
+        assertEquals(2, ueberzogen.size());
+        for (Verleihkarte karte : ueberzogen)
+        {
+            assertTrue(karte.getAusleihdauer(stichtag) > 20);
+        }
+        assertTrue(_service.getVerleihkartenAelterAls(30, stichtag).isEmpty());
+
+        _service.nimmZurueck(_medienListe.subList(0, 1), stichtag);
+        assertEquals(1, _service.getVerleihkartenAelterAls(20, stichtag)
+                .size());
+        assertEquals(_medienListe.get(1),
+                _service.getVerleihkartenAelterAls(20, stichtag).get(0)
+                        .getMedium());
+        _service.nimmZurueck(_medienListe.subList(1, 4), stichtag);
+        assertTrue(_service.getVerleihkartenAelterAls(0, stichtag).isEmpty());
+    }
+
+    @Test
+    public void testeRuecknahmeMeldetErstenVormerker() throws Exception
+    {
+        List<Medium> medien = _medienListe.subList(0, 2);
+        _service.verleiheAn(_kunde, medien, _datum);
+        _service.setVormerker(_vormerkkunde, medien.get(1));
+        assertEquals(medien.subList(1, 2),
+                _service.getVorgemerkteMedienFuer(_vormerkkunde));
+        assertTrue(_service.getVorgemerkteMedienFuer(_kunde).isEmpty());
+
+        final List<Aenderung> aenderungen = new ArrayList<Aenderung>();
+        _service.registriereAenderungsBeobachter(new AenderungsBeobachter()
+        {
+            @Override
+            public void informiereUeberAenderungen(List<Aenderung> neue)
+            {
+                aenderungen.addAll(neue);
+            }
+        });
+        _service.nimmZurueck(medien, _datum);
+        assertEquals(2, aenderungen.size());
+        assertEquals(Aenderungsart.ZURUECKGENOMMEN, aenderungen.get(0).getArt());
+        assertEquals(Aenderungsart.ABHOLBEREIT, aenderungen.get(1).getArt());
+        assertEquals(medien.subList(1, 2), aenderungen.get(1).getMedien());
+        assertEquals(_vormerkkunde, aenderungen.get(1).getKunde());
+
+        _service.verleiheAn(_vormerkkunde, medien.subList(1, 2), _datum);
+        assertTrue(_service.getVorgemerkteMedienFuer(_vormerkkunde).isEmpty());
+        assertTrue(_service.getVormerker(medien.get(1)).isEmpty());
+    }
+
+    @Test
+    public void testeVormerklisteMitEigenerLaenge() throws Exception
+    {
+        Medium medium = _medienListe.get(0);
+        _service = new VerleihServiceImpl(_kundenstamm, _medienbestand,
+                new ArrayList<Verleihkarte>(), new VormerkServiceImpl(
+                        _kundenstamm, _medienbestand, 1),
+                new Verleihprotokollierer());
+        _service.setVormerker(_kunde, medium);
+        assertFalse(_service.istVormerkenMoeglich(
+                Collections.singletonList(medium), _vormerkkunde));
+        _service.vormerkerLoeschen(_kunde, medium);
+        assertTrue(_service.istVormerkenMoeglich(
+                Collections.singletonList(medium), _vormerkkunde));
+        assertTrue(_service.vormerkenWennMoeglich(_vormerkkunde, medium));
+        assertFalse(_service.vormerkenWennMoeglich(_kunde, medium));
+        assertEquals(Collections.singletonList(_vormerkkunde),
+                _service.getVormerker(medium));
+    }
+
         @Test
         public void testVormerken()
         {
@@ -150,15 +326,14 @@ public class VerleihServiceImplTest
             List<Kunde> kunden = new ArrayList<Kunde>();
             kunden.add(kunde1);
 
-            if (nichtVerliehenesMedium.istVormerkenMoeglich(kunde1) == true)
+            if (_service.vormerkenWennMoeglich(kunde1, nichtVerliehenesMedium))
             {
-                nichtVerliehenesMedium.setVormerker(kunde1);
-                assertEquals(nichtVerliehenesMedium.getVormerker(), kunden);
+                assertEquals(_service.getVormerker(nichtVerliehenesMedium),
+                        kunden);
             }
-            if (entliehenesMedium.istVormerkenMoeglich(kunde1) == true)
+            if (_service.vormerkenWennMoeglich(kunde1, entliehenesMedium))
             {
-                entliehenesMedium.setVormerker(kunde1);
-                assertEquals(entliehenesMedium.getVormerker(), kunden);
+                assertEquals(_service.getVormerker(entliehenesMedium), kunden);
             }
         }
     
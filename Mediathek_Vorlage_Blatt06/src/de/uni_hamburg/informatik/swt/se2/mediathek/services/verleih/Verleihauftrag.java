@@ -0,0 +1,177 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+
+/**
+ * Ein Verleihauftrag sammelt die Ausleihen mehrerer Kunden an einem Tag, etwa
+ * einer Schulklasse, damit der {@link VerleihService} sie mit
+ * {@link VerleihService#verleiheWennMoeglich(Verleihauftrag)} als ein Ganzes
+ * ausführt: Alle Vorbedingungen werden einmal geprüft, Journal und Protokoll
+ * werden je einmal für den ganzen Auftrag geschrieben, und verliehen wird
+ * entweder alles oder nichts.
+ *
+ * Jedes Medium kann nur einmal im Auftrag vorkommen.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class Verleihauftrag
+{
+    private final Datum _ausleihdatum;
+
+    /**
+     * Die Medien je Kunde, in der Reihenfolge des Hinzufügens.
+     */
+    private final Map<Kunde, List<Medium>> _medienProKunde;
+
+    /**
+     * Alle Medien des Auftrags mit ihrem Kunden.
+     */
+    private final Map<Medium, Kunde> _kundeProMedium;
+
+    /**
+     * Initialisiert einen leeren Verleihauftrag.
+     *
+     * @param ausleihdatum
+     *            Der erste Ausleihtag aller Medien des Auftrags.
+     *
+     * @require ausleihdatum != null
+     */
+    public Verleihauftrag(Datum ausleihdatum)
+    {
+        assert ausleihdatum != null : "Vorbedingung verletzt: ausleihdatum != null";
+        _ausleihdatum = ausleihdatum;
+        _medienProKunde = new LinkedHashMap<Kunde, List<Medium>>();
+        _kundeProMedium = new IdentityHashMap<Medium, Kunde>();
+    }
+
+    /**
+     * Fügt dem Auftrag die Ausleihe der gegebenen Medien an den Kunden hinzu.
+     *
+     * @param kunde
+     *            Der Kunde, an den die Medien verliehen werden sollen.
+     * @param medien
+     *            Die Medien, die verliehen werden sollen.
+     *
+     * @require kunde != null
+     * @require medien != null && !medien.isEmpty()
+     * @require kein Medium ist schon im Auftrag enthalten
+     *
+     * @ensure getMedienFuer(kunde).containsAll(medien)
+     */
+    public void fuegeHinzu(Kunde kunde, List<Medium> medien)
+    {
+        assert kunde != null : "Vorbedingung verletzt: kunde != null";
+        assert medien != null && !medien.isEmpty() : "Vorbedingung verletzt: medien != null && !medien.isEmpty()";
+        List<Medium> medienDesKunden = _medienProKunde.get(kunde);
+        if (medienDesKunden == null)
+        {
+            medienDesKunden = new ArrayList<Medium>();
+            _medienProKunde.put(kunde, medienDesKunden);
+        }
+        for (Medium medium : medien)
+        {
+            assert !enthaelt(medium) : "Vorbedingung verletzt: !enthaelt(medium)";
+            _kundeProMedium.put(medium, kunde);
+            medienDesKunden.add(medium);
+        }
+    }
+
+    /**
+     * Prüft, ob das gegebene Medium im Auftrag enthalten ist.
+     */
+    public boolean enthaelt(Medium medium)
+    {
+        return _kundeProMedium.containsKey(medium);
+    }
+
+    /**
+     * Prüft, ob der Auftrag noch keine Medien enthält.
+     */
+    public boolean istLeer()
+    {
+        return _kundeProMedium.isEmpty();
+    }
+
+    /**
+     * Gibt den ersten Ausleihtag aller Medien des Auftrags zurück.
+     *
+     * @ensure result != null
+     */
+    public Datum getAusleihdatum()
+    {
+        return _ausleihdatum;
+    }
+
+    /**
+     * Gibt die Kunden des Auftrags in der Reihenfolge des Hinzufügens
+     * zurück.
+     *
+     * @ensure result != null
+     */
+    public List<Kunde> getKunden()
+    {
+        return new ArrayList<Kunde>(_medienProKunde.keySet());
+    }
+
+    /**
+     * Gibt die Medien zurück, die der Auftrag an den gegebenen Kunden
+     * verleiht.
+     *
+     * @ensure result != null
+     */
+    public List<Medium> getMedienFuer(Kunde kunde)
+    {
+        List<Medium> medien = _medienProKunde.get(kunde);
+        if (medien == null)
+        {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(medien);
+    }
+
+    /**
+     * Gibt alle Medien des Auftrags zurück, nach Kunden geordnet.
+     *
+     * @ensure result != null
+     */
+    public List<Medium> getMedien()
+    {
+        List<Medium> result = new ArrayList<Medium>(_kundeProMedium.size());
+        for (List<Medium> medien : _medienProKunde.values())
+        {
+            result.addAll(medien);
+        }
+        return result;
+    }
+
+    /**
+     * Erzeugt die Verleihkarten aller Medien des Auftrags, nach Kunden
+     * geordnet.
+     */
+    List<Verleihkarte> erzeugeVerleihkarten()
+    {
+        List<Verleihkarte> result = new ArrayList<Verleihkarte>(
+                _kundeProMedium.size());
+        for (Map.Entry<Kunde, List<Medium>> eintrag : _medienProKunde
+                .entrySet())
+        {
+            for (Medium medium : eintrag.getValue())
+            {
+                result.add(new Verleihkarte(eintrag.getKey(), medium,
+                        _ausleihdatum));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,363 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz.AtomareDatei;
+
+/**
+ * Ein Verleihjournal hält jede Ausleihe und Rückgabe als Eintrag fester
+ * Größe im {@link VerleihjournalFormat} fest. Zusammen mit dem Snapshot, auf
+ * dem es aufsetzt, lässt sich daraus mit dem {@link VerleihjournalLeser} der
+ * Verleihzustand nach einem Absturz wiederherstellen.
+ * 
+ * Die Einträge einer Ausleihe oder Rückgabe werden mit einem Aufruf
+ * geschrieben. Sie überstehen damit einen Absturz der Anwendung, auf die
+ * Platte gezwungen werden sie erst mit {@link #synchronisiere()}. Der
+ * {@link VerleihService} synchronisiert nach jedem Vorgang, bevor er ihn
+ * ausführt: ein ausgeführter Vorgang übersteht also auch einen Stromausfall.
+ * Gleichzeitige Vorgänge teilen sich dabei ein fsync.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class Verleihjournal
+{
+    private final File _journalDatei;
+    private final CRC32 _pruefsumme;
+    private FileChannel _kanal;
+
+    /**
+     * Bis zu welcher Position die Datei auf der Platte ist.
+     */
+    private long _synchronisiertBis;
+    private int _synchronisierungen;
+
+    /**
+     * Initialisiert ein neues, noch nicht geöffnetes Verleihjournal.
+     * 
+     * @param journalDatei
+     *            Die Datei des Journals.
+     * 
+     * @require journalDatei != null
+     */
+    public Verleihjournal(File journalDatei)
+    {
+        assert journalDatei != null : "Vorbedingung verletzt: journalDatei != null";
+        _journalDatei = journalDatei;
+        _pruefsumme = new CRC32();
+    }
+
+    /**
+     * Öffnet das Journal zum Anhängen. Setzt das vorhandene Journal auf
+     * derselben Basis auf, wird es fortgesetzt, ein unvollständiger letzter
+     * Eintrag wird dabei abgeschnitten. Andernfalls wird ein leeres Journal
+     * begonnen.
+     * 
+     * @param basis
+     *            Die Prüfsumme des Snapshots, auf dem das Journal aufsetzt.
+     * 
+     * @throws ProtokollierException
+     *             wenn das Journal nicht geöffnet werden konnte.
+     * 
+     * @ensure istGeoeffnet()
+     */
+    public synchronized void oeffne(long basis) throws ProtokollierException
+    {
+        schliesse();
+        if (_journalDatei.isFile())
+        {
+            FileChannel kanal = null;
+            try
+            {
+                kanal = new RandomAccessFile(_journalDatei, "rw").getChannel();
+                Eintragsleser leser = new Eintragsleser(kanal);
+                if (leser.leseKopf() == basis)
+                {
+                    while (leser.naechster())
+                    {
+                        // Bis zum letzten gültigen Eintrag lesen
+                    }
+                    kanal.truncate(leser.getGueltigeLaenge());
+                    kanal.position(leser.getGueltigeLaenge());
+                    kanal.force(false);
+                    _kanal = kanal;
+                    _synchronisiertBis = kanal.position();
+                    return;
+                }
+            }
+            catch (IOException e)
+            {
+                throw new ProtokollierException(
+                        "Das Verleihjournal konnte nicht geöffnet werden.");
+            }
+            catch (ProtokollierException e)
+            {
+                // Ein fremdes Journal wird durch ein neues ersetzt.
+            }
+            finally
+            {
+                if (_kanal != kanal)
+                {
+                    schliesseStill(kanal);
+                }
+            }
+        }
+        beginneNeu(basis);
+    }
+
+    /**
+     * Ersetzt das Journal atomar durch ein leeres Journal auf der angegebenen
+     * Basis. Das geschieht, nachdem ein neuer Snapshot geschrieben wurde,
+     * der alle bisherigen Einträge enthält.
+     * 
+     * @param basis
+     *            Die Prüfsumme des neuen Snapshots.
+     * 
+     * @throws ProtokollierException
+     *             wenn das Journal nicht geschrieben werden konnte.
+     * 
+     * @ensure istGeoeffnet()
+     */
+    public synchronized void beginneNeu(long basis)
+            throws ProtokollierException
+    {
+        schliesse();
+        final ByteBuffer kopf = ByteBuffer
+                .allocate(VerleihjournalFormat.KOPF_BYTES);
+        kopf.putInt(VerleihjournalFormat.MAGIC);
+        kopf.putInt(VerleihjournalFormat.VERSION);
+        kopf.putLong(basis);
+        try
+        {
+            AtomareDatei.schreibe(_journalDatei, new AtomareDatei.Inhalt()
+            {
+                @Override
+                public void schreibeIn(OutputStream ausgabe)
+                        throws IOException
+                {
+                    ausgabe.write(kopf.array());
+                }
+            });
+
+            FileChannel kanal = new RandomAccessFile(_journalDatei, "rw")
+                    .getChannel();
+            kanal.position(kanal.size());
+            _kanal = kanal;
+            _synchronisiertBis = kanal.position();
+        }
+        catch (IOException e)
+        {
+            throw new ProtokollierException(
+                    "Das Verleihjournal konnte nicht angelegt werden.");
+        }
+    }
+
+    /**
+     * Gibt zurück, ob das Journal zum Anhängen geöffnet ist.
+     */
+    public synchronized boolean istGeoeffnet()
+    {
+        return _kanal != null;
+    }
+
+    /**
+     * Zwingt alle geschriebenen Einträge auf die Platte.
+     * 
+     * @throws ProtokollierException
+     *             wenn das nicht geklappt hat.
+     * 
+     * @require istGeoeffnet()
+     */
+    public synchronized void synchronisiere() throws ProtokollierException
+    {
+        assert istGeoeffnet() : "Vorbedingung verletzt: istGeoeffnet()";
+        try
+        {
+            long position = _kanal.position();
+            _kanal.force(false);
+            _synchronisiertBis = position;
+            _synchronisierungen++;
+        }
+        catch (IOException e)
+        {
+            throw new ProtokollierException(
+                    "Das Verleihjournal konnte nicht gesichert werden.");
+        }
+    }
+
+    /**
+     * Zwingt die Einträge bis zur angegebenen Position auf die Platte. Wurden
+     * sie bereits mit einem späteren fsync gesichert, passiert nichts.
+     * 
+     * @param position
+     *            Die Position hinter dem letzten Eintrag, der gesichert
+     *            werden soll, wie sie
+     *            {@link #schreibe(byte, List, int[], Datum)} liefert.
+     * 
+     * @throws ProtokollierException
+     *             wenn das Journal nicht geöffnet ist oder nicht gesichert
+     *             werden konnte.
+     */
+    synchronized void synchronisiereBis(long position)
+            throws ProtokollierException
+    {
+        if (position <= _synchronisiertBis)
+        {
+            return;
+        }
+        if (_kanal == null)
+        {
+            throw new ProtokollierException(
+                    "Das Verleihjournal ist nicht geöffnet.");
+        }
+        synchronisiere();
+    }
+
+    /**
+     * Gibt zurück, wie oft das Journal mit {@link #synchronisiere()} auf die
+     * Platte gezwungen wurde.
+     */
+    synchronized int getAnzahlSynchronisierungen()
+    {
+        return _synchronisierungen;
+    }
+
+    /**
+     * Synchronisiert und schließt das Journal, wenn es geöffnet ist.
+     * 
+     * @throws ProtokollierException
+     *             wenn das nicht geklappt hat.
+     * 
+     * @ensure !istGeoeffnet()
+     */
+    public synchronized void schliesse() throws ProtokollierException
+    {
+        if (_kanal == null)
+        {
+            return;
+        }
+        FileChannel kanal = _kanal;
+        _kanal = null;
+        try
+        {
+            kanal.force(false);
+            kanal.close();
+        }
+        catch (IOException e)
+        {
+            schliesseStill(kanal);
+            throw new ProtokollierException(
+                    "Das Verleihjournal konnte nicht geschlossen werden.");
+        }
+    }
+
+    /**
+     * Schreibt je Verleihkarte einen Eintrag.
+     * 
+     * @param art
+     *            {@link VerleihjournalFormat#AUSLEIHE} oder
+     *            {@link VerleihjournalFormat#RUECKGABE}.
+     * @param verleihkarten
+     *            Die betroffenen Verleihkarten.
+     * @param medienIds
+     *            Die Medien-IDs der Medien auf den Verleihkarten.
+     * @param datum
+     *            Das Ausleih- oder Rückgabedatum.
+     * @return Die Position hinter den geschriebenen Einträgen.
+     * 
+     * @throws ProtokollierException
+     *             wenn das Journal nicht geöffnet ist oder das Schreiben
+     *             nicht geklappt hat.
+     * 
+     * @require verleihkarten.size() == medienIds.length
+     */
+    synchronized long schreibe(byte art, List<Verleihkarte> verleihkarten,
+            int[] medienIds, Datum datum) throws ProtokollierException
+    {
+        if (_kanal == null)
+        {
+            throw new ProtokollierException(
+                    "Das Verleihjournal ist nicht geöffnet.");
+        }
+        assert verleihkarten.size() == medienIds.length : "Vorbedingung verletzt: verleihkarten.size() == medienIds.length";
+
+        long zeitstempel = System.currentTimeMillis();
+        int kodiertesDatum = VerleihjournalFormat.kodiere(datum);
+        ByteBuffer puffer = ByteBuffer.allocate(verleihkarten.size()
+                * VerleihjournalFormat.EINTRAG_BYTES);
+        for (int i = 0; i < medienIds.length; i++)
+        {
+            int anfang = puffer.position();
+            puffer.putLong(zeitstempel);
+            puffer.put(art);
+            puffer.putInt(verleihkarten.get(i).getEntleiher()
+                    .getKundennummer().getZahl());
+            puffer.putInt(medienIds[i]);
+            puffer.putInt(kodiertesDatum);
+            _pruefsumme.reset();
+            _pruefsumme.update(puffer.array(), anfang,
+                    VerleihjournalFormat.EINTRAG_BYTES - 4);
+            puffer.putInt((int) _pruefsumme.getValue());
+        }
+        puffer.flip();
+        long ende = -1;
+        try
+        {
+            ende = _kanal.position();
+            schreibeVollstaendig(_kanal, puffer);
+            return _kanal.position();
+        }
+        catch (IOException e)
+        {
+            // Ein halb geschriebener Eintrag würde alle folgenden verdecken.
+            try
+            {
+                if (ende >= 0)
+                {
+                    _kanal.truncate(ende);
+                    _kanal.position(ende);
+                }
+            }
+            catch (IOException f)
+            {
+                schliesseStill(_kanal);
+                _kanal = null;
+            }
+            throw new ProtokollierException(
+                    "Beim Schreiben des Verleihjournals ist ein Fehler aufgetreten.");
+        }
+    }
+
+    private static void schreibeVollstaendig(FileChannel kanal,
+            ByteBuffer puffer) throws IOException
+    {
+        while (puffer.hasRemaining())
+        {
+            kanal.write(puffer);
+        }
+    }
+
+    private static void schliesseStill(FileChannel kanal)
+    {
+        if (kanal != null)
+        {
+            try
+            {
+                kanal.close();
+            }
+            catch (IOException e)
+            {
+                // Ein Fehler beim Schließen ändert nichts mehr.
+            }
+        }
+    }
+}
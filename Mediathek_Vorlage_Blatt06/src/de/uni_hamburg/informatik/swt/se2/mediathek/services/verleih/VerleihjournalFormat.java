@@ -0,0 +1,70 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+
+/**
+ * Beschreibt das binäre Format des {@link Verleihjournal}. Alle Zahlen sind
+ * big-endian.
+ * 
+ * <pre>
+ * Kopf:     int MAGIC, int VERSION, long Basis
+ * Eintrag:  long Zeitstempel, byte Art, int Kundennummer, int Medien-ID,
+ *           int Datum, int CRC32 über die vorherigen Bytes des Eintrags
+ * </pre>
+ * 
+ * Die Basis ist die Prüfsumme des Snapshots, auf dem das Journal aufsetzt.
+ * Der Zeitstempel ist in Millisekunden seit 1970, das Datum ist das Ausleih-
+ * bzw. Rückgabedatum als JJJJMMTT.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+final class VerleihjournalFormat
+{
+    /**
+     * Kennzeichnet ein Verleihjournal ("MTHJ").
+     */
+    static final int MAGIC = 0x4D54484A;
+
+    /**
+     * Die Version des Formats. Sie muss bei jeder Änderung des Formats erhöht
+     * werden.
+     */
+    static final int VERSION = 1;
+
+    static final byte AUSLEIHE = 1;
+    static final byte RUECKGABE = 2;
+
+    static final int KOPF_BYTES = 4 + 4 + 8;
+    static final int EINTRAG_BYTES = 8 + 1 + 4 + 4 + 4 + 4;
+
+    private VerleihjournalFormat()
+    {
+    }
+
+    /**
+     * Kodiert ein Datum als JJJJMMTT.
+     */
+    static int kodiere(Datum datum)
+    {
+        return datum.getJahr() * 10000 + datum.getMonat() * 100
+                + datum.getTag();
+    }
+
+    /**
+     * Dekodiert ein Datum aus JJJJMMTT.
+     * 
+     * @return Das Datum oder null, wenn es kein gültiges Datum ist.
+     */
+    static Datum dekodiere(int kodiert)
+    {
+        int tag = kodiert % 100;
+        int monat = kodiert / 100 % 100;
+        int jahr = kodiert / 10000;
+        if (!Datum.istGueltig(tag, monat, jahr))
+        {
+            return null;
+        }
+        return new Datum(tag, monat, jahr);
+    }
+}
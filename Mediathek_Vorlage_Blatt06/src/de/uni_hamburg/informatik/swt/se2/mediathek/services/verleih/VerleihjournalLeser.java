@@ -0,0 +1,206 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.vormerk.VormerkService;
+
+/**
+ * Spielt ein {@link Verleihjournal} auf den Verleihkarten eines Snapshots
+ * nach, um den Verleihzustand nach einem Absturz wiederherzustellen.
+ * 
+ * Die Medien-IDs im Journal beziehen sich auf den Medienbestand, der aus
+ * dem Snapshot aufgebaut wurde. Einträge zu Medien oder Kunden, die es darin
+ * nicht gibt, etwa weil sie erst nach dem Snapshot angelegt wurden, werden
+ * übersprungen.
+ * 
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class VerleihjournalLeser
+{
+    private final File _journalDatei;
+    private int _nachgespielt;
+    private int _uebersprungen;
+
+    /**
+     * Initialisiert einen neuen {@link VerleihjournalLeser}.
+     * 
+     * @param journalDatei
+     *            Die Datei des Journals.
+     * 
+     * @require journalDatei != null
+     */
+    public VerleihjournalLeser(File journalDatei)
+    {
+        assert journalDatei != null : "Vorbedingung verletzt: journalDatei != null";
+        _journalDatei = journalDatei;
+    }
+
+    /**
+     * Spielt das Journal auf den übergebenen Verleihkarten nach. Gibt es kein
+     * Journal oder setzt es auf einer anderen Basis auf, bleiben die
+     * Verleihkarten unverändert. Bei einer Ausleihe wird der Entleiher wie
+     * beim Verleihen aus den Vormerkern des Mediums gelöscht.
+     * 
+     * @param basis
+     *            Die Prüfsumme des Snapshots, aus dem die Services aufgebaut
+     *            wurden.
+     * @param kundenstamm
+     *            Der Kundenstamm aus dem Snapshot.
+     * @param medienbestand
+     *            Der Medienbestand aus dem Snapshot.
+     * @param vormerkService
+     *            Der VormerkService mit den Vormerkern aus dem Snapshot.
+     * @param verleihkarten
+     *            Die Verleihkarten aus dem Snapshot.
+     * @return Die Verleihkarten nach dem Nachspielen des Journals.
+     * 
+     * @throws ProtokollierException
+     *             wenn das Journal nicht gelesen werden konnte.
+     * 
+     * @require kundenstamm != null
+     * @require medienbestand != null
+     * @require vormerkService != null
+     * @require verleihkarten != null
+     * 
+     * @ensure result != null
+     */
+    public List<Verleihkarte> spieleNach(long basis,
+            KundenstammService kundenstamm,
+            MedienbestandService medienbestand, VormerkService vormerkService,
+            List<Verleihkarte> verleihkarten) throws ProtokollierException
+    {
+        assert kundenstamm != null : "Vorbedingung verletzt: kundenstamm != null";
+        assert medienbestand != null : "Vorbedingung verletzt: medienbestand != null";
+        assert vormerkService != null : "Vorbedingung verletzt: vormerkService != null";
+        assert verleihkarten != null : "Vorbedingung verletzt: verleihkarten != null";
+
+        _nachgespielt = 0;
+        _uebersprungen = 0;
+        Map<Medium, Verleihkarte> zustand = new LinkedHashMap<Medium, Verleihkarte>();
+        for (Verleihkarte verleihkarte : verleihkarten)
+        {
+            zustand.put(verleihkarte.getMedium(), verleihkarte);
+        }
+        if (!_journalDatei.isFile())
+        {
+            return new ArrayList<Verleihkarte>(zustand.values());
+        }
+
+        FileInputStream stream = null;
+        try
+        {
+            stream = new FileInputStream(_journalDatei);
+            Eintragsleser leser = new Eintragsleser(stream.getChannel());
+            if (leser.leseKopf() == basis)
+            {
+                while (leser.naechster())
+                {
+                    if (spieleNach(leser, kundenstamm, medienbestand,
+                            vormerkService, zustand))
+                    {
+                        _nachgespielt++;
+                    }
+                    else
+                    {
+                        _uebersprungen++;
+                    }
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new ProtokollierException(
+                    "Das Verleihjournal konnte nicht gelesen werden.");
+        }
+        finally
+        {
+            if (stream != null)
+            {
+                try
+                {
+                    stream.close();
+                }
+                catch (IOException e)
+                {
+                    // Das Journal wurde vollständig gelesen.
+                }
+            }
+        }
+        return new ArrayList<Verleihkarte>(zustand.values());
+    }
+
+    /**
+     * Gibt die Anzahl der beim letzten Nachspielen angewendeten Einträge
+     * zurück.
+     */
+    public int getNachgespielteEintraege()
+    {
+        return _nachgespielt;
+    }
+
+    /**
+     * Gibt die Anzahl der beim letzten Nachspielen übersprungenen Einträge
+     * zurück.
+     */
+    public int getUebersprungeneEintraege()
+    {
+        return _uebersprungen;
+    }
+
+    /**
+     * Wendet einen Eintrag auf den Zustand an.
+     * 
+     * @return false, wenn der Eintrag nicht angewendet werden konnte.
+     */
+    private static boolean spieleNach(Eintragsleser leser,
+            KundenstammService kundenstamm,
+            MedienbestandService medienbestand, VormerkService vormerkService,
+            Map<Medium, Verleihkarte> zustand)
+    {
+        Medium medium = medienbestand.getMedium(leser.getMedienId());
+        if (medium == null)
+        {
+            return false;
+        }
+        switch (leser.getArt())
+        {
+        case VerleihjournalFormat.AUSLEIHE:
+            Datum datum = VerleihjournalFormat.dekodiere(leser.getDatum());
+            if (datum == null
+                    || !Kundennummer.istGueltig(leser.getKundennummer()))
+            {
+                return false;
+            }
+            Kunde kunde = kundenstamm.getKunden(new Kundennummer(leser
+                    .getKundennummer()));
+            if (kunde == null)
+            {
+                return false;
+            }
+            if (vormerkService.istVorgemerkt(kunde, medium))
+            {
+                vormerkService.vormerkerLoeschen(kunde, medium);
+            }
+            zustand.put(medium, new Verleihkarte(kunde, medium, datum));
+            return true;
+        case VerleihjournalFormat.RUECKGABE:
+            return zustand.remove(medium) != null;
+        default:
+            return false;
+        }
+    }
+}
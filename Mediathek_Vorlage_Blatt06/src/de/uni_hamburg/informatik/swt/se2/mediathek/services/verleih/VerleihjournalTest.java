@@ -0,0 +1,374 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammServiceImpl;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandServiceImpl;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.vormerk.VormerkService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.vormerk.VormerkServiceImpl;
+
+public class VerleihjournalTest
+{
+    private static final long BASIS = 4711;
+
+    private File _journalDatei;
+    private List<Kunde> _kunden;
+    private List<Medium> _medien;
+    private List<Verleihkarte> _verleihkarten;
+
+    private KundenstammService _kundenstamm;
+    private MedienbestandService _medienbestand;
+    private VerleihServiceImpl _service;
+    private Verleihjournal _journal;
+
+    @Before
+    public void setUp() throws IOException, ProtokollierException
+    {
+        _journalDatei = File.createTempFile("verleih", ".journal");
+        _journalDatei.delete();
+
+        _kunden = new ArrayList<Kunde>();
+        _kunden.add(new Kunde(new Kundennummer(123456), "Susi",
+                "Sonnenschein"));
+        _kunden.add(new Kunde(new Kundennummer(123457), "Kai", "Müller"));
+        _medien = new ArrayList<Medium>();
+        for (int i = 0; i < 5; i++)
+        {
+            _medien.add(new CD("CD " + i, "", "Interpret", 60));
+        }
+        _verleihkarten = new ArrayList<Verleihkarte>();
+        _verleihkarten.add(new Verleihkarte(_kunden.get(1), _medien.get(4),
+                new Datum(1, 3, 2012)));
+
+        _kundenstamm = new KundenstammServiceImpl(_kunden);
+        _medienbestand = new MedienbestandServiceImpl(_medien);
+        _service = new VerleihServiceImpl(_kundenstamm, _medienbestand,
+                _verleihkarten);
+        _journal = new Verleihjournal(_journalDatei);
+        _journal.oeffne(BASIS);
+        _service.setVerleihjournal(_journal);
+    }
+
+    @After
+    public void tearDown() throws ProtokollierException
+    {
+        _journal.schliesse();
+        _journalDatei.delete();
+    }
+
+    @Test
+    public void testNachgespielterZustandGleichtDemService()
+            throws ProtokollierException
+    {
+        _service.verleiheAn(_kunden.get(0),
+                Arrays.asList(_medien.get(0), _medien.get(1)), new Datum(2,
+                        4, 2012));
+        _service.nimmZurueck(Arrays.asList(_medien.get(4)), new Datum(3, 4,
+                2012));
+        _service.nimmZurueck(Arrays.asList(_medien.get(0)), new Datum(4, 4,
+                2012));
+        _service.verleiheAn(_kunden.get(1), Arrays.asList(_medien.get(3)),
+                new Datum(5, 4, 2012));
+
+        VerleihjournalLeser leser = new VerleihjournalLeser(_journalDatei);
+        List<Verleihkarte> nachgespielt = spieleNach(leser, BASIS);
+
+        assertEquals(5, leser.getNachgespielteEintraege());
+        assertEquals(0, leser.getUebersprungeneEintraege());
+        assertEquals(beschreibe(_service.getVerleihkarten()),
+                beschreibe(nachgespielt));
+    }
+
+    @Test
+    public void testNachspielenLoeschtDenEntleiherAusDenVormerkern()
+            throws ProtokollierException
+    {
+        Medium medium = _medien.get(2);
+        _service.verleiheAn(_kunden.get(0), Arrays.asList(medium), new Datum(
+                2, 4, 2012));
+
+        KundenstammService kundenstamm = new KundenstammServiceImpl(_kunden);
+        MedienbestandService medienbestand = new MedienbestandServiceImpl(
+                _medien);
+        Map<Medium, List<Kunde>> vormerker = new HashMap<Medium, List<Kunde>>();
+        vormerker.put(medium, Arrays.asList(_kunden.get(0), _kunden.get(1)));
+        VormerkService vormerkService = new VormerkServiceImpl(kundenstamm,
+                medienbestand, vormerker, 3);
+        new VerleihjournalLeser(_journalDatei).spieleNach(BASIS, kundenstamm,
+                medienbestand, vormerkService, _verleihkarten);
+
+        assertEquals(Arrays.asList(_kunden.get(1)),
+                vormerkService.getVormerker(medium));
+    }
+
+    @Test
+    public void testJournalAufAndererBasisWirdIgnoriert()
+            throws ProtokollierException
+    {
+        _service.verleiheAn(_kunden.get(0), Arrays.asList(_medien.get(0)),
+                new Datum(2, 4, 2012));
+
+        VerleihjournalLeser leser = new VerleihjournalLeser(_journalDatei);
+        List<Verleihkarte> nachgespielt = spieleNach(leser, BASIS + 1);
+        assertEquals(0, leser.getNachgespielteEintraege());
+        assertEquals(beschreibe(_verleihkarten), beschreibe(nachgespielt));
+
+        // Ein fremdes Journal wird beim Öffnen durch ein leeres ersetzt.
+        _journal.oeffne(BASIS + 1);
+        spieleNach(leser, BASIS + 1);
+        assertEquals(0, leser.getNachgespielteEintraege());
+    }
+
+    @Test
+    public void testUnvollstaendigerLetzterEintragWirdAbgeschnitten()
+            throws ProtokollierException, IOException
+    {
+        _service.verleiheAn(_kunden.get(0), Arrays.asList(_medien.get(0)),
+                new Datum(2, 4, 2012));
+        _journal.schliesse();
+        RandomAccessFile datei = new RandomAccessFile(_journalDatei, "rw");
+        datei.seek(datei.length());
+        datei.write(new byte[VerleihjournalFormat.EINTRAG_BYTES - 3]);
+        datei.close();
+
+        VerleihjournalLeser leser = new VerleihjournalLeser(_journalDatei);
+        spieleNach(leser, BASIS);
+        assertEquals(1, leser.getNachgespielteEintraege());
+
+        _journal.oeffne(BASIS);
+        assertEquals(VerleihjournalFormat.KOPF_BYTES
+                + VerleihjournalFormat.EINTRAG_BYTES, _journalDatei.length());
+        _service.verleiheAn(_kunden.get(0), Arrays.asList(_medien.get(1)),
+                new Datum(2, 4, 2012));
+        List<Verleihkarte> nachgespielt = spieleNach(leser, BASIS);
+        assertEquals(2, leser.getNachgespielteEintraege());
+        assertEquals(beschreibe(_service.getVerleihkarten()),
+                beschreibe(nachgespielt));
+    }
+
+    @Test
+    public void testBeschaedigterEintragBeendetDasNachspielen()
+            throws ProtokollierException, IOException
+    {
+        _service.verleiheAn(_kunden.get(0),
+                Arrays.asList(_medien.get(0), _medien.get(1)), new Datum(2,
+                        4, 2012));
+        RandomAccessFile datei = new RandomAccessFile(_journalDatei, "rw");
+        datei.seek(VerleihjournalFormat.KOPF_BYTES
+                + VerleihjournalFormat.EINTRAG_BYTES + 10);
+        datei.write(0xFF);
+        datei.close();
+
+        VerleihjournalLeser leser = new VerleihjournalLeser(_journalDatei);
+        List<Verleihkarte> nachgespielt = spieleNach(leser, BASIS);
+        assertEquals(1, leser.getNachgespielteEintraege());
+        assertEquals(2, nachgespielt.size());
+    }
+
+    @Test
+    public void testUnbekanntesMediumWirdUebersprungen()
+            throws ProtokollierException
+    {
+        Medium neu = new CD("Neu", "", "Interpret", 60);
+        _medienbestand.fuegeMediumEin(neu);
+        _service.verleiheAn(_kunden.get(0), Arrays.asList(neu), new Datum(2,
+                4, 2012));
+
+        VerleihjournalLeser leser = new VerleihjournalLeser(_journalDatei);
+        List<Verleihkarte> nachgespielt = spieleNach(leser, BASIS);
+        assertEquals(0, leser.getNachgespielteEintraege());
+        assertEquals(1, leser.getUebersprungeneEintraege());
+        assertEquals(1, nachgespielt.size());
+    }
+
+    @Test
+    public void testGescheitertesProtokollHebtDenVorgangImJournalAuf()
+            throws IOException, ProtokollierException
+    {
+        File protokollDatei = File.createTempFile("verleih", ".log");
+        try
+        {
+            Verleihprotokollierer protokollierer = new Verleihprotokollierer(
+                    protokollDatei, Protokollsynchronisierung.jedesEreignis(), 16);
+            VerleihServiceImpl service = new VerleihServiceImpl(_kundenstamm,
+                    _medienbestand, _verleihkarten, protokollierer);
+            service.setVerleihjournal(_journal);
+            protokollierer.schliesse();
+            int synchronisierungen = _journal.getAnzahlSynchronisierungen();
+
+            List<Medium> medien = Arrays.asList(_medien.get(0), _medien.get(1));
+            try
+            {
+                service.verleiheAn(_kunden.get(0), medien, new Datum(2, 4,
+                        2012));
+                fail();
+            }
+            catch (ProtokollierException e)
+            {
+                assertTrue(service.sindAlleNichtVerliehen(medien));
+            }
+            // Vorgang und Gegenbuchung werden auf die Platte gezwungen.
+            assertEquals(synchronisierungen + 2,
+                    _journal.getAnzahlSynchronisierungen());
+            try
+            {
+                service.nimmZurueck(Arrays.asList(_medien.get(4)), new Datum(3,
+                        4, 2012));
+                fail();
+            }
+            catch (ProtokollierException e)
+            {
+                assertEquals(_kunden.get(1),
+                        service.getEntleiherFuer(_medien.get(4)));
+            }
+            assertEquals(synchronisierungen + 4,
+                    _journal.getAnzahlSynchronisierungen());
+
+            VerleihjournalLeser leser = new VerleihjournalLeser(_journalDatei);
+            List<Verleihkarte> nachgespielt = spieleNach(leser, BASIS);
+
+            assertEquals(6, leser.getNachgespielteEintraege());
+            assertEquals(beschreibe(_verleihkarten), beschreibe(nachgespielt));
+            assertEquals(beschreibe(service.getVerleihkarten()),
+                    beschreibe(nachgespielt));
+        }
+        finally
+        {
+            protokollDatei.delete();
+        }
+    }
+
+    /**
+     * Bei Synchronisierung nach Zeit muss der Schreibfehler den Vorgang
+     * treffen, dessen Stapel gescheitert ist, und nicht erst den nächsten.
+     */
+    @Test
+    public void testGescheitertesProtokollNachZeitHebtDenRichtigenVorgangAuf()
+            throws IOException, ProtokollierException
+    {
+        File verzeichnis = Files.createTempDirectory("verleih").toFile();
+        try
+        {
+            // Ein Verzeichnis kann nicht als Protokoll geöffnet werden.
+            Verleihprotokollierer protokollierer = new Verleihprotokollierer(
+                    verzeichnis,
+                    Protokollsynchronisierung.alleMillisekunden(50), 16);
+            VerleihServiceImpl service = new VerleihServiceImpl(_kundenstamm,
+                    _medienbestand, _verleihkarten, protokollierer);
+            service.setVerleihjournal(_journal);
+
+            List<Medium> medien = Arrays.asList(_medien.get(0), _medien.get(1));
+            try
+            {
+                service.verleiheAn(_kunden.get(0), medien, new Datum(2, 4,
+                        2012));
+                fail();
+            }
+            catch (ProtokollierException e)
+            {
+                assertTrue(service.sindAlleNichtVerliehen(medien));
+            }
+            try
+            {
+                service.verleiheAn(_kunden.get(1),
+                        Arrays.asList(_medien.get(2)), new Datum(3, 4, 2012));
+                fail();
+            }
+            catch (ProtokollierException e)
+            {
+                assertFalse(service.istVerliehen(_medien.get(2)));
+            }
+
+            VerleihjournalLeser leser = new VerleihjournalLeser(_journalDatei);
+            List<Verleihkarte> nachgespielt = spieleNach(leser, BASIS);
+            assertEquals(beschreibe(_verleihkarten), beschreibe(nachgespielt));
+            assertEquals(beschreibe(service.getVerleihkarten()),
+                    beschreibe(nachgespielt));
+        }
+        finally
+        {
+            verzeichnis.delete();
+        }
+    }
+
+    @Test
+    public void testJederVorgangWirdAufDiePlatteGezwungen()
+            throws ProtokollierException
+    {
+        _service.verleiheAn(_kunden.get(0), Arrays.asList(_medien.get(0),
+                _medien.get(1)), new Datum(2, 4, 2012));
+        assertEquals(1, _journal.getAnzahlSynchronisierungen());
+        _service.nimmZurueck(Arrays.asList(_medien.get(0)), new Datum(3, 4,
+                2012));
+        assertEquals(2, _journal.getAnzahlSynchronisierungen());
+
+        // Bereits gesicherte Einträge werden nicht erneut synchronisiert.
+        _journal.synchronisiereBis(VerleihjournalFormat.KOPF_BYTES
+                + VerleihjournalFormat.EINTRAG_BYTES);
+        assertEquals(2, _journal.getAnzahlSynchronisierungen());
+    }
+
+    @Test
+    public void testBeginneNeuLeertDasJournal() throws ProtokollierException
+    {
+        _service.verleiheAn(_kunden.get(0), Arrays.asList(_medien.get(0)),
+                new Datum(2, 4, 2012));
+        _journal.beginneNeu(BASIS + 1);
+        assertTrue(_journal.istGeoeffnet());
+        assertEquals(VerleihjournalFormat.KOPF_BYTES, _journalDatei.length());
+        _journal.schliesse();
+        assertFalse(_journal.istGeoeffnet());
+    }
+
+    /**
+     * Baut die Services wie beim Start aus den ursprünglichen Daten neu auf
+     * und spielt das Journal darauf nach.
+     */
+    private List<Verleihkarte> spieleNach(VerleihjournalLeser leser,
+            long basis) throws ProtokollierException
+    {
+        KundenstammService kundenstamm = new KundenstammServiceImpl(_kunden);
+        MedienbestandService medienbestand = new MedienbestandServiceImpl(
+                _medien);
+        return leser.spieleNach(basis, kundenstamm, medienbestand,
+                new VormerkServiceImpl(kundenstamm, medienbestand),
+                _verleihkarten);
+    }
+
+    private static List<String> beschreibe(List<Verleihkarte> verleihkarten)
+    {
+        List<String> result = new ArrayList<String>();
+        for (Verleihkarte verleihkarte : verleihkarten)
+        {
+            result.add(verleihkarte.getFormatiertenString());
+        }
+        Collections.sort(result);
+        return result;
+    }
+}
@@ -1,20 +1,200 @@
 package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
 
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Calendar;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
 
 /**
  * Ein Verleihprotokollierer schreibt alle Verleihvorgänge in eine Datei.
  * 
+ * Die Einträge werden in eine beschränkte Warteschlange gestellt und von
+ * einem Hintergrund-Thread geschrieben, der die Protokolldatei offen hält.
+ * Alle bis dahin eingereihten Einträge werden gemeinsam geschrieben und, je
+ * nach {@link Protokollsynchronisierung}, mit einem einzigen fsync auf die
+ * Platte gezwungen. Ist die Warteschlange voll, wartet der Aufrufer.
+ * 
+ * Mit einer {@link Protokollrotation} wird die Protokolldatei vor einem
+ * Stapel, mit dem sie zu groß oder der sie zu alt würde, als Segment
+ * abgeschlossen. Zum Verdichten führt der Hintergrund-Thread die offenen
+ * Ausleihen aus den protokollierten Ereignissen mit.
+ * 
  * @author SE2-Team
  * @version SoSe 2012
  */
 class Verleihprotokollierer
 {
+    /**
+     * Die Protokolldatei, die ohne weitere Angabe verwendet wird.
+     */
+    static final File PROTOKOLLDATEI = new File("./verleihProtokoll.txt");
+
+    /**
+     * Die Anzahl Einträge, die höchstens auf das Schreiben warten.
+     */
+    static final int KAPAZITAET = 1024;
+
+    /**
+     * Der Abstand zwischen zwei fsync in Millisekunden, wenn keine
+     * Synchronisierung angegeben ist.
+     */
+    static final long STANDARD_INTERVALL = 200;
+
+    private static final String SCHREIBFEHLER = "Beim Schreiben des Verleihprotokolls ist ein Fehler aufgetreten.";
+
+    private static final String ROTATIONSFEHLER = "Das Verleihprotokoll konnte nicht rotiert werden.";
+
+    private final File _protokollDatei;
+    private final Protokollsynchronisierung _synchronisierung;
+    private final BlockingQueue<Eintrag> _warteschlange;
+
+    /**
+     * Die Segmente der Protokolldatei oder null, wenn nicht rotiert wird.
+     */
+    private final Protokollsegmente _segmente;
+
+    /**
+     * Die formatierten Verleihkarten der offenen Ausleihen, oder null, wenn
+     * nicht verdichtet wird. Nach dem Start gehört die Map dem
+     * Hintergrund-Thread.
+     */
+    private final Map<Medium, String> _offeneAusleihen;
+
+    /**
+     * Ein Schreibfehler, der noch keinem Aufrufer gemeldet wurde.
+     */
+    private final AtomicReference<String> _fehler;
+
+    private Thread _schreiber;
+    private boolean _geschlossen;
+    private volatile int _synchronisierungen;
+
+    /**
+     * Initialisiert einen Verleihprotokollierer, der in die Datei
+     * {@link #PROTOKOLLDATEI} schreibt und alle
+     * {@link #STANDARD_INTERVALL} Millisekunden synchronisiert.
+     */
+    public Verleihprotokollierer()
+    {
+        this(Protokollsynchronisierung.alleMillisekunden(STANDARD_INTERVALL));
+    }
+
+    /**
+     * Initialisiert einen Verleihprotokollierer, der in die Datei
+     * {@link #PROTOKOLLDATEI} schreibt.
+     * 
+     * @param synchronisierung Legt fest, wann synchronisiert wird.
+     * 
+     * @require synchronisierung != null
+     */
+    public Verleihprotokollierer(Protokollsynchronisierung synchronisierung)
+    {
+        this(PROTOKOLLDATEI, synchronisierung, null, KAPAZITAET);
+    }
+
+    /**
+     * Initialisiert einen Verleihprotokollierer, der in die Datei
+     * {@link #PROTOKOLLDATEI} schreibt und sie nach der angegebenen Rotation
+     * in Segmente aufteilt.
+     * 
+     * @param synchronisierung Legt fest, wann synchronisiert wird.
+     * @param rotation Legt fest, wann ein neues Segment begonnen wird.
+     * 
+     * @require synchronisierung != null
+     * @require rotation != null
+     */
+    public Verleihprotokollierer(Protokollsynchronisierung synchronisierung,
+            Protokollrotation rotation)
+    {
+        this(PROTOKOLLDATEI, synchronisierung, rotation, KAPAZITAET);
+        assert rotation != null : "Vorbedingung verletzt: rotation != null";
+    }
+
+    /**
+     * Initialisiert einen Verleihprotokollierer ohne Rotation.
+     * 
+     * @param protokollDatei Die Datei, an die angehängt wird.
+     * @param synchronisierung Legt fest, wann synchronisiert wird.
+     * @param kapazitaet Die Größe der Warteschlange.
+     * 
+     * @require protokollDatei != null
+     * @require synchronisierung != null
+     * @require kapazitaet > 0
+     */
+    Verleihprotokollierer(File protokollDatei,
+            Protokollsynchronisierung synchronisierung, int kapazitaet)
+    {
+        this(protokollDatei, synchronisierung, null, kapazitaet);
+    }
+
+    /**
+     * Initialisiert einen Verleihprotokollierer.
+     * 
+     * @param protokollDatei Die Datei, an die angehängt wird.
+     * @param synchronisierung Legt fest, wann synchronisiert wird.
+     * @param rotation Legt fest, wann ein neues Segment begonnen wird, oder
+     *            null.
+     * @param kapazitaet Die Größe der Warteschlange.
+     * 
+     * @require protokollDatei != null
+     * @require synchronisierung != null
+     * @require kapazitaet > 0
+     */
+    Verleihprotokollierer(File protokollDatei,
+            Protokollsynchronisierung synchronisierung,
+            Protokollrotation rotation, int kapazitaet)
+    {
+        assert protokollDatei != null : "Vorbedingung verletzt: protokollDatei != null";
+        assert synchronisierung != null : "Vorbedingung verletzt: synchronisierung != null";
+        assert kapazitaet > 0 : "Vorbedingung verletzt: kapazitaet > 0";
+        _protokollDatei = protokollDatei;
+        _synchronisierung = synchronisierung;
+        _warteschlange = new ArrayBlockingQueue<Eintrag>(kapazitaet);
+        _fehler = new AtomicReference<String>();
+        _segmente = rotation == null ? null : new Protokollsegmente(
+                protokollDatei, rotation);
+        _offeneAusleihen = rotation == null || !rotation.istVerdichten() ? null
+                : new LinkedHashMap<Medium, String>();
+    }
+
+    /**
+     * Übernimmt die beim Start bereits offenen Ausleihen für das Verdichten.
+     * 
+     * @param verleihkarten Die Verleihkarten der offenen Ausleihen.
+     * 
+     * @require verleihkarten != null
+     * @require es wurde noch nichts protokolliert
+     */
+    synchronized void beginneMit(List<Verleihkarte> verleihkarten)
+    {
+        assert verleihkarten != null : "Vorbedingung verletzt: verleihkarten != null";
+        assert _schreiber == null : "Vorbedingung verletzt: es wurde noch nichts protokolliert";
+        if (_offeneAusleihen != null)
+        {
+            for (Verleihkarte verleihkarte : verleihkarten)
+            {
+                _offeneAusleihen.put(verleihkarte.getMedium(),
+                        verleihkarte.getFormatiertenString());
+            }
+        }
+    }
 
     /**
      * Schreibt eine übergebene Verleihkarte ins Protokoll.
@@ -31,43 +211,578 @@ class Verleihprotokollierer
     public void protokolliere(String ereignis, Verleihkarte verleihkarte)
             throws ProtokollierException
     {
-        FileWriter writer = null;
+        protokolliere(ereignis, Collections.singletonList(verleihkarte));
+    }
+
+    /**
+     * Schreibt die übergebenen Verleihkarten als einen Eintrag je Karte ins
+     * Protokoll. Bei dauerhafter Synchronisierung kehrt die Methode erst
+     * zurück, wenn alle Einträge auf der Platte sind.
+     * 
+     * @param ereignis
+     *            Ein Verleihereignis, mögliche Texte sind in
+     *            {@link VerleihService} als Konstanten deklariert.
+     * @param verleihkarten
+     *            die Verleihkarten, die das Verleihereignis betrifft.
+     * 
+     * @throws ProtokollierException
+     *             wenn das Protokollieren nicht geklappt hat oder ein
+     *             früherer Schreibfehler noch nicht gemeldet wurde.
+     * 
+     * @require verleihkarten != null
+     */
+    public void protokolliere(String ereignis, List<Verleihkarte> verleihkarten)
+            throws ProtokollierException
+    {
+        assert verleihkarten != null : "Vorbedingung verletzt: verleihkarten != null";
+        meldeFehler();
+        Eintrag eintrag = erzeugeEintrag(ereignis, verleihkarten,
+                _synchronisierung.istDauerhaft(), false);
+        reiheEin(eintrag);
+        if (eintrag.wirdQuittiert())
+        {
+            eintrag.warte();
+        }
+    }
+
+    /**
+     * Schreibt die übergebenen Verleihkarten wie
+     * {@link #protokolliere(String, List)} ins Protokoll, kehrt aber bei
+     * jeder Synchronisierung erst zurück, wenn sie auf der Platte sind. Bei
+     * Synchronisierung nach Zeit wartet der Aufrufer auf das nächste
+     * planmäßige fsync, sonst wird es für seinen Stapel ausgelöst.
+     * 
+     * Eine ProtokollierException betrifft so immer genau diese
+     * Verleihkarten. Frühere Schreibfehler werden hier nicht gemeldet.
+     * 
+     * @param ereignis
+     *            Ein Verleihereignis, mögliche Texte sind in
+     *            {@link VerleihService} als Konstanten deklariert.
+     * @param verleihkarten
+     *            die Verleihkarten, die das Verleihereignis betrifft.
+     * 
+     * @throws ProtokollierException
+     *             wenn diese Verleihkarten nicht geschrieben oder
+     *             synchronisiert werden konnten.
+     * 
+     * @require verleihkarten != null
+     */
+    void protokolliereUndWarte(String ereignis, List<Verleihkarte> verleihkarten)
+            throws ProtokollierException
+    {
+        assert verleihkarten != null : "Vorbedingung verletzt: verleihkarten != null";
+        Eintrag eintrag = erzeugeEintrag(ereignis, verleihkarten,
+                _synchronisierung.getMillisekunden() == 0, true);
+        reiheEin(eintrag);
+        eintrag.warte();
+    }
+
+    /**
+     * Erzeugt den Eintrag für die Verleihkarten mit einem Zeitstempel je
+     * Karte.
+     */
+    private static Eintrag erzeugeEintrag(String ereignis,
+            List<Verleihkarte> verleihkarten, boolean quittieren,
+            boolean abwarten)
+    {
+        String zeitpunkt = new Date().toString();
+        StringBuilder text = new StringBuilder();
+        Medium[] medien = new Medium[verleihkarten.size()];
+        String[] karten = new String[verleihkarten.size()];
+        for (int i = 0; i < karten.length; i++)
+        {
+            Verleihkarte verleihkarte = verleihkarten.get(i);
+            medien[i] = verleihkarte.getMedium();
+            karten[i] = verleihkarte.getFormatiertenString();
+            text.append(zeitpunkt).append(": ").append(ereignis).append("\n")
+                    .append(karten[i]);
+        }
+        return new Eintrag(ereignis, medien, karten, text.toString(),
+                quittieren, abwarten, false);
+    }
+
+    /**
+     * Wartet, bis alle bisher protokollierten Einträge auf der Platte sind.
+     * 
+     * @throws ProtokollierException
+     *             wenn dabei oder vorher ein Schreibfehler aufgetreten ist.
+     */
+    public void synchronisiere() throws ProtokollierException
+    {
+        meldeFehler();
+        Eintrag eintrag = Eintrag.markierung(false);
+        reiheEin(eintrag);
+        eintrag.warte();
+    }
+
+    /**
+     * Schreibt alle ausstehenden Einträge, synchronisiert und schließt die
+     * Protokolldatei. Danach kann nicht mehr protokolliert werden.
+     * 
+     * @throws ProtokollierException
+     *             wenn dabei oder vorher ein Schreibfehler aufgetreten ist.
+     */
+    public void schliesse() throws ProtokollierException
+    {
+        Eintrag ende = Eintrag.markierung(true);
+        synchronized (this)
+        {
+            if (_geschlossen)
+            {
+                return;
+            }
+            if (_schreiber != null)
+            {
+                stelleEin(ende);
+            }
+            _geschlossen = true;
+        }
+        if (_schreiber != null)
+        {
+            ende.warte();
+        }
+        meldeFehler();
+    }
+
+    /**
+     * Gibt zurück, wie oft die Protokolldatei auf die Platte gezwungen wurde.
+     */
+    int getAnzahlSynchronisierungen()
+    {
+        return _synchronisierungen;
+    }
+
+    /**
+     * Stellt einen Eintrag in die Warteschlange und startet beim ersten
+     * Eintrag den Hintergrund-Thread.
+     */
+    private synchronized void reiheEin(Eintrag eintrag)
+            throws ProtokollierException
+    {
+        if (_geschlossen)
+        {
+            throw new ProtokollierException(
+                    "Das Verleihprotokoll ist bereits geschlossen.");
+        }
+        if (_schreiber == null)
+        {
+            _schreiber = new Thread(new Schreiber(), "Verleihprotokollierer");
+            _schreiber.setDaemon(true);
+            _schreiber.start();
+            meldeBeimBeendenAn();
+        }
+        stelleEin(eintrag);
+    }
+
+    /**
+     * Stellt einen Eintrag in die Warteschlange und wartet, solange sie voll
+     * ist.
+     */
+    private void stelleEin(Eintrag eintrag) throws ProtokollierException
+    {
+        try
+        {
+            _warteschlange.put(eintrag);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new ProtokollierException(
+                    "Das Protokollieren wurde unterbrochen.");
+        }
+    }
+
+    /**
+     * Sorgt dafür, dass ausstehende Einträge beim Beenden der Anwendung noch
+     * geschrieben werden.
+     */
+    private void meldeBeimBeendenAn()
+    {
         try
         {
-            File protokollDatei = new File("./verleihProtokoll.txt");
-            if (!protokollDatei.exists())
+            Runtime.getRuntime().addShutdownHook(new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        schliesse();
+                    }
+                    catch (ProtokollierException e)
+                    {
+                        System.err.println(e.getMessage());
+                    }
+                }
+            });
+        }
+        catch (IllegalStateException e)
+        {
+            // Die Anwendung wird bereits beendet.
+        }
+    }
+
+    /**
+     * Wirft einen Schreibfehler, der noch keinem Aufrufer gemeldet wurde.
+     */
+    private void meldeFehler() throws ProtokollierException
+    {
+        String fehler = _fehler.getAndSet(null);
+        if (fehler != null)
+        {
+            throw new ProtokollierException(fehler);
+        }
+    }
+
+    /**
+     * Ein Eintrag in der Warteschlange. Quittierte Einträge erzwingen ein
+     * fsync ihres Stapels und werden dem Aufrufer danach als erledigt
+     * gemeldet. Abwartende Einträge werden erst nach dem nächsten fsync
+     * gemeldet, ohne es zu erzwingen.
+     */
+    private static class Eintrag
+    {
+        private final String _ereignis;
+        private final Medium[] _medien;
+        private final String[] _karten;
+        private final String _text;
+        private final int _ereignisse;
+        private final boolean _quittieren;
+        private final boolean _abwarten;
+        private final boolean _ende;
+        private final CountDownLatch _erledigt;
+        private volatile String _fehler;
+
+        Eintrag(String ereignis, Medium[] medien, String[] karten,
+                String text, boolean quittieren, boolean abwarten, boolean ende)
+        {
+            _ereignis = ereignis;
+            _medien = medien;
+            _karten = karten;
+            _text = text;
+            _ereignisse = medien.length;
+            _quittieren = quittieren;
+            _abwarten = abwarten;
+            _ende = ende;
+            _erledigt = new CountDownLatch(1);
+        }
+
+        /**
+         * Erzeugt einen Eintrag ohne Ereignis, der nach dem fsync quittiert
+         * wird und auf Wunsch das Protokoll schließt.
+         */
+        static Eintrag markierung(boolean ende)
+        {
+            return new Eintrag(null, new Medium[0], new String[0], "", true,
+                    false, ende);
+        }
+
+        boolean wirdQuittiert()
+        {
+            return _quittieren;
+        }
+
+        void quittiere(String fehler)
+        {
+            _fehler = fehler;
+            _erledigt.countDown();
+        }
+
+        void warte() throws ProtokollierException
+        {
+            try
+            {
+                _erledigt.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new ProtokollierException(
+                        "Das Protokollieren wurde unterbrochen.");
+            }
+            if (_fehler != null)
+            {
+                throw new ProtokollierException(_fehler);
+            }
+        }
+    }
+
+    /**
+     * Der Hintergrund-Thread. Er nimmt jeweils alle wartenden Einträge als
+     * Stapel, schreibt sie mit einem Aufruf und synchronisiert, wenn ein
+     * Eintrag des Stapels es verlangt oder die Synchronisierung fällig ist.
+     */
+    private class Schreiber implements Runnable
+    {
+        private FileChannel _kanal;
+        private long _segmentBeginn;
+        private int _unsynchronisiert;
+        private long _ersterUnsynchronisiert;
+
+        /**
+         * Die geschriebenen abwartenden Einträge, die auf das nächste fsync
+         * warten.
+         */
+        private final List<Eintrag> _wartend = new ArrayList<Eintrag>();
+
+        /**
+         * Ob seit dem letzten fsync Einträge ohne Quittung geschrieben wurden,
+         * deren Schreibfehler beim nächsten Protokollieren gemeldet wird.
+         */
+        private boolean _ungemeldet;
+
+        @Override
+        public void run()
+        {
+            List<Eintrag> stapel = new ArrayList<Eintrag>();
+            boolean ende = false;
+            while (!ende)
             {
-                if (!protokollDatei.createNewFile())
+                Eintrag erster;
+                try
+                {
+                    erster = warteAufEintrag();
+                }
+                catch (InterruptedException e)
                 {
-                    throw new ProtokollierException(
-                            "Protokoll-Datei konnte nicht erzeugt werden: "
-                                    + protokollDatei.getAbsolutePath());
+                    erster = Eintrag.markierung(true);
                 }
+                if (erster != null)
+                {
+                    stapel.add(erster);
+                    _warteschlange.drainTo(stapel);
+                }
+                ende = verarbeite(stapel);
+                stapel.clear();
             }
-            writer = new FileWriter(protokollDatei, true);
-            String eintrag = Calendar.getInstance().getTime().toString() + ": "
-                    + ereignis + "\n" + verleihkarte.getFormatiertenString();
-            writer.write(eintrag);
         }
-        catch (IOException e)
+
+        /**
+         * Wartet auf den nächsten Eintrag, bei Synchronisierung nach Zeit
+         * höchstens bis das nächste fsync fällig ist.
+         * 
+         * @return Den Eintrag oder null, wenn das fsync fällig ist.
+         */
+        private Eintrag warteAufEintrag() throws InterruptedException
         {
-            throw new ProtokollierException(
-                    "Beim Schreiben des Verleihprotokolls ist ein Fehler aufgetreten.");
+            long intervall = _synchronisierung.getMillisekunden();
+            if (intervall > 0 && _unsynchronisiert > 0)
+            {
+                long rest = _ersterUnsynchronisiert + intervall
+                        - System.currentTimeMillis();
+                return rest > 0 ? _warteschlange.poll(rest,
+                        TimeUnit.MILLISECONDS) : null;
+            }
+            return _warteschlange.take();
+        }
+
+        /**
+         * Schreibt einen Stapel und quittiert seine Einträge.
+         * 
+         * @return true, wenn der Stapel das Schließen verlangt.
+         */
+        private boolean verarbeite(List<Eintrag> stapel)
+        {
+            StringBuilder text = new StringBuilder();
+            boolean erzwingen = false;
+            boolean ende = false;
+            boolean unquittiert = false;
+            for (Eintrag eintrag : stapel)
+            {
+                text.append(eintrag._text);
+                if (eintrag._ereignisse > 0 && _unsynchronisiert == 0)
+                {
+                    _ersterUnsynchronisiert = System.currentTimeMillis();
+                }
+                _unsynchronisiert += eintrag._ereignisse;
+                erzwingen |= eintrag._quittieren;
+                ende |= eintrag._ende;
+                unquittiert |= !eintrag._quittieren && !eintrag._abwarten;
+            }
+            erzwingen |= ende || istSynchronisierungFaellig();
+            _ungemeldet |= unquittiert;
+
+            String fehler = null;
+            boolean synchronisiert = false;
+            try
+            {
+                schreibe(text);
+                if (erzwingen)
+                {
+                    if (_kanal != null)
+                    {
+                        _kanal.force(false);
+                        _synchronisierungen++;
+                        _unsynchronisiert = 0;
+                    }
+                    synchronisiert = true;
+                }
+            }
+            catch (IOException e)
+            {
+                fehler = SCHREIBFEHLER;
+                schliesseKanal();
+                _unsynchronisiert = 0;
+            }
+            if (_offeneAusleihen != null)
+            {
+                for (Eintrag eintrag : stapel)
+                {
+                    fuehreOffeneAusleihenNach(eintrag);
+                }
+            }
+            if (ende && _kanal != null)
+            {
+                try
+                {
+                    _kanal.close();
+                }
+                catch (IOException e)
+                {
+                    fehler = SCHREIBFEHLER;
+                }
+                _kanal = null;
+            }
+
+            if (fehler != null || synchronisiert)
+            {
+                if (fehler != null && _ungemeldet)
+                {
+                    _fehler.set(fehler);
+                }
+                _ungemeldet = false;
+                for (Eintrag eintrag : _wartend)
+                {
+                    eintrag.quittiere(fehler);
+                }
+                _wartend.clear();
+            }
+            for (Eintrag eintrag : stapel)
+            {
+                if (eintrag._abwarten && fehler == null && !synchronisiert
+                        && _unsynchronisiert > 0)
+                {
+                    _wartend.add(eintrag);
+                }
+                else
+                {
+                    eintrag.quittiere(fehler);
+                }
+            }
+            return ende;
         }
-        finally
+
+        private boolean istSynchronisierungFaellig()
+        {
+            if (_unsynchronisiert == 0)
+            {
+                return false;
+            }
+            int ereignisse = _synchronisierung.getEreignisse();
+            long intervall = _synchronisierung.getMillisekunden();
+            return (ereignisse > 0 && _unsynchronisiert >= ereignisse)
+                    || (intervall > 0 && System.currentTimeMillis()
+                            - _ersterUnsynchronisiert >= intervall);
+        }
+
+        /**
+         * Trägt die Ausleihen eines Eintrags in die offenen Ausleihen ein oder
+         * die Rückgaben aus.
+         */
+        private void fuehreOffeneAusleihenNach(Eintrag eintrag)
+        {
+            for (int i = 0; i < eintrag._medien.length; i++)
+            {
+                if (VerleihService.EREIGNIS_AUSLEIHE.equals(eintrag._ereignis))
+                {
+                    _offeneAusleihen.put(eintrag._medien[i],
+                            eintrag._karten[i]);
+                }
+                else if (VerleihService.EREIGNIS_RUECKGABE
+                        .equals(eintrag._ereignis))
+                {
+                    _offeneAusleihen.remove(eintrag._medien[i]);
+                }
+            }
+        }
+
+        /**
+         * Hängt den Text an die Protokolldatei an und öffnet sie bei Bedarf.
+         * Wird das Segment damit zu groß oder ist es zu alt, wird es vorher
+         * abgeschlossen.
+         */
+        private void schreibe(StringBuilder text) throws IOException
+        {
+            if (text.length() == 0)
+            {
+                return;
+            }
+            oeffneKanal();
+            ByteBuffer puffer = ByteBuffer.wrap(text.toString().getBytes(
+                    Charset.defaultCharset()));
+            if (_segmente != null
+                    && _kanal.size() > 0
+                    && _segmente.istFaellig(_kanal.size() + puffer.remaining(),
+                            System.currentTimeMillis() - _segmentBeginn))
+            {
+                rotiere();
+                oeffneKanal();
+            }
+            while (puffer.hasRemaining())
+            {
+                _kanal.write(puffer);
+            }
+        }
+
+        private void oeffneKanal() throws IOException
+        {
+            if (_kanal == null)
+            {
+                _kanal = new FileOutputStream(_protokollDatei, true)
+                        .getChannel();
+                long jetzt = System.currentTimeMillis();
+                _segmentBeginn = _segmente != null ? _segmente
+                        .getBeginn(jetzt) : jetzt;
+            }
+        }
+
+        /**
+         * Schließt das aktuelle Segment ab. Die offenen Ausleihen enthalten
+         * dabei noch nicht den Stapel, der danach geschrieben wird. Ein
+         * Fehler wird beim nächsten Protokollieren gemeldet, geschrieben wird
+         * dann weiter in die bisherige Datei.
+         */
+        private void rotiere() throws IOException
+        {
+            _kanal.force(false);
+            _synchronisierungen++;
+            _kanal.close();
+            _kanal = null;
+            try
+            {
+                Collection<String> offen = _offeneAusleihen == null ? Collections
+                        .<String> emptyList() : _offeneAusleihen.values();
+                _segmente.schliesseAb(offen);
+            }
+            catch (IOException e)
+            {
+                _fehler.set(ROTATIONSFEHLER);
+            }
+        }
+
+        private void schliesseKanal()
         {
-            // Abschließend wird die Datei immer geschlossen.
-            if (writer != null)
+            if (_kanal != null)
             {
                 try
                 {
-                    writer.close();
+                    _kanal.close();
                 }
                 catch (IOException e)
                 {
-                    throw new ProtokollierException(
-                            "Beim Schreiben des Verleihprotokolls ist ein Fehler aufgetreten.");
+                    // Der Fehler wurde bereits gemeldet.
                 }
+                _kanal = null;
             }
         }
     }
@@ -0,0 +1,412 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+
+public class VerleihprotokolliererTest
+{
+    private File _verzeichnis;
+    private File _protokollDatei;
+    private Verleihkarte _verleihkarte;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        _verzeichnis = Files.createTempDirectory("protokoll").toFile();
+        _protokollDatei = new File(_verzeichnis, "verleihProtokoll.txt");
+        Kunde kunde = new Kunde(new Kundennummer(123456), "Susi",
+                "Sonnenschein");
+        _verleihkarte = new Verleihkarte(kunde, new CD("Greatest Hits", "",
+                "Billy Joel", 140), new Datum(3, 4, 2012));
+    }
+
+    @After
+    public void tearDown()
+    {
+        for (File datei : _verzeichnis.listFiles())
+        {
+            datei.delete();
+        }
+        _verzeichnis.delete();
+    }
+
+    @Test
+    public void testDauerhaftesEreignisIstNachRueckkehrGeschrieben()
+            throws IOException, ProtokollierException
+    {
+        Verleihprotokollierer protokollierer = new Verleihprotokollierer(
+                _protokollDatei, Protokollsynchronisierung.jedesEreignis(), 16);
+        protokollierer.protokolliere(VerleihService.EREIGNIS_AUSLEIHE,
+                _verleihkarte);
+
+        String protokoll = lese();
+        assertTrue(protokoll.endsWith(kodiert(": "
+                + VerleihService.EREIGNIS_AUSLEIHE + "\n"
+                + _verleihkarte.getFormatiertenString())));
+        assertEquals(1, protokollierer.getAnzahlSynchronisierungen());
+        protokollierer.schliesse();
+    }
+
+    @Test
+    public void testEintraegeWerdenInReihenfolgeAngehaengt()
+            throws IOException, ProtokollierException
+    {
+        Files.write(_protokollDatei.toPath(), "alt\n".getBytes());
+        Verleihprotokollierer protokollierer = new Verleihprotokollierer(
+                _protokollDatei, Protokollsynchronisierung.alleEreignisse(10),
+                4);
+        for (int i = 0; i < 25; i++)
+        {
+            String ereignis = i % 2 == 0 ? VerleihService.EREIGNIS_AUSLEIHE
+                    : VerleihService.EREIGNIS_RUECKGABE;
+            protokollierer.protokolliere(ereignis, _verleihkarte);
+        }
+        protokollierer.schliesse();
+
+        String[] zeilen = lese().split("\n");
+        assertEquals("alt", zeilen[0]);
+        int eintraege = 0;
+        for (String zeile : zeilen)
+        {
+            if (zeile.endsWith(kodiert(": " + VerleihService.EREIGNIS_AUSLEIHE))
+                    || zeile.endsWith(kodiert(": "
+                            + VerleihService.EREIGNIS_RUECKGABE)))
+            {
+                String erwartet = eintraege % 2 == 0 ? VerleihService.EREIGNIS_AUSLEIHE
+                        : VerleihService.EREIGNIS_RUECKGABE;
+                assertTrue(zeile.endsWith(kodiert(erwartet)));
+                eintraege++;
+            }
+        }
+        assertEquals(25, eintraege);
+    }
+
+    @Test
+    public void testGleichzeitigeEreignisseTeilenSichDasFsync()
+            throws Exception
+    {
+        final Verleihprotokollierer protokollierer = new Verleihprotokollierer(
+                _protokollDatei, Protokollsynchronisierung.jedesEreignis(), 8);
+        final int threads = 8;
+        final int ereignisse = 50;
+        final List<Throwable> fehler = new ArrayList<Throwable>();
+        List<Thread> gestartet = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++)
+        {
+            Thread thread = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        for (int i = 0; i < ereignisse; i++)
+                        {
+                            protokollierer.protokolliere(
+                                    VerleihService.EREIGNIS_AUSLEIHE,
+                                    _verleihkarte);
+                        }
+                    }
+                    catch (Throwable e)
+                    {
+                        synchronized (fehler)
+                        {
+                            fehler.add(e);
+                        }
+                    }
+                }
+            };
+            thread.start();
+            gestartet.add(thread);
+        }
+        for (Thread thread : gestartet)
+        {
+            thread.join();
+        }
+        protokollierer.schliesse();
+
+        assertTrue(fehler.isEmpty());
+        String protokoll = lese();
+        int eintraege = protokoll.split(VerleihService.EREIGNIS_AUSLEIHE,
+                -1).length - 1;
+        assertEquals(threads * ereignisse, eintraege);
+        assertTrue(protokollierer.getAnzahlSynchronisierungen() <= threads
+                * ereignisse + 1);
+    }
+
+    @Test
+    public void testFehlerErreichtDauerhaftenAufrufer()
+    {
+        Verleihprotokollierer protokollierer = new Verleihprotokollierer(
+                _verzeichnis, Protokollsynchronisierung.jedesEreignis(), 16);
+        ProtokollierException fehler = null;
+        try
+        {
+            protokollierer.protokolliere(VerleihService.EREIGNIS_AUSLEIHE,
+                    _verleihkarte);
+        }
+        catch (ProtokollierException e)
+        {
+            fehler = e;
+        }
+        assertNotNull(fehler);
+    }
+
+    @Test
+    public void testFehlerWirdBeimNaechstenAufrufGemeldet()
+            throws InterruptedException
+    {
+        Verleihprotokollierer protokollierer = new Verleihprotokollierer(
+                _verzeichnis, Protokollsynchronisierung.alleMillisekunden(1),
+                16);
+        ProtokollierException fehler = null;
+        try
+        {
+            protokollierer.protokolliere(VerleihService.EREIGNIS_AUSLEIHE,
+                    _verleihkarte);
+            for (int i = 0; i < 1000 && fehler == null; i++)
+            {
+                Thread.sleep(5);
+                protokollierer.protokolliere(
+                        VerleihService.EREIGNIS_RUECKGABE, _verleihkarte);
+            }
+        }
+        catch (ProtokollierException e)
+        {
+            fehler = e;
+        }
+        assertNotNull(fehler);
+    }
+
+    @Test
+    public void testWartenderAufruferTeiltDasPlanmaessigeFsync()
+            throws IOException, ProtokollierException
+    {
+        Verleihprotokollierer protokollierer = new Verleihprotokollierer(
+                _protokollDatei, Protokollsynchronisierung.alleMillisekunden(50),
+                16);
+        protokollierer.protokolliere(VerleihService.EREIGNIS_RUECKGABE,
+                _verleihkarte);
+        protokollierer.protokolliereUndWarte(VerleihService.EREIGNIS_AUSLEIHE,
+                Collections.singletonList(_verleihkarte));
+
+        assertEquals(1, protokollierer.getAnzahlSynchronisierungen());
+        assertEquals(1, zaehle(lese(), VerleihService.EREIGNIS_AUSLEIHE));
+        protokollierer.schliesse();
+    }
+
+    @Test
+    public void testFehlerErreichtWartendenAufruferUndKeinenSpaeteren()
+            throws ProtokollierException
+    {
+        Verleihprotokollierer protokollierer = new Verleihprotokollierer(
+                _verzeichnis, Protokollsynchronisierung.alleMillisekunden(50),
+                16);
+        ProtokollierException fehler = null;
+        try
+        {
+            protokollierer.protokolliereUndWarte(
+                    VerleihService.EREIGNIS_AUSLEIHE,
+                    Collections.singletonList(_verleihkarte));
+        }
+        catch (ProtokollierException e)
+        {
+            fehler = e;
+        }
+        assertNotNull(fehler);
+
+        // Der Fehler wurde gemeldet und betrifft den nächsten Aufruf nicht.
+        protokollierer.protokolliere(VerleihService.EREIGNIS_RUECKGABE,
+                _verleihkarte);
+    }
+
+    @Test(expected = ProtokollierException.class)
+    public void testNachSchliessenWirdAbgelehnt() throws ProtokollierException
+    {
+        Verleihprotokollierer protokollierer = new Verleihprotokollierer(
+                _protokollDatei, Protokollsynchronisierung.jedesEreignis(), 16);
+        protokollierer.schliesse();
+        protokollierer.protokolliere(VerleihService.EREIGNIS_AUSLEIHE,
+                _verleihkarte);
+    }
+
+    /**
+     * Gibt den Text so zurück, wie er nach dem Schreiben und Lesen mit dem
+     * Standardzeichensatz aussieht.
+     */
+    private static String kodiert(String text)
+    {
+        return new String(text.getBytes(Charset.defaultCharset()),
+                Charset.defaultCharset());
+    }
+
+    @Test
+    public void testRotationNachGroesse() throws IOException,
+            ProtokollierException
+    {
+        Protokollrotation rotation = new Protokollrotation(200, 0);
+        Verleihprotokollierer protokollierer = new Verleihprotokollierer(
+                _protokollDatei, Protokollsynchronisierung.jedesEreignis(),
+                rotation, 16);
+        for (int i = 0; i < 10; i++)
+        {
+            protokollierer.protokolliere(VerleihService.EREIGNIS_AUSLEIHE,
+                    _verleihkarte);
+        }
+        protokollierer.schliesse();
+
+        List<File> segmente = new Protokollsegmente(_protokollDatei,
+                rotation).getSegmente();
+        assertEquals(9, segmente.size());
+        int eintraege = zaehle(lese(), VerleihService.EREIGNIS_AUSLEIHE);
+        for (File segment : segmente)
+        {
+            assertTrue(segment.getName().matches(
+                    "verleihProtokoll-\\d{8}-\\d{6}-\\d{3}\\.txt"));
+            eintraege += zaehle(lese(segment, false),
+                    VerleihService.EREIGNIS_AUSLEIHE);
+        }
+        assertEquals(10, eintraege);
+    }
+
+    @Test
+    public void testAlterDesSegmentsUeberstehtNeustart() throws IOException,
+            ProtokollierException
+    {
+        long tag = 24L * 60 * 60 * 1000;
+        String gestern = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS")
+                .format(new Date(System.currentTimeMillis() - 2 * tag));
+        Files.write(new File(_verzeichnis, "verleihProtokoll-" + gestern
+                + ".txt").toPath(), "alt\n".getBytes());
+        Files.write(_protokollDatei.toPath(), "seit vorgestern\n".getBytes());
+
+        Protokollrotation rotation = new Protokollrotation(0, tag);
+        Verleihprotokollierer protokollierer = new Verleihprotokollierer(
+                _protokollDatei, Protokollsynchronisierung.jedesEreignis(),
+                rotation, 16);
+        protokollierer.protokolliere(VerleihService.EREIGNIS_AUSLEIHE,
+                _verleihkarte);
+        protokollierer.schliesse();
+
+        List<File> segmente = new Protokollsegmente(_protokollDatei,
+                rotation).getSegmente();
+        assertEquals(2, segmente.size());
+        assertEquals("seit vorgestern\n", lese(segmente.get(1), false));
+        assertEquals(1, zaehle(lese(), VerleihService.EREIGNIS_AUSLEIHE));
+    }
+
+    @Test
+    public void testKomprimierenAufbewahrenUndVerdichten()
+            throws IOException, ProtokollierException
+    {
+        Kunde kunde = _verleihkarte.getEntleiher();
+        Verleihkarte[] karten = new Verleihkarte[4];
+        for (int i = 0; i < karten.length; i++)
+        {
+            karten[i] = new Verleihkarte(kunde, new CD("CD " + i, "",
+                    "Interpret", 60), new Datum(3, 4, 2012));
+        }
+        Protokollrotation rotation = new Protokollrotation(1, 0);
+        rotation.setKomprimieren(true);
+        rotation.setAufbewahrteSegmente(2);
+        rotation.setVerdichten(true);
+        Verleihprotokollierer protokollierer = new Verleihprotokollierer(
+                _protokollDatei, Protokollsynchronisierung.jedesEreignis(),
+                rotation, 16);
+        protokollierer.beginneMit(Arrays.asList(karten[0]));
+
+        protokollierer.protokolliere(VerleihService.EREIGNIS_AUSLEIHE,
+                karten[1]);
+        protokollierer.protokolliere(VerleihService.EREIGNIS_AUSLEIHE,
+                karten[2]);
+        protokollierer.protokolliere(VerleihService.EREIGNIS_RUECKGABE,
+                karten[1]);
+        protokollierer.protokolliere(VerleihService.EREIGNIS_AUSLEIHE,
+                karten[3]);
+        protokollierer.schliesse();
+
+        Protokollsegmente segmente = new Protokollsegmente(_protokollDatei,
+                rotation);
+        assertEquals(2, segmente.getSegmente().size());
+        for (File segment : segmente.getSegmente())
+        {
+            assertTrue(segment.getName().endsWith(".txt.gz"));
+            String inhalt = lese(segment, true);
+            assertEquals(1, zaehle(inhalt, VerleihService.EREIGNIS_AUSLEIHE)
+                    + zaehle(inhalt, VerleihService.EREIGNIS_RUECKGABE));
+        }
+
+        String zusammenfassung = lese(segmente.getZusammenfassung(), false);
+        assertTrue(zusammenfassung.contains(kodiert(karten[0]
+                .getFormatiertenString())));
+        assertTrue(zusammenfassung.contains(kodiert(karten[2]
+                .getFormatiertenString())));
+        assertFalse(zusammenfassung.contains(kodiert(karten[1]
+                .getFormatiertenString())));
+        assertFalse(zusammenfassung.contains(kodiert(karten[3]
+                .getFormatiertenString())));
+        assertEquals(4, _verzeichnis.listFiles().length);
+    }
+
+    /**
+     * Zählt die Einträge zu einem Ereignis im Protokoll.
+     */
+    private static int zaehle(String protokoll, String ereignis)
+    {
+        return protokoll.split(Pattern.quote(kodiert(": " + ereignis + "\n")),
+                -1).length - 1;
+    }
+
+    private static String lese(File datei, boolean komprimiert)
+            throws IOException
+    {
+        InputStream eingabe = new FileInputStream(datei);
+        if (komprimiert)
+        {
+            eingabe = new GZIPInputStream(eingabe);
+        }
+        ByteArrayOutputStream inhalt = new ByteArrayOutputStream();
+        byte[] puffer = new byte[4096];
+        int gelesen;
+        while ((gelesen = eingabe.read(puffer)) >= 0)
+        {
+            inhalt.write(puffer, 0, gelesen);
+        }
+        eingabe.close();
+        return new String(inhalt.toByteArray(), Charset.defaultCharset());
+    }
+
+    private String lese() throws IOException
+    {
+        return new String(Files.readAllBytes(_protokollDatei.toPath()),
+                Charset.defaultCharset());
+    }
+}
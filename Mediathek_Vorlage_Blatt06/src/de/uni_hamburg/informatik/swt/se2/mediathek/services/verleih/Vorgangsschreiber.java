@@ -0,0 +1,196 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih;
+
+import java.util.Collections;
+import java.util.List;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandService;
+
+/**
+ * Hält die Ausleihen und Rückgaben eines {@link VerleihService} fest, bevor
+ * er sie ausführt: zuerst im {@link Verleihjournal}, wenn eines gesetzt ist,
+ * dann im {@link Verleihprotokollierer}, jeweils mit einem Schreibvorgang für
+ * alle Verleihkarten des Vorgangs. Das Journal wird vor dem Protokoll auf die
+ * Platte gezwungen.
+ *
+ * Scheitert das Protokoll, nachdem das Journal geschrieben wurde, wird der
+ * Vorgang im Journal durch die Gegenbuchung aufgehoben, die ebenso auf die
+ * Platte gezwungen wird. Der Service führt den Vorgang dann nicht aus, sodass Journal und Zustand übereinstimmen. Damit
+ * ein Fehler dem richtigen Vorgang zugeordnet wird, wartet der
+ * Vorgangsschreiber mit Journal auch bei Synchronisierung nach Zeit, bis der
+ * Stapel des Vorgangs im Protokoll auf die Platte gezwungen wurde.
+ *
+ * Ein Vorgangsschreiber kann von mehreren Threads benutzt werden.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+final class Vorgangsschreiber
+{
+    private final MedienbestandService _medienbestand;
+
+    private final Verleihprotokollierer _protokollierer;
+
+    /**
+     * Das Journal, in dem die Verleihvorgänge zur Wiederherstellung
+     * festgehalten werden, oder null.
+     */
+    private volatile Verleihjournal _journal;
+
+    /**
+     * Initialisiert einen Vorgangsschreiber ohne Journal.
+     *
+     * @param medienbestand
+     *            Der Medienbestand, der die Medien-IDs für das Journal
+     *            vergibt.
+     * @param protokollierer
+     *            Der Protokollierer für die Verleihvorgänge.
+     */
+    Vorgangsschreiber(MedienbestandService medienbestand,
+            Verleihprotokollierer protokollierer)
+    {
+        _medienbestand = medienbestand;
+        _protokollierer = protokollierer;
+    }
+
+    /**
+     * Setzt das Journal, in dem ab jetzt jede Ausleihe und Rückgabe
+     * festgehalten wird, oder null.
+     */
+    void setVerleihjournal(Verleihjournal journal)
+    {
+        _journal = journal;
+    }
+
+    /**
+     * Hält eine Ausleihe fest.
+     *
+     * @throws ProtokollierException
+     *             wenn Journal oder Protokoll nicht geschrieben werden
+     *             konnten. Die Ausleihe darf dann nicht ausgeführt werden.
+     */
+    void halteAusleiheFest(List<Verleihkarte> verleihkarten, Datum datum)
+            throws ProtokollierException
+    {
+        Verleihjournal journal = _journal;
+        long position = schreibeJournal(journal,
+                VerleihjournalFormat.AUSLEIHE, verleihkarten, datum);
+        try
+        {
+            synchronisiereJournal(journal, position);
+            protokolliere(journal, VerleihService.EREIGNIS_AUSLEIHE,
+                    verleihkarten);
+        }
+        catch (ProtokollierException e)
+        {
+            try
+            {
+                long gegenposition = schreibeJournal(journal,
+                        VerleihjournalFormat.RUECKGABE, verleihkarten, datum);
+                synchronisiereJournal(journal, gegenposition);
+            }
+            catch (ProtokollierException gegenbuchung)
+            {
+                e.addSuppressed(gegenbuchung);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Hält eine Rückgabe fest.
+     *
+     * @throws ProtokollierException
+     *             wenn Journal oder Protokoll nicht geschrieben werden
+     *             konnten. Die Rückgabe darf dann nicht ausgeführt werden.
+     */
+    void halteRueckgabeFest(List<Verleihkarte> verleihkarten, Datum datum)
+            throws ProtokollierException
+    {
+        Verleihjournal journal = _journal;
+        long position = schreibeJournal(journal,
+                VerleihjournalFormat.RUECKGABE, verleihkarten, datum);
+        try
+        {
+            synchronisiereJournal(journal, position);
+            protokolliere(journal, VerleihService.EREIGNIS_RUECKGABE,
+                    verleihkarten);
+        }
+        catch (ProtokollierException e)
+        {
+            try
+            {
+                // Jede Karte wird mit ihrem eigenen Ausleihdatum neu
+                // eingetragen.
+                long gegenposition = -1;
+                for (Verleihkarte verleihkarte : verleihkarten)
+                {
+                    gegenposition = schreibeJournal(journal,
+                            VerleihjournalFormat.AUSLEIHE,
+                            Collections.singletonList(verleihkarte),
+                            verleihkarte.getAusleihdatum());
+                }
+                synchronisiereJournal(journal, gegenposition);
+            }
+            catch (ProtokollierException gegenbuchung)
+            {
+                e.addSuppressed(gegenbuchung);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Schreibt die Verleihkarten ins Journal, wenn eines gesetzt ist.
+     *
+     * @return Die Position hinter den Einträgen oder -1 ohne Journal.
+     */
+    private long schreibeJournal(Verleihjournal journal, byte art,
+            List<Verleihkarte> verleihkarten, Datum datum)
+            throws ProtokollierException
+    {
+        if (journal == null)
+        {
+            return -1;
+        }
+        int[] medienIds = new int[verleihkarten.size()];
+        for (int i = 0; i < medienIds.length; i++)
+        {
+            medienIds[i] = _medienbestand.getMedienId(verleihkarten.get(i)
+                    .getMedium());
+        }
+        return journal.schreibe(art, verleihkarten, medienIds, datum);
+    }
+
+    /**
+     * Schreibt die Verleihkarten ins Protokoll. Mit Journal wird auf das
+     * fsync ihres Stapels gewartet, damit ein Fehler genau diesen Vorgang
+     * betrifft und die Gegenbuchung den richtigen aufhebt.
+     */
+    private void protokolliere(Verleihjournal journal, String ereignis,
+            List<Verleihkarte> verleihkarten) throws ProtokollierException
+    {
+        if (journal == null)
+        {
+            _protokollierer.protokolliere(ereignis, verleihkarten);
+        }
+        else
+        {
+            _protokollierer.protokolliereUndWarte(ereignis, verleihkarten);
+        }
+    }
+
+    /**
+     * Zwingt das Journal bis zur angegebenen Position auf die Platte, wenn
+     * eines gesetzt ist.
+     */
+    private static void synchronisiereJournal(Verleihjournal journal,
+            long position) throws ProtokollierException
+    {
+        if (journal != null)
+        {
+            journal.synchronisiereBis(position);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.vormerk;
+
+import java.util.List;
+import java.util.Map;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.BeobachtbarerService;
+
+/**
+ * Der VormerkService verwaltet die Vormerklisten der Medien. Jedes Medium hat
+ * eine Warteschlange von Kunden, die es ausleihen möchten, sobald es
+ * zurückgegeben wird. Ihre Länge ist für alle Medien gleich begrenzt.
+ *
+ * Die Vormerklisten werden nur über den Service geändert. Zu jedem Kunden
+ * kennt er die Medien, die er vorgemerkt hat, ohne den Medienbestand zu
+ * durchsuchen.
+ *
+ * Ob der Kunde das Medium gerade selbst ausgeliehen hat, prüft der
+ * VormerkService nicht, das übernimmt der VerleihService.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public interface VormerkService extends BeobachtbarerService
+{
+    /**
+     * Gibt zurück, wie viele Kunden ein Medium höchstens vormerken können.
+     *
+     * @ensure result > 0
+     */
+    int getMaximaleVormerker();
+
+    /**
+     * Prüft, ob der Kunde das Medium vormerken kann. Das ist der Fall, wenn er
+     * es noch nicht vorgemerkt hat und die Vormerkliste noch nicht voll ist.
+     *
+     * @param kunde
+     *            Ein Kunde.
+     * @param medium
+     *            Ein Medium.
+     *
+     * @require kunde != null
+     * @require mediumImBestand(medium)
+     */
+    boolean istVormerkenMoeglich(Kunde kunde, Medium medium);
+
+    /**
+     * Prüft, ob der Kunde das Medium vorgemerkt hat.
+     *
+     * @param kunde
+     *            Ein Kunde.
+     * @param medium
+     *            Ein Medium.
+     *
+     * @require kunde != null
+     * @require mediumImBestand(medium)
+     */
+    boolean istVorgemerkt(Kunde kunde, Medium medium);
+
+    /**
+     * Setzt den Kunden als neuen Vormerker an das Ende der Vormerkliste des
+     * Mediums.
+     *
+     * @param kunde
+     *            Der vormerkende Kunde.
+     * @param medium
+     *            Das vorzumerkende Medium.
+     *
+     * @require istVormerkenMoeglich(kunde, medium)
+     *
+     * @ensure istVorgemerkt(kunde, medium)
+     * @ensure getVormerker(medium).size() <= getMaximaleVormerker()
+     */
+    void setVormerker(Kunde kunde, Medium medium);
+
+    /**
+     * Entfernt den Kunden aus der Vormerkliste des Mediums. Die Kunden hinter
+     * ihm rücken auf.
+     *
+     * @param kunde
+     *            Der Kunde, dessen Vormerkung gelöscht wird.
+     * @param medium
+     *            Das vorgemerkte Medium.
+     *
+     * @require istVorgemerkt(kunde, medium)
+     *
+     * @ensure !istVorgemerkt(kunde, medium)
+     */
+    void vormerkerLoeschen(Kunde kunde, Medium medium);
+
+    /**
+     * Gibt die Vormerker des Mediums in der Reihenfolge ihrer Vormerkung
+     * zurück.
+     *
+     * @param medium
+     *            Ein Medium.
+     *
+     * @require mediumImBestand(medium)
+     *
+     * @ensure result != null
+     */
+    List<Kunde> getVormerker(Medium medium);
+
+    /**
+     * Gibt den ersten Vormerker des Mediums zurück, oder null, wenn es
+     * niemand vorgemerkt hat.
+     *
+     * @param medium
+     *            Ein Medium.
+     *
+     * @require mediumImBestand(medium)
+     */
+    Kunde getErsterVormerker(Medium medium);
+
+    /**
+     * Gibt die Medien zurück, die der Kunde vorgemerkt hat, in der Reihenfolge
+     * seiner Vormerkungen.
+     *
+     * @param kunde
+     *            Ein Kunde.
+     *
+     * @require kunde != null
+     *
+     * @ensure result != null
+     */
+    List<Medium> getVorgemerkteMedienFuer(Kunde kunde);
+
+    /**
+     * Gibt die Vormerker aller vorgemerkten Medien zurück, etwa um sie zu
+     * speichern. Medien ohne Vormerker sind nicht enthalten.
+     *
+     * @ensure result != null
+     */
+    Map<Medium, List<Kunde>> getAlleVormerker();
+
+    /**
+     * Prüft, ob das Medium im Medienbestand des Services enthalten ist.
+     *
+     * @param medium
+     *            Ein Medium.
+     *
+     * @require medium != null
+     */
+    boolean mediumImBestand(Medium medium);
+}
@@ -0,0 +1,402 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.vormerk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.AbstractBeobachtbarerService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.AenderungsBeobachter;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandService;
+
+/**
+ * Ein {@link VormerkService} für die Kunden eines Kundenstamms und die Medien
+ * eines Medienbestands.
+ *
+ * Der Service hält die Vormerklisten selbst, Vormerkungen werden nur über ihn
+ * geändert. Neben den Vormerkern je Medium führt er zu jedem Kunden die Menge
+ * seiner vorgemerkten Medien. Alle Operationen brauchen so unabhängig von der
+ * Größe des Bestands konstante Zeit.
+ *
+ * Der Service meldet sich als {@link AenderungsBeobachter} an Kundenstamm und
+ * Medienbestand an. Wird ein Medium entfernt, verwirft er seine Vormerkliste;
+ * wird ein Kunde entfernt, löscht er dessen Vormerkungen.
+ *
+ * Ein VormerkServiceImpl kann von mehreren Threads benutzt werden. Die
+ * Beobachter werden außerhalb seines Monitors benachrichtigt.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class VormerkServiceImpl extends AbstractBeobachtbarerService implements
+        VormerkService, AenderungsBeobachter
+{
+    /**
+     * Wie viele Kunden ein Medium höchstens vormerken können, wenn nichts
+     * anderes angegeben wird.
+     */
+    public static final int STANDARD_MAXIMALE_VORMERKER = 3;
+
+    private final KundenstammService _kundenstamm;
+
+    private final MedienbestandService _medienbestand;
+
+    private final int _maximaleVormerker;
+
+    /**
+     * Die Vormerker je Medium, in der Reihenfolge der Vormerkung. Medien ohne
+     * Vormerker haben keinen Eintrag.
+     */
+    private final Map<Medium, List<Kunde>> _vormerker;
+
+    /**
+     * Die vorgemerkten Medien je Kunde, in der Reihenfolge der Vormerkung.
+     * Kunden ohne Vormerkungen haben keinen Eintrag.
+     */
+    private final Map<Kunde, Set<Medium>> _vorgemerkteMedien;
+
+    /**
+     * Initialisiert einen VormerkService ohne Vormerkungen, bei dem jedes
+     * Medium {@link #STANDARD_MAXIMALE_VORMERKER} Vormerker haben kann.
+     *
+     * @param kundenstamm
+     *            Der Kundenstamm, dessen Kunden vormerken.
+     * @param medienbestand
+     *            Der Medienbestand, dessen Medien vorgemerkt werden.
+     *
+     * @require kundenstamm != null
+     * @require medienbestand != null
+     */
+    public VormerkServiceImpl(KundenstammService kundenstamm,
+            MedienbestandService medienbestand)
+    {
+        this(kundenstamm, medienbestand, STANDARD_MAXIMALE_VORMERKER);
+    }
+
+    /**
+     * Initialisiert einen VormerkService ohne Vormerkungen.
+     *
+     * @param kundenstamm
+     *            Der Kundenstamm, dessen Kunden vormerken.
+     * @param medienbestand
+     *            Der Medienbestand, dessen Medien vorgemerkt werden.
+     * @param maximaleVormerker
+     *            Wie viele Kunden ein Medium höchstens vormerken können.
+     *
+     * @require kundenstamm != null
+     * @require medienbestand != null
+     * @require maximaleVormerker > 0
+     */
+    public VormerkServiceImpl(KundenstammService kundenstamm,
+            MedienbestandService medienbestand, int maximaleVormerker)
+    {
+        this(kundenstamm, medienbestand,
+                Collections.<Medium, List<Kunde>> emptyMap(),
+                maximaleVormerker);
+    }
+
+    /**
+     * Initialisiert einen VormerkService mit den gegebenen Vormerklisten, etwa
+     * aus einem Snapshot. Sie werden übernommen, auch wenn sie länger als
+     * maximaleVormerker sind.
+     *
+     * @param kundenstamm
+     *            Der Kundenstamm, dessen Kunden vormerken.
+     * @param medienbestand
+     *            Der Medienbestand, dessen Medien vorgemerkt werden.
+     * @param vormerker
+     *            Die Vormerker je Medium, in der Reihenfolge der Vormerkung.
+     * @param maximaleVormerker
+     *            Wie viele Kunden ein Medium höchstens vormerken können.
+     *
+     * @require kundenstamm != null
+     * @require medienbestand != null
+     * @require vormerker != null
+     * @require maximaleVormerker > 0
+     */
+    public VormerkServiceImpl(KundenstammService kundenstamm,
+            MedienbestandService medienbestand,
+            Map<Medium, List<Kunde>> vormerker, int maximaleVormerker)
+    {
+        assert kundenstamm != null : "Vorbedingung verletzt: kundenstamm != null";
+        assert medienbestand != null : "Vorbedingung verletzt: medienbestand != null";
+        assert vormerker != null : "Vorbedingung verletzt: vormerker != null";
+        assert maximaleVormerker > 0 : "Vorbedingung verletzt: maximaleVormerker > 0";
+        _kundenstamm = kundenstamm;
+        _medienbestand = medienbestand;
+        _maximaleVormerker = maximaleVormerker;
+        _vormerker = new HashMap<Medium, List<Kunde>>();
+        _vorgemerkteMedien = new HashMap<Kunde, Set<Medium>>();
+        for (Map.Entry<Medium, List<Kunde>> eintrag : vormerker.entrySet())
+        {
+            for (Kunde kunde : eintrag.getValue())
+            {
+                fuegeEin(kunde, eintrag.getKey());
+            }
+        }
+        _kundenstamm.registriereAenderungsBeobachter(this);
+        _medienbestand.registriereAenderungsBeobachter(this);
+    }
+
+    @Override
+    public int getMaximaleVormerker()
+    {
+        return _maximaleVormerker;
+    }
+
+    @Override
+    public synchronized boolean istVormerkenMoeglich(Kunde kunde, Medium medium)
+    {
+        assert kunde != null : "Vorbedingung verletzt: kunde != null";
+        assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumImBestand(medium)";
+        return !istVorgemerkt(kunde, medium)
+                && anzahlVormerker(medium) < _maximaleVormerker;
+    }
+
+    @Override
+    public synchronized boolean istVorgemerkt(Kunde kunde, Medium medium)
+    {
+        assert kunde != null : "Vorbedingung verletzt: kunde != null";
+        assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumImBestand(medium)";
+        Set<Medium> medien = _vorgemerkteMedien.get(kunde);
+        return medien != null && medien.contains(medium);
+    }
+
+    @Override
+    public void setVormerker(Kunde kunde, Medium medium)
+    {
+        synchronized (this)
+        {
+            assert istVormerkenMoeglich(kunde, medium) : "Vorbedingung verletzt: istVormerkenMoeglich(kunde, medium)";
+            fuegeEin(kunde, medium);
+
+            assert istVorgemerkt(kunde, medium) : "Nachbedingung verletzt: istVorgemerkt(kunde, medium)";
+            assert anzahlVormerker(medium) <= _maximaleVormerker : "Nachbedingung verletzt: getVormerker(medium).size() <= getMaximaleVormerker()";
+        }
+        informiereUeberAenderung(Aenderung.vormerkerGeaendert(medium, kunde));
+    }
+
+    @Override
+    public void vormerkerLoeschen(Kunde kunde, Medium medium)
+    {
+        synchronized (this)
+        {
+            assert istVorgemerkt(kunde, medium) : "Vorbedingung verletzt: istVorgemerkt(kunde, medium)";
+            entferne(kunde, medium);
+
+            assert !istVorgemerkt(kunde, medium) : "Nachbedingung verletzt: !istVorgemerkt(kunde, medium)";
+        }
+        informiereUeberAenderung(Aenderung.vormerkerGeaendert(medium, kunde));
+    }
+
+    @Override
+    public synchronized List<Kunde> getVormerker(Medium medium)
+    {
+        assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumImBestand(medium)";
+        List<Kunde> vormerker = _vormerker.get(medium);
+        if (vormerker == null)
+        {
+            return new ArrayList<Kunde>();
+        }
+        return new ArrayList<Kunde>(vormerker);
+    }
+
+    @Override
+    public synchronized Kunde getErsterVormerker(Medium medium)
+    {
+        assert mediumImBestand(medium) : "Vorbedingung verletzt: mediumImBestand(medium)";
+        List<Kunde> vormerker = _vormerker.get(medium);
+        return vormerker == null ? null : vormerker.get(0);
+    }
+
+    @Override
+    public synchronized List<Medium> getVorgemerkteMedienFuer(Kunde kunde)
+    {
+        assert kunde != null : "Vorbedingung verletzt: kunde != null";
+        Set<Medium> medien = _vorgemerkteMedien.get(kunde);
+        if (medien == null)
+        {
+            return Collections.emptyList();
+        }
+        return new ArrayList<Medium>(medien);
+    }
+
+    @Override
+    public synchronized Map<Medium, List<Kunde>> getAlleVormerker()
+    {
+        Map<Medium, List<Kunde>> result = new HashMap<Medium, List<Kunde>>();
+        for (Map.Entry<Medium, List<Kunde>> eintrag : _vormerker.entrySet())
+        {
+            result.put(eintrag.getKey(),
+                    new ArrayList<Kunde>(eintrag.getValue()));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean mediumImBestand(Medium medium)
+    {
+        return _medienbestand.enthaeltMedium(medium);
+    }
+
+    @Override
+    public void informiereUeberAenderungen(List<Aenderung> aenderungen)
+    {
+        List<Aenderung> geloescht = new ArrayList<Aenderung>();
+        synchronized (this)
+        {
+            for (Aenderung aenderung : aenderungen)
+            {
+                switch (aenderung.getArt())
+                {
+                case MEDIUM_ENTFERNT:
+                    for (Medium medium : aenderung.getMedien())
+                    {
+                        // Bei gebündelter Zustellung kann das Medium schon
+                        // wieder eingefügt sein.
+                        if (!mediumImBestand(medium))
+                        {
+                            verwirf(medium);
+                        }
+                    }
+                    break;
+                case KUNDE_ENTFERNT:
+                    Kunde kunde = aenderung.getKunde();
+                    if (!_kundenstamm.enthaeltKunden(kunde))
+                    {
+                        loescheVormerkungen(kunde, geloescht);
+                    }
+                    break;
+                case UNBESTIMMT:
+                    bereinige(geloescht);
+                    break;
+                default:
+                    break;
+                }
+            }
+        }
+        for (Aenderung aenderung : geloescht)
+        {
+            informiereUeberAenderung(aenderung);
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der Vormerker des Mediums zurück.
+     */
+    private int anzahlVormerker(Medium medium)
+    {
+        List<Kunde> vormerker = _vormerker.get(medium);
+        return vormerker == null ? 0 : vormerker.size();
+    }
+
+    /**
+     * Setzt den Kunden an das Ende der Vormerkliste und trägt das Medium
+     * unter ihm in den Index ein.
+     */
+    private void fuegeEin(Kunde kunde, Medium medium)
+    {
+        List<Kunde> vormerker = _vormerker.get(medium);
+        if (vormerker == null)
+        {
+            vormerker = new ArrayList<Kunde>(_maximaleVormerker);
+            _vormerker.put(medium, vormerker);
+        }
+        vormerker.add(kunde);
+        Set<Medium> medien = _vorgemerkteMedien.get(kunde);
+        if (medien == null)
+        {
+            medien = new LinkedHashSet<Medium>();
+            _vorgemerkteMedien.put(kunde, medien);
+        }
+        medien.add(medium);
+    }
+
+    /**
+     * Entfernt den Kunden aus der Vormerkliste und das Medium aus seinem
+     * Index.
+     */
+    private void entferne(Kunde kunde, Medium medium)
+    {
+        List<Kunde> vormerker = _vormerker.get(medium);
+        vormerker.remove(kunde);
+        if (vormerker.isEmpty())
+        {
+            _vormerker.remove(medium);
+        }
+        Set<Medium> medien = _vorgemerkteMedien.get(kunde);
+        medien.remove(medium);
+        if (medien.isEmpty())
+        {
+            _vorgemerkteMedien.remove(kunde);
+        }
+    }
+
+    /**
+     * Verwirft die Vormerkliste eines entfernten Mediums.
+     */
+    private void verwirf(Medium medium)
+    {
+        List<Kunde> vormerker = _vormerker.remove(medium);
+        if (vormerker == null)
+        {
+            return;
+        }
+        for (Kunde kunde : vormerker)
+        {
+            Set<Medium> medien = _vorgemerkteMedien.get(kunde);
+            medien.remove(medium);
+            if (medien.isEmpty())
+            {
+                _vorgemerkteMedien.remove(kunde);
+            }
+        }
+    }
+
+    /**
+     * Löscht alle Vormerkungen eines entfernten Kunden und sammelt die
+     * Änderungen für die Beobachter.
+     */
+    private void loescheVormerkungen(Kunde kunde, List<Aenderung> geloescht)
+    {
+        Set<Medium> medien = _vorgemerkteMedien.get(kunde);
+        if (medien == null)
+        {
+            return;
+        }
+        for (Medium medium : new ArrayList<Medium>(medien))
+        {
+            entferne(kunde, medium);
+            geloescht.add(Aenderung.vormerkerGeaendert(medium, kunde));
+        }
+    }
+
+    /**
+     * Verwirft die Vormerkungen aller Medien und Kunden, die es nicht mehr
+     * gibt.
+     */
+    private void bereinige(List<Aenderung> geloescht)
+    {
+        for (Medium medium : new ArrayList<Medium>(_vormerker.keySet()))
+        {
+            if (!mediumImBestand(medium))
+            {
+                verwirf(medium);
+            }
+        }
+        for (Kunde kunde : new ArrayList<Kunde>(_vorgemerkteMedien.keySet()))
+        {
+            if (!_kundenstamm.enthaeltKunden(kunde))
+            {
+                loescheVormerkungen(kunde, geloescht);
+            }
+        }
+    }
+}
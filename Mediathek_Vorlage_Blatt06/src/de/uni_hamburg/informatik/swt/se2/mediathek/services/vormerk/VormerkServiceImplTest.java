@@ -0,0 +1,164 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.services.vormerk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Kundennummer;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.CD;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.AenderungsBeobachter;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderungsart;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammServiceImpl;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandServiceImpl;
+
+/**
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class VormerkServiceImplTest
+{
+    private List<Kunde> _kunden;
+    private List<Medium> _medien;
+    private KundenstammService _kundenstamm;
+    private MedienbestandService _medienbestand;
+    private VormerkServiceImpl _service;
+
+    @Before
+    public void setUp()
+    {
+        _kunden = new ArrayList<Kunde>();
+        for (int i = 0; i < 4; i++)
+        {
+            _kunden.add(new Kunde(new Kundennummer(100000 + i), "Vorname" + i,
+                    "Nachname" + i));
+        }
+        _medien = new ArrayList<Medium>();
+        for (int i = 0; i < 3; i++)
+        {
+            _medien.add(new CD("CD" + i, "", "", 1));
+        }
+        _kundenstamm = new KundenstammServiceImpl(_kunden);
+        _medienbestand = new MedienbestandServiceImpl(_medien);
+        _service = new VormerkServiceImpl(_kundenstamm, _medienbestand, 2);
+    }
+
+    @Test
+    public void testVormerklisteIstBegrenzt()
+    {
+        Medium medium = _medien.get(0);
+        assertEquals(2, _service.getMaximaleVormerker());
+        _service.setVormerker(_kunden.get(0), medium);
+        assertFalse(_service.istVormerkenMoeglich(_kunden.get(0), medium));
+        _service.setVormerker(_kunden.get(1), medium);
+        assertFalse(_service.istVormerkenMoeglich(_kunden.get(2), medium));
+        assertEquals(Arrays.asList(_kunden.get(0), _kunden.get(1)),
+                _service.getVormerker(medium));
+
+        _service.vormerkerLoeschen(_kunden.get(0), medium);
+        assertSame(_kunden.get(1), _service.getErsterVormerker(medium));
+        assertTrue(_service.istVormerkenMoeglich(_kunden.get(2), medium));
+        assertNull(_service.getErsterVormerker(_medien.get(1)));
+    }
+
+    @Test
+    public void testVorgemerkteMedienFuerKunden()
+    {
+        Kunde kunde = _kunden.get(0);
+        assertTrue(_service.getVorgemerkteMedienFuer(kunde).isEmpty());
+        _service.setVormerker(kunde, _medien.get(2));
+        _service.setVormerker(kunde, _medien.get(0));
+        _service.setVormerker(_kunden.get(1), _medien.get(1));
+        assertEquals(Arrays.asList(_medien.get(2), _medien.get(0)),
+                _service.getVorgemerkteMedienFuer(kunde));
+        assertTrue(_service.istVorgemerkt(kunde, _medien.get(0)));
+        assertFalse(_service.istVorgemerkt(kunde, _medien.get(1)));
+
+        _service.vormerkerLoeschen(kunde, _medien.get(2));
+        _service.vormerkerLoeschen(kunde, _medien.get(0));
+        assertTrue(_service.getVorgemerkteMedienFuer(kunde).isEmpty());
+        assertTrue(_service.getVormerker(_medien.get(0)).isEmpty());
+    }
+
+    @Test
+    public void testVormerkerDerMedienWerdenUebernommen()
+    {
+        // Mehr Vormerker als erlaubt, etwa aus einem älteren Bestand
+        Medium medium = _medien.get(1);
+        Map<Medium, List<Kunde>> vormerker = new HashMap<Medium, List<Kunde>>();
+        vormerker.put(medium, _kunden.subList(0, 3));
+        _service = new VormerkServiceImpl(_kundenstamm, _medienbestand,
+                vormerker, 2);
+        assertEquals(_kunden.subList(0, 3), _service.getVormerker(medium));
+        assertEquals(Arrays.asList(medium),
+                _service.getVorgemerkteMedienFuer(_kunden.get(2)));
+        assertFalse(_service.istVormerkenMoeglich(_kunden.get(3), medium));
+        _service.vormerkerLoeschen(_kunden.get(0), medium);
+        _service.vormerkerLoeschen(_kunden.get(1), medium);
+        assertTrue(_service.istVormerkenMoeglich(_kunden.get(3), medium));
+    }
+
+    @Test
+    public void testEntferntesMediumVerliertSeineVormerker()
+    {
+        Kunde kunde = _kunden.get(0);
+        _service.setVormerker(kunde, _medien.get(0));
+        _service.setVormerker(kunde, _medien.get(1));
+        _medienbestand.entferneMedium(_medien.get(0));
+
+        assertEquals(Arrays.asList(_medien.get(1)),
+                _service.getVorgemerkteMedienFuer(kunde));
+        assertEquals(Arrays.asList(_medien.get(1)), new ArrayList<Medium>(
+                _service.getAlleVormerker().keySet()));
+    }
+
+    @Test
+    public void testEntfernterKundeVerliertSeineVormerkungen()
+    {
+        Kunde kunde = _kunden.get(0);
+        _service.setVormerker(kunde, _medien.get(0));
+        _service.setVormerker(_kunden.get(1), _medien.get(0));
+        _service.setVormerker(kunde, _medien.get(2));
+        _kundenstamm.entferneKunden(kunde);
+
+        assertTrue(_service.getVorgemerkteMedienFuer(kunde).isEmpty());
+        assertEquals(Arrays.asList(_kunden.get(1)),
+                _service.getVormerker(_medien.get(0)));
+        assertTrue(_service.getVormerker(_medien.get(2)).isEmpty());
+    }
+
+    @Test
+    public void testBeobachterWerdenBenachrichtigt()
+    {
+        final List<Aenderung> aenderungen = new ArrayList<Aenderung>();
+        _service.registriereAenderungsBeobachter(new AenderungsBeobachter()
+        {
+            @Override
+            public void informiereUeberAenderungen(List<Aenderung> neue)
+            {
+                aenderungen.addAll(neue);
+            }
+        });
+        _service.setVormerker(_kunden.get(0), _medien.get(0));
+        _service.vormerkerLoeschen(_kunden.get(0), _medien.get(0));
+        assertEquals(2, aenderungen.size());
+        assertEquals(Aenderungsart.VORMERKER_GEAENDERT, aenderungen.get(1)
+                .getArt());
+        assertSame(_kunden.get(0), aenderungen.get(1).getKunde());
+    }
+}
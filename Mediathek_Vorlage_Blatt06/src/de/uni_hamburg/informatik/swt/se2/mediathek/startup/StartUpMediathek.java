@@ -1,17 +1,37 @@
 package de.uni_hamburg.informatik.swt.se2.mediathek.startup;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.swing.SwingUtilities;
 
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Zustellung;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammServiceImpl;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandServiceImpl;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz.DateiLeseException;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz.DateiSchreibException;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz.DatenEinleser;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz.DatenSchreiber;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz.Einlesemodus;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz.SnapshotEinleser;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.persistenz.SnapshotSchreiber;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.uhr.UhrServiceImpl;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.ProtokollierException;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.Protokollrotation;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.Protokollsynchronisierung;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.VerleihService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.VerleihServiceImpl;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.Verleihjournal;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.VerleihjournalLeser;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.vormerk.VormerkService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.vormerk.VormerkServiceImpl;
 import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.hauptwerkzeug.MediathekWerkzeug;
 
 /**
@@ -34,10 +54,33 @@ public class StartUpMediathek
             "./bestand/kundenstamm.txt");
     private static final File MEDIEN_DATEI = new File(
             "./bestand/medienbestand.txt");
+    private static final File KUNDEN_SICHERUNG = new File(
+            "./bestand/kundenstammBackup.txt");
+    private static final File MEDIEN_SICHERUNG = new File(
+            "./bestand/medienbestandBackup.txt");
+    private static final File SNAPSHOT_DATEI = new File(
+            "./bestand/mediathek.snapshot");
+    private static final File JOURNAL_DATEI = new File(
+            "./bestand/verleih.journal");
+
+    /**
+     * Das Verleihprotokoll wird täglich oder ab 64 MB in ein neues Segment
+     * geschrieben, von den komprimierten Segmenten bleiben die letzten 90.
+     */
+    private static final long PROTOKOLL_SEGMENTGROESSE = 64L << 20;
+    private static final long PROTOKOLL_SEGMENTALTER = 24L * 60 * 60 * 1000;
+    private static final int PROTOKOLL_SEGMENTE = 90;
+
+    /**
+     * Wie viele Kunden ein Medium höchstens vormerken können.
+     */
+    private static final int MAXIMALE_VORMERKER = 3;
 
     private static KundenstammService _kundenstamm;
     private static MedienbestandService _medienbestand;
+    private static VormerkService _vormerkService;
     private static VerleihService _verleihService;
+    private static Verleihjournal _journal;
 
     /**
      * Main-Methode, mit der die Anwendung gestartet wird.
@@ -45,9 +88,11 @@ public class StartUpMediathek
     public static void main(String[] args)
     {
         erstelleServices();
+        speichereBeimBeenden();
 
         final MediathekWerkzeug mediathekWerkzeug = new MediathekWerkzeug(
-                _medienbestand, _kundenstamm, _verleihService);
+                _medienbestand, _kundenstamm, _verleihService,
+                new UhrServiceImpl());
 
         // Dies ist die korrekte Art eine Swing-Anwendnung zu starten.
         SwingUtilities.invokeLater(new Runnable()
@@ -61,25 +106,171 @@ public class StartUpMediathek
     }
 
     /**
-     * Erstellt die Services und lädt die Daten.
+     * Erstellt die Services und lädt die Daten. Ist der Snapshot nicht älter
+     * als die Textdateien, wird er statt der Textdateien gelesen und das
+     * Verleihjournal darauf nachgespielt. Andernfalls wird nach dem Lesen der
+     * Textdateien ein neuer Snapshot als Basis für das Journal geschrieben.
      */
     private static void erstelleServices()
     {
+        if (SnapshotEinleser.istAktuell(SNAPSHOT_DATEI, MEDIEN_DATEI,
+                KUNDEN_DATEI))
+        {
+            try
+            {
+                SnapshotEinleser snapshotEinleser = new SnapshotEinleser(
+                        SNAPSHOT_DATEI);
+                snapshotEinleser.leseDaten();
+                erstelleServices(snapshotEinleser.getKunden(),
+                        snapshotEinleser.getMedien(),
+                        snapshotEinleser.getVormerker(),
+                        snapshotEinleser.getVerleihkarten(),
+                        snapshotEinleser.getPruefsumme());
+                return;
+            }
+            catch (DateiLeseException e)
+            {
+                // Ist der Snapshot unlesbar, werden die Textdateien gelesen.
+                e.printStackTrace();
+            }
+        }
         try
         {
             DatenEinleser datenEinleser = new DatenEinleser(MEDIEN_DATEI,
-                    KUNDEN_DATEI);
+                    KUNDEN_DATEI, Einlesemodus.PARALLEL);
             datenEinleser.leseDaten();
-            _medienbestand = new MedienbestandServiceImpl(
-                    datenEinleser.getMedien());
-            _kundenstamm = new KundenstammServiceImpl(datenEinleser.getKunden());
-            _verleihService = new VerleihServiceImpl(_kundenstamm,
-                    _medienbestand, datenEinleser.getVerleihkarten());
+            // Die Textdateien enthalten keine Vormerker.
+            Map<Medium, List<Kunde>> vormerker = new HashMap<Medium, List<Kunde>>();
+            SnapshotSchreiber snapshotSchreiber = new SnapshotSchreiber(
+                    SNAPSHOT_DATEI);
+            snapshotSchreiber.schreibeDaten(datenEinleser.getKunden(),
+                    datenEinleser.getMedien(), vormerker,
+                    datenEinleser.getVerleihkarten());
+            erstelleServices(datenEinleser.getKunden(),
+                    datenEinleser.getMedien(), vormerker,
+                    datenEinleser.getVerleihkarten(),
+                    snapshotSchreiber.getPruefsumme());
         }
         catch (DateiLeseException e)
         {
             e.printStackTrace();
         }
+        catch (DateiSchreibException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Erstellt die Services für die eingelesenen Daten, spielt das
+     * Verleihjournal auf der angegebenen Basis nach und setzt es fort. Die
+     * Services benachrichtigen die Werkzeuge gebündelt auf dem
+     * Event-Dispatch-Thread.
+     */
+    private static void erstelleServices(List<Kunde> kunden,
+            List<Medium> medien, Map<Medium, List<Kunde>> vormerker,
+            List<Verleihkarte> verleihkarten, long basis)
+    {
+        MedienbestandServiceImpl medienbestand = new MedienbestandServiceImpl(
+                medien);
+        medienbestand.setZustellung(Zustellung.swing());
+        _medienbestand = medienbestand;
+        KundenstammServiceImpl kundenstamm = new KundenstammServiceImpl(kunden);
+        kundenstamm.setZustellung(Zustellung.swing());
+        _kundenstamm = kundenstamm;
+        VormerkServiceImpl vormerkService = new VormerkServiceImpl(
+                _kundenstamm, _medienbestand, vormerker, MAXIMALE_VORMERKER);
+        vormerkService.setZustellung(Zustellung.swing());
+        _vormerkService = vormerkService;
+        try
+        {
+            verleihkarten = new VerleihjournalLeser(JOURNAL_DATEI).spieleNach(
+                    basis, _kundenstamm, _medienbestand, _vormerkService,
+                    verleihkarten);
+        }
+        catch (ProtokollierException e)
+        {
+            e.printStackTrace();
+        }
+        Protokollrotation rotation = new Protokollrotation(
+                PROTOKOLL_SEGMENTGROESSE, PROTOKOLL_SEGMENTALTER);
+        rotation.setKomprimieren(true);
+        rotation.setAufbewahrteSegmente(PROTOKOLL_SEGMENTE);
+        rotation.setVerdichten(true);
+        VerleihServiceImpl verleihService = new VerleihServiceImpl(
+                _kundenstamm, _medienbestand, verleihkarten, _vormerkService,
+                Protokollsynchronisierung.alleMillisekunden(200), rotation);
+        verleihService.setZustellung(Zustellung.swing());
+        _journal = new Verleihjournal(JOURNAL_DATEI);
+        try
+        {
+            _journal.oeffne(basis);
+            verleihService.setVerleihjournal(_journal);
+        }
+        catch (ProtokollierException e)
+        {
+            e.printStackTrace();
+        }
+        _verleihService = verleihService;
+    }
+
+    /**
+     * Sorgt dafür, dass der Bestand beim Beenden der Anwendung gespeichert
+     * wird. Der vorherige Stand wird in die Backup-Dateien übernommen,
+     * danach wird der Snapshot für den nächsten Start geschrieben und das
+     * Verleihjournal auf ihm neu begonnen. Konnte
+     * der Bestand nicht eingelesen werden, wird nichts gespeichert, um die
+     * Dateien nicht zu überschreiben.
+     */
+    private static void speichereBeimBeenden()
+    {
+        if (_verleihService == null)
+        {
+            return;
+        }
+        final DatenSchreiber datenSchreiber = new DatenSchreiber(MEDIEN_DATEI,
+                KUNDEN_DATEI);
+        datenSchreiber.setSicherungsdateien(MEDIEN_SICHERUNG,
+                KUNDEN_SICHERUNG);
+        final SnapshotSchreiber snapshotSchreiber = new SnapshotSchreiber(
+                SNAPSHOT_DATEI);
+        Runtime.getRuntime().addShutdownHook(new Thread()
+        {
+            @Override
+            public void run()
+            {
+                List<Kunde> kunden = _kundenstamm.getKunden();
+                List<Medium> medien = _medienbestand.getMedien();
+                Map<Medium, List<Kunde>> vormerker = _vormerkService
+                        .getAlleVormerker();
+                List<Verleihkarte> verleihkarten = _verleihService
+                        .getVerleihkarten();
+                try
+                {
+                    datenSchreiber.schreibeDaten(kunden, medien,
+                            verleihkarten);
+                }
+                catch (DateiSchreibException e)
+                {
+                    e.printStackTrace();
+                }
+                try
+                {
+                    snapshotSchreiber.schreibeDaten(kunden, medien,
+                            vormerker, verleihkarten);
+                    _journal.beginneNeu(snapshotSchreiber.getPruefsumme());
+                    _journal.schliesse();
+                }
+                catch (DateiSchreibException e)
+                {
+                    e.printStackTrace();
+                }
+                catch (ProtokollierException e)
+                {
+                    e.printStackTrace();
+                }
+            }
+        });
     }
 
 }
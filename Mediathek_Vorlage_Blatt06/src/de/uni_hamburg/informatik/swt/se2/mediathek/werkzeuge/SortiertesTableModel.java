@@ -0,0 +1,235 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Ein {@link SortiertesTableModel} hält die Elemente einer Tabelle, eines pro
+ * Zeile, in der Reihenfolge eines {@link Comparator}s. Einzelne Elemente
+ * werden per binärer Suche eingefügt, ersetzt und entfernt, und die Tabelle
+ * wird nur über die betroffenen Zeilen informiert. Nur beim Setzen aller
+ * Elemente wird einmal sortiert.
+ *
+ * Die Zellenwerte werden erst in {@link #getValueAt(int, int)} aus dem
+ * Element der Zeile erzeugt, eine JTable fragt sie also nur für die
+ * sichtbaren Zeilen ab.
+ *
+ * Die Sortierschlüssel eines Elements dürfen sich nicht ändern, solange es
+ * angezeigt wird. Ändern sie sich, müssen die Elemente neu gesetzt werden.
+ *
+ * @param <E>
+ *            Der Typ der angezeigten Elemente.
+ *
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public abstract class SortiertesTableModel<E> extends AbstractTableModel
+{
+    private static final long serialVersionUID = 1L;
+
+    private final Comparator<? super E> _comparator;
+
+    /**
+     * Die angezeigten Elemente in der Reihenfolge des Comparators.
+     */
+    private ArrayList<E> _elemente;
+
+    /**
+     * Initialisiert ein leeres {@link SortiertesTableModel}.
+     *
+     * @param comparator
+     *            Der Comparator, nach dem die Zeilen sortiert werden.
+     *
+     * @require comparator != null
+     */
+    protected SortiertesTableModel(Comparator<? super E> comparator)
+    {
+        assert comparator != null : "Vorbedingung verletzt: comparator != null";
+        _comparator = comparator;
+        _elemente = new ArrayList<E>();
+    }
+
+    @Override
+    public int getRowCount()
+    {
+        return _elemente.size();
+    }
+
+    @Override
+    public Object getValueAt(int row, int column)
+    {
+        return getSpaltenwert(_elemente.get(row), column);
+    }
+
+    /**
+     * Gibt den Wert zurück, der für das gegebene Element in der gegebenen
+     * Spalte angezeigt wird.
+     *
+     * @param element
+     *            Das Element einer Zeile.
+     * @param spalte
+     *            Die Nummer der Spalte.
+     */
+    protected abstract Object getSpaltenwert(E element, int spalte);
+
+    /**
+     * Prüft, ob die gegebenen Elemente in derselben Zeile angezeigt werden
+     * sollen, eines also das andere ersetzt. Diese Implementation vergleicht
+     * die Identität.
+     */
+    protected boolean istDasselbe(E element1, E element2)
+    {
+        return element1 == element2;
+    }
+
+    /**
+     * Prüft, ob die gegebene Tabellen-Zeile existiert.
+     *
+     * @param zeile
+     *            Die Nummer der Tabellenzeile
+     * @return true, wenn die angegebene Zeile existiert, sonst false.
+     */
+    public boolean zeileExistiert(int zeile)
+    {
+        return zeile >= 0 && zeile < _elemente.size();
+    }
+
+    /**
+     * Gibt das Element zurück, das in der gegebenen Zeile angezeigt wird.
+     *
+     * @require zeileExistiert(zeile)
+     *
+     * @ensure result != null
+     */
+    protected E getElement(int zeile)
+    {
+        assert zeileExistiert(zeile) : "Vorbedingung verletzt: zeileExistiert(zeile)";
+        return _elemente.get(zeile);
+    }
+
+    /**
+     * Setzt die anzuzeigenden Elemente. Es wird auf einer sortierten Kopie
+     * gearbeitet. Die ganze Tabelle wird aktualisiert.
+     *
+     * @require elemente != null
+     */
+    protected void setElemente(Collection<? extends E> elemente)
+    {
+        assert elemente != null : "Vorbedingung verletzt: elemente != null";
+        _elemente = new ArrayList<E>(elemente);
+        Collections.sort(_elemente, _comparator);
+        fireTableDataChanged();
+    }
+
+    /**
+     * Zeigt das gegebene Element an Stelle des Elements an, das
+     * {@link #istDasselbe(Object, Object)} ist, oder fügt es an der passenden
+     * Stelle ein, wenn es kein solches Element gibt. Die Tabelle wird nur in
+     * den betroffenen Zeilen aktualisiert.
+     *
+     * @require element != null
+     */
+    protected void aktualisiereElement(E element)
+    {
+        assert element != null : "Vorbedingung verletzt: element != null";
+        int zeile = sucheZeile(element);
+        if (zeile >= 0)
+        {
+            // Ein Ersatz mit gleichem Sortierschlüssel bleibt in seiner Zeile.
+            _elemente.set(zeile, element);
+            fireTableRowsUpdated(zeile, zeile);
+        }
+        else
+        {
+            zeile = getEinfuegestelle(element);
+            _elemente.add(zeile, element);
+            fireTableRowsInserted(zeile, zeile);
+        }
+    }
+
+    /**
+     * Entfernt das Element, das {@link #istDasselbe(Object, Object)} wie das
+     * gegebene ist, sofern es angezeigt wird.
+     *
+     * @require element != null
+     */
+    protected void entferneElement(E element)
+    {
+        assert element != null : "Vorbedingung verletzt: element != null";
+        int zeile = sucheZeile(element);
+        if (zeile >= 0)
+        {
+            _elemente.remove(zeile);
+            fireTableRowsDeleted(zeile, zeile);
+        }
+    }
+
+    /**
+     * Informiert die Tabelle, dass sich die Werte aller Zeilen geändert
+     * haben, nicht aber die Zeilen selbst. Die Selektion bleibt erhalten.
+     */
+    protected void fireAlleZeilenGeaendert()
+    {
+        if (!_elemente.isEmpty())
+        {
+            fireTableRowsUpdated(0, _elemente.size() - 1);
+        }
+    }
+
+    /**
+     * Sucht die Zeile des Elements, das {@link #istDasselbe(Object, Object)}
+     * wie das gegebene ist. Da die Liste sortiert ist, wird binär gesucht und
+     * nur unter gleich sortierten Elementen verglichen.
+     *
+     * @return Die Zeile oder -1, wenn kein solches Element angezeigt wird.
+     */
+    private int sucheZeile(E element)
+    {
+        int result = -1;
+        int fund = Collections.binarySearch(_elemente, element, _comparator);
+        for (int i = fund; result < 0 && i >= 0
+                && _comparator.compare(_elemente.get(i), element) == 0; i--)
+        {
+            if (istDasselbe(_elemente.get(i), element))
+            {
+                result = i;
+            }
+        }
+        for (int i = fund + 1; result < 0 && fund >= 0 && i < _elemente.size()
+                && _comparator.compare(_elemente.get(i), element) == 0; i++)
+        {
+            if (istDasselbe(_elemente.get(i), element))
+            {
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gibt die Zeile hinter allen gleich sortierten Elementen zurück, an der
+     * das gegebene Element eingefügt wird.
+     */
+    private int getEinfuegestelle(E element)
+    {
+        int von = 0;
+        int bis = _elemente.size();
+        while (von < bis)
+        {
+            int mitte = (von + bis) >>> 1;
+            if (_comparator.compare(_elemente.get(mitte), element) <= 0)
+            {
+                von = mitte + 1;
+            }
+            else
+            {
+                bis = mitte;
+            }
+        }
+        return von;
+    }
+}
@@ -0,0 +1,189 @@
+package de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author SE2-Team
+ * @version SoSe 2012
+ */
+public class SortiertesTableModelTest
+{
+    private WortModel _model;
+    private List<String> _ereignisse;
+
+    /**
+     * Zeigt Wörter nach ihrer Länge sortiert an, gleich lange Wörter gelten
+     * als gleich sortiert.
+     */
+    private static class WortModel extends SortiertesTableModel<String>
+    {
+        private static final long serialVersionUID = 1L;
+
+        WortModel()
+        {
+            super(new Comparator<String>()
+            {
+                @Override
+                public int compare(String wort1, String wort2)
+                {
+                    return wort1.length() - wort2.length();
+                }
+            });
+        }
+
+        @Override
+        public int getColumnCount()
+        {
+            return 1;
+        }
+
+        @Override
+        protected Object getSpaltenwert(String wort, int spalte)
+        {
+            return wort.toUpperCase();
+        }
+
+        @Override
+        protected boolean istDasselbe(String wort1, String wort2)
+        {
+            return wort1.charAt(0) == wort2.charAt(0);
+        }
+    }
+
+    @Before
+    public void setUp()
+    {
+        _model = new WortModel();
+        _model.setElemente(Arrays.asList("drei", "eins", "zwoelf", "vier"));
+        _ereignisse = new ArrayList<String>();
+        _model.addTableModelListener(new TableModelListener()
+        {
+            @Override
+            public void tableChanged(TableModelEvent e)
+            {
+                String art = e.getType() == TableModelEvent.INSERT ? "+"
+                        : e.getType() == TableModelEvent.DELETE ? "-" : "~";
+                _ereignisse.add(art + e.getFirstRow() + ":" + e.getLastRow());
+            }
+        });
+    }
+
+    @Test
+    public void testSetElemente()
+    {
+        assertEquals(4, _model.getRowCount());
+        assertEquals(Arrays.asList("drei", "eins", "vier", "zwoelf"),
+                getZeilen());
+        assertEquals("ZWOELF", _model.getValueAt(3, 0));
+        assertTrue(_model.zeileExistiert(3));
+        assertFalse(_model.zeileExistiert(4));
+        assertFalse(_model.zeileExistiert(-1));
+    }
+
+    @Test
+    public void testAktualisiereElement()
+    {
+        // Neue Elemente kommen hinter die gleich sortierten
+        _model.aktualisiereElement("acht");
+        assertEquals(Arrays.asList("drei", "eins", "vier", "acht", "zwoelf"),
+                getZeilen());
+        _model.aktualisiereElement("null");
+        _model.aktualisiereElement("sechzehn");
+        // Ersetzt wird, was istDasselbe ist
+        _model.aktualisiereElement("eine");
+        assertEquals(Arrays.asList("drei", "eine", "vier", "acht", "null",
+                "zwoelf", "sechzehn"), getZeilen());
+        assertEquals(Arrays.asList("+3:3", "+4:4", "+6:6", "~1:1"),
+                _ereignisse);
+    }
+
+    @Test
+    public void testEntferneElement()
+    {
+        _model.entferneElement("vier");
+        _model.entferneElement("elf");
+        _model.entferneElement("zwoelf");
+        _model.entferneElement("dreizehn");
+        assertEquals(Arrays.asList("drei", "eins"), getZeilen());
+        assertEquals(Arrays.asList("-2:2", "-2:2"), _ereignisse);
+    }
+
+    @Test
+    public void testFireAlleZeilenGeaendert()
+    {
+        _model.fireAlleZeilenGeaendert();
+        _model.setElemente(Collections.<String> emptyList());
+        _model.fireAlleZeilenGeaendert();
+        assertEquals(Arrays.asList("~0:3", "~0:" + Integer.MAX_VALUE),
+                _ereignisse);
+    }
+
+    @Test
+    public void testVergleichMitSortieren()
+    {
+        Random random = new Random(3);
+        List<String> erwartet = new ArrayList<String>(getZeilen());
+        for (int i = 0; i < 500; i++)
+        {
+            char anfang = (char) ('a' + random.nextInt(26));
+            StringBuilder wort = new StringBuilder().append(anfang);
+            for (int laenge = random.nextInt(6); laenge > 0; laenge--)
+            {
+                wort.append('x');
+            }
+            String vorhanden = null;
+            for (String element : erwartet)
+            {
+                if (element.charAt(0) == anfang
+                        && element.length() == wort.length())
+                {
+                    vorhanden = element;
+                }
+            }
+            erwartet.remove(vorhanden);
+            if (random.nextBoolean())
+            {
+                erwartet.add(wort.toString());
+                _model.aktualisiereElement(wort.toString());
+            }
+            else
+            {
+                _model.entferneElement(wort.toString());
+            }
+        }
+        List<String> zeilen = getZeilen();
+        Collections.sort(erwartet);
+        List<String> sortierteZeilen = new ArrayList<String>(zeilen);
+        Collections.sort(sortierteZeilen);
+        assertEquals(erwartet, sortierteZeilen);
+        for (int i = 1; i < zeilen.size(); i++)
+        {
+            assertTrue(zeilen.get(i - 1).length() <= zeilen.get(i).length());
+        }
+    }
+
+    private List<String> getZeilen()
+    {
+        List<String> result = new ArrayList<String>();
+        for (int zeile = 0; zeile < _model.getRowCount(); zeile++)
+        {
+            result.add(_model.getElement(zeile));
+        }
+        return result;
+    }
+}
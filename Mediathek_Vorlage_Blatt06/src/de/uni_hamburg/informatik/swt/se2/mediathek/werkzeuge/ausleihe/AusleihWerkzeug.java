@@ -13,6 +13,7 @@ import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.ServiceBeobachter;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.uhr.UhrService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.ProtokollierException;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.VerleihService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.SubWerkzeugBeobachter;
@@ -42,6 +43,11 @@ public class AusleihWerkzeug
      */
     private final VerleihService _verleihService;
 
+    /**
+     * Die Uhr, die das Ausleihdatum liefert.
+     */
+    private final UhrService _uhr;
+
     /**
      * Das Sub-Werkzeug zum darstellen und selektieren der Kunden.
      */
@@ -73,19 +79,25 @@ public class AusleihWerkzeug
      *            Der Kundenstamm.
      * @param verleihService
      *            Der Verleih-Service.
+     * @param uhr
+     *            Die Uhr, die das heutige Datum liefert.
      * 
      * @require medienbestand != null
      * @require kundenstamm != null
      * @require verleihService != null
+     * @require uhr != null
      */
     public AusleihWerkzeug(MedienbestandService medienbestand,
-            KundenstammService kundenstamm, VerleihService verleihService)
+            KundenstammService kundenstamm, VerleihService verleihService,
+            UhrService uhr)
     {
         assert medienbestand != null : "Vorbedingung verletzt: medienbestand != null";
         assert kundenstamm != null : "Vorbedingung verletzt: kundenstamm != null";
         assert verleihService != null : "Vorbedingung verletzt: verleihService != null";
+        assert uhr != null : "Vorbedingung verletzt: uhr != null";
 
         _verleihService = verleihService;
+        _uhr = uhr;
 
         // Subwerkzeuge erstellen
         _kundenAuflisterWerkzeug = new KundenauflisterWerkzeug(kundenstamm);
@@ -228,6 +240,8 @@ public class AusleihWerkzeug
     /**
      * Leiht die ausgewählten Medien aus. Diese Methode wird über einen Listener
      * angestoßen, der reagiert, wenn der Benutzer den Ausleihen-Button drückt.
+     * Hat eine andere Ausleihtheke die Medien inzwischen verliehen, wird der
+     * Benutzer darauf hingewiesen.
      */
     private void leiheAusgewaehlteMedienAus()
     {
@@ -236,8 +250,14 @@ public class AusleihWerkzeug
         Kunde selectedKunde = _kundenAuflisterWerkzeug.getSelectedKunde();
         try
         {
-            Datum heute = Datum.heute();
-            _verleihService.verleiheAn(selectedKunde, selectedMedien, heute);
+            Datum heute = _uhr.heute();
+            if (!_verleihService.verleiheWennMoeglich(selectedKunde,
+                    selectedMedien, heute))
+            {
+                JOptionPane.showMessageDialog(null,
+                        "Die Medien sind inzwischen nicht mehr ausleihbar.",
+                        "Hinweis", JOptionPane.INFORMATION_MESSAGE);
+            }
         }
         catch (ProtokollierException exception)
         {
@@ -5,6 +5,7 @@ import java.awt.event.ActionListener;
 
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandService;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.uhr.UhrService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.VerleihService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.ausleihe.AusleihWerkzeug;
 import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.rueckgabe.RueckgabeWerkzeug;
@@ -38,6 +39,11 @@ public class MediathekWerkzeug
      */
     private final VerleihService _verleihService;
 
+    /**
+     * Die Uhr, die das heutige Datum liefert.
+     */
+    private final UhrService _uhr;
+
     /**
      * Das {@link AusleihWerkzeug}.
      */
@@ -62,26 +68,32 @@ public class MediathekWerkzeug
      *            die Kunden
      * @param verleihService
      *            Service um Medien zu verleihen.
+     * @param uhr
+     *            Die Uhr, die das heutige Datum liefert.
      * 
      * @require medienbestand != null
      * @require kundenstamm != null
      * @require verleihService != null
+     * @require uhr != null
      */
     public MediathekWerkzeug(MedienbestandService medienbestand,
-            KundenstammService kundenstamm, VerleihService verleihService)
+            KundenstammService kundenstamm, VerleihService verleihService,
+            UhrService uhr)
     {
         assert medienbestand != null : "Vorbedingung verletzt: medienbestand != null";
         assert kundenstamm != null : "Vorbedingung verletzt: kundenstamm != null";
         assert verleihService != null : "Vorbedingung verletzt: verleihService != null";
+        assert uhr != null : "Vorbedingung verletzt: uhr != null";
 
         _medienbestand = medienbestand;
         _kundenstamm = kundenstamm;
         _verleihService = verleihService;
+        _uhr = uhr;
 
         // Erzeuge Subwerkzeuge
         _ausleihWerkzeug = new AusleihWerkzeug(_medienbestand, _kundenstamm,
-                _verleihService);
-        _rueckgabeWerkzeug = new RueckgabeWerkzeug(_verleihService);
+                _verleihService, _uhr);
+        _rueckgabeWerkzeug = new RueckgabeWerkzeug(_verleihService, _uhr);
         _vormerkWerkzeug = new VormerkWerkzeug(_medienbestand, _kundenstamm,
                 _verleihService);
 
@@ -11,6 +11,7 @@ import javax.swing.JTextArea;
 import javax.swing.border.TitledBorder;
 import javax.swing.table.JTableHeader;
 
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
 import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.UIConstants;
 
 /**
@@ -36,11 +37,18 @@ class RueckgabeUI
 
     /**
      * Erzeugt die Elemente der Benutzungsoberfläche.
+     * 
+     * @param stichtag
+     *            Der Tag, bis zu dem Ausleihdauer und Mietgebühr angezeigt
+     *            werden.
+     * 
+     * @require stichtag != null
      */
-    public RueckgabeUI()
+    public RueckgabeUI(Datum stichtag)
     {
+        assert stichtag != null : "Vorbedingung verletzt: stichtag != null";
         erzeugeHauptPanel();
-        erzeugeVerleihkartenauflister();
+        erzeugeVerleihkartenauflister(stichtag);
         erzeugeRuecknahme();
     }
 
@@ -61,7 +69,7 @@ class RueckgabeUI
     /**
      * Erzeuge das Tabellen-Panel, in dem die Verleihkarten angezeigt werden.
      */
-    private void erzeugeVerleihkartenauflister()
+    private void erzeugeVerleihkartenauflister(Datum stichtag)
     {
         JPanel verleihkartenAuflisterPanel = new JPanel();
         _hauptPanel.add(verleihkartenAuflisterPanel, BorderLayout.CENTER);
@@ -88,7 +96,8 @@ class RueckgabeUI
         verleihkartenAuflisterScrollPane.getHorizontalScrollBar()
                 .setBackground(UIConstants.BACKGROUND_COLOR);
 
-        _verleihkartenAuflisterTableModel = new VerleihkartenTableModel();
+        _verleihkartenAuflisterTableModel = new VerleihkartenTableModel(
+                stichtag);
         _verleihkartenAuflisterTable = new JTable();
         verleihkartenAuflisterScrollPane
                 .setViewportView(_verleihkartenAuflisterTable);
@@ -11,10 +11,13 @@ import javax.swing.JTextArea;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 
-import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
-import de.uni_hamburg.informatik.swt.se2.mediathek.services.ServiceBeobachter;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.AenderungsBeobachter;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderungsart;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.uhr.UhrService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.ProtokollierException;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.VerleihService;
 
@@ -38,6 +41,11 @@ public class RueckgabeWerkzeug
      */
     private final VerleihService _verleihService;
 
+    /**
+     * Die Uhr, nach der zurückgenommen und die Mietgebühr angezeigt wird.
+     */
+    private final UhrService _uhr;
+
     /**
      * Initialisiert ein neues {@link RueckgabeWerkzeug}. Es wird die
      * Benutzungsoberfläche mit den Rückgabeaktionen erzeugt, Beobachter an den
@@ -45,16 +53,21 @@ public class RueckgabeWerkzeug
      * 
      * @param verleihService
      *            Der zu benutzenden {@link VerleihService}.
+     * @param uhr
+     *            Die Uhr, die das heutige Datum liefert.
      * 
      * @require verleihService != null
+     * @require uhr != null
      */
-    public RueckgabeWerkzeug(VerleihService verleihService)
+    public RueckgabeWerkzeug(VerleihService verleihService, UhrService uhr)
     {
         assert verleihService != null : "Vorbedingung verletzt: verleihService != null";
+        assert uhr != null : "Vorbedingung verletzt: uhr != null";
         _verleihService = verleihService;
+        _uhr = uhr;
 
         // UI wird erzeugt.
-        _rueckgabeUI = new RueckgabeUI();
+        _rueckgabeUI = new RueckgabeUI(_uhr.heute());
 
         // Die Beobachter werden erzeugt und an den Services registriert.
         registriereServiceBeobachter();
@@ -124,25 +137,112 @@ public class RueckgabeWerkzeug
      */
     private void registriereServiceBeobachter()
     {
-        _verleihService.registriereBeobachter(new ServiceBeobachter()
+        _verleihService.registriereAenderungsBeobachter(new AenderungsBeobachter()
         {
             @Override
-            public void informiereUeberAenderung()
+            public void informiereUeberAenderungen(List<Aenderung> aenderungen)
             {
-                setzeAnzuzeigendeVerleihkarten();
+                aktualisiereAnzuzeigendeVerleihkarten(aenderungen);
+                meldeAbholbereiteMedien(aenderungen);
             }
 
         });
     }
 
+    /**
+     * Aktualisiert nur die Verleihkarten der Medien, die von den gegebenen
+     * Änderungen betroffen sind. Ist nicht bekannt, welche Medien betroffen
+     * sind, werden alle Verleihkarten neu gesetzt.
+     * 
+     * @param aenderungen
+     *            Die Änderungen seit der letzten Benachrichtigung.
+     */
+    private void aktualisiereAnzuzeigendeVerleihkarten(
+            List<Aenderung> aenderungen)
+    {
+        boolean neuaufbau = false;
+        for (Aenderung aenderung : aenderungen)
+        {
+            if (aenderung.getArt() == Aenderungsart.UNBESTIMMT)
+            {
+                neuaufbau = true;
+            }
+        }
+        if (neuaufbau)
+        {
+            setzeAnzuzeigendeVerleihkarten();
+        }
+        else
+        {
+            VerleihkartenTableModel model = _rueckgabeUI
+                    .getVerleihkartenAuflisterTableModel();
+            model.setStichtag(_uhr.heute());
+            for (Aenderung aenderung : aenderungen)
+            {
+                if (aenderung.getArt() == Aenderungsart.VERLIEHEN
+                        || aenderung.getArt() == Aenderungsart.ZURUECKGENOMMEN)
+                {
+                    for (Medium medium : aenderung.getMedien())
+                    {
+                        // Der Zustand wird beim Service erfragt, damit auch
+                        // zusammengefasste Änderungen richtig angezeigt
+                        // werden.
+                        if (_verleihService.mediumImBestand(medium)
+                                && _verleihService.istVerliehen(medium))
+                        {
+                            model.fuegeVerleihkarteEin(_verleihService
+                                    .getVerleihkarteFuer(medium));
+                        }
+                        else
+                        {
+                            model.entferneVerleihkarteFuer(medium);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Zeigt an, welche zurückgenommenen Medien für ihren ersten Vormerker
+     * zurückgelegt werden sollen.
+     * 
+     * @param aenderungen
+     *            Die Änderungen seit der letzten Benachrichtigung.
+     */
+    private void meldeAbholbereiteMedien(List<Aenderung> aenderungen)
+    {
+        StringBuilder meldung = new StringBuilder();
+        for (Aenderung aenderung : aenderungen)
+        {
+            if (aenderung.getArt() == Aenderungsart.ABHOLBEREIT)
+            {
+                Kunde kunde = aenderung.getKunde();
+                meldung.append(aenderung.getMedien().get(0).getTitel())
+                        .append(" für ").append(kunde.getVorname())
+                        .append(' ').append(kunde.getNachname())
+                        .append(" (").append(kunde.getKundennummer())
+                        .append(")\n");
+            }
+        }
+        if (meldung.length() > 0)
+        {
+            JOptionPane.showMessageDialog(null,
+                    "Bitte für die Vormerker zurücklegen:\n" + meldung,
+                    "Vorgemerkte Medien", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
     /**
      * Holt alle Verleihkarten vom Verleihservice und setzt diese an der UI.
      */
     private void setzeAnzuzeigendeVerleihkarten()
     {
         List<Verleihkarte> verleihkarten = _verleihService.getVerleihkarten();
-        _rueckgabeUI.getVerleihkartenAuflisterTableModel().setVerleihkarten(
-                verleihkarten);
+        VerleihkartenTableModel model = _rueckgabeUI
+                .getVerleihkartenAuflisterTableModel();
+        model.setStichtag(_uhr.heute());
+        model.setVerleihkarten(verleihkarten);
     }
 
     /**
@@ -158,7 +258,7 @@ public class RueckgabeWerkzeug
         }
         try
         {
-            _verleihService.nimmZurueck(medien, Datum.heute());
+            _verleihService.nimmZurueck(medien, _uhr.heute());
         }
         catch (ProtokollierException exception)
         {
@@ -1,12 +1,13 @@
 package de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.rueckgabe;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
-import javax.swing.table.AbstractTableModel;
-
+import de.uni_hamburg.informatik.swt.se2.mediathek.fachwerte.Datum;
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
+import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.SortiertesTableModel;
 
 /**
  * Dieses TableModel hält die Verleihkarten, die an der Oberfläche angezeigt
@@ -19,7 +20,8 @@ import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Verleihkarte;
  * @author SE2-Team
  * @version SoSe 2012
  */
-public class VerleihkartenTableModel extends AbstractTableModel
+public class VerleihkartenTableModel extends
+        SortiertesTableModel<Verleihkarte>
 {
     private static final long serialVersionUID = 1L;
 
@@ -28,17 +30,30 @@ public class VerleihkartenTableModel extends AbstractTableModel
             "Mietgebühr (€)" };
 
     /**
-     * Die Liste, die die {@link Verleihkarte}n zwischenspeichert/cached und die
-     * Sortierreihenfolge repräsentiert.
+     * Die angezeigten Verleihkarten, nach ihrem Medium gefunden.
+     */
+    private Map<Medium, Verleihkarte> _verleihkartenFuerMedium;
+
+    /**
+     * Der Tag, bis zu dem Ausleihdauer und Mietgebühr angezeigt werden.
      */
-    private List<Verleihkarte> _verleihkartenListe;
+    private Datum _stichtag;
 
     /**
      * Konstruktor. Initialisiert ein neues {@link VerleihkartenTableModel}.
+     * 
+     * @param stichtag
+     *            Der Tag, bis zu dem Ausleihdauer und Mietgebühr angezeigt
+     *            werden.
+     * 
+     * @require stichtag != null
      */
-    public VerleihkartenTableModel()
+    public VerleihkartenTableModel(Datum stichtag)
     {
-        _verleihkartenListe = new ArrayList<Verleihkarte>();
+        super(new VerleihkartenComparator());
+        assert stichtag != null : "Vorbedingung verletzt: stichtag != null";
+        _verleihkartenFuerMedium = new IdentityHashMap<Medium, Verleihkarte>();
+        _stichtag = stichtag;
     }
 
     @Override
@@ -54,17 +69,10 @@ public class VerleihkartenTableModel extends AbstractTableModel
     }
 
     @Override
-    public int getRowCount()
-    {
-        return _verleihkartenListe.size();
-    }
-
-    @Override
-    public Object getValueAt(int rowIndex, int columnIndex)
+    protected Object getSpaltenwert(Verleihkarte verleihkarte, int spalte)
     {
         String ergebnis = null;
-        Verleihkarte verleihkarte = _verleihkartenListe.get(rowIndex);
-        switch (columnIndex)
+        switch (spalte)
         {
         case 0:
             ergebnis = verleihkarte.getEntleiher().getVorname() + " "
@@ -80,10 +88,12 @@ public class VerleihkartenTableModel extends AbstractTableModel
             ergebnis = verleihkarte.getAusleihdatum().toString();
             break;
         case 4:
-            ergebnis = Integer.toString(verleihkarte.getAusleihdauer());
+            ergebnis = Integer.toString(verleihkarte
+                    .getAusleihdauer(_stichtag));
             break;
         case 5:
-            ergebnis = verleihkarte.getMietgebuehr().getFormatiertenString();
+            ergebnis = verleihkarte.getMietgebuehr(_stichtag)
+                    .getFormatiertenString();
         }
         return ergebnis;
     }
@@ -102,50 +112,84 @@ public class VerleihkartenTableModel extends AbstractTableModel
     public Verleihkarte getVerleihkartenFuerZeile(int zeile)
     {
         assert zeileExistiert(zeile) : "Vorbedingung verletzt: zeileExistiert(zeile)";
-        return _verleihkartenListe.get(zeile);
+        return getElement(zeile);
     }
 
     /**
-     * Setzt die anzuzeigenden Verleihkarten.
+     * Setzt die anzuzeigenden Verleihkarten. Es wird auf einer Kopie der Liste
+     * gearbeitet.
      * 
      * @param verleihkarten
-     *            Eine Liste der zu setzenden Verleihkarten. Nachträgliche
-     *            Änderungen der Liste wirken sich auch auf das Model aus.
+     *            Eine Liste der zu setzenden Verleihkarten.
      * 
      * @require verleihkarten != null
      */
     public void setVerleihkarten(List<Verleihkarte> verleihkarten)
     {
         assert verleihkarten != null : "Vorbedingung verletzt: verleihkarten != null";
-        _verleihkartenListe = verleihkarten;
-        sortiereVerleihkarten();
-
-        fireTableDataChanged();
+        _verleihkartenFuerMedium.clear();
+        for (Verleihkarte verleihkarte : verleihkarten)
+        {
+            _verleihkartenFuerMedium.put(verleihkarte.getMedium(),
+                    verleihkarte);
+        }
+        setElemente(verleihkarten);
     }
 
     /**
-     * Prüft, ob für die gegebene Tabellen-Zeile eine Verleihkarte in dem
-     * TableModel existiert.
+     * Setzt den Tag, bis zu dem Ausleihdauer und Mietgebühr angezeigt werden.
+     * Hat sich der Tag geändert, werden alle Zeilen aktualisiert, die Selektion
+     * bleibt aber erhalten.
      * 
-     * @param zeile
-     *            Die Nummer der Tabellenzeile
+     * @param stichtag
+     *            Der neue Stichtag, in der Regel das heutige Datum.
+     * 
+     * @require stichtag != null
      */
-    public boolean zeileExistiert(int zeile)
+    public void setStichtag(Datum stichtag)
     {
-        boolean result = false;
-        if ((zeile < _verleihkartenListe.size()) && (zeile >= 0))
+        assert stichtag != null : "Vorbedingung verletzt: stichtag != null";
+        if (!stichtag.equals(_stichtag))
         {
-            result = true;
+            _stichtag = stichtag;
+            fireAlleZeilenGeaendert();
         }
-        return result;
     }
 
     /**
-     * Sortiert die Verleihkarten nach der im VerleihkartenComparator
-     * angegebenen Sortierreihenfolge.
+     * Fügt die gegebene Verleihkarte an der passenden Stelle ein. Eine bisher
+     * angezeigte Verleihkarte für dasselbe Medium wird entfernt. Die Tabelle
+     * wird nur in den betroffenen Zeilen aktualisiert.
+     * 
+     * @param verleihkarte
+     *            Die einzufügende Verleihkarte.
+     * 
+     * @require verleihkarte != null
      */
-    private void sortiereVerleihkarten()
+    public void fuegeVerleihkarteEin(Verleihkarte verleihkarte)
     {
-        Collections.sort(_verleihkartenListe, new VerleihkartenComparator());
+        assert verleihkarte != null : "Vorbedingung verletzt: verleihkarte != null";
+        entferneVerleihkarteFuer(verleihkarte.getMedium());
+        _verleihkartenFuerMedium.put(verleihkarte.getMedium(), verleihkarte);
+        aktualisiereElement(verleihkarte);
+    }
+
+    /**
+     * Entfernt die Verleihkarte für das gegebene Medium, sofern eine angezeigt
+     * wird.
+     * 
+     * @param medium
+     *            Das Medium, dessen Verleihkarte entfernt werden soll.
+     * 
+     * @require medium != null
+     */
+    public void entferneVerleihkarteFuer(Medium medium)
+    {
+        assert medium != null : "Vorbedingung verletzt: medium != null";
+        Verleihkarte verleihkarte = _verleihkartenFuerMedium.remove(medium);
+        if (verleihkarte != null)
+        {
+            entferneElement(verleihkarte);
+        }
     }
 }
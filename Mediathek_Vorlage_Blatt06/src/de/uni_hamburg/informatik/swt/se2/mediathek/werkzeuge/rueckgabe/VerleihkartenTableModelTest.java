@@ -26,42 +26,45 @@ public class VerleihkartenTableModelTest
 {
     private Verleihkarte _karte1;
     private Verleihkarte _karte2;
+    private Kunde _kundeSchmitz;
+    private Medium _cd;
     private VerleihService _verleihService;
     private VerleihkartenTableModel _model;
 
     @Before
     public void setUp()
     {
-        Kunde kundeSchmitz = new Kunde(new Kundennummer(123456), "Susi",
+        _kundeSchmitz = new Kunde(new Kundennummer(123456), "Susi",
                 "Schmitz");
         Kunde kundeSchmidt = new Kunde(new Kundennummer(456789), "Klaus",
                 "Schmidt");
         KundenstammService kundenstamm = new KundenstammServiceImpl(
                 new ArrayList<Kunde>());
-        kundenstamm.fuegeKundenEin(kundeSchmitz);
+        kundenstamm.fuegeKundenEin(_kundeSchmitz);
         kundenstamm.fuegeKundenEin(kundeSchmidt);
-        Medium cd = new CD("CD-Titel", "CD-Kommentar", "CD-Interpret", 42);
+        _cd = new CD("CD-Titel", "CD-Kommentar", "CD-Interpret", 42);
         Medium dvd = new DVD("DVD-Titel", "DVD-Kommentar", "DVD-Regisseur", 120);
         MedienbestandService medienbestand = new MedienbestandServiceImpl(
                 new ArrayList<Medium>());
-        medienbestand.fuegeMediumEin(cd);
+        medienbestand.fuegeMediumEin(_cd);
         medienbestand.fuegeMediumEin(dvd);
         Datum datum = new Datum(14, 4, 2009);
-        _karte1 = new Verleihkarte(kundeSchmitz, dvd, datum);
-        _karte2 = new Verleihkarte(kundeSchmidt, cd, datum);
+        _karte1 = new Verleihkarte(_kundeSchmitz, dvd, datum);
+        _karte2 = new Verleihkarte(kundeSchmidt, _cd, datum);
         List<Verleihkarte> verleihkarten = new ArrayList<Verleihkarte>();
         verleihkarten.add(_karte1);
         verleihkarten.add(_karte2);
         _verleihService = new VerleihServiceImpl(kundenstamm, medienbestand,
                 verleihkarten);
-        _model = new VerleihkartenTableModel();
+        _model = new VerleihkartenTableModel(new Datum(24, 4, 2009));
         _model.setVerleihkarten(_verleihService.getVerleihkarten());
     }
 
     @Test
     public void testeLeereVeleihkartenListe() throws Exception
     {
-        VerleihkartenTableModel leer = new VerleihkartenTableModel();
+        VerleihkartenTableModel leer = new VerleihkartenTableModel(
+                new Datum(24, 4, 2009));
         // erwartet: es gibt trotzdem alle Spalten, aber keine Zeilen
         assertEquals(6, leer.getColumnCount());
         assertEquals(0, leer.getRowCount());
@@ -91,20 +94,36 @@ public class VerleihkartenTableModelTest
     @Test
     public void testeWerte() throws Exception
     {
-        // Dieser Test prüft nicht, ob die Ausleihdauer richtig angegeben wird,
-        // weil für die Ausgabe der Ausleihdauer auf das heutige Datum
-        // zugegriffen wird, das aus dem Test heraus nicht gesetzt werden kann.
-
         assertEquals("Klaus Schmidt", _model.getValueAt(0, 0));
         assertEquals("CD", _model.getValueAt(0, 1));
         assertEquals("CD-Titel", _model.getValueAt(0, 2));
         assertEquals(new Datum(14, 4, 2009).toString(), _model.getValueAt(0, 3));
+        assertEquals("10", _model.getValueAt(0, 4));
         assertEquals("Susi Schmitz", _model.getValueAt(1, 0));
         assertEquals("DVD", _model.getValueAt(1, 1));
         assertEquals("DVD-Titel", _model.getValueAt(1, 2));
         assertEquals(new Datum(14, 4, 2009).toString(), _model.getValueAt(1, 3));
     }
 
+    @Test
+    public void testeVerleihkarteEinfuegenUndEntfernen() throws Exception
+    {
+        _model.entferneVerleihkarteFuer(_cd);
+        assertEquals(1, _model.getRowCount());
+        assertEquals(_karte1, _model.getVerleihkartenFuerZeile(0));
+
+        Verleihkarte karte3 = new Verleihkarte(_kundeSchmitz, _cd, new Datum(
+                15, 4, 2009));
+        _model.fuegeVerleihkarteEin(karte3);
+        assertEquals(2, _model.getRowCount());
+        assertEquals(karte3, _model.getVerleihkartenFuerZeile(0));
+        assertEquals(_karte1, _model.getVerleihkartenFuerZeile(1));
+
+        _model.fuegeVerleihkarteEin(_karte2);
+        assertEquals(2, _model.getRowCount());
+        assertEquals(_karte2, _model.getVerleihkartenFuerZeile(0));
+    }
+
     @Test
     public void testeZeilenAnzahl() throws Exception
     {
@@ -1,12 +1,9 @@
 package de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.subwerkzeuge.ausleihemedienauflister;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
-import javax.swing.table.AbstractTableModel;
-
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.SortiertesTableModel;
 import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.ausleihe.AusleihWerkzeug;
 
 /**
@@ -17,26 +14,20 @@ import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.ausleihe.AusleihWer
  * @author SE2-Team
  * @version SoSe 2012
  */
-public class AusleiheMedienTableModel extends AbstractTableModel
+public class AusleiheMedienTableModel extends
+        SortiertesTableModel<AusleiheMedienFormatierer>
 {
     private static final long serialVersionUID = 1L;
 
     private static final String[] COLUMN_NAMES = new String[] { "Medientyp",
             "Titel", "ausleihbar" };
 
-    /**
-     * Eine sortierte Map, die Medien zwischenspeichert/cached und auf boolsche
-     * Werte abbildet, die angeben, ob ein Medium entliehe ist (true) oder nicht
-     * (false).
-     */
-    private List<AusleiheMedienFormatierer> _medienListe;
-
     /**
      * Initialisiert ein {@link AusleiheMedienTableModel}.
      */
     public AusleiheMedienTableModel()
     {
-        _medienListe = new ArrayList<AusleiheMedienFormatierer>();
+        super(new AusleiheMedienFormatiererComparator());
     }
 
     @Override
@@ -58,17 +49,11 @@ public class AusleiheMedienTableModel extends AbstractTableModel
     }
 
     @Override
-    public int getRowCount()
-    {
-        return _medienListe.size();
-    }
-
-    @Override
-    public Object getValueAt(int row, int column)
+    protected Object getSpaltenwert(AusleiheMedienFormatierer formatierer,
+            int spalte)
     {
-        AusleiheMedienFormatierer formatierer = getMedienFormatierer(row);
         Object ergebnis = null;
-        switch (column)
+        switch (spalte)
         {
         case 0:
             ergebnis = formatierer.getMedienBezeichnung();
@@ -82,6 +67,16 @@ public class AusleiheMedienTableModel extends AbstractTableModel
         return ergebnis;
     }
 
+    /**
+     * Formatierer desselben Mediums werden in derselben Zeile angezeigt.
+     */
+    @Override
+    protected boolean istDasselbe(AusleiheMedienFormatierer formatierer1,
+            AusleiheMedienFormatierer formatierer2)
+    {
+        return formatierer1.getMedium() == formatierer2.getMedium();
+    }
+
     /**
      * Liefert ein {@link Medium}, das in der Zeile mit einer gegebenen Nummer
      * dargestellt wird.
@@ -94,24 +89,7 @@ public class AusleiheMedienTableModel extends AbstractTableModel
     public Medium getMediumFuerZeile(int zeile)
     {
         assert zeileExistiert(zeile) : "Vorbedingung verletzt: zeileExistiert(zeile)";
-        return getMedienFormatierer(zeile).getMedium();
-    }
-
-    /**
-     * Prüft, ob für die gegebene Tabellen-Zeile ein Medium in dem TableModel
-     * existiert.
-     * 
-     * @param zeile
-     *            Die Nummer der Tabellenzeile
-     */
-    public boolean zeileExistiert(int zeile)
-    {
-        boolean result = false;
-        if ((zeile < _medienListe.size()) && (zeile >= 0))
-        {
-            result = true;
-        }
-        return result;
+        return getElement(zeile).getMedium();
     }
 
     /**
@@ -123,26 +101,37 @@ public class AusleiheMedienTableModel extends AbstractTableModel
     public void setMedien(List<AusleiheMedienFormatierer> medien)
     {
         assert medien != null : "Vorbedingung verletzt: medien != null";
-        _medienListe = new ArrayList<AusleiheMedienFormatierer>(medien);
-
-        // sortiere Medien-Liste
-        Collections.sort(_medienListe,
-                new AusleiheMedienFormatiererComparator());
-
-        fireTableDataChanged();
+        setElemente(medien);
     }
 
     /**
-     * Liefert den Medien-Formatierer für einen angegebenen Index. Die
-     * Gültigkeit des Index wird nicht überprüft.
+     * Zeigt den gegebenen Formatierer an Stelle des bisherigen Formatierers
+     * für sein Medium an, oder fügt ihn an der passenden Stelle ein, wenn das
+     * Medium noch nicht angezeigt wird. Die Tabelle wird nur in den
+     * betroffenen Zeilen aktualisiert.
+     * 
+     * @param formatierer
+     *            Der neue Formatierer eines Mediums.
      * 
-     * @param index
-     *            Der Index eines Medien-Formatierers in der Medien-Liste.
-     * @return Der Medien-Formatierer auf dem angegebenen Index.
+     * @require formatierer != null
      */
-    private AusleiheMedienFormatierer getMedienFormatierer(int index)
+    public void aktualisiereMedium(AusleiheMedienFormatierer formatierer)
     {
-        return _medienListe.get(index);
+        assert formatierer != null : "Vorbedingung verletzt: formatierer != null";
+        aktualisiereElement(formatierer);
     }
 
+    /**
+     * Entfernt das gegebene Medium aus der Tabelle, sofern es angezeigt wird.
+     * 
+     * @param medium
+     *            Das zu entfernende Medium.
+     * 
+     * @require medium != null
+     */
+    public void entferneMedium(Medium medium)
+    {
+        assert medium != null : "Vorbedingung verletzt: medium != null";
+        entferneElement(new AusleiheMedienFormatierer(medium, false, null));
+    }
 }
@@ -81,6 +81,37 @@ public class AusleiheMedienTableModelTest
         assertEquals("CD2-Titel", _model.getValueAt(2, 1));
     }
 
+    @Test
+    public void testeAktualisiereMedium() throws Exception
+    {
+        _model.aktualisiereMedium(new AusleiheMedienFormatierer(_cd3, false,
+                _vormerker));
+        assertEquals(3, _model.getRowCount());
+        assertEquals(_cd3, _model.getMediumFuerZeile(1));
+        assertEquals("ja", _model.getValueAt(1, 2));
+        assertEquals("nein", _model.getValueAt(0, 2));
+    }
+
+    @Test
+    public void testeMediumEinfuegenUndEntfernen() throws Exception
+    {
+        Medium cd4 = new CD("CD15-Titel", "CD15-Kommentar", "CD15-Interpret",
+                42);
+        _model.aktualisiereMedium(new AusleiheMedienFormatierer(cd4, false,
+                _vormerker));
+        assertEquals(4, _model.getRowCount());
+        assertEquals(cd4, _model.getMediumFuerZeile(2));
+
+        _model.entferneMedium(_cd1);
+        assertEquals(3, _model.getRowCount());
+        assertEquals(_cd3, _model.getMediumFuerZeile(0));
+        assertEquals(cd4, _model.getMediumFuerZeile(1));
+        assertEquals(_cd2, _model.getMediumFuerZeile(2));
+
+        _model.entferneMedium(_cd1);
+        assertEquals(3, _model.getRowCount());
+    }
+
     @Test
     public void testeZeilenAnzahl() throws Exception
     {
@@ -9,7 +9,9 @@ import javax.swing.event.ListSelectionListener;
 
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
-import de.uni_hamburg.informatik.swt.se2.mediathek.services.ServiceBeobachter;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.AenderungsBeobachter;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderungsart;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.VerleihService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.BeobachtbaresSubWerkzeug;
@@ -81,14 +83,79 @@ public class AusleiheMedienauflisterWerkzeug extends BeobachtbaresSubWerkzeug
         List<AusleiheMedienFormatierer> medienFormatierer = new ArrayList<AusleiheMedienFormatierer>();
         for (Medium medium : medienListe)
         {
-            boolean istVerliehen = _verleihService.istVerliehen(medium);
+            medienFormatierer.add(erzeugeFormatierer(medium));
+        }
+        _ui.getMedienAuflisterTableModel().setMedien(medienFormatierer);
+    }
 
-            Kunde ersterVormerker = _verleihService.getErsterVormerker(medium);
+    /**
+     * Aktualisiert nur die Zeilen der Medien, die von den gegebenen Änderungen
+     * betroffen sind. Ist nicht bekannt, welche Medien betroffen sind, oder
+     * betreffen die Änderungen mehr Medien als angezeigt werden, wird die
+     * ganze Liste neu gesetzt.
+     * 
+     * @param aenderungen
+     *            Die Änderungen seit der letzten Benachrichtigung.
+     */
+    private void aktualisiereAnzuzeigendeMedien(List<Aenderung> aenderungen)
+    {
+        AusleiheMedienTableModel model = _ui.getMedienAuflisterTableModel();
+        if (erfordertNeuaufbau(aenderungen, model.getRowCount()))
+        {
+            setzeAnzuzeigendeMedien();
+        }
+        else
+        {
+            for (Aenderung aenderung : aenderungen)
+            {
+                for (Medium medium : aenderung.getMedien())
+                {
+                    // Der Zustand wird beim Service erfragt, damit auch
+                    // zusammengefasste Änderungen richtig angezeigt werden.
+                    if (_medienbestand.enthaeltMedium(medium))
+                    {
+                        model.aktualisiereMedium(erzeugeFormatierer(medium));
+                    }
+                    else
+                    {
+                        model.entferneMedium(medium);
+                    }
+                }
+            }
+        }
+    }
 
-            medienFormatierer.add(new AusleiheMedienFormatierer(medium,
-                    istVerliehen, ersterVormerker));
+    /**
+     * Prüft, ob die gegebenen Änderungen nur durch einen Neuaufbau der Liste
+     * angezeigt werden können.
+     */
+    private boolean erfordertNeuaufbau(List<Aenderung> aenderungen,
+            int anzahlZeilen)
+    {
+        boolean result = aenderungen.size() > anzahlZeilen;
+        for (Aenderung aenderung : aenderungen)
+        {
+            if (aenderung.getArt() == Aenderungsart.MEDIEN_GEAENDERT
+                    || aenderung.getArt() == Aenderungsart.UNBESTIMMT)
+            {
+                result = true;
+            }
         }
-        _ui.getMedienAuflisterTableModel().setMedien(medienFormatierer);
+        return result;
+    }
+
+    /**
+     * Erzeugt einen Formatierer mit den aktuellen Verleihinformationen des
+     * gegebenen Mediums.
+     */
+    private AusleiheMedienFormatierer erzeugeFormatierer(Medium medium)
+    {
+        boolean istVerliehen = _verleihService.istVerliehen(medium);
+
+        Kunde ersterVormerker = _verleihService.getErsterVormerker(medium);
+
+        return new AusleiheMedienFormatierer(medium, istVerliehen,
+                ersterVormerker);
     }
 
     /**
@@ -113,18 +180,18 @@ public class AusleiheMedienauflisterWerkzeug extends BeobachtbaresSubWerkzeug
      */
     private void registriereServiceBeobachter()
     {
-        ServiceBeobachter beobachter = new ServiceBeobachter()
+        AenderungsBeobachter beobachter = new AenderungsBeobachter()
         {
             @Override
-            public void informiereUeberAenderung()
+            public void informiereUeberAenderungen(List<Aenderung> aenderungen)
             {
-                // Wenn ein Service eine Änderung mitteilt, dann wird
-                // die angezeigte Liste aller Medien aktualisiert:
-                setzeAnzuzeigendeMedien();
+                // Wenn ein Service eine Änderung mitteilt, dann werden
+                // die betroffenen Medien in der Liste aktualisiert:
+                aktualisiereAnzuzeigendeMedien(aenderungen);
             }
         };
-        _medienbestand.registriereBeobachter(beobachter);
-        _verleihService.registriereBeobachter(beobachter);
+        _medienbestand.registriereAenderungsBeobachter(beobachter);
+        _verleihService.registriereAenderungsBeobachter(beobachter);
     }
 
     /**
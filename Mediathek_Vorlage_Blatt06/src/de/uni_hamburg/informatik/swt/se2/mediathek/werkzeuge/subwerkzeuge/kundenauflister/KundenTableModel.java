@@ -1,12 +1,9 @@
 package de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.subwerkzeuge.kundenauflister;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
-import javax.swing.table.AbstractTableModel;
-
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.SortiertesTableModel;
 import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.ausleihe.AusleihWerkzeug;
 
 /**
@@ -17,26 +14,20 @@ import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.ausleihe.AusleihWer
  * @author SE2-Team
  * @version SoSe 2012
  */
-public class KundenTableModel extends AbstractTableModel
+public class KundenTableModel extends SortiertesTableModel<Kunde>
 {
     private static final long serialVersionUID = 1L;
 
     private static final String[] COLUMN_NAMES = new String[] { "Kundennummer",
             "Vorname", "Nachname" };
 
-    /**
-     * Eine Liste, die die Kunden zwischenspeichert/cached und die
-     * Sortierreihenfolge repräsentiert.
-     */
-    private List<Kunde> _kundenListe;
-
     /**
      * Initialisiert ein {@link KundenTableModel}.
      * 
      */
     public KundenTableModel()
     {
-        _kundenListe = new ArrayList<Kunde>();
+        super(new KundenComparator());
     }
 
     @Override
@@ -52,17 +43,10 @@ public class KundenTableModel extends AbstractTableModel
     }
 
     @Override
-    public int getRowCount()
+    protected Object getSpaltenwert(Kunde kunde, int spalte)
     {
-        return _kundenListe.size();
-    }
-
-    @Override
-    public Object getValueAt(int row, int column)
-    {
-        Kunde kunde = _kundenListe.get(row);
         String ergebnis = "";
-        switch (column)
+        switch (spalte)
         {
         case 0:
             ergebnis = kunde.getKundennummer().toString();
@@ -90,53 +74,46 @@ public class KundenTableModel extends AbstractTableModel
     public Kunde getKundeFuerZeile(int zeile)
     {
         assert zeileExistiert(zeile) : "Vorbedingung verletzt: zeileExistiert(zeile)";
-        return _kundenListe.get(zeile);
-    }
-
-    /**
-     * Prüft, ob für eine gegebene Tabellen-Zeile ein Kunde in dem TableModel
-     * existiert.
-     * 
-     * @param zeile
-     *            Die Nummer der Tabellenzeile
-     * @return true, wenn die angegebene Zeile existiert, sonst false.
-     */
-    public boolean zeileExistiert(int zeile)
-    {
-        boolean result = false;
-        if ((zeile < _kundenListe.size()) && (zeile >= 0))
-        {
-            result = true;
-        }
-        return result;
+        return getElement(zeile);
     }
 
     /**
      * Setze die anzuzeigenden Kunden. Nach dem Setzen wird die Tabelle
-     * aktualisiert.
+     * aktualisiert. Es wird auf einer Kopie der Liste gearbeitet.
      * 
      * @param kunden
-     *            Eine Liste aller {@link Kunde}n auf der gearbeitet wird.
-     *            Nachträgliche Änderungen der Liste wirken sich auch auf das
-     *            Model aus.
+     *            Eine Liste aller anzuzeigenden {@link Kunde}n.
      * 
      * @require kunden != null
      */
     public void setKunden(List<Kunde> kunden)
     {
         assert kunden != null : "Vorbedingung verletzt: kunden != null";
-        _kundenListe = kunden;
-        sortiereKunden();
+        setElemente(kunden);
+    }
 
-        fireTableDataChanged();
+    /**
+     * Fügt den gegebenen Kunden an der passenden Stelle ein, sofern er noch
+     * nicht angezeigt wird. Die Tabelle wird nur in der betroffenen Zeile
+     * aktualisiert.
+     * 
+     * @require kunde != null
+     */
+    public void fuegeKundenEin(Kunde kunde)
+    {
+        assert kunde != null : "Vorbedingung verletzt: kunde != null";
+        aktualisiereElement(kunde);
     }
 
     /**
-     * Sortiert Kunden nach der im {@link KundenComparator} angegebenen
-     * Sortierreihenfolge.
+     * Entfernt den gegebenen Kunden aus der Tabelle, sofern er angezeigt
+     * wird.
+     * 
+     * @require kunde != null
      */
-    private void sortiereKunden()
+    public void entferneKunden(Kunde kunde)
     {
-        Collections.sort(_kundenListe, new KundenComparator());
+        assert kunde != null : "Vorbedingung verletzt: kunde != null";
+        entferneElement(kunde);
     }
 }
@@ -44,6 +44,22 @@ public class KundenTableModelTest
         assertEquals(_kundeSchmitz, _model.getKundeFuerZeile(1));
     }
 
+    @Test
+    public void testeKundenEinfuegenUndEntfernen() throws Exception
+    {
+        Kunde kundeSchulz = new Kunde(new Kundennummer(111111), "Tom",
+                "Schulz");
+        _model.fuegeKundenEin(kundeSchulz);
+        _model.fuegeKundenEin(kundeSchulz);
+        assertEquals(3, _model.getRowCount());
+        assertEquals(kundeSchulz, _model.getKundeFuerZeile(2));
+
+        _model.entferneKunden(_kundeSchmidt);
+        assertEquals(2, _model.getRowCount());
+        assertEquals(_kundeSchmitz, _model.getKundeFuerZeile(0));
+        assertEquals(kundeSchulz, _model.getKundeFuerZeile(1));
+    }
+
     @Test
     public void testeLeereKundenliste() throws Exception
     {
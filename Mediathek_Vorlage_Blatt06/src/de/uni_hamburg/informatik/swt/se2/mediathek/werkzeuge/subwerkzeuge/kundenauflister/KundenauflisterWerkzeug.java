@@ -7,6 +7,9 @@ import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.AenderungsBeobachter;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderungsart;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.kundenstamm.KundenstammService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.BeobachtbaresSubWerkzeug;
 
@@ -46,6 +49,9 @@ public class KundenauflisterWerkzeug extends BeobachtbaresSubWerkzeug
         // Die Ausleihaktionen werden erzeugt und an der UI registriert.
         registriereUIAktionen();
 
+        // Die Beobachter werden erzeugt und am Service registriert.
+        registriereServiceBeobachter();
+
         // Die anzuzeigenden Materialien werden in den UI-Widgets gesetzt.
         setzeAnzuzeigendeMaterialien();
     }
@@ -68,6 +74,67 @@ public class KundenauflisterWerkzeug extends BeobachtbaresSubWerkzeug
         _ui.getKundenAuflisterTableModel().setKunden(kunden);
     }
 
+    /**
+     * Fügt die hinzugefügten Kunden in die Liste ein und entfernt die
+     * entfernten. Ist nicht bekannt, welche Kunden betroffen sind, wird die
+     * ganze Liste neu gesetzt.
+     * 
+     * @param aenderungen
+     *            Die Änderungen seit der letzten Benachrichtigung.
+     */
+    private void aktualisiereAnzuzeigendeKunden(List<Aenderung> aenderungen)
+    {
+        boolean neuaufbau = false;
+        for (Aenderung aenderung : aenderungen)
+        {
+            if (aenderung.getArt() == Aenderungsart.UNBESTIMMT)
+            {
+                neuaufbau = true;
+            }
+        }
+        if (neuaufbau)
+        {
+            setzeAnzuzeigendeMaterialien();
+        }
+        else
+        {
+            KundenTableModel model = _ui.getKundenAuflisterTableModel();
+            for (Aenderung aenderung : aenderungen)
+            {
+                if (aenderung.getArt() == Aenderungsart.KUNDE_HINZUGEFUEGT
+                        || aenderung.getArt() == Aenderungsart.KUNDE_ENTFERNT)
+                {
+                    // Der Zustand wird beim Service erfragt, damit auch
+                    // zusammengefasste Änderungen richtig angezeigt werden.
+                    Kunde kunde = aenderung.getKunde();
+                    if (_kundenstamm.getKunden(kunde.getKundennummer()) == kunde)
+                    {
+                        model.fuegeKundenEin(kunde);
+                    }
+                    else
+                    {
+                        model.entferneKunden(kunde);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Registriert den Beobachter für den Kundenstamm.
+     */
+    private void registriereServiceBeobachter()
+    {
+        _kundenstamm.registriereAenderungsBeobachter(new AenderungsBeobachter()
+        {
+            @Override
+            public void informiereUeberAenderungen(List<Aenderung> aenderungen)
+            {
+                aktualisiereAnzuzeigendeKunden(aenderungen);
+            }
+        });
+    }
+
     /**
      * Registiert die Aktion, die ausgeführt wird, wenn ein Kunde ausgewählt
      * wird.
@@ -1,12 +1,9 @@
 package de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.subwerkzeuge.vormerkmedienauflister;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
-import javax.swing.table.AbstractTableModel;
-
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
+import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.SortiertesTableModel;
 import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.vormerken.VormerkWerkzeug;
 
 /**
@@ -17,21 +14,20 @@ import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.vormerken.VormerkWe
  * @author SE2-Team
  * @version SoSe 2012
  */
-public class VormerkMedienTableModel extends AbstractTableModel
+public class VormerkMedienTableModel extends
+        SortiertesTableModel<VormerkMedienFormatierer>
 {
     private static final long serialVersionUID = 1L;
 
     private static final String[] COLUMN_NAMES = new String[] { "Medientyp",
             "Titel", "Ausleiher", "Vormerker 1", "Vormerker 2", "Vormerker 3" };
 
-    private List<VormerkMedienFormatierer> _medienListe;
-
     /**
      * Initialisiert ein {@link VormerkMedienTableModel}.
      */
     public VormerkMedienTableModel()
     {
-        _medienListe = new ArrayList<VormerkMedienFormatierer>();
+        super(new VormerkMedienFormatiererComparator());
     }
 
     @Override
@@ -53,17 +49,11 @@ public class VormerkMedienTableModel extends AbstractTableModel
     }
 
     @Override
-    public int getRowCount()
-    {
-        return _medienListe.size();
-    }
-
-    @Override
-    public Object getValueAt(int row, int column)
+    protected Object getSpaltenwert(VormerkMedienFormatierer formatierer,
+            int spalte)
     {
-        VormerkMedienFormatierer formatierer = getMedienFormatierer(row);
         Object ergebnis = null;
-        switch (column)
+        switch (spalte)
         {
         case 0:
             ergebnis = formatierer.getMedienBezeichnung();
@@ -87,6 +77,16 @@ public class VormerkMedienTableModel extends AbstractTableModel
         return ergebnis;
     }
 
+    /**
+     * Formatierer desselben Mediums werden in derselben Zeile angezeigt.
+     */
+    @Override
+    protected boolean istDasselbe(VormerkMedienFormatierer formatierer1,
+            VormerkMedienFormatierer formatierer2)
+    {
+        return formatierer1.getMedium() == formatierer2.getMedium();
+    }
+
     /**
      * Liefert ein {@link Medium}, das in der Zeile mit einer gegebenen Nummer
      * dargestellt wird.
@@ -99,24 +99,7 @@ public class VormerkMedienTableModel extends AbstractTableModel
     public Medium getMediumFuerZeile(int zeile)
     {
         assert zeileExistiert(zeile) : "Vorbedingung verletzt: zeileExistiert(zeile)";
-        return getMedienFormatierer(zeile).getMedium();
-    }
-
-    /**
-     * Prüft, ob für die gegebene Tabellen-Zeile ein Medium in dem TableModel
-     * existiert.
-     * 
-     * @param zeile
-     *            Die Nummer der Tabellenzeile
-     */
-    public boolean zeileExistiert(int zeile)
-    {
-        boolean result = false;
-        if ((zeile < _medienListe.size()) && (zeile >= 0))
-        {
-            result = true;
-        }
-        return result;
+        return getElement(zeile).getMedium();
     }
 
     /**
@@ -128,23 +111,38 @@ public class VormerkMedienTableModel extends AbstractTableModel
     public void setMedien(List<VormerkMedienFormatierer> medien)
     {
         assert medien != null : "Vorbedingung verletzt: medien != null";
-        _medienListe = new ArrayList<VormerkMedienFormatierer>(medien);
-
-        // sortiere Medien-Liste
-        Collections
-                .sort(_medienListe, new VormerkMedienFormatiererComparator());
-
-        fireTableDataChanged();
+        setElemente(medien);
     }
 
     /**
-     * Liefert den Medien-Formatierer für einen angegebenen Index. Die
-     * Gültigkeit des Index wird nicht überprüft.
+     * Zeigt den gegebenen Formatierer an Stelle des bisherigen Formatierers
+     * für sein Medium an, oder fügt ihn an der passenden Stelle ein, wenn das
+     * Medium noch nicht angezeigt wird. Die Tabelle wird nur in den
+     * betroffenen Zeilen aktualisiert.
      * 
+     * @param formatierer
+     *            Der neue Formatierer eines Mediums.
+     * 
+     * @require formatierer != null
      */
-    private VormerkMedienFormatierer getMedienFormatierer(int index)
+    public void aktualisiereMedium(VormerkMedienFormatierer formatierer)
     {
-        return _medienListe.get(index);
+        assert formatierer != null : "Vorbedingung verletzt: formatierer != null";
+        aktualisiereElement(formatierer);
     }
 
+    /**
+     * Entfernt das gegebene Medium aus der Tabelle, sofern es angezeigt wird.
+     * 
+     * @param medium
+     *            Das zu entfernende Medium.
+     * 
+     * @require medium != null
+     */
+    public void entferneMedium(Medium medium)
+    {
+        assert medium != null : "Vorbedingung verletzt: medium != null";
+        entferneElement(new VormerkMedienFormatierer(medium, null, null, null,
+                null));
+    }
 }
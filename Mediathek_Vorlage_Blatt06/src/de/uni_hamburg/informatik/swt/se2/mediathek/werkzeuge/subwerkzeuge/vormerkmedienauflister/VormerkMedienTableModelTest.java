@@ -56,6 +56,24 @@ public class VormerkMedienTableModelTest
         assertEquals(0, leer.getRowCount());
     }
 
+    @Test
+    public void testeMediumAktualisierenUndEntfernen() throws Exception
+    {
+        _model.aktualisiereMedium(new VormerkMedienFormatierer(_cd2, null,
+                _kunde1, null, null));
+        assertEquals(3, _model.getRowCount());
+        assertEquals("", _model.getValueAt(1, 2));
+        assertEquals("Vorname1 Nachname1", _model.getValueAt(1, 3));
+
+        _model.entferneMedium(_cd1);
+        assertEquals(2, _model.getRowCount());
+        assertEquals(_cd2, _model.getMediumFuerZeile(0));
+
+        _model.aktualisiereMedium(new VormerkMedienFormatierer(_cd1, null,
+                null, null, null));
+        assertEquals(_cd1, _model.getMediumFuerZeile(0));
+    }
+
     @Test
     public void testeMedienMitZeilenVerknuepft() throws Exception
     {
@@ -9,7 +9,9 @@ import javax.swing.event.ListSelectionListener;
 
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.Kunde;
 import de.uni_hamburg.informatik.swt.se2.mediathek.materialien.medien.Medium;
-import de.uni_hamburg.informatik.swt.se2.mediathek.services.ServiceBeobachter;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderung;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.AenderungsBeobachter;
+import de.uni_hamburg.informatik.swt.se2.mediathek.services.Aenderungsart;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.medienbestand.MedienbestandService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.services.verleih.VerleihService;
 import de.uni_hamburg.informatik.swt.se2.mediathek.werkzeuge.BeobachtbaresSubWerkzeug;
@@ -81,39 +83,102 @@ public class VormerkMedienauflisterWerkzeug extends BeobachtbaresSubWerkzeug
         List<VormerkMedienFormatierer> medienFormatierer = new ArrayList<VormerkMedienFormatierer>();
         for (Medium medium : medienListe)
         {
+            medienFormatierer.add(erzeugeFormatierer(medium));
+        }
+        _ui.getMedienAuflisterTableModel().setMedien(medienFormatierer);
+    }
 
-            List<Kunde> vormerker = _verleihService.getVormerker(medium);
-            Kunde entleiher = null;
-            Kunde vormerker1 = null;
-            Kunde vormerker2 = null;
-            Kunde vormerker3 = null;
-            
-            if (_verleihService.istVerliehen(medium))
-            {
-                entleiher = _verleihService.getEntleiherFuer(medium);
-            }
-            
-            if (vormerker.size() == 1)
-            {
-                 vormerker1 = vormerker.get(0);
-            }
-            else if (vormerker.size() == 2)
+    /**
+     * Aktualisiert nur die Zeilen der Medien, die von den gegebenen Änderungen
+     * betroffen sind. Ist nicht bekannt, welche Medien betroffen sind, oder
+     * betreffen die Änderungen mehr Medien als angezeigt werden, wird die
+     * ganze Liste neu gesetzt.
+     * 
+     * @param aenderungen
+     *            Die Änderungen seit der letzten Benachrichtigung.
+     */
+    private void aktualisiereAnzuzeigendeMedien(List<Aenderung> aenderungen)
+    {
+        VormerkMedienTableModel model = _ui.getMedienAuflisterTableModel();
+        if (erfordertNeuaufbau(aenderungen, model.getRowCount()))
+        {
+            setzeAnzuzeigendeMedien();
+        }
+        else
+        {
+            for (Aenderung aenderung : aenderungen)
             {
-                vormerker1 = vormerker.get(0);
-                vormerker2 = vormerker.get(1);
+                for (Medium medium : aenderung.getMedien())
+                {
+                    // Der Zustand wird beim Service erfragt, damit auch
+                    // zusammengefasste Änderungen richtig angezeigt werden.
+                    if (_medienbestand.enthaeltMedium(medium))
+                    {
+                        model.aktualisiereMedium(erzeugeFormatierer(medium));
+                    }
+                    else
+                    {
+                        model.entferneMedium(medium);
+                    }
+                }
             }
-            else if (vormerker.size() == 3)
+        }
+    }
+
+    /**
+     * Prüft, ob die gegebenen Änderungen nur durch einen Neuaufbau der Liste
+     * angezeigt werden können.
+     */
+    private boolean erfordertNeuaufbau(List<Aenderung> aenderungen,
+            int anzahlZeilen)
+    {
+        boolean result = aenderungen.size() > anzahlZeilen;
+        for (Aenderung aenderung : aenderungen)
+        {
+            if (aenderung.getArt() == Aenderungsart.MEDIEN_GEAENDERT
+                    || aenderung.getArt() == Aenderungsart.UNBESTIMMT)
             {
-                vormerker1 = vormerker.get(0);
-                vormerker2 = vormerker.get(1);
-                vormerker3 = vormerker.get(2);
+                result = true;
             }
-             
+        }
+        return result;
+    }
 
-            medienFormatierer.add(new VormerkMedienFormatierer(medium,
-                    entleiher, vormerker1, vormerker2, vormerker3));
+    /**
+     * Erzeugt einen Formatierer mit dem aktuellen Entleiher und den
+     * aktuellen Vormerkern des gegebenen Mediums.
+     */
+    private VormerkMedienFormatierer erzeugeFormatierer(Medium medium)
+    {
+        List<Kunde> vormerker = _verleihService.getVormerker(medium);
+        Kunde entleiher = null;
+        Kunde vormerker1 = null;
+        Kunde vormerker2 = null;
+        Kunde vormerker3 = null;
+        
+        if (_verleihService.istVerliehen(medium))
+        {
+            entleiher = _verleihService.getEntleiherFuer(medium);
         }
-        _ui.getMedienAuflisterTableModel().setMedien(medienFormatierer);
+        
+        if (vormerker.size() == 1)
+        {
+             vormerker1 = vormerker.get(0);
+        }
+        else if (vormerker.size() == 2)
+        {
+            vormerker1 = vormerker.get(0);
+            vormerker2 = vormerker.get(1);
+        }
+        else if (vormerker.size() == 3)
+        {
+            vormerker1 = vormerker.get(0);
+            vormerker2 = vormerker.get(1);
+            vormerker3 = vormerker.get(2);
+        }
+
+        return new VormerkMedienFormatierer(medium, entleiher,
+                vormerker1, vormerker2, vormerker3);
     }
 
     /**
@@ -138,18 +203,18 @@ public class VormerkMedienauflisterWerkzeug extends BeobachtbaresSubWerkzeug
      */
     private void registriereServiceBeobachter()
     {
-        ServiceBeobachter beobachter = new ServiceBeobachter()
+        AenderungsBeobachter beobachter = new AenderungsBeobachter()
         {
             @Override
-            public void informiereUeberAenderung()
+            public void informiereUeberAenderungen(List<Aenderung> aenderungen)
             {
-                // Wenn ein Service eine Änderung mitteilt, dann wird
-                // die angezeigte Liste aller Medien aktualisiert:
-                setzeAnzuzeigendeMedien();
+                // Wenn ein Service eine Änderung mitteilt, dann werden
+                // die betroffenen Medien in der Liste aktualisiert:
+                aktualisiereAnzuzeigendeMedien(aenderungen);
             }
         };
-        _medienbestand.registriereBeobachter(beobachter);
-        _verleihService.registriereBeobachter(beobachter);
+        _medienbestand.registriereAenderungsBeobachter(beobachter);
+        _verleihService.registriereAenderungsBeobachter(beobachter);
     }
 
     /**
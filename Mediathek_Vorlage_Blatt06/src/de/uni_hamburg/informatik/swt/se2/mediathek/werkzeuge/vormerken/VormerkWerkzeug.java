@@ -245,12 +245,18 @@ public class VormerkWerkzeug
         List<Medium> selectedMedien = _medienAuflisterWerkzeug
                 .getSelectedMedien();
         Kunde selectedKunde = _kundenAuflisterWerkzeug.getSelectedKunde();
-        
+        boolean alleVorgemerkt = true;
         for (Medium medium : selectedMedien)
-        {  
-                _verleihService.setVormerker(selectedKunde, medium);
+        {
+            alleVorgemerkt &= _verleihService.vormerkenWennMoeglich(
+                    selectedKunde, medium);
+        }
+        if (!alleVorgemerkt)
+        {
+            JOptionPane.showMessageDialog(null,
+                    "Die Medien sind inzwischen nicht mehr alle vormerkbar.",
+                    "Hinweis", JOptionPane.INFORMATION_MESSAGE);
         }
-
     }
 
     /**